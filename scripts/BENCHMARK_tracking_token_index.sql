@@ -0,0 +1,79 @@
+-- =====================================================
+-- BENCHMARK: tracking token index size + lookup latency
+-- VARCHAR(255) UUID string (before V32) vs BINARY(16) (after V32)
+-- Database: robgro_test_invoices (NEVER run on production)
+-- Requires MariaDB 10.x (uses Sequence engine seq_1_to_N)
+-- =====================================================
+
+SET @lookups = 100000;    -- random lookups per layout
+
+-- 1. Scratch tables with the same key layout as email_tracking before/after V32
+DROP TABLE IF EXISTS bench_token_varchar;
+DROP TABLE IF EXISTS bench_token_binary;
+DROP TABLE IF EXISTS bench_token_sample;
+
+CREATE TABLE bench_token_varchar (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tracking_token VARCHAR(255) NOT NULL,
+    UNIQUE KEY unique_token (tracking_token)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE bench_token_binary (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tracking_token BINARY(16) NOT NULL,
+    UNIQUE KEY unique_token (tracking_token)
+) ENGINE=InnoDB;
+
+-- 2. Seed 3M random (v4-like) UUID strings - same distribution as UUID.randomUUID()
+-- NOTE: MariaDB UUID() is time-based (v1) and would look artificially sequential
+INSERT INTO bench_token_varchar (tracking_token)
+SELECT LOWER(CONCAT(SUBSTR(h, 1, 8), '-', SUBSTR(h, 9, 4), '-', SUBSTR(h, 13, 4), '-',
+                    SUBSTR(h, 17, 4), '-', SUBSTR(h, 21, 12)))
+FROM (SELECT MD5(CONCAT(seq, '-', RAND())) AS h FROM seq_1_to_3000000) seeded;
+
+INSERT INTO bench_token_binary (tracking_token)
+SELECT UNHEX(REPLACE(tracking_token, '-', '')) FROM bench_token_varchar ORDER BY id;
+
+-- Random sample of existing tokens to look up
+CREATE TABLE bench_token_sample ENGINE=InnoDB AS
+SELECT tracking_token FROM bench_token_varchar ORDER BY RAND() LIMIT 100000;
+
+ANALYZE TABLE bench_token_varchar, bench_token_binary;
+
+-- 3. Index size (pages * 16KB) per index
+SELECT '3. Index size:' AS step;
+SELECT table_name,
+       index_name,
+       stat_value AS pages,
+       ROUND(stat_value * @@innodb_page_size / 1024 / 1024, 1) AS size_mb
+FROM mysql.innodb_index_stats
+WHERE database_name = DATABASE()
+  AND table_name IN ('bench_token_varchar', 'bench_token_binary')
+  AND stat_name = 'size'
+ORDER BY table_name, index_name;
+
+-- 4. Lookup latency: @lookups point lookups through the unique index (cold-ish, then warm)
+SELECT '4. Lookup latency:' AS step;
+
+SET @t = NOW(6);
+SELECT COUNT(*) INTO @found
+FROM bench_token_sample s
+JOIN bench_token_varchar t ON t.tracking_token = s.tracking_token;
+SELECT 'VARCHAR(255)' AS layout, @found AS found,
+       TIMESTAMPDIFF(MICROSECOND, @t, NOW(6)) / @lookups AS avg_us_per_lookup;
+
+SET @t = NOW(6);
+SELECT COUNT(*) INTO @found
+FROM bench_token_sample s
+JOIN bench_token_binary t ON t.tracking_token = UNHEX(REPLACE(s.tracking_token, '-', ''));
+SELECT 'BINARY(16)' AS layout, @found AS found,
+       TIMESTAMPDIFF(MICROSECOND, @t, NOW(6)) / @lookups AS avg_us_per_lookup;
+
+-- 5. Plan check - both must be a const/eq_ref lookup on unique_token
+EXPLAIN SELECT id FROM bench_token_binary
+WHERE tracking_token = UNHEX(REPLACE('3f2504e0-4f89-11d3-9a0c-0305e82c3301', '-', ''));
+
+-- 6. Cleanup
+DROP TABLE IF EXISTS bench_token_sample;
+DROP TABLE IF EXISTS bench_token_binary;
+DROP TABLE IF EXISTS bench_token_varchar;
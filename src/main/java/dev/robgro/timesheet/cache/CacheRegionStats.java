@@ -0,0 +1,14 @@
+package dev.robgro.timesheet.cache;
+
+/**
+ * Hit/miss counters of one second-level cache region since startup.
+ *
+ * @param region Region name (see {@link ReferenceCacheRegions})
+ * @param hits Lookups answered from the cache
+ * @param misses Lookups that went to the database
+ * @param puts Entries stored (loads after a miss, inserts, updates)
+ * @param cachedEntries Entries held right now (-1 if the provider does not report it)
+ * @param hitRatio hits / (hits + misses), 0 before the first lookup
+ */
+public record CacheRegionStats(String region, long hits, long misses, long puts, long cachedEntries, double hitRatio) {
+}
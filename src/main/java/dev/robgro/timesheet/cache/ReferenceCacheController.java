@@ -0,0 +1,30 @@
+package dev.robgro.timesheet.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Internal endpoint for second-level cache monitoring.
+ *
+ * <p><b>ADMIN ONLY.</b> Used to verify that reference entity reads (clients, sellers,
+ * departments, roles, numbering schemes) are served from the cache instead of the database.
+ */
+@RestController
+@RequestMapping("/internal/reference-cache")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class ReferenceCacheController {
+
+    private final ReferenceCacheStatisticsService statisticsService;
+
+    /**
+     * Hit/miss/put counters per region since startup.
+     */
+    @GetMapping("/statistics")
+    public ReferenceCacheStatistics getStatistics() {
+        return statisticsService.getStatistics();
+    }
+}
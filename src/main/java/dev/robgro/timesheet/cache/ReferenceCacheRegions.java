@@ -0,0 +1,30 @@
+package dev.robgro.timesheet.cache;
+
+import java.util.List;
+
+/**
+ * Second-level cache regions of reference entities (configured in ehcache.xml).
+ *
+ * <p>Reference entities are read on every invoice mapping, dropdown, PDF render and
+ * scheduler iteration but change rarely. Entity regions use READ_WRITE: Hibernate
+ * updates or evicts the entry when the entity is written through JPA, and bulk/native
+ * statements on a table invalidate the cached lookups of that table.
+ */
+public final class ReferenceCacheRegions {
+
+    public static final String CLIENT = "reference.client";
+    public static final String SELLER = "reference.seller";
+    public static final String DEPARTMENT = "reference.department";
+    public static final String ROLE = "reference.role";
+    public static final String NUMBERING_SCHEME = "reference.numbering-scheme";
+
+    /**
+     * Query cache region of the lookup queries (e.g. system default seller).
+     */
+    public static final String LOOKUPS = "reference.lookups";
+
+    static final List<String> ENTITY_REGIONS = List.of(CLIENT, SELLER, DEPARTMENT, ROLE, NUMBERING_SCHEME);
+
+    private ReferenceCacheRegions() {
+    }
+}
@@ -0,0 +1,12 @@
+package dev.robgro.timesheet.cache;
+
+import java.util.List;
+
+/**
+ * Second-level cache statistics of the reference entity regions.
+ *
+ * @param statisticsEnabled false when hibernate.generate_statistics is off (all counters stay 0)
+ * @param regions Entity regions, then the lookup query region
+ */
+public record ReferenceCacheStatistics(boolean statisticsEnabled, List<CacheRegionStats> regions) {
+}
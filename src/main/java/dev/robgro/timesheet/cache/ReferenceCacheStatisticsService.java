@@ -0,0 +1,49 @@
+package dev.robgro.timesheet.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-region hit/miss counters of the reference entity cache, read from Hibernate statistics.
+ *
+ * <p>A region whose misses keep growing while hits stay flat is still going to the database
+ * (entity written on every request, TTL too short, or reads that bypass the cache).
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceCacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ReferenceCacheStatistics getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<CacheRegionStats> regions = new ArrayList<>(ReferenceCacheRegions.ENTITY_REGIONS.size() + 1);
+        for (String region : ReferenceCacheRegions.ENTITY_REGIONS) {
+            regions.add(toStats(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        regions.add(toStats(ReferenceCacheRegions.LOOKUPS,
+                statistics.getQueryRegionStatistics(ReferenceCacheRegions.LOOKUPS)));
+
+        return new ReferenceCacheStatistics(statistics.isStatisticsEnabled(), regions);
+    }
+
+    private CacheRegionStats toStats(String region, CacheRegionStatistics regionStatistics) {
+        // null: caching disabled, or the region has not been used yet
+        if (regionStatistics == null) {
+            return new CacheRegionStats(region, 0, 0, 0, 0, 0.0);
+        }
+        long hits = regionStatistics.getHitCount();
+        long misses = regionStatistics.getMissCount();
+        long lookups = hits + misses;
+        return new CacheRegionStats(region, hits, misses, regionStatistics.getPutCount(),
+                regionStatistics.getElementCountInMemory(), lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+}
@@ -1,16 +1,25 @@
 package dev.robgro.timesheet.client;
 
+import dev.robgro.timesheet.cache.ReferenceCacheRegions;
+import dev.robgro.timesheet.etag.ResourceChangeListener;
 import dev.robgro.timesheet.invoice.Invoice;
+import dev.robgro.timesheet.search.SearchIndexListener;
 import dev.robgro.timesheet.timesheet.Timesheet;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 
 @Entity
+@EntityListeners({ResourceChangeListener.class, SearchIndexListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceCacheRegions.CLIENT)
 @Getter
 @Setter
 @RequiredArgsConstructor
@@ -51,6 +60,26 @@ public class Client {
     @Column(name = "active", nullable = false)
     private boolean active;
 
+    /**
+     * Row version (V39): +1 per write, source of the client's ETag
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     @Override
     public String toString() {
         return "Client{" +
@@ -1,5 +1,7 @@
 package dev.robgro.timesheet.client;
 
+import dev.robgro.timesheet.etag.ConditionalResponses;
+import dev.robgro.timesheet.etag.TrackedResource;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -9,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -20,22 +23,29 @@ import java.util.List;
 public class ClientController {
 
     private final ClientService clientService;
+    private final ConditionalResponses conditionalResponses;
 
     @Operation(summary = "Get all clients")
-    @ApiResponse(responseCode = "200", description = "List of clients retrieved successfully")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of clients retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match / If-Modified-Since)")
+    })
     @GetMapping
-    public ResponseEntity<List<ClientDto>> getAllClients() {
-        return ResponseEntity.ok(clientService.getAllClients());
+    public ResponseEntity<List<ClientDto>> getAllClients(ServletWebRequest request) {
+        return conditionalResponses.collection(request,
+                conditionalResponses.collectionStamp(TrackedResource.CLIENTS), clientService::getAllClients);
     }
 
     @Operation(summary = "Get client by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Client found"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match / If-Modified-Since)"),
             @ApiResponse(responseCode = "404", description = "Client not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ClientDto> getClientById(@PathVariable Long id) {
-        return ResponseEntity.ok(clientService.getClientById(id));
+    public ResponseEntity<ClientDto> getClientById(@PathVariable Long id, ServletWebRequest request) {
+        return conditionalResponses.resource(request, clientService.findVersionStamp(id),
+                () -> clientService.getClientById(id));
     }
 
     @Operation(summary = "Create new client",
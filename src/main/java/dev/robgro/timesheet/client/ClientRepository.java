@@ -1,10 +1,21 @@
 package dev.robgro.timesheet.client;
 
+import dev.robgro.timesheet.cache.ReferenceCacheRegions;
+import dev.robgro.timesheet.etag.VersionStamp;
+import dev.robgro.timesheet.search.IndexedClient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
+
+import java.time.LocalDateTime;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
     List<Client> findByActiveTrue();
@@ -14,9 +25,39 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
             "(:name IS NULL OR LOWER(c.clientName) LIKE LOWER(CONCAT('%', :name, '%')))")
     List<Client> findActiveClientsByName(@Param("name") String name);
 
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.LOOKUPS)
+    })
     @Query("SELECT c FROM Client c WHERE c.active = true ORDER BY c.clientName ASC")
     List<Client> findAllActiveOrderByName();
 
     @Query("SELECT c FROM Client c ORDER BY c.active DESC, c.clientName ASC")
     List<Client> findAllOrderByActiveAndName();
+
+    /**
+     * Validators of one client for conditional GET, read without loading the entity.
+     */
+    @Query("SELECT new dev.robgro.timesheet.etag.VersionStamp(c.version, c.updatedAt) FROM Client c WHERE c.id = :id")
+    Optional<VersionStamp> findVersionStamp(@Param("id") Long id);
+
+    /**
+     * Clients changed after a change feed position, in feed order (updated_at, id),
+     * served by idx_clients_updated_at (V40). Read-only: never dirty-checked.
+     */
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT c FROM Client c WHERE c.updatedAt >= :at AND (c.updatedAt > :at OR c.id > :id) " +
+            "AND c.updatedAt <= :until ORDER BY c.updatedAt, c.id")
+    List<Client> findChangedAfter(@Param("at") LocalDateTime at,
+                                  @Param("id") long id,
+                                  @Param("until") LocalDateTime until,
+                                  Pageable pageable);
+
+    /**
+     * All clients in the form the search index holds them, read without loading entities.
+     */
+    @RestResource(exported = false)
+    @Query("SELECT new dev.robgro.timesheet.search.IndexedClient(c.id, c.clientName, c.email, c.active, c.version) FROM Client c")
+    List<IndexedClient> findAllIndexed();
 }
@@ -1,12 +1,22 @@
 package dev.robgro.timesheet.client;
 
+import dev.robgro.timesheet.etag.VersionStamp;
+
 import java.util.List;
+import java.util.Optional;
 
 public interface ClientService {
     List<ClientDto> getAllClients();
 
     ClientDto getClientById(Long id);
 
+    /**
+     * Validators of one client for conditional GET (no entity loading).
+     *
+     * @return Empty if the client does not exist
+     */
+    Optional<VersionStamp> findVersionStamp(Long id);
+
     List<ClientDto> searchClientsByName(String name);
 
     ClientDto createClient(ClientDto clientDto);
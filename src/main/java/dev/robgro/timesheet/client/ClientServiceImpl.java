@@ -1,5 +1,6 @@
 package dev.robgro.timesheet.client;
 
+import dev.robgro.timesheet.etag.VersionStamp;
 import dev.robgro.timesheet.exception.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,6 +8,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,6 +44,12 @@ public class ClientServiceImpl implements ClientService {
         return clientDtoMapper.apply(getClientOrThrow(id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> findVersionStamp(Long id) {
+        return clientRepository.findVersionStamp(id);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ClientDto> searchClientsByName(String name) {
@@ -0,0 +1,9 @@
+package dev.robgro.timesheet.datasource;
+
+/**
+ * Target pool of {@link ReadWriteRoutingDataSource}.
+ */
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
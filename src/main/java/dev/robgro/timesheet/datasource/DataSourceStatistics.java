@@ -0,0 +1,28 @@
+package dev.robgro.timesheet.datasource;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Read/write routing counters and pool usage.
+ *
+ * @param replicaRoutingEnabled false = single primary pool (routing fields are null/0)
+ * @param replicaUsable Last lag check found the replica within max-lag-seconds
+ * @param replicaLagSeconds Lag measured by the last check, null if replication is stopped or unreachable
+ * @param lagCheckedAt Time of the last lag check
+ * @param primaryConnections Connections routed to the primary for read-write work
+ * @param replicaConnections Connections of read-only transactions served by the replica
+ * @param fallbackConnections Connections of read-only transactions sent to the primary (replica lagging or down)
+ * @param pools Every Hikari pool of the application
+ */
+public record DataSourceStatistics(
+        boolean replicaRoutingEnabled,
+        Boolean replicaUsable,
+        Long replicaLagSeconds,
+        Instant lagCheckedAt,
+        long primaryConnections,
+        long replicaConnections,
+        long fallbackConnections,
+        List<PoolStats> pools
+) {
+}
@@ -0,0 +1,27 @@
+package dev.robgro.timesheet.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Internal endpoint for connection pool monitoring.
+ *
+ * <p><b>ADMIN ONLY.</b> Shows per-pool usage and, with a read replica configured, how many
+ * read-only transactions the replica served and how many fell back to the primary.
+ */
+@RestController
+@RequestMapping("/internal/datasource")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class DataSourceStatisticsController {
+
+    private final DataSourceStatisticsService statisticsService;
+
+    @GetMapping("/statistics")
+    public DataSourceStatistics getStatistics() {
+        return statisticsService.getStatistics();
+    }
+}
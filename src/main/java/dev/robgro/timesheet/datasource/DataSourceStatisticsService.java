@@ -0,0 +1,43 @@
+package dev.robgro.timesheet.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Pool usage and read/write routing counters, with or without a replica.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataSourceStatisticsService {
+
+    private final ObjectProvider<HikariDataSource> pools;
+    private final ObjectProvider<ReadWriteRoutingDataSource> routing;
+
+    public DataSourceStatistics getStatistics() {
+        List<PoolStats> poolStats = pools.orderedStream().map(this::toStats).toList();
+
+        ReadWriteRoutingDataSource router = routing.getIfAvailable();
+        if (router == null) {
+            return new DataSourceStatistics(false, null, null, null, 0, 0, 0, poolStats);
+        }
+        ReplicaLagMonitor monitor = router.getLagMonitor();
+        return new DataSourceStatistics(true, monitor.isReplicaUsable(), monitor.getLastLagSeconds(),
+                monitor.getLastCheckedAt(), router.getPrimaryConnections(), router.getReplicaConnections(),
+                router.getFallbackConnections(), poolStats);
+    }
+
+    private PoolStats toStats(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        // null until the pool has handed out its first connection
+        if (pool == null) {
+            return new PoolStats(dataSource.getPoolName(), 0, 0, 0, 0, dataSource.getMaximumPoolSize());
+        }
+        return new PoolStats(dataSource.getPoolName(), pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection(), dataSource.getMaximumPoolSize());
+    }
+}
@@ -0,0 +1,14 @@
+package dev.robgro.timesheet.datasource;
+
+/**
+ * Connection counts of one Hikari pool at the time of the request.
+ *
+ * @param pool Pool name (spring.datasource.hikari.pool-name / app.datasource.replica.pool-name)
+ * @param active Connections in use
+ * @param idle Connections ready in the pool
+ * @param total active + idle
+ * @param threadsAwaitingConnection Threads blocked waiting for a connection (pool too small if it stays above 0)
+ * @param maximumPoolSize Configured pool size
+ */
+public record PoolStats(String pool, int active, int idle, int total, int threadsAwaitingConnection, int maximumPoolSize) {
+}
@@ -0,0 +1,128 @@
+package dev.robgro.timesheet.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read/write split: read-only transactions on a replica pool, everything else on the primary.
+ *
+ * <p>Only active with {@code app.datasource.replica.enabled=true}; otherwise Spring Boot
+ * creates the usual single pool from {@code spring.datasource.*}. The primary pool is still
+ * configured by {@code spring.datasource.*} / {@code spring.datasource.hikari.*}, the replica
+ * by {@code app.datasource.replica.*}.
+ *
+ * <p>The application-wide {@code dataSource} (JPA, Flyway, JdbcTemplate) is the routing data
+ * source behind a {@link LazyConnectionDataSourceProxy}. Work outside a transaction (Flyway,
+ * schema tools) always runs on the primary. Read-only transactions do not populate the
+ * second-level and query caches ({@link ReplicaAwareTransactionManager}).
+ *
+ * <p>The route is chosen when a physical connection is acquired, so Hibernate must give its
+ * connection back after every transaction. With Spring's default (hold until the EntityManager
+ * closes) and open-session-in-view, a request starting with a read-only transaction would run
+ * its later writes on the replica connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties primaryProperties, ReplicaDataSourceProperties properties) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(properties.getUrl());
+        replica.setUsername(properties.getUsername());
+        replica.setPassword(properties.getPassword());
+        replica.setDriverClassName(primaryProperties.determineDriverClassName());
+        replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+        replica.setMinimumIdle(properties.getMinimumIdle());
+        replica.setConnectionTimeout(properties.getConnectionTimeoutMs());
+        replica.setPoolName(properties.getPoolName());
+        replica.setReadOnly(true);
+        // Start even if the replica is down: the lag monitor keeps reads on the primary until it is back
+        replica.setInitializationFailTimeout(-1);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               ReplicaDataSourceProperties properties) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, properties);
+        // First check before any request: routing starts on the primary until the replica proves fresh
+        monitor.check();
+        return monitor;
+    }
+
+    /**
+     * Single thread measuring replica lag every lag-check-interval-ms
+     */
+    @Bean(name = "replicaLagScheduler")
+    public ThreadPoolTaskScheduler replicaLagScheduler(ReplicaLagMonitor monitor, ReplicaDataSourceProperties properties) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("replica-lag-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(monitor::check, Duration.ofMillis(properties.getLagCheckIntervalMs()));
+
+        log.info("Initialized read replica routing: replica pool={}, max={}, maxLag={}s, lag check every {}ms",
+                properties.getPoolName(),
+                properties.getMaximumPoolSize(),
+                properties.getMaxLagSeconds(),
+                properties.getLagCheckIntervalMs());
+
+        return scheduler;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                                 @Qualifier("replicaDataSource") DataSource replica,
+                                                                 ReplicaLagMonitor monitor) {
+        return new ReadWriteRoutingDataSource(primary, replica, monitor);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer connectionReleaseAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Takes the place of Spring Boot's JPA transaction manager, with the same customizers
+     */
+    @Bean
+    public JpaTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new ReplicaAwareTransactionManager();
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
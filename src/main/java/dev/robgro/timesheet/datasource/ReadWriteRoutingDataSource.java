@@ -0,0 +1,96 @@
+package dev.robgro.timesheet.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections of read-only transactions to the replica pool, everything else to the primary.
+ *
+ * <p>The routing key is the current transaction's read-only flag, which Spring sets only after
+ * the transaction has begun - so this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the
+ * physical connection at the first statement. Read-only work falls back to the primary while
+ * {@link ReplicaLagMonitor} reports the replica as lagging or down, and when the replica
+ * refuses a connection.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder fallbackConnections = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return DataSourceRoute.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            fallbackConnections.increment();
+            return DataSourceRoute.PRIMARY;
+        }
+        replicaConnections.increment();
+        return DataSourceRoute.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target == primary) {
+                throw e;
+            }
+            // Replica down between two lag checks: keep serving reads from the primary
+            log.warn("Read replica connection failed, falling back to the primary: {}", e.getMessage());
+            lagMonitor.markUnusable();
+            replicaConnections.decrement();
+            fallbackConnections.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Connections handed out for read-write work (and work outside transactions).
+     */
+    public long getPrimaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    /**
+     * Connections of read-only transactions served by the replica.
+     */
+    public long getReplicaConnections() {
+        return replicaConnections.sum();
+    }
+
+    /**
+     * Connections of read-only transactions sent to the primary because the replica was lagging or down.
+     */
+    public long getFallbackConnections() {
+        return fallbackConnections.sum();
+    }
+
+    public ReplicaLagMonitor getLagMonitor() {
+        return lagMonitor;
+    }
+}
@@ -0,0 +1,76 @@
+package dev.robgro.timesheet.datasource;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JPA transaction manager keeping replica reads out of the Hibernate second-level and query caches.
+ *
+ * <p>The replica may be up to max-lag-seconds behind. Once cached, a row it served would be
+ * returned to every later transaction, primary ones included, until the next write or the
+ * region TTL. So read-only transactions - the ones {@link ReadWriteRoutingDataSource} may send
+ * to the replica - never write the caches. They still read cached entities by id; their queries
+ * skip the query cache. The caches are filled by read-write transactions, work outside
+ * transactions and entity writes.
+ *
+ * <p>Set when the transaction begins: the route is only known at the first statement, after
+ * Hibernate has resolved the cache mode of that statement. Put back when it completes: under
+ * open-session-in-view the same EntityManager serves the later read-write transactions of the request.
+ */
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    /**
+     * Cache modes of the EntityManager before each read-only transaction, by transaction object
+     */
+    private final Map<Object, CacheModes> previousModes = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManager entityManager = boundEntityManager();
+        if (definition.isReadOnly() && entityManager != null) {
+            Session session = entityManager.unwrap(Session.class);
+            previousModes.put(transaction, new CacheModes(
+                    entityManager.getProperties().get(SpecHints.HINT_SPEC_CACHE_STORE_MODE), session.getCacheMode()));
+            // find() takes its cache mode from this property on every call: read, never store
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+            // Queries use the session cache mode; GET still stores query results (Hibernate 6.3)
+            session.setCacheMode(CacheMode.IGNORE);
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        CacheModes previous = previousModes.remove(transaction);
+        EntityManager entityManager = boundEntityManager();
+        if (previous != null && entityManager != null && entityManager.isOpen()) {
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE,
+                    previous.storeMode() != null ? previous.storeMode() : CacheStoreMode.USE);
+            entityManager.unwrap(Session.class).setCacheMode(previous.cacheMode());
+        }
+        super.doCleanupAfterCompletion(transaction);
+    }
+
+    private EntityManager boundEntityManager() {
+        return TransactionSynchronizationManager.getResource(obtainEntityManagerFactory()) instanceof EntityManagerHolder holder
+                ? holder.getEntityManager()
+                : null;
+    }
+
+    /**
+     * @param storeMode EntityManager cache store mode property (null = never set)
+     * @param cacheMode Session cache mode
+     */
+    private record CacheModes(Object storeMode, CacheMode cacheMode) {
+    }
+}
@@ -0,0 +1,58 @@
+package dev.robgro.timesheet.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.replica")
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Route read-only transactions to the replica (false = single primary pool, as before)
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC URL of the read replica
+     */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /**
+     * Replica pool size - separate from spring.datasource.hikari.maximum-pool-size of the primary
+     */
+    private int maximumPoolSize = 5;
+
+    private int minimumIdle = 1;
+
+    /**
+     * Short connection timeout in milliseconds: an unreachable replica falls back to the primary
+     * instead of holding the request for the primary's 20s
+     */
+    private long connectionTimeoutMs = 3000;
+
+    private String poolName = "TimesheetReplicaPool";
+
+    /**
+     * Reads stay on the primary while the replica is further behind than this
+     */
+    private long maxLagSeconds = 10;
+
+    /**
+     * How often the replica lag is measured, in milliseconds
+     */
+    private long lagCheckIntervalMs = 5000;
+
+    /**
+     * Run on the replica to measure lag; must return a Seconds_Behind_Master column
+     * (no row or NULL = replication stopped, reads stay on the primary)
+     */
+    private String lagQuery = "SHOW REPLICA STATUS";
+}
@@ -0,0 +1,95 @@
+package dev.robgro.timesheet.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+
+/**
+ * Measures how far the read replica is behind the primary.
+ *
+ * <p>{@link #check()} runs the configured lag query on the replica (scheduled every
+ * {@code lag-check-interval-ms}); routing only reads the last result, so a slow or
+ * unreachable replica never delays a request. The replica counts as usable only after
+ * a successful check with lag within {@code max-lag-seconds}.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final String LAG_COLUMN = "Seconds_Behind_Master";
+
+    private final DataSource replica;
+    private final ReplicaDataSourceProperties properties;
+
+    private volatile boolean replicaUsable;
+    private volatile Long lastLagSeconds;
+    private volatile Instant lastCheckedAt;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaDataSourceProperties properties) {
+        this.replica = replica;
+        this.properties = properties;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * Reads keep going to the primary until the next successful check.
+     * Called when the replica refuses a connection.
+     */
+    public void markUnusable() {
+        replicaUsable = false;
+    }
+
+    /**
+     * @return Lag measured by the last check, null if replication is stopped or the replica is unreachable
+     */
+    public Long getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+
+    public Instant getLastCheckedAt() {
+        return lastCheckedAt;
+    }
+
+    /**
+     * Measure the lag now and update {@link #isReplicaUsable()}.
+     */
+    public void check() {
+        Long lag = measureLag();
+        boolean usable = lag != null && lag <= properties.getMaxLagSeconds();
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Read replica usable again (lag {}s) - read-only transactions go to the replica", lag);
+            } else {
+                log.warn("Read replica not usable (lag {}s, max {}s) - read-only transactions fall back to the primary",
+                        lag, properties.getMaxLagSeconds());
+            }
+        }
+        lastLagSeconds = lag;
+        lastCheckedAt = Instant.now();
+        replicaUsable = usable;
+    }
+
+    private Long measureLag() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(Math.max(1, (int) (properties.getLagCheckIntervalMs() / 1000)));
+            try (ResultSet status = statement.executeQuery(properties.getLagQuery())) {
+                if (!status.next()) {
+                    return null;
+                }
+                long lag = status.getLong(LAG_COLUMN);
+                return status.wasNull() ? null : lag;
+            }
+        } catch (SQLException e) {
+            log.debug("Replica lag check failed: {}", e.getMessage());
+            return null;
+        }
+    }
+}
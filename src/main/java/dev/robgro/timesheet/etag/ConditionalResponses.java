@@ -0,0 +1,102 @@
+package dev.robgro.timesheet.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Conditional GET for API resources: ETag and Last-Modified on every response, and
+ * 304 Not Modified when the client's copy is current.
+ *
+ * <p>The validators are read first, from version columns or change counters only; the body is
+ * built only when the client's copy is stale. A write committed between the two reads gives a
+ * newer body under the older ETag, which just costs the client one more download.
+ *
+ * <p>Responses are {@code Cache-Control: private, no-cache}: clients may keep them but must
+ * revalidate each time, which is what the 304 makes cheap.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalResponses {
+
+    private static final String REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final ResourceChangeCounterRepository counterRepository;
+
+    /**
+     * Conditional GET of one resource.
+     *
+     * @param stamp Validators of the resource (empty = not found; the body supplier reports it)
+     * @param body Builds the representation, called only when it must be sent
+     * @return 200 with the body, or null once the 304 has been written
+     */
+    public <T> ResponseEntity<T> resource(ServletWebRequest request, Optional<VersionStamp> stamp, Supplier<T> body) {
+        if (stamp.isPresent() && isNotModified(request, stamp.get())) {
+            return null;
+        }
+        return ResponseEntity.ok(body.get());
+    }
+
+    /**
+     * Conditional GET of a list.
+     *
+     * @param stamp Validators of the list, see {@link #collectionStamp}
+     * @param body Builds the representation, called only when it must be sent
+     * @return 200 with the body, or null once the 304 has been written
+     */
+    public <T> ResponseEntity<T> collection(ServletWebRequest request, VersionStamp stamp, Supplier<T> body) {
+        if (isNotModified(request, stamp)) {
+            return null;
+        }
+        return ResponseEntity.ok(body.get());
+    }
+
+    /**
+     * Stamp of a list: the change counters of its tables (missing counter = 0).
+     *
+     * @param resources Every table the list's representation reads
+     */
+    public VersionStamp collectionStamp(TrackedResource... resources) {
+        Map<String, ResourceChangeCounter> counters = counterRepository
+                .findAllById(Arrays.stream(resources).map(TrackedResource::key).toList()).stream()
+                .collect(toMap(ResourceChangeCounter::getResource, Function.identity()));
+
+        String etag = Arrays.stream(resources)
+                .map(resource -> resource.key() + "-" + Optional.ofNullable(counters.get(resource.key()))
+                        .map(ResourceChangeCounter::getChangeCount)
+                        .orElse(0L))
+                .collect(Collectors.joining("."));
+        LocalDateTime lastModified = VersionStamp.latest(counters.values().stream()
+                .map(ResourceChangeCounter::getChangedAt)
+                .toArray(LocalDateTime[]::new));
+        return new VersionStamp(etag, lastModified);
+    }
+
+    /**
+     * Sets the validators and Cache-Control on the response; when the request's
+     * If-None-Match / If-Modified-Since match, also turns it into a 304.
+     */
+    private boolean isNotModified(ServletWebRequest request, VersionStamp stamp) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+        }
+        long lastModified = stamp.lastModified() != null
+                ? stamp.lastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        return request.checkNotModified("\"" + stamp.etag() + "\"", lastModified);
+    }
+}
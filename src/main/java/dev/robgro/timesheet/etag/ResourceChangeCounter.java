@@ -0,0 +1,40 @@
+package dev.robgro.timesheet.etag;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change counter of one table (resource_change_counters, created by V39).
+ *
+ * <p>Incremented once per committing transaction that wrote the table, by
+ * {@link ResourceChangeTracker}. Only ever compared for equality - the value has no meaning
+ * beyond "the table changed since".
+ */
+@Entity
+@Table(name = "resource_change_counters")
+@Getter
+@NoArgsConstructor
+public class ResourceChangeCounter {
+
+    @Id
+    @Column(name = "resource", length = 32)
+    private String resource;
+
+    @Column(name = "change_count", nullable = false)
+    private long changeCount;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    ResourceChangeCounter(String resource, long changeCount, LocalDateTime changedAt) {
+        this.resource = resource;
+        this.changeCount = changeCount;
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,24 @@
+package dev.robgro.timesheet.etag;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RepositoryRestResource(exported = false)
+public interface ResourceChangeCounterRepository extends JpaRepository<ResourceChangeCounter, String> {
+
+    /**
+     * Increment the counters of the given tables in one statement.
+     *
+     * @return Number of counters updated (less than resources.size() if a row is missing)
+     */
+    @Modifying
+    @Query("UPDATE ResourceChangeCounter c SET c.changeCount = c.changeCount + 1, c.changedAt = :changedAt " +
+            "WHERE c.resource IN :resources")
+    int increment(@Param("resources") Collection<String> resources, @Param("changedAt") LocalDateTime changedAt);
+}
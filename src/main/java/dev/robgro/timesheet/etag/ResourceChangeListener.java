@@ -0,0 +1,32 @@
+package dev.robgro.timesheet.etag;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener reporting entity writes and removals to {@link ResourceChangeTracker}.
+ *
+ * <p>Created by Hibernate through Spring's bean container. The tracker is looked up lazily, so
+ * contexts without it (JPA test slices) keep working and simply count nothing.
+ */
+public class ResourceChangeListener {
+
+    private final ObjectProvider<ResourceChangeTracker> tracker;
+
+    public ResourceChangeListener(ObjectProvider<ResourceChangeTracker> tracker) {
+        this.tracker = tracker;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onWrite(Object entity) {
+        tracker.ifAvailable(changes -> changes.markChanged(TrackedResource.of(entity)));
+    }
+
+    @PostRemove
+    void onRemove(Object entity) {
+        tracker.ifAvailable(changes -> changes.markRemoved(entity));
+    }
+}
@@ -0,0 +1,159 @@
+package dev.robgro.timesheet.etag;
+
+import dev.robgro.timesheet.invoice.InvoiceItem;
+import dev.robgro.timesheet.sync.ChangeTombstone;
+import dev.robgro.timesheet.sync.ChangeTombstoneRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the tables a transaction writes and increments their change counters
+ * just before it commits.
+ *
+ * <p>Entity writes are reported by {@link ResourceChangeListener}; bulk JPQL statements
+ * bypass entity callbacks, so services running them call {@link #markChanged} themselves.
+ * Removed entities also leave a change feed tombstone, written in the same step (bulk deletes
+ * write theirs through {@link ChangeTombstoneRepository}).
+ *
+ * <p>One counter UPDATE per transaction (not per row), issued last: the counter rows are
+ * locked only for the commit itself, so concurrent writers of the same table barely wait
+ * on each other. A rolled back transaction increments nothing.
+ *
+ * <p>Registered with the transaction manager as an execution listener (Spring Boot picks up
+ * the bean), so it sees the commit of every read-write transaction, also one whose only
+ * change is a dirty entity nobody reported yet.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResourceChangeTracker implements TransactionExecutionListener {
+
+    private final ResourceChangeCounterRepository counterRepository;
+    private final ChangeTombstoneRepository changeTombstoneRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Record that the current transaction wrote {@code resource}.
+     *
+     * @param resource Written table (null is ignored)
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void markChanged(TrackedResource resource) {
+        if (resource == null) {
+            return;
+        }
+        pendingChanges(resource).resources.add(resource);
+    }
+
+    /**
+     * Record that the current transaction removed {@code entity}: its table changed and,
+     * unless it is an invoice item (part of an invoice that stays), the row needs a tombstone.
+     *
+     * @param entity Removed entity (untracked entities are ignored)
+     * @throws IllegalStateException if no transaction is active
+     */
+    void markRemoved(Object entity) {
+        TrackedResource resource = TrackedResource.of(entity);
+        markChanged(resource);
+        if (resource == null || entity instanceof InvoiceItem) {
+            return;
+        }
+        Object id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+        pendingChanges(resource).removed.add(new RemovedRow(resource, (Long) id));
+    }
+
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        // Not isJoinedToTransaction(): under open-in-view the shared proxy reports false even
+        // inside the request's transactions
+        if (transaction.isReadOnly()
+                || !TransactionSynchronizationManager.hasResource(entityManager.getEntityManagerFactory())) {
+            return;
+        }
+        // JPA flushes inside the commit, after this callback - flush now so every entity
+        // write of the transaction has been reported
+        entityManager.flush();
+
+        PendingChanges pending = findPendingChanges();
+        if (pending == null) {
+            return;
+        }
+        if (!pending.removed.isEmpty()) {
+            writeTombstones(pending.removed);
+        }
+        if (!pending.resources.isEmpty()) {
+            increment(pending.resources);
+        }
+    }
+
+    private PendingChanges pendingChanges(TrackedResource resource) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Change of " + resource.key() + " outside a transaction");
+        }
+        PendingChanges pending = findPendingChanges();
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private PendingChanges findPendingChanges() {
+        // Synchronizations are per transaction (suspended with it), so REQUIRES_NEW gets its own
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending) {
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    private void writeTombstones(List<RemovedRow> removed) {
+        LocalDateTime now = LocalDateTime.now();
+        changeTombstoneRepository.saveAll(removed.stream()
+                .map(row -> new ChangeTombstone(row.resource().key(), row.id(), now))
+                .toList());
+        entityManager.flush();
+        log.debug("Change tombstones written: {}", removed);
+    }
+
+    private void increment(Set<TrackedResource> resources) {
+        List<String> keys = resources.stream().map(TrackedResource::key).toList();
+        LocalDateTime now = LocalDateTime.now();
+        if (counterRepository.increment(keys, now) < keys.size()) {
+            // Counter rows come from V39; a schema created without Flyway starts them here
+            List<String> existing = counterRepository.findAllById(keys).stream()
+                    .map(ResourceChangeCounter::getResource)
+                    .toList();
+            keys.stream()
+                    .filter(key -> !existing.contains(key))
+                    .forEach(key -> counterRepository.save(new ResourceChangeCounter(key, 1, now)));
+            entityManager.flush();
+        }
+        log.debug("Change counters incremented: {}", keys);
+    }
+
+    /**
+     * Tables written and rows removed by one transaction; registered as a synchronization
+     * only to be scoped to that transaction.
+     */
+    private static final class PendingChanges implements TransactionSynchronization {
+        private final Set<TrackedResource> resources = EnumSet.noneOf(TrackedResource.class);
+        private final List<RemovedRow> removed = new ArrayList<>();
+    }
+
+    private record RemovedRow(TrackedResource resource, long id) {
+    }
+}
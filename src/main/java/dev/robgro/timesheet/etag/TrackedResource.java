@@ -0,0 +1,52 @@
+package dev.robgro.timesheet.etag;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.invoice.Invoice;
+import dev.robgro.timesheet.invoice.InvoiceItem;
+import dev.robgro.timesheet.seller.Seller;
+import dev.robgro.timesheet.timesheet.Timesheet;
+
+/**
+ * Tables with a change counter in resource_change_counters (V39).
+ * List ETags are built from the counters of every table the list's representation reads.
+ */
+public enum TrackedResource {
+    CLIENTS("clients"),
+    SELLERS("sellers"),
+    TIMESHEETS("timesheets"),
+    INVOICES("invoices");
+
+    private final String key;
+
+    TrackedResource(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return Primary key of the counter row
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Counter a written entity belongs to; invoice items count as invoice changes.
+     *
+     * @return Counter of the entity's table, null for untracked entities
+     */
+    static TrackedResource of(Object entity) {
+        if (entity instanceof Client) {
+            return CLIENTS;
+        }
+        if (entity instanceof Seller) {
+            return SELLERS;
+        }
+        if (entity instanceof Timesheet) {
+            return TIMESHEETS;
+        }
+        if (entity instanceof Invoice || entity instanceof InvoiceItem) {
+            return INVOICES;
+        }
+        return null;
+    }
+}
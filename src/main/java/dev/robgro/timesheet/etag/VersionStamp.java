@@ -0,0 +1,65 @@
+package dev.robgro.timesheet.etag;
+
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Validators of one representation: strong ETag value and last modification time.
+ *
+ * <p>Single resources are stamped from their row version plus the versions of the rows their
+ * representation embeds (e.g. a timesheet shows its client's name and rate). Every component
+ * only ever grows and the resource's own version moves whenever it points at another row,
+ * so two different representations never share a stamp.
+ *
+ * <p>The version constructors are used as JPQL constructor expressions (see the
+ * {@code findVersionStamp} repository queries). A representation that also changes with
+ * time alone (an invoice's email warning) adds that state as a last component.
+ *
+ * @param etag Opaque ETag value, without quotes
+ * @param lastModified Latest update time of any component, null if unknown
+ */
+public record VersionStamp(String etag, LocalDateTime lastModified) {
+
+    public VersionStamp(Long version, LocalDateTime updatedAt) {
+        this(String.valueOf(version), updatedAt);
+    }
+
+    public VersionStamp(Long version, LocalDateTime updatedAt,
+                        Long clientVersion, LocalDateTime clientUpdatedAt) {
+        this(join(version, clientVersion), latest(updatedAt, clientUpdatedAt));
+    }
+
+    /**
+     * @param counter Column updated without a version bump (only grows), null = 0
+     * @param timeState Time-derived state of the representation
+     */
+    public VersionStamp(Long version, LocalDateTime updatedAt,
+                        Long clientVersion, LocalDateTime clientUpdatedAt,
+                        Long sellerVersion, LocalDateTime sellerUpdatedAt, Integer counter, Integer timeState) {
+        this(join(version, clientVersion, sellerVersion) + "." + (counter != null ? counter : 0) + "-" + timeState,
+                latest(updatedAt, clientUpdatedAt, sellerUpdatedAt));
+    }
+
+    /**
+     * @param state Time-derived state of the representation, changing without any write
+     * @return This stamp with {@code state} added to the ETag
+     */
+    public VersionStamp withState(Object state) {
+        return new VersionStamp(etag + "-" + state, lastModified);
+    }
+
+    private static String join(Long... versions) {
+        return Stream.of(versions).map(String::valueOf).collect(Collectors.joining("."));
+    }
+
+    static LocalDateTime latest(LocalDateTime... times) {
+        LocalDateTime latest = null;
+        for (LocalDateTime time : times) {
+            if (time != null && (latest == null || time.isAfter(latest))) {
+                latest = time;
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,14 @@
+package dev.robgro.timesheet.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Change feed cursor older than the tombstone retention - deletions since then may be gone,
+ * so the client must drop its copy and sync again without a cursor.
+ */
+public class ChangeCursorExpiredException extends BaseApplicationException {
+
+    public ChangeCursorExpiredException(String message) {
+        super(message, HttpStatus.GONE, "CHANGE_CURSOR_EXPIRED");
+    }
+}
@@ -0,0 +1,45 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Thread pool for the monthly billing run (BillingServiceImpl#generateMonthlyInvoices).
+ */
+@Configuration
+@Slf4j
+public class BillingExecutorConfig {
+
+    /**
+     * Executor for per-client invoice transactions
+     *
+     * - Core/max pool: 4 threads - each holds a DB connection, and invoices of one seller
+     *   and period still queue on their counter row, so more threads only wait longer
+     * - Queue: 200 clients (a month's run is queued up front)
+     * - CallerRunsPolicy: when saturated, the run creates the invoice itself
+     *   (slower, but no client is dropped)
+     */
+    @Bean(name = "billingExecutor")
+    public Executor billingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("billing-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        log.info("Initialized billing executor: core={}, max={}, queue={}",
+                executor.getCorePoolSize(),
+                executor.getMaxPoolSize(),
+                executor.getQueueCapacity());
+
+        return executor;
+    }
+}
@@ -5,7 +5,7 @@ import java.util.List;
 
 public interface BillingService {
 
-    List<InvoiceDto> generateMonthlyInvoices(int year, int month);
+    MonthlyBillingResult generateMonthlyInvoices(int year, int month);
 
     InvoiceDto createMonthlyInvoice(Long clientId, int year, int month);
 
@@ -1,49 +1,91 @@
 package dev.robgro.timesheet.invoice;
 
-import dev.robgro.timesheet.client.ClientService;
 import dev.robgro.timesheet.exception.BusinessRuleViolationException;
-import dev.robgro.timesheet.client.ClientDto;
 import dev.robgro.timesheet.seller.Seller;
 import dev.robgro.timesheet.seller.SellerRepository;
 import dev.robgro.timesheet.timesheet.TimesheetDto;
 import dev.robgro.timesheet.timesheet.TimesheetService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+@Slf4j
 @Service
 public class BillingServiceImpl implements BillingService {
 
-    public BillingServiceImpl(ClientService clientService, InvoiceService invoiceService, InvoiceCreationService invoiceCreationService, TimesheetService timesheetService, SellerRepository sellerRepository) {
-        this.clientService = clientService;
+    public BillingServiceImpl(InvoiceService invoiceService, @Qualifier("dedicatedInvoiceCreationService") InvoiceCreationService invoiceCreationService, TimesheetService timesheetService, SellerRepository sellerRepository, CounterLockRetryPolicy counterLockRetryPolicy, @Qualifier("billingExecutor") Executor billingExecutor) {
         this.invoiceService = invoiceService;
         this.invoiceCreationService = invoiceCreationService;
         this.timesheetService = timesheetService;
         this.sellerRepository = sellerRepository;
+        this.counterLockRetryPolicy = counterLockRetryPolicy;
+        this.billingExecutor = billingExecutor;
     }
 
-    private final ClientService clientService;
     private final InvoiceService invoiceService;
-
-    @Qualifier("dedicatedInvoiceCreationService")
     private final InvoiceCreationService invoiceCreationService;
     private final TimesheetService timesheetService;
     private final SellerRepository sellerRepository;
+    private final CounterLockRetryPolicy counterLockRetryPolicy;
+    private final Executor billingExecutor;
+
+    /**
+     * Generate invoices for all clients with uninvoiced timesheets in the month.
+     *
+     * <p>The uninvoiced timesheets of all clients are read in one query and the seller is
+     * resolved once. Each client's invoice is then created on {@code billingExecutor} in its
+     * own transaction, numbered by the regular counter path: a failing client rolls back
+     * its invoice and its number alone (the sequence stays gapless) and does not stop the
+     * others. Not @Transactional - a run-wide transaction is exactly what this avoids.
+     *
+     * <p>Invoices of one seller and period still take their numbers one at a time (counter
+     * row lock), so numbers follow commit order rather than client name order.
+     *
+     * @return Created invoices and failed clients, both in client name order
+     */
+    public MonthlyBillingResult generateMonthlyInvoices(int year, int month) {
+        Map<Long, List<TimesheetDto>> timesheetsByClient = timesheetService.getUninvoicedTimesheetsByClient(year, month);
+        if (timesheetsByClient.isEmpty()) {
+            return MonthlyBillingResult.empty();
+        }
 
-    public List<InvoiceDto> generateMonthlyInvoices(int year, int month) {
-        List<ClientDto> clients = clientService.getAllClients();
+        Seller seller = resolveBillingSeller();
         LocalDate lastDayOfMonth = YearMonth.of(year, month).atEndOfMonth();
 
-        return clients.stream()
-                .map(client -> generateMonthlyInvoiceForClient(client.id(), year, month, lastDayOfMonth))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
+        Map<Long, CompletableFuture<InvoiceDto>> pending = new LinkedHashMap<>();
+        timesheetsByClient.forEach((clientId, timesheets) -> pending.put(clientId, CompletableFuture.supplyAsync(
+                () -> counterLockRetryPolicy.execute("createBillingRunInvoice",
+                        () -> invoiceCreationService.createBillingRunInvoice(clientId, seller, lastDayOfMonth, timesheets)),
+                billingExecutor)));
+
+        List<InvoiceDto> invoices = new ArrayList<>(pending.size());
+        List<MonthlyBillingResult.ClientFailure> failures = new ArrayList<>();
+        pending.forEach((clientId, invoice) -> {
+            try {
+                invoices.add(invoice.join());
+            } catch (CompletionException e) {
+                Exception cause = e.getCause() instanceof Exception exception ? exception : e;
+                log.error("Monthly invoice for client {} ({}/{}) failed: {}",
+                        clientId, month, year, cause.getMessage(), cause);
+                failures.add(new MonthlyBillingResult.ClientFailure(
+                        clientId, timesheetsByClient.get(clientId).get(0).clientName(), cause));
+            }
+        });
+
+        log.info("Monthly billing {}/{}: {} of {} clients invoiced", month, year, invoices.size(), pending.size());
+        return new MonthlyBillingResult(invoices, failures);
     }
 
     public InvoiceDto createMonthlyInvoice(Long clientId, int year, int month) {
@@ -53,31 +95,39 @@ public class BillingServiceImpl implements BillingService {
     }
 
     private Optional<InvoiceDto> generateMonthlyInvoiceForClient(Long clientId, int year, int month, LocalDate issueDate) {
-        List<TimesheetDto> uninvoicedTimesheets = timesheetService.getMonthlyTimesheets(clientId, year, month)
-                .stream()
-                .filter(timesheet -> !timesheet.invoiced())
-                .toList();
+        List<Long> timesheetIds = findUninvoicedTimesheetIds(clientId, year, month);
 
-        if (uninvoicedTimesheets.isEmpty()) {
+        if (timesheetIds.isEmpty()) {
             return Optional.empty();
         }
 
-        List<Long> timesheetIds = uninvoicedTimesheets.stream()
+        return Optional.of(createInvoice(clientId, issueDate, timesheetIds));
+    }
+
+    private List<Long> findUninvoicedTimesheetIds(Long clientId, int year, int month) {
+        return timesheetService.getMonthlyTimesheets(clientId, year, month)
+                .stream()
+                .filter(timesheet -> !timesheet.invoiced())
                 .map(TimesheetDto::id)
                 .toList();
-
-        return Optional.of(createInvoice(clientId, issueDate, timesheetIds));
     }
 
-    @Transactional
+    /**
+     * Not @Transactional: InvoiceCreationService opens the transaction, so a deadlock or
+     * lock wait timeout on the counter UPSERT can be retried with a fresh one.
+     */
     public InvoiceDto createInvoice(Long clientId, LocalDate issueDate, List<Long> timesheetIds) {
-        // Use system default seller for CRON-generated invoices
-        Seller systemDefaultSeller = sellerRepository.findByIsSystemDefaultTrue()
+        Long sellerId = resolveBillingSeller().getId();
+        return counterLockRetryPolicy.execute("createInvoice",
+                () -> invoiceCreationService.createInvoice(clientId, sellerId, issueDate, timesheetIds));
+    }
+
+    // Use system default seller for CRON-generated invoices
+    private Seller resolveBillingSeller() {
+        return sellerRepository.findByIsSystemDefaultTrue()
                 .orElseGet(() -> sellerRepository.findByActiveTrue().stream()
                         .findFirst()
                         .orElseThrow(() -> new BusinessRuleViolationException("No active seller found. Please create an active seller first.")));
-
-        return invoiceCreationService.createInvoice(clientId, systemDefaultSeller.getId(), issueDate, timesheetIds);
     }
 
     @Transactional(readOnly = true)
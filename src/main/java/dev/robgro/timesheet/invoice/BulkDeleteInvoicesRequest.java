@@ -0,0 +1,15 @@
+package dev.robgro.timesheet.invoice;
+
+import java.util.List;
+
+/**
+ * Delete several invoices in one transaction (e.g. undo a botched monthly run).
+ *
+ * @param invoiceIds Invoices to delete; all must exist, otherwise nothing is deleted
+ * @param deleteTimesheets true = delete their timesheets too, false = detach them (back to unbilled)
+ */
+public record BulkDeleteInvoicesRequest(
+        List<Long> invoiceIds,
+        boolean deleteTimesheets
+) {
+}
@@ -0,0 +1,363 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Invoice number template compiled once into an immutable token program.
+ *
+ * <p>The program is a list of operations: literal segments and value slots
+ * ({SEQ:N}, {YYYY}, {YY}, {MM}, {M}, {DEPT}, {DEPT_NAME}). Rendering computes the exact
+ * output length, fills a single presized char[] (hand-rolled zero padding, no
+ * String.format) and wraps it in one String.
+ *
+ * <p>Output is identical to the former replace-chain in TemplateParser.apply:
+ * - every {SEQ:N} uses the padding of the first one
+ * - {YY} is year % 100 without padding
+ * - without department, "-{DEPT}" is removed first, then "{DEPT}-", then "{DEPT}" and
+ *   "{DEPT_NAME}" - applied at compile time to a second program, so rendering stays one pass
+ * - braces that do not form a token are kept as literal text
+ */
+final class CompiledTemplate {
+
+    static final int MIN_PADDING = 1;
+    static final int MAX_PADDING = 10;
+
+    private static final byte LITERAL = 0;
+    private static final byte SEQ = 1;
+    private static final byte YEAR = 2;
+    private static final byte SHORT_YEAR = 3;
+    private static final byte MONTH_PADDED = 4;
+    private static final byte MONTH = 5;
+    private static final byte DEPT_CODE = 6;
+    private static final byte DEPT_NAME = 7;
+
+    private static final char[] NULL_CHARS = "null".toCharArray();
+
+    private final String template;
+    private final int sequencePadding;
+    private final Program withDepartment;
+    private final Program withoutDepartment;
+
+    private CompiledTemplate(String template, int sequencePadding, List<Op> ops) {
+        this.template = template;
+        this.sequencePadding = sequencePadding;
+        this.withDepartment = Program.of(ops);
+        this.withoutDepartment = Program.of(removeDepartmentTokens(ops));
+    }
+
+    /**
+     * Compile template into a token program.
+     *
+     * @throws ValidationException if template has no {SEQ:N} token or padding is out of range
+     */
+    static CompiledTemplate compile(String template) {
+        List<Op> ops = tokenize(template);
+        int padding = firstSequencePadding(ops);
+        if (padding < 0) {
+            throw new ValidationException("Template must contain {SEQ:N} token");
+        }
+        if (padding < MIN_PADDING || padding > MAX_PADDING) {
+            throw new ValidationException("Sequence padding must be between 1 and 10");
+        }
+        return new CompiledTemplate(template, padding, ops);
+    }
+
+    /**
+     * Split template into literal segments and recognized tokens (left to right, longest token first).
+     * Characters that do not start a token - including stray braces - stay in literal segments.
+     */
+    static List<Op> tokenize(String template) {
+        List<Op> ops = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            Op token = template.charAt(i) == '{' ? matchToken(template, i) : null;
+            if (token == null) {
+                literal.append(template.charAt(i++));
+                continue;
+            }
+            if (!literal.isEmpty()) {
+                ops.add(Op.literal(literal.toString()));
+                literal.setLength(0);
+            }
+            ops.add(token);
+            i += token.sourceLength;
+        }
+        if (!literal.isEmpty()) {
+            ops.add(Op.literal(literal.toString()));
+        }
+        return ops;
+    }
+
+    /**
+     * Padding N of the first {SEQ:N} token, or -1 if the template has none.
+     */
+    static int firstSequencePadding(List<Op> ops) {
+        for (Op op : ops) {
+            if (op.kind == SEQ) {
+                return op.padding;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * True if a literal segment contains '{' or '}' (text that looks like a token but is not one).
+     */
+    static boolean hasUnknownTokens(List<Op> ops) {
+        for (Op op : ops) {
+            if (op.kind == LITERAL && (op.text.indexOf('{') >= 0 || op.text.indexOf('}') >= 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String template() {
+        return template;
+    }
+
+    /**
+     * Render invoice number. Sequence number and year are required; month is the
+     * actual issue month (null renders as "null", same as the former String.format path).
+     */
+    String render(int sequenceNumber, int year, Integer month, Department department) {
+        Program program = department != null ? withDepartment : withoutDepartment;
+        return program.render(sequenceNumber, sequencePadding, year, month, department);
+    }
+
+    // ----- Compile-time department removal (mirrors the former replace order) -----
+
+    private static List<Op> removeDepartmentTokens(List<Op> ops) {
+        List<Op> result = removeDashedDepartment(ops, true);   // "-{DEPT}"
+        result = removeDashedDepartment(result, false);        // "{DEPT}-"
+        List<Op> remaining = new ArrayList<>();
+        for (Op op : result) {
+            if (op.kind != DEPT_CODE && op.kind != DEPT_NAME) {  // "{DEPT}", "{DEPT_NAME}"
+                remaining.add(op);
+            }
+        }
+        return mergeLiterals(remaining);
+    }
+
+    /**
+     * One String.replace pass of "-{DEPT}" (dashBefore) or "{DEPT}-": matches are taken
+     * from the list as it was before the pass, like replace() which never rescans its output.
+     */
+    private static List<Op> removeDashedDepartment(List<Op> ops, boolean dashBefore) {
+        boolean[] matched = new boolean[ops.size()];
+        for (int i = 0; i < ops.size(); i++) {
+            int neighbour = dashBefore ? i - 1 : i + 1;
+            matched[i] = ops.get(i).kind == DEPT_CODE
+                && neighbour >= 0 && neighbour < ops.size()
+                && ops.get(neighbour).kind == LITERAL
+                && (dashBefore ? ops.get(neighbour).text.endsWith("-") : ops.get(neighbour).text.startsWith("-"));
+        }
+
+        List<Op> result = new ArrayList<>();
+        for (int i = 0; i < ops.size(); i++) {
+            Op op = ops.get(i);
+            if (matched[i]) {
+                continue;
+            }
+            if (op.kind == LITERAL && dashBefore && i + 1 < ops.size() && matched[i + 1]) {
+                result.add(Op.literal(op.text.substring(0, op.text.length() - 1)));
+            } else if (op.kind == LITERAL && !dashBefore && i > 0 && matched[i - 1]) {
+                result.add(Op.literal(op.text.substring(1)));
+            } else {
+                result.add(op);
+            }
+        }
+        return mergeLiterals(result);
+    }
+
+    private static List<Op> mergeLiterals(List<Op> ops) {
+        List<Op> merged = new ArrayList<>();
+        for (Op op : ops) {
+            if (op.kind == LITERAL) {
+                if (op.text.isEmpty()) {
+                    continue;
+                }
+                Op last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && last.kind == LITERAL) {
+                    merged.set(merged.size() - 1, Op.literal(last.text + op.text));
+                    continue;
+                }
+            }
+            merged.add(op);
+        }
+        return merged;
+    }
+
+    private static Op matchToken(String template, int start) {
+        if (template.startsWith("{SEQ:", start)) {
+            int i = start + 5;
+            long padding = 0;
+            while (i < template.length() && template.charAt(i) >= '0' && template.charAt(i) <= '9') {
+                padding = Math.min(padding * 10 + (template.charAt(i) - '0'), Integer.MAX_VALUE);
+                i++;
+            }
+            if (i > start + 5 && i < template.length() && template.charAt(i) == '}') {
+                return new Op(SEQ, null, (int) padding, i + 1 - start);
+            }
+            return null;
+        }
+        if (template.startsWith("{YYYY}", start)) {
+            return Op.slot(YEAR, 6);
+        }
+        if (template.startsWith("{YY}", start)) {
+            return Op.slot(SHORT_YEAR, 4);
+        }
+        if (template.startsWith("{MM}", start)) {
+            return Op.slot(MONTH_PADDED, 4);
+        }
+        if (template.startsWith("{M}", start)) {
+            return Op.slot(MONTH, 3);
+        }
+        if (template.startsWith("{DEPT}", start)) {
+            return Op.slot(DEPT_CODE, 6);
+        }
+        if (template.startsWith("{DEPT_NAME}", start)) {
+            return Op.slot(DEPT_NAME, 11);
+        }
+        return null;
+    }
+
+    // ----- Number formatting -----
+
+    /**
+     * Length of value formatted like String.format("%0{width}d", value) (width 0 = String.valueOf).
+     */
+    static int numberLength(int value, int width) {
+        int digits = digits(Math.abs((long) value)) + (value < 0 ? 1 : 0);
+        return Math.max(width, digits);
+    }
+
+    /**
+     * Write value zero-padded to width, returns position after the last written char.
+     */
+    static int writeNumber(char[] buffer, int position, int value, int width) {
+        int end = position + numberLength(value, width);
+        long remaining = Math.abs((long) value);
+        int i = end;
+        do {
+            buffer[--i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        int firstDigit = value < 0 ? position + 1 : position;
+        while (i > firstDigit) {
+            buffer[--i] = '0';
+        }
+        if (value < 0) {
+            buffer[position] = '-';
+        }
+        return end;
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    // ----- Program -----
+
+    record Op(byte kind, String text, int padding, int sourceLength) {
+
+        static Op literal(String text) {
+            return new Op(LITERAL, text, 0, text.length());
+        }
+
+        static Op slot(byte kind, int sourceLength) {
+            return new Op(kind, null, 0, sourceLength);
+        }
+    }
+
+    private static final class Program {
+
+        private final byte[] kinds;
+        private final char[][] literals;
+        private final int literalLength;
+
+        private Program(byte[] kinds, char[][] literals, int literalLength) {
+            this.kinds = kinds;
+            this.literals = literals;
+            this.literalLength = literalLength;
+        }
+
+        static Program of(List<Op> ops) {
+            byte[] kinds = new byte[ops.size()];
+            char[][] literals = new char[ops.size()][];
+            int literalLength = 0;
+            for (int i = 0; i < ops.size(); i++) {
+                Op op = ops.get(i);
+                kinds[i] = op.kind;
+                if (op.kind == LITERAL) {
+                    literals[i] = op.text.toCharArray();
+                    literalLength += literals[i].length;
+                }
+            }
+            return new Program(kinds, literals, literalLength);
+        }
+
+        String render(int sequenceNumber, int padding, int year, Integer month, Department department) {
+            int shortYear = year % 100;
+            String code = department != null ? department.getCode() : null;
+            String name = department != null ? department.getName() : null;
+
+            int length = literalLength;
+            for (byte kind : kinds) {
+                length += switch (kind) {
+                    case SEQ -> numberLength(sequenceNumber, padding);
+                    case YEAR -> numberLength(year, 0);
+                    case SHORT_YEAR -> numberLength(shortYear, 0);
+                    case MONTH_PADDED -> month != null ? numberLength(month, 2) : NULL_CHARS.length;
+                    case MONTH -> month != null ? numberLength(month, 0) : NULL_CHARS.length;
+                    case DEPT_CODE -> code.length();
+                    case DEPT_NAME -> name.length();
+                    default -> 0;
+                };
+            }
+
+            char[] buffer = new char[length];
+            int position = 0;
+            for (int i = 0; i < kinds.length; i++) {
+                switch (kinds[i]) {
+                    case LITERAL -> {
+                        System.arraycopy(literals[i], 0, buffer, position, literals[i].length);
+                        position += literals[i].length;
+                    }
+                    case SEQ -> position = writeNumber(buffer, position, sequenceNumber, padding);
+                    case YEAR -> position = writeNumber(buffer, position, year, 0);
+                    case SHORT_YEAR -> position = writeNumber(buffer, position, shortYear, 0);
+                    case MONTH_PADDED -> position = writeMonth(buffer, position, month, 2);
+                    case MONTH -> position = writeMonth(buffer, position, month, 0);
+                    case DEPT_CODE -> {
+                        code.getChars(0, code.length(), buffer, position);
+                        position += code.length();
+                    }
+                    case DEPT_NAME -> {
+                        name.getChars(0, name.length(), buffer, position);
+                        position += name.length();
+                    }
+                    default -> throw new IllegalStateException("Unknown template op: " + kinds[i]);
+                }
+            }
+            return new String(buffer);
+        }
+
+        private static int writeMonth(char[] buffer, int position, Integer month, int width) {
+            if (month == null) {
+                System.arraycopy(NULL_CHARS, 0, buffer, position, NULL_CHARS.length);
+                return position + NULL_CHARS.length;
+            }
+            return writeNumber(buffer, position, month, width);
+        }
+    }
+}
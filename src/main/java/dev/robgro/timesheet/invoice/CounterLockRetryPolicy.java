@@ -0,0 +1,149 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, jittered retry for transactions that bump the invoice number counter.
+ *
+ * <p>Under contention MySQL/MariaDB can abort the counter UPSERT
+ * (INSERT ... ON DUPLICATE KEY UPDATE) with a deadlock or lock wait timeout.
+ * Both roll back the whole transaction, so the only safe retry is to run the
+ * whole invoice transaction again - from a caller that is NOT transactional itself.
+ * If a transaction is already active the attempt runs once and the error propagates
+ * (retrying inside a rolled-back transaction cannot succeed).
+ *
+ * <p>Retryable (anywhere in the cause chain):
+ * - SQLState 40001 (serialization failure / deadlock)
+ * - MySQL/MariaDB error 1213 (ER_LOCK_DEADLOCK)
+ * - MySQL/MariaDB error 1205 (ER_LOCK_WAIT_TIMEOUT)
+ *
+ * <p>Backoff is "full jitter": random 0..min(max, initial * 2^(attempt-1)) ms,
+ * so competing threads do not retry in lockstep.
+ */
+@Slf4j
+@Component
+public class CounterLockRetryPolicy {
+
+    static final String SQLSTATE_SERIALIZATION_FAILURE = "40001";
+    static final int ER_LOCK_DEADLOCK = 1213;
+    static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    private final InvoiceCounterProperties properties;
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public CounterLockRetryPolicy(InvoiceCounterProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Run attempt, retrying on deadlock / lock wait timeout while attempts remain.
+     *
+     * @param operation name used in log lines
+     * @param attempt   transactional call (a fresh transaction per invocation)
+     */
+    public <T> T execute(String operation, Supplier<T> attempt) {
+        int maxAttempts = TransactionSynchronizationManager.isActualTransactionActive()
+            ? 1
+            : Math.max(1, properties.getLockRetryMaxAttempts());
+
+        int attempts = 0;
+        while (true) {
+            attempts++;
+            try {
+                return attempt.get();
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempts >= maxAttempts) {
+                    if (maxAttempts > 1) {
+                        exhausted.incrementAndGet();
+                        log.warn("{} failed on lock contention after {} attempt(s)", operation, attempts, e);
+                    }
+                    throw e;
+                }
+
+                long backoffMs = backoffMillis(attempts);
+                retries.incrementAndGet();
+                log.warn("{} hit lock contention on attempt {}, retrying in {} ms: {}",
+                    operation, attempts, backoffMs, rootMessage(e));
+                sleep(backoffMs);
+            }
+        }
+    }
+
+    /**
+     * True if the failure is a deadlock or lock wait timeout (the transaction was rolled back
+     * and can be re-run as a whole).
+     */
+    static boolean isRetryable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                if (SQLSTATE_SERIALIZATION_FAILURE.equals(sql.getSQLState())
+                    || sql.getErrorCode() == ER_LOCK_DEADLOCK
+                    || sql.getErrorCode() == ER_LOCK_WAIT_TIMEOUT) {
+                    return true;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Full-jitter backoff for the given (1-based) failed attempt.
+     */
+    long backoffMillis(int attempt) {
+        long initial = Math.max(0, properties.getLockRetryInitialBackoffMs());
+        long max = Math.max(initial, properties.getLockRetryMaxBackoffMs());
+        if (max == 0) {
+            return 0;
+        }
+        long ceiling = Math.min(max, initial << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Retries performed since startup (attempts that failed and were re-run).
+     */
+    public long retryCount() {
+        return retries.get();
+    }
+
+    /**
+     * Operations that still failed on lock contention after the last attempt.
+     */
+    public long exhaustedCount() {
+        return exhausted.get();
+    }
+
+    private static void sleep(long backoffMs) {
+        if (backoffMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(backoffMs);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during counter lock retry", ie);
+        }
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
@@ -0,0 +1,39 @@
+package dev.robgro.timesheet.invoice;
+
+import java.time.LocalDateTime;
+
+/**
+ * Result of one counter drift reconciliation run.
+ */
+public record CounterReconciliationReport(
+    /**
+     * Seller whose counters were reconciled, null for all sellers.
+     */
+    Long sellerId,
+
+    /**
+     * Number of counters compared with MAX(sequence_number).
+     */
+    int countersChecked,
+
+    /**
+     * Number of counters that were behind and got healed.
+     */
+    int countersHealed,
+
+    /**
+     * Scopes verified on this node after the run (skip the drift check on issuance).
+     */
+    int verifiedScopes,
+
+    /**
+     * When the run started.
+     */
+    LocalDateTime startedAt,
+
+    /**
+     * Wall-clock duration of the run.
+     */
+    long durationMs
+) {
+}
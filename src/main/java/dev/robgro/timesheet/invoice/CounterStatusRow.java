@@ -0,0 +1,76 @@
+package dev.robgro.timesheet.invoice;
+
+import java.time.LocalDateTime;
+
+/**
+ * One counter joined with the aggregates of its period's invoices (single query row).
+ */
+public record CounterStatusRow(
+    /**
+     * Seller (tenant) ID.
+     */
+    Long sellerId,
+
+    /**
+     * Reset strategy (MONTHLY, YEARLY, NEVER).
+     */
+    ResetPeriod resetPeriod,
+
+    /**
+     * Period identifier matching V27 format (e.g., "2026-02", "2026", "NEVER").
+     */
+    String periodKey,
+
+    /**
+     * Current counter value (last sequence number issued).
+     */
+    Integer lastValue,
+
+    /**
+     * When counter was last updated.
+     */
+    LocalDateTime updatedAt,
+
+    /**
+     * COUNT(*) of invoices in the counter's period.
+     */
+    long invoiceCount,
+
+    /**
+     * MAX(sequence_number) in the counter's period, null if no invoices.
+     */
+    Integer maxSequence,
+
+    /**
+     * Display number of the invoice with the highest sequence number, null if no invoices.
+     */
+    String lastInvoiceNumber
+) {
+
+    /**
+     * Expected counter value based on actual invoice data (0 when the period has no invoices).
+     */
+    public int expectedValue() {
+        return maxSequence != null ? maxSequence : 0;
+    }
+
+    /**
+     * Drift = counter.lastValue != MAX(sequence_number).
+     */
+    public boolean hasDrift() {
+        return !lastValue.equals(expectedValue());
+    }
+
+    public CounterStatusDto toStatus() {
+        return new CounterStatusDto(
+            resetPeriod,
+            periodKey,
+            lastValue,
+            updatedAt,
+            invoiceCount,
+            lastInvoiceNumber,
+            hasDrift(),
+            expectedValue()
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package dev.robgro.timesheet.invoice;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of all counter values of one seller, loaded with a single query.
+ *
+ * <p>Contains every counter row the seller had at load time, so a scope that is
+ * missing has no counter yet (next sequence = 1) - no extra lookup needed.
+ */
+final class CounterValueSnapshot {
+
+    private final Map<InvoiceCounterScope, Integer> lastValues;
+    private final long loadedAtNanos;
+
+    private CounterValueSnapshot(Map<InvoiceCounterScope, Integer> lastValues, long loadedAtNanos) {
+        this.lastValues = lastValues;
+        this.loadedAtNanos = loadedAtNanos;
+    }
+
+    static CounterValueSnapshot of(List<InvoiceNumberCounter> counters, long loadedAtNanos) {
+        Map<InvoiceCounterScope, Integer> lastValues = new HashMap<>(Math.max(16, counters.size() * 2));
+        for (InvoiceNumberCounter counter : counters) {
+            lastValues.put(
+                new InvoiceCounterScope(counter.getSellerId(), counter.getResetPeriod(), counter.getPeriodKey()),
+                counter.getLastValue());
+        }
+        return new CounterValueSnapshot(Map.copyOf(lastValues), loadedAtNanos);
+    }
+
+    /**
+     * Next sequence number for the scope as of load time (lastValue + 1, or 1 without counter).
+     */
+    int nextSequence(InvoiceCounterScope scope) {
+        return lastValues.getOrDefault(scope, 0) + 1;
+    }
+
+    long loadedAtNanos() {
+        return loadedAtNanos;
+    }
+
+    int size() {
+        return lastValues.size();
+    }
+}
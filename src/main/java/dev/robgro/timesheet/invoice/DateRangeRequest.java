@@ -1,9 +1,29 @@
 package dev.robgro.timesheet.invoice;
 
+import java.time.LocalDate;
+
 public record DateRangeRequest(
         Integer fromYear,
         Integer fromMonth,
         Integer toYear,
         Integer toMonth
 ) {
+
+    /**
+     * @return First day of the from month, null if the from year or month is missing
+     */
+    public LocalDate startDate() {
+        return fromYear != null && fromMonth != null
+                ? LocalDate.of(fromYear, fromMonth, 1)
+                : null;
+    }
+
+    /**
+     * @return Last day of the to month, null if the to year or month is missing
+     */
+    public LocalDate endDate() {
+        return toYear != null && toMonth != null
+                ? LocalDate.of(toYear, toMonth, 1).plusMonths(1).minusDays(1)
+                : null;
+    }
 }
@@ -1,11 +1,14 @@
 package dev.robgro.timesheet.invoice;
 
+import dev.robgro.timesheet.cache.ReferenceCacheRegions;
 import dev.robgro.timesheet.exception.BusinessRuleViolationException;
 import dev.robgro.timesheet.exception.ValidationException;
 import dev.robgro.timesheet.seller.Seller;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
@@ -17,6 +20,8 @@ import java.time.LocalDateTime;
  * Database structure created now to avoid migration later.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceCacheRegions.DEPARTMENT)
 @Getter
 @NoArgsConstructor
 @Table(
@@ -0,0 +1,134 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the numbering scheme effective on an issue date from an in-memory,
+ * per-seller {@link SchemeTimeline} instead of running
+ * {@link InvoiceNumberingSchemeRepository#findEffectiveScheme} for every number.
+ *
+ * <p>Schemes change rarely (create/activate, archive), numbers are issued and previewed
+ * constantly. The timeline is loaded with one query per seller and kept until:
+ * - a scheme change of that seller commits on this node ({@link #evictAfterCommit})
+ * - another node reports a change (cross-node hook, {@link #evict})
+ * - the TTL expires (app.invoice-numbering.scheme-cache-ttl-minutes)
+ *
+ * <p>Eviction bumps a generation counter first; a load that raced with an eviction
+ * drops its own entry, so a timeline read before a commit never outlives the eviction.
+ */
+@Component
+@Slf4j
+public class EffectiveSchemeResolver {
+
+    private final InvoiceNumberingSchemeRepository schemeRepository;
+    private final ObjectProvider<SchemeCacheInvalidationBroadcaster> broadcasters;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Long, SchemeTimeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicLong evictionGeneration = new AtomicLong();
+
+    public EffectiveSchemeResolver(InvoiceNumberingSchemeRepository schemeRepository,
+                                   InvoiceNumberingProperties properties,
+                                   ObjectProvider<SchemeCacheInvalidationBroadcaster> broadcasters) {
+        this.schemeRepository = schemeRepository;
+        this.broadcasters = broadcasters;
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(properties.getSchemeCacheTtlMinutes());
+    }
+
+    /**
+     * Same contract as {@link InvoiceNumberingSchemeRepository#findEffectiveScheme}:
+     * ACTIVE wins over ARCHIVED, then latest effectiveFrom, then highest version.
+     *
+     * @param sellerId Seller ID (tenant isolation)
+     * @param issueDate Issue date of invoice (NOT LocalDate.now()!)
+     * @return Best-matching scheme with effectiveFrom <= issueDate, or empty if none found
+     */
+    public Optional<NumberingSchemeSnapshot> findEffectiveScheme(Long sellerId, LocalDate issueDate) {
+        return timeline(sellerId).resolve(issueDate);
+    }
+
+    /**
+     * Evict the seller's timeline once the current transaction commits
+     * (immediately when called outside a transaction), then notify other nodes.
+     * Rolled back changes keep the cached timeline - it still matches the database.
+     */
+    public void evictAfterCommit(Long sellerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndBroadcast(sellerId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAndBroadcast(sellerId);
+            }
+        });
+    }
+
+    /**
+     * Drop the seller's cached timeline on this node only.
+     * Entry point for cross-node invalidation messages.
+     */
+    public void evict(Long sellerId) {
+        evictionGeneration.incrementAndGet();
+        timelines.remove(sellerId);
+    }
+
+    public void evictAll() {
+        evictionGeneration.incrementAndGet();
+        timelines.clear();
+    }
+
+    public int cachedSellers() {
+        return timelines.size();
+    }
+
+    private void evictAndBroadcast(Long sellerId) {
+        evict(sellerId);
+        log.debug("Evicted numbering scheme timeline for seller={}", sellerId);
+        broadcasters.orderedStream().forEach(broadcaster -> {
+            try {
+                broadcaster.broadcastEviction(sellerId);
+            } catch (RuntimeException e) {
+                // Remote nodes fall back to TTL expiry
+                log.warn("Scheme cache eviction broadcast failed for seller={}", sellerId, e);
+            }
+        });
+    }
+
+    private SchemeTimeline timeline(Long sellerId) {
+        long now = System.nanoTime();
+        SchemeTimeline cached = timelines.get(sellerId);
+        if (cached != null && !isExpired(cached, now)) {
+            return cached;
+        }
+
+        long generation = evictionGeneration.get();
+        List<NumberingSchemeSnapshot> schemes = schemeRepository.findResolvableBySeller(sellerId).stream()
+            .map(NumberingSchemeSnapshot::from)
+            .toList();
+        SchemeTimeline loaded = SchemeTimeline.of(schemes, now);
+
+        timelines.put(sellerId, loaded);
+        if (evictionGeneration.get() != generation) {
+            // Eviction raced with this load - the data may predate the change
+            timelines.remove(sellerId, loaded);
+        }
+        return loaded;
+    }
+
+    private boolean isExpired(SchemeTimeline timeline, long now) {
+        return ttlNanos > 0 && now - timeline.loadedAtNanos() >= ttlNanos;
+    }
+}
@@ -1,26 +1,53 @@
 package dev.robgro.timesheet.invoice;
 
 import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.etag.ResourceChangeListener;
 import dev.robgro.timesheet.exception.ValidationException;
+import dev.robgro.timesheet.search.SearchIndexListener;
 import dev.robgro.timesheet.seller.Seller;
 import dev.robgro.timesheet.timesheet.Timesheet;
-import dev.robgro.timesheet.tracking.EmailTracking;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
+@EntityListeners({ResourceChangeListener.class, SearchIndexListener.class})
 @Getter
 @Setter
 @Table(name = "invoices")
+@NamedEntityGraph(name = Invoice.GRAPH_PARTIES, attributeNodes = {
+        @NamedAttributeNode("client"),
+        @NamedAttributeNode("seller")
+})
 public class Invoice {
 
+    /**
+     * Fetch plan for invoice lists: client and seller joined in the list query.
+     * Items are NOT joined (would multiply rows and break paging) - they load in
+     * batches of {@link #ITEM_BATCH_SIZE} invoices when first touched.
+     */
+    public static final String GRAPH_PARTIES = "Invoice.withParties";
+
+    static final int ITEM_BATCH_SIZE = 50;
+
+    /**
+     * Days after sending an unopened invoice shows UNOPENED_WARNING (see {@link #getEmailStatus()})
+     */
+    public static final int UNOPENED_WARNING_DAYS = 7;
+
+    private static final long SEQUENCE_KEY_RANGE = 10_000_000_000L;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -43,6 +70,7 @@ public class Invoice {
     private Seller seller;
 
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = ITEM_BATCH_SIZE)
     private List<InvoiceItem> itemsList = new ArrayList<>();
 
     @Column(name = "issued_date")
@@ -57,18 +85,32 @@ public class Invoice {
     @Column(name = "email_sent_at")
     private LocalDateTime emailSentAt;
 
-    @Column(name = "email_tracking_token", length = 255)
-    private String emailTrackingToken;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "email_tracking_token", length = 16)
+    private UUID emailTrackingToken;
 
-    @Column(name = "email_opened_at")
+    // Open fields: written only by InvoiceRepository#updateEmailOpenStatus, never by an entity update,
+    // so an edit loaded before a pixel hit cannot write the old values back
+    @Column(name = "email_opened_at", updatable = false)
     private LocalDateTime emailOpenedAt;
 
-    @Column(name = "email_open_count")
+    @Column(name = "email_open_count", updatable = false)
     private Integer emailOpenCount = 0;
 
-    @Column(name = "last_email_opened_at")
+    @Column(name = "last_email_opened_at", updatable = false)
     private LocalDateTime lastEmailOpenedAt;
 
+    /**
+     * Row version (V39): +1 per write, source of the invoice's ETag.
+     * Item changes alone do not dirty the invoice row - see {@link #touch()}.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
     @OneToMany(mappedBy = "invoice")
     private List<Timesheet> timesheets = new ArrayList<>();
 
@@ -97,6 +139,15 @@ public class Invoice {
     @Column(name = "period_month")
     private Integer periodMonth = 0;
 
+    /**
+     * Invoice number order as one number: (periodYear * 100 + periodMonth) * 10^10 + sequenceNumber.
+     * Lets "sort by invoice number" be a single indexed ORDER BY column (V35), also across joins.
+     * Maintained by {@link #setInvoiceNumberComponents} only - never set directly.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "number_sort_key")
+    private Long numberSortKey;
+
     /**
      * Department for multi-department numbering (v1 feature)
      * Optional - used when seller has multiple departments with separate sequences
@@ -120,16 +171,24 @@ public class Invoice {
     @Column(name = "invoice_number_display", length = 64)
     private String invoiceNumberDisplay;
 
+    @PrePersist
+    protected void onCreate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     // ===== Business Methods =====
 
     /**
-     * Updates email tracking status from EmailTracking entity
-     * Called when email is opened
+     * Marks the invoice row as changed, so its version moves on flush.
+     * For changes that only touch items (or other rows shown in the invoice).
      */
-    public void updateEmailOpenStatus(EmailTracking tracking) {
-        this.emailOpenedAt = tracking.getOpenedAt();
-        this.emailOpenCount = tracking.getOpenCount();
-        this.lastEmailOpenedAt = tracking.getLastOpenedAt();
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
     }
 
     /**
@@ -163,11 +222,20 @@ public class Invoice {
         this.periodMonth = periodMonth;
         this.invoiceNumberDisplay = displayNumber;
         this.schemeId = schemeId;
+        this.numberSortKey = numberSortKey(periodYear, periodMonth, sequenceNumber);
 
         // Backward compatibility: keep old field populated
         this.invoiceNumber = displayNumber;
     }
 
+    /**
+     * Sort key for the given number components. The sequence range (10^10) exceeds
+     * Integer.MAX_VALUE, so the key orders exactly like (year, month, sequence).
+     */
+    public static long numberSortKey(int periodYear, int periodMonth, int sequenceNumber) {
+        return ((long) periodYear * 100 + periodMonth) * SEQUENCE_KEY_RANGE + sequenceNumber;
+    }
+
     private void validateSequenceNumber(Integer seq) {
         if (seq == null || seq < 1) {
             throw new ValidationException(
@@ -211,7 +279,7 @@ public class Invoice {
     public String getEmailStatus() {
         if (emailSentAt == null) return "NOT_SENT";
         if (emailOpenedAt == null) {
-            if (isEmailUnopened(7)) return "UNOPENED_WARNING";
+            if (isEmailUnopened(UNOPENED_WARNING_DAYS)) return "UNOPENED_WARNING";
             return "SENT_UNOPENED";
         }
         return "OPENED";
@@ -5,6 +5,7 @@ import dev.robgro.timesheet.utils.PaginationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -37,28 +38,12 @@ public class InvoiceArchiveController {
         log.debug("Showing invoice archive with date range: from {}-{} to {}-{}, clientId={}",
                 fromYear, fromMonth, toYear, toMonth, clientId);
 
-        if ("clientName".equals(sortBy)) {
-            sortBy = "client.clientName";
-        }
-
         DateRangeRequest dateRange = new DateRangeRequest(fromYear, fromMonth, toYear, toMonth);
 
-        // Invoice number sorting requires 3 fields (year, month, sequence) - not string!
-        Pageable pageable;
-        if ("invoiceNumber".equals(sortBy)) {
-            org.springframework.data.domain.Sort.Direction direction =
-                sortDir.equalsIgnoreCase("asc")
-                    ? org.springframework.data.domain.Sort.Direction.ASC
-                    : org.springframework.data.domain.Sort.Direction.DESC;
-            org.springframework.data.domain.Sort sort = org.springframework.data.domain.Sort.by(direction, "periodYear")
-                .and(org.springframework.data.domain.Sort.by(direction, "periodMonth"))
-                .and(org.springframework.data.domain.Sort.by(direction, "sequenceNumber"));
-            pageable = org.springframework.data.domain.PageRequest.of(page, size, sort);
-        } else {
-            pageable = PaginationUtils.createPageable(sortBy, sortDir, page, size);
-        }
+        // Whitelisted sort keys; invoice number sorts by the persisted number sort key - not string!
+        Pageable pageable = PageRequest.of(page, size, InvoiceSortOrder.of(sortBy, sortDir));
 
-        Page<InvoiceDto> invoicesPage = invoiceService.searchInvoices(dateRange, clientId, pageable);
+        Page<InvoiceSummary> invoicesPage = invoiceService.searchInvoices(dateRange, clientId, pageable);
 
         populateModel(model, invoicesPage, page, size, sortBy, sortDir);
         return "invoices/archive";
@@ -78,21 +63,9 @@ public class InvoiceArchiveController {
         log.debug("Showing PDF invoice list with filters: clientId={}, year={}, month={}, sortBy={}, sortDir={}, page={}, size={}",
                 clientId, year, month, sortBy, sortDir, page, size);
 
-        // Invoice number sorting requires 3 fields (year, month, sequence) - not string!
-        Pageable pageable;
-        if ("invoiceNumber".equals(sortBy)) {
-            org.springframework.data.domain.Sort.Direction direction =
-                sortDir.equalsIgnoreCase("asc")
-                    ? org.springframework.data.domain.Sort.Direction.ASC
-                    : org.springframework.data.domain.Sort.Direction.DESC;
-            org.springframework.data.domain.Sort sort = org.springframework.data.domain.Sort.by(direction, "periodYear")
-                .and(org.springframework.data.domain.Sort.by(direction, "periodMonth"))
-                .and(org.springframework.data.domain.Sort.by(direction, "sequenceNumber"));
-            pageable = org.springframework.data.domain.PageRequest.of(page, size, sort);
-        } else {
-            pageable = PaginationUtils.createPageable(sortBy, sortDir, page, size);
-        }
-        Page<InvoiceDto> invoicesPage = invoiceService.getAllInvoicesPageable(clientId, year, month, pageable);
+        // Whitelisted sort keys; invoice number sorts by the persisted number sort key - not string!
+        Pageable pageable = PageRequest.of(page, size, InvoiceSortOrder.of(sortBy, sortDir));
+        Page<InvoiceSummary> invoicesPage = invoiceService.getAllInvoicesPageable(clientId, year, month, pageable);
 
         populateModel(model, invoicesPage, page, size, sortBy, sortDir);
         model.addAttribute("clientId", clientId);
@@ -102,7 +75,7 @@ public class InvoiceArchiveController {
         return "invoices/pdf";
     }
 
-    private void populateModel(Model model, Page<InvoiceDto> invoicesPage, int page, int size, String sortBy, String sortDir) {
+    private void populateModel(Model model, Page<InvoiceSummary> invoicesPage, int page, int size, String sortBy, String sortDir) {
         model.addAttribute("invoices", invoicesPage.getContent());
         PaginationUtils.setPaginationAttributesWithSort(model, invoicesPage, page, size, sortBy, sortDir);
         model.addAttribute("clients", clientService.getAllClients());
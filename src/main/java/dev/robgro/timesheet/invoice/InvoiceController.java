@@ -8,13 +8,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -26,6 +29,7 @@ public class InvoiceController {
     private final InvoiceService invoiceService;
     private final TimesheetService timesheetService;
     private final BillingService billingService;
+    private final InvoiceNumberGenerator invoiceNumberGenerator;
 
     @Operation(summary = "Create invoice for selected timesheets")
     @ApiResponses(value = {
@@ -84,6 +88,22 @@ public class InvoiceController {
         return ResponseEntity.ok(timesheetService.getMonthlyTimesheets(clientId, year, month));
     }
 
+    @Operation(summary = "Preview next invoice number",
+            description = "Number the next invoice of the seller would get on the issue date (NOT reserved)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Preview generated successfully"),
+            @ApiResponse(responseCode = "409", description = "No numbering scheme configured for the seller")
+    })
+    @GetMapping("/number-preview")
+    public ResponseEntity<Map<String, Object>> previewInvoiceNumber(
+            @RequestParam Long sellerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issueDate) {
+        GeneratedInvoiceNumber preview = invoiceNumberGenerator.peekNextInvoiceNumber(sellerId, issueDate, null);
+        return ResponseEntity.ok(Map.of(
+                "invoiceNumber", preview.getDisplayNumber(),
+                "sequenceNumber", preview.getSequenceNumber()));
+    }
+
     @Operation(summary = "Get client's invoices for specific month")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of invoices retrieved successfully"),
@@ -1,16 +1,24 @@
 package dev.robgro.timesheet.invoice;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -25,6 +33,9 @@ import java.util.List;
  * - Post-migration verification: Check if V27 backfill worked correctly
  * - Drift detection: Alert when counter.lastValue != MAX(sequence_number)
  * - Multi-tenant audit: Quick health check without direct DB access
+ * - Fleet-wide drift: GET /drift-report streams counters of all sellers (NDJSON)
+ * - Manual edits: POST /reconcile heals counters and forces drift re-check on next issuance
+ *   (also drops the cached numbering scheme timeline on this node)
  *
  * <p><b>Feature flag:</b> Can be disabled via property:
  * {@code internal.counters.observability.enabled=false}
@@ -46,9 +57,12 @@ import java.util.List;
 @Slf4j
 public class InvoiceCounterObservabilityController {
 
-    private final InvoiceNumberCounterRepository counterRepository;
-    private final InvoiceRepository invoiceRepository;
-    private final InvoiceNumberingSchemeRepository schemeRepository;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final InvoiceCounterStatusService counterStatusService;
+    private final EffectiveSchemeResolver schemeResolver;
+    private final InvoiceCounterReconciliationService reconciliationService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Get counter status with drift detection for specified seller.
@@ -58,6 +72,8 @@ public class InvoiceCounterObservabilityController {
      * - Actual invoice count
      * - Drift detection (counter != reality)
      *
+     * <p>One query for all counters (see InvoiceCounterStatusService).
+     *
      * @param sellerId Tenant ID to check counters for
      * @return Counter observability response with drift detection
      */
@@ -68,124 +84,75 @@ public class InvoiceCounterObservabilityController {
         String username = auth != null ? auth.getName() : "anonymous";
         log.info("📊 Counter observability accessed: user={}, sellerId={}", username, sellerId);
 
-        // Get all counters for seller (ordered by reset period, newest first)
-        List<InvoiceNumberCounter> counters = counterRepository
-            .findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(sellerId);
-
-        // Build status for each counter with drift detection
-        List<CounterStatusDto> counterStatus = counters.stream()
-            .map(counter -> buildCounterStatus(sellerId, counter))
-            .toList();
+        // All counters with invoice aggregates (ordered by reset period, newest first)
+        List<CounterStatusDto> counterStatus = counterStatusService.getCounterStatus(sellerId);
 
         // Get current active template (or null if no scheme configured)
-        String currentTemplate = schemeRepository
+        String currentTemplate = schemeResolver
             .findEffectiveScheme(sellerId, LocalDate.now())
-            .map(InvoiceNumberingScheme::getTemplate)
+            .map(NumberingSchemeSnapshot::template)
             .orElse(null);
 
         return new CounterObservabilityResponse(sellerId, currentTemplate, counterStatus);
     }
 
     /**
-     * Build counter status with drift detection for a single counter.
+     * Drift report across all sellers, streamed as NDJSON (one {@link SellerCounterStatus} per line).
      *
-     * <p>Drift detection logic:
-     * <ol>
-     *   <li>Get counter's last value (what counter thinks is the last sequence)</li>
-     *   <li>Get MAX(sequence_number) from invoices table (actual reality)</li>
-     *   <li>Compare: if counter != MAX(sequence), drift detected</li>
-     * </ol>
+     * <p>Reads sellers in keyset pages, so memory stays bounded and output starts with
+     * the first page. Resume an interrupted report with {@code afterSellerId} = last seller seen.
      *
-     * <p>Drift can occur due to:
-     * - Race conditions (should be impossible with atomic UPSERT)
-     * - Manual database edits
-     * - Migration errors (V27 backfill incorrect)
-     * - Transaction rollbacks
-     *
-     * @param sellerId Seller ID (for querying invoices)
-     * @param counter Counter entity to build status for
-     * @return Counter status DTO with drift detection
+     * @param afterSellerId Start after this seller ID, omit to start from the first seller
+     * @param driftOnly Only counters with drift (default true); false lists every counter
+     * @param pageSize Sellers per database page (1..500, default 100)
+     * @return NDJSON stream of counter statuses in seller ID order
      */
-    private CounterStatusDto buildCounterStatus(Long sellerId, InvoiceNumberCounter counter) {
-        // Extract period components from counter
-        int periodYear = extractYearFromPeriodKey(counter.getPeriodKey(), counter.getResetPeriod());
-        int periodMonth = extractMonthFromPeriodKey(counter.getPeriodKey(), counter.getResetPeriod());
-
-        // Get actual invoice data from database
-        Long invoiceCount = invoiceRepository.countBySellerIdAndPeriodYearAndPeriodMonth(
-            sellerId, periodYear, periodMonth
-        );
-
-        Integer maxSequence = invoiceRepository.findMaxSequenceNumber(
-            sellerId, periodYear, periodMonth
-        );
-
-        // Get last invoice display number (for debugging)
-        String lastInvoiceNumber = invoiceRepository
-            .findTopBySellerIdAndPeriodYearAndPeriodMonthOrderBySequenceNumberDesc(
-                sellerId, periodYear, periodMonth
-            )
-            .map(Invoice::getInvoiceNumberDisplay)
-            .orElse(null);
-
-        // Drift detection: counter.lastValue should equal MAX(sequence_number)
-        Integer expectedValue = maxSequence != null ? maxSequence : 0;
-        boolean hasDrift = !counter.getLastValue().equals(expectedValue);
-
-        // Log drift detection for monitoring
-        if (hasDrift) {
-            log.warn("⚠️ Counter drift detected: sellerId={}, periodKey={}, counter={}, actual={}",
-                sellerId, counter.getPeriodKey(), counter.getLastValue(), expectedValue);
-        }
+    @GetMapping("/drift-report")
+    public ResponseEntity<StreamingResponseBody> driftReport(
+        @RequestParam(required = false) Long afterSellerId,
+        @RequestParam(defaultValue = "true") boolean driftOnly,
+        @RequestParam(defaultValue = "100") int pageSize
+    ) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
+        log.info("📊 Counter drift report accessed: user={}, afterSellerId={}, driftOnly={}",
+            username, afterSellerId, driftOnly);
 
-        return new CounterStatusDto(
-            counter.getResetPeriod(),
-            counter.getPeriodKey(),
-            counter.getLastValue(),
-            counter.getUpdatedAt(),
-            invoiceCount,
-            lastInvoiceNumber,
-            hasDrift,
-            expectedValue
-        );
+        StreamingResponseBody body = out -> counterStatusService.streamDriftReport(
+            afterSellerId, driftOnly, pageSize, entry -> writeLine(out, entry));
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     /**
-     * Extract year from period key based on reset period.
+     * Force drift re-check and heal counters (e.g. after a manual database edit).
      *
-     * <p>Examples:
-     * - MONTHLY "2026-02" → 2026
-     * - YEARLY "2026" → 2026
-     * - NEVER "NEVER" → 0
+     * <p>Heals counters behind MAX(sequence_number) immediately and makes every scope
+     * of the seller (or of all sellers) re-verify on its next invoice number.
+     * Cached scheme timelines are dropped as well, in case schemes were edited by hand.
      *
-     * @param periodKey Period key string
-     * @param resetPeriod Reset strategy
-     * @return Year value (0 for NEVER)
+     * @param sellerId Seller whose counters were edited, omit for all sellers
+     * @return Reconciliation report (counters checked / healed)
      */
-    private int extractYearFromPeriodKey(String periodKey, ResetPeriod resetPeriod) {
-        return switch (resetPeriod) {
-            case MONTHLY -> Integer.parseInt(periodKey.substring(0, 4)); // "2026-02" → 2026
-            case YEARLY -> Integer.parseInt(periodKey); // "2026" → 2026
-            case NEVER -> 0; // "NEVER" → 0
-        };
+    @PostMapping("/reconcile")
+    public CounterReconciliationReport reconcile(@RequestParam(required = false) Long sellerId) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
+        log.info("🔧 Counter reconciliation forced: user={}, sellerId={}", username, sellerId);
+
+        if (sellerId != null) {
+            schemeResolver.evict(sellerId);
+        } else {
+            schemeResolver.evictAll();
+        }
+        return reconciliationService.reconcile(sellerId);
     }
 
-    /**
-     * Extract month from period key based on reset period.
-     *
-     * <p>Examples:
-     * - MONTHLY "2026-02" → 2
-     * - YEARLY "2026" → 0
-     * - NEVER "NEVER" → 0
-     *
-     * @param periodKey Period key string
-     * @param resetPeriod Reset strategy
-     * @return Month value (0 for YEARLY/NEVER)
-     */
-    private int extractMonthFromPeriodKey(String periodKey, ResetPeriod resetPeriod) {
-        return switch (resetPeriod) {
-            case MONTHLY -> Integer.parseInt(periodKey.substring(5, 7)); // "2026-02" → 2
-            case YEARLY, NEVER -> 0; // No month component
-        };
+    private void writeLine(OutputStream out, SellerCounterStatus entry) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(entry));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Drift report stream interrupted", e);
+        }
     }
 }
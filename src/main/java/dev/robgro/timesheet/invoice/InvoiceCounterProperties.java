@@ -0,0 +1,46 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.invoice-counters")
+@Getter
+@Setter
+public class InvoiceCounterProperties {
+
+    /**
+     * Enable/disable the periodic counter drift reconciliation
+     */
+    private boolean reconciliationEnabled = true;
+
+    /**
+     * Cron expression for the reconciliation run
+     * Default: every day at 3:15 AM
+     */
+    private String reconciliationCron = "0 15 3 * * ?";
+
+    /**
+     * Reconcile all counters once when the application starts
+     * (catches drift from migrations/backfills before the first invoice is issued)
+     */
+    private boolean reconcileOnStartup = true;
+
+    /**
+     * Attempts for an invoice transaction that fails on counter lock contention
+     * (deadlock 1213 / lock wait timeout 1205 / SQLState 40001). 1 = no retry
+     */
+    private int lockRetryMaxAttempts = 3;
+
+    /**
+     * Backoff ceiling for the first retry in milliseconds (doubles per attempt, full jitter)
+     */
+    private long lockRetryInitialBackoffMs = 25;
+
+    /**
+     * Upper bound for a single retry backoff in milliseconds
+     */
+    private long lockRetryMaxBackoffMs = 250;
+}
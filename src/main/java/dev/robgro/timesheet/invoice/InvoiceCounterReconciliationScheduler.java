@@ -0,0 +1,44 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.invoice-counters.reconciliation-enabled", havingValue = "true", matchIfMissing = true)
+public class InvoiceCounterReconciliationScheduler {
+
+    private final InvoiceCounterReconciliationService reconciliationService;
+    private final InvoiceCounterProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (properties.isReconcileOnStartup()) {
+            runReconciliation("startup");
+        }
+    }
+
+    @Scheduled(cron = "${app.invoice-counters.reconciliation-cron:0 15 3 * * ?}")
+    public void reconcilePeriodically() {
+        runReconciliation("scheduled");
+    }
+
+    private void runReconciliation(String trigger) {
+        log.info("▶ Starting counter reconciliation ({})", trigger);
+        try {
+            CounterReconciliationReport report = reconciliationService.reconcile(null);
+            if (report.countersHealed() > 0) {
+                log.warn("⚠️ Counter reconciliation healed {} of {} counters", report.countersHealed(), report.countersChecked());
+            }
+        } catch (Exception e) {
+            // Issuance still verifies each scope on first use - a failed run is not fatal
+            log.error("❌ Counter reconciliation ({}) failed", trigger, e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-hot-path counter drift reconciliation.
+ *
+ * <p>Compares every counter with MAX(sequence_number) of its period using two queries
+ * (all counters + one GROUP BY over invoices), heals counters that are behind with the
+ * GREATEST() UPSERT and marks their scopes verified in {@link VerifiedCounterScopeRegistry}.
+ *
+ * <p>Scopes of the reconciled seller(s) are invalidated first, so a period whose counter
+ * row is missing (e.g. deleted by hand) is re-checked on its next issuance.
+ *
+ * <p>Triggered by:
+ * - application startup and the periodic job (InvoiceCounterReconciliationScheduler)
+ * - admin endpoint POST /internal/invoice-counters/reconcile after manual edits
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceCounterReconciliationService {
+
+    private final InvoiceNumberCounterRepository counterRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PeriodKeyFactory periodKeyFactory;
+    private final VerifiedCounterScopeRegistry verifiedScopes;
+    private final InvoiceNumberPreviewService previewService;
+
+    /**
+     * Reconcile counters of one seller (or all sellers).
+     *
+     * @param sellerId Seller to reconcile, null for all sellers
+     * @return Report with number of counters checked and healed
+     */
+    public CounterReconciliationReport reconcile(Long sellerId) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+
+        if (sellerId == null) {
+            verifiedScopes.invalidateAll();
+        } else {
+            verifiedScopes.invalidateSeller(sellerId);
+        }
+
+        Map<Long, Map<PeriodComponents, Integer>> maxSequences = new HashMap<>();
+        for (PeriodMaxSequence row : invoiceRepository.findMaxSequencePerPeriod(sellerId)) {
+            maxSequences.computeIfAbsent(row.sellerId(), id -> new HashMap<>())
+                .put(new PeriodComponents(row.periodYear(), row.periodMonth()), row.maxSequence());
+        }
+
+        List<InvoiceNumberCounter> counters = sellerId == null
+            ? counterRepository.findAll()
+            : counterRepository.findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(sellerId);
+
+        int healed = 0;
+        for (InvoiceNumberCounter counter : counters) {
+            PeriodComponents period = periodKeyFactory.parse(counter.getResetPeriod(), counter.getPeriodKey());
+            Integer maxSeq = maxSequences.getOrDefault(counter.getSellerId(), Map.of()).get(period);
+
+            if (maxSeq != null && maxSeq > counter.getLastValue()) {
+                log.warn("Counter drift detected — reconciling: sellerId={}, periodKey={}, counter={}, maxSeq={}",
+                    counter.getSellerId(), counter.getPeriodKey(), counter.getLastValue(), maxSeq);
+                counterRepository.healCounterIfBehind(counter.getSellerId(), counter.getResetPeriod().name(),
+                    counter.getPeriodKey(), counter.getFyStartYear(), maxSeq);
+                healed++;
+            }
+
+            verifiedScopes.markVerified(
+                new InvoiceCounterScope(counter.getSellerId(), counter.getResetPeriod(), counter.getPeriodKey()));
+        }
+
+        // Healed or hand-edited counters: previews reload them
+        previewService.invalidate(sellerId);
+
+        CounterReconciliationReport report = new CounterReconciliationReport(
+            sellerId, counters.size(), healed, verifiedScopes.size(),
+            startedAt, System.currentTimeMillis() - start);
+
+        log.info("Counter reconciliation finished: sellerId={}, checked={}, healed={}, duration={}ms",
+            sellerId, report.countersChecked(), report.countersHealed(), report.durationMs());
+        return report;
+    }
+}
@@ -0,0 +1,23 @@
+package dev.robgro.timesheet.invoice;
+
+/**
+ * Identity of one invoice number counter: (seller, reset period, period key).
+ * Same columns as the unique_counter_scope constraint on invoice_number_counters.
+ */
+public record InvoiceCounterScope(
+    /**
+     * Seller (tenant) ID.
+     */
+    Long sellerId,
+
+    /**
+     * Reset strategy (MONTHLY, YEARLY, NEVER).
+     */
+    ResetPeriod resetPeriod,
+
+    /**
+     * Period identifier matching V27 format (e.g., "2026-02", "2026", "NEVER").
+     */
+    String periodKey
+) {
+}
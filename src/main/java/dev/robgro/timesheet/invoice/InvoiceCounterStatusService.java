@@ -0,0 +1,90 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Counter status with drift detection, read with one aggregated query per seller page.
+ *
+ * <p>Replaces the former per-counter lookups (COUNT, MAX(sequence_number) and last invoice
+ * for every counter row - three queries per counter, hundreds per page for sellers with
+ * years of monthly counters).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceCounterStatusService {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final InvoiceNumberCounterRepository counterRepository;
+
+    /**
+     * Counter status for one seller (ONE query).
+     *
+     * @param sellerId Tenant ID to check counters for
+     * @return Counters ordered by reset period ASC, period key DESC
+     */
+    public List<CounterStatusDto> getCounterStatus(Long sellerId) {
+        List<CounterStatusRow> rows = counterRepository.findCounterStatus(sellerId, sellerId);
+        rows.stream()
+            .filter(CounterStatusRow::hasDrift)
+            .forEach(row -> log.warn("⚠️ Counter drift detected: sellerId={}, periodKey={}, counter={}, actual={}",
+                sellerId, row.periodKey(), row.lastValue(), row.expectedValue()));
+        return rows.stream()
+            .map(CounterStatusRow::toStatus)
+            .toList();
+    }
+
+    /**
+     * Walk counters of all sellers in keyset pages of sellers and hand every entry to
+     * {@code sink} as soon as its page is read. Memory is bounded by one page.
+     *
+     * <p>Per page: one query for the next seller IDs, one status query for their counters.
+     *
+     * @param afterSellerId Resume after this seller ID (null = from the start)
+     * @param driftOnly Emit only counters with drift
+     * @param pageSize Sellers per page (clamped to 1..500)
+     * @param sink Receives entries in seller ID order
+     * @return Number of entries emitted
+     */
+    public long streamDriftReport(Long afterSellerId, boolean driftOnly, int pageSize,
+                                  Consumer<SellerCounterStatus> sink) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        Long cursor = afterSellerId;
+        long emitted = 0;
+        long drifted = 0;
+
+        while (true) {
+            List<Long> sellerIds = counterRepository.findCounterSellerIds(cursor, limit);
+            if (sellerIds.isEmpty()) {
+                break;
+            }
+
+            Long first = sellerIds.get(0);
+            Long last = sellerIds.get(sellerIds.size() - 1);
+            for (CounterStatusRow row : counterRepository.findCounterStatus(first, last)) {
+                if (row.hasDrift()) {
+                    drifted++;
+                }
+                if (!driftOnly || row.hasDrift()) {
+                    sink.accept(new SellerCounterStatus(row.sellerId(), row.toStatus()));
+                    emitted++;
+                }
+            }
+
+            if (sellerIds.size() < limit) {
+                break;
+            }
+            cursor = last;
+        }
+
+        log.info("Counter drift report: afterSellerId={}, driftOnly={}, emitted={}, drifted={}",
+            afterSellerId, driftOnly, emitted, drifted);
+        return emitted;
+    }
+}
@@ -12,5 +12,14 @@ public interface InvoiceCreationService {
 
     InvoiceDto createInvoice(Long clientId, Long sellerId, LocalDate issueDate, List<Long> timesheetIds);
 
+    /**
+     * Create one invoice of a monthly billing run in its own transaction, numbered by the
+     * regular counter path. Seller and timesheets were already loaded by the run.
+     *
+     * @throws dev.robgro.timesheet.exception.BusinessRuleViolationException if a timesheet
+     *         was invoiced after the run read it (nothing of this invoice is kept)
+     */
+    InvoiceDto createBillingRunInvoice(Long clientId, Seller seller, LocalDate issueDate, List<TimesheetDto> timesheets);
+
     InvoiceDto buildInvoicePreview(Long clientId, Long sellerId, LocalDate issueDate, List<Long> timesheetIds);
 }
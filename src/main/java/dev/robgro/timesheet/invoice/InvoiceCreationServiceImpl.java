@@ -1,18 +1,22 @@
 package dev.robgro.timesheet.invoice;
 
 import dev.robgro.timesheet.client.ClientService;
+import dev.robgro.timesheet.etag.ResourceChangeTracker;
+import dev.robgro.timesheet.etag.TrackedResource;
 import dev.robgro.timesheet.exception.BusinessRuleViolationException;
 import dev.robgro.timesheet.exception.ValidationException;
+import dev.robgro.timesheet.revenue.RevenueBucket;
+import dev.robgro.timesheet.revenue.RevenueRollupService;
 import dev.robgro.timesheet.client.ClientDto;
 import dev.robgro.timesheet.seller.Seller;
 import dev.robgro.timesheet.seller.SellerRepository;
 import dev.robgro.timesheet.timesheet.TimesheetDto;
-import dev.robgro.timesheet.timesheet.Timesheet;
 import dev.robgro.timesheet.client.ClientRepository;
 import dev.robgro.timesheet.timesheet.TimesheetRepository;
 import dev.robgro.timesheet.timesheet.TimesheetService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -35,12 +39,51 @@ public class    InvoiceCreationServiceImpl implements InvoiceCreationService {
     private final ClientRepository clientRepository;
     private final SellerRepository sellerRepository;
     private final InvoiceNumberGenerator invoiceNumberGenerator;
+    private final RevenueRollupService revenueRollupService;
+    private final ResourceChangeTracker resourceChangeTracker;
 
     @Transactional
     @Override
     public InvoiceDto createInvoiceFromTimesheets(ClientDto client, Seller seller, List<TimesheetDto> timesheets, LocalDate issueDate) {
+        Invoice savedInvoice = saveInvoice(client.id(), seller, timesheets, issueDate);
+
+        timesheetRepository.attachToInvoice(distinctIds(timesheets), savedInvoice, savedInvoice.getInvoiceNumber(),
+                LocalDateTime.now());
+        resourceChangeTracker.markChanged(TrackedResource.TIMESHEETS);
+        revenueRollupService.refresh(RevenueBucket.of(seller.getId(), client.id(), issueDate));
+
+        // savedInvoice already holds everything the DTO needs - no reload
+        return invoiceDtoMapper.apply(savedInvoice);
+    }
+
+    /**
+     * Own transaction even when called inside one: with CallerRunsPolicy the billing run
+     * may execute a client on its own thread, and that client must still commit or roll
+     * back alone. The run read the timesheets outside this transaction, so they are
+     * claimed conditionally - if another invoice took one meanwhile, only this client fails.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Override
+    public InvoiceDto createBillingRunInvoice(Long clientId, Seller seller, LocalDate issueDate,
+                                              List<TimesheetDto> timesheets) {
+        Invoice savedInvoice = saveInvoice(clientId, seller, timesheets, issueDate);
+
+        List<Long> timesheetIds = distinctIds(timesheets);
+        int claimed = timesheetRepository.claimForInvoice(timesheetIds, savedInvoice, savedInvoice.getInvoiceNumber(),
+                LocalDateTime.now());
+        resourceChangeTracker.markChanged(TrackedResource.TIMESHEETS);
+        if (claimed < timesheetIds.size()) {
+            throw new BusinessRuleViolationException(
+                    "Timesheets of client " + clientId + " were invoiced by another process during the billing run");
+        }
+        revenueRollupService.refresh(RevenueBucket.of(seller.getId(), clientId, issueDate));
+
+        return invoiceDtoMapper.apply(savedInvoice);
+    }
+
+    private Invoice saveInvoice(Long clientId, Seller seller, List<TimesheetDto> timesheets, LocalDate issueDate) {
         Invoice invoice = new Invoice();
-        invoice.setClient(clientRepository.getReferenceById(client.id()));
+        invoice.setClient(clientRepository.getReferenceById(clientId));
         invoice.setSeller(seller);
         invoice.setIssueDate(issueDate);
 
@@ -62,22 +105,12 @@ public class    InvoiceCreationServiceImpl implements InvoiceCreationService {
         invoice.setTotalAmount(calculateTotalAmount(items));
         invoice.setIssuedDate(LocalDateTime.now());
 
-        Invoice savedInvoice = invoiceRepository.save(invoice);
-
-        List<Timesheet> updatedTimesheets = timesheets.stream()
-                .map(timesheet -> {
-                    Timesheet ts = timesheetRepository.findById(timesheet.id()).orElseThrow();
-                    ts.setInvoiced(true);
-                    ts.setInvoice(savedInvoice);
-                    ts.setInvoiceNumber(savedInvoice.getInvoiceNumber());
-                    return ts;
-                })
-                .collect(Collectors.toList());
-
-        timesheetRepository.saveAll(updatedTimesheets);
+        // Invoice INSERT now; its items are queued and flushed as one batch by the timesheet UPDATE
+        return invoiceRepository.save(invoice);
+    }
 
-        Invoice refreshedInvoice = invoiceRepository.findById(savedInvoice.getId()).orElseThrow();
-        return invoiceDtoMapper.apply(refreshedInvoice);
+    private List<Long> distinctIds(List<TimesheetDto> timesheets) {
+        return timesheets.stream().map(TimesheetDto::id).distinct().toList();
     }
 
     @Transactional
@@ -96,8 +129,7 @@ public class    InvoiceCreationServiceImpl implements InvoiceCreationService {
             throw new BusinessRuleViolationException("Cannot create invoice: seller is inactive");
         }
 
-        List<TimesheetDto> selectedTimesheets = timesheetIds.stream()
-                .map(timesheetService::getTimesheetById)
+        List<TimesheetDto> selectedTimesheets = timesheetService.getTimesheetsByIds(timesheetIds).stream()
                 .filter(timesheet -> !timesheet.invoiced())
                 .collect(Collectors.toList());
 
@@ -161,8 +193,7 @@ public class    InvoiceCreationServiceImpl implements InvoiceCreationService {
             throw new BusinessRuleViolationException("Cannot create invoice: seller is inactive");
         }
 
-        List<TimesheetDto> selectedTimesheets = timesheetIds.stream()
-                .map(timesheetService::getTimesheetById)
+        List<TimesheetDto> selectedTimesheets = timesheetService.getTimesheetsByIds(timesheetIds).stream()
                 .filter(timesheet -> !timesheet.invoiced())
                 .collect(Collectors.toList());
 
@@ -0,0 +1,45 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the invoice list order (numberSortKey DESC, id DESC).
+ *
+ * <p>Sent to clients as an opaque URL-safe token; the next page starts strictly after it.
+ * id is the tie-breaker - sequence numbers repeat across sellers.
+ *
+ * @param numberSortKey Invoice number sort key of the last invoice on the page
+ * @param id ID of the last invoice
+ */
+public record InvoiceCursor(long numberSortKey, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static InvoiceCursor after(Invoice invoice) {
+        return new InvoiceCursor(invoice.getNumberSortKey(), invoice.getId());
+    }
+
+    /**
+     * @throws ValidationException if the token was not produced by {@link #encode()}
+     */
+    public static InvoiceCursor decode(String token) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("expected 2 components");
+            }
+            return new InvoiceCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("cursor", "Malformed invoice cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = numberSortKey + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
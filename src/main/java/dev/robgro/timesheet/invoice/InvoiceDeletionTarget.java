@@ -0,0 +1,20 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.revenue.RevenueBucket;
+
+import java.time.LocalDate;
+
+/**
+ * What a bulk deletion needs to know about an invoice, read without loading the entity.
+ *
+ * @param id Invoice ID
+ * @param sellerId Seller ID (null for legacy invoices)
+ * @param clientId Client ID
+ * @param issueDate Issue date
+ */
+public record InvoiceDeletionTarget(Long id, Long sellerId, Long clientId, LocalDate issueDate) {
+
+    RevenueBucket revenueBucket() {
+        return RevenueBucket.of(sellerId, clientId, issueDate);
+    }
+}
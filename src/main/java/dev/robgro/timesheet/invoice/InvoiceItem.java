@@ -1,5 +1,6 @@
 package dev.robgro.timesheet.invoice;
 
+import dev.robgro.timesheet.etag.ResourceChangeListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -8,13 +9,23 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners(ResourceChangeListener.class)
 @Getter
 @Setter
 @Table(name = "invoice_items")
 public class InvoiceItem {
 
+    /**
+     * IDs reserved per generator round trip. IDENTITY would force one INSERT per item
+     * (the id is only known after the insert); pooled ids let an invoice's items go out as one
+     * JDBC batch. Must match the backfill offset in V37.
+     */
+    static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "invoice_item_ids")
+    @TableGenerator(name = "invoice_item_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "invoice_items", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne
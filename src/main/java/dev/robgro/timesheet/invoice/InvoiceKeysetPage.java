@@ -0,0 +1,15 @@
+package dev.robgro.timesheet.invoice;
+
+import java.util.List;
+
+/**
+ * One page of the keyset-paginated invoice list.
+ *
+ * @param invoices Invoices in list order (newest period first)
+ * @param nextCursor Token for the next page, null on the last page
+ */
+public record InvoiceKeysetPage(
+        List<InvoiceDto> invoices,
+        String nextCursor
+) {
+}
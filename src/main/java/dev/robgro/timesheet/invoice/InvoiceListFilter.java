@@ -0,0 +1,90 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.exception.ValidationException;
+import jakarta.persistence.Query;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Invoice list filters as index-friendly predicates on the {@code i} (Invoice) alias.
+ *
+ * <p>Only supplied filters become conditions - no {@code :param IS NULL OR ...} catch-alls.
+ * Year/month filters become a half-open issue date range [from, to), so
+ * {@code (client_id, issue_date)} / {@code (issue_date)} indexes can be range-scanned
+ * instead of evaluating YEAR()/MONTH() on every row.
+ *
+ * @param clientId Client ID, null = all clients
+ * @param fromDate First issue date included, null = unbounded
+ * @param toDateExclusive First issue date NOT included, null = unbounded
+ * @param monthOfAnyYear Month (1-12) matched in every year - only when a month is picked without a year
+ */
+record InvoiceListFilter(Long clientId, LocalDate fromDate, LocalDate toDateExclusive, Integer monthOfAnyYear) {
+
+    /**
+     * Archive/PDF list filters: year, year + month, or month alone.
+     *
+     * @throws ValidationException if month is outside 1-12
+     */
+    static InvoiceListFilter forPeriod(Long clientId, Integer year, Integer month) {
+        if (month != null && (month < 1 || month > 12)) {
+            throw new ValidationException("month", "Month must be between 1 and 12");
+        }
+        if (year == null) {
+            // Month across all years cannot be one range - the only non-sargable predicate left
+            return new InvoiceListFilter(clientId, null, null, month);
+        }
+        if (month == null) {
+            LocalDate from = LocalDate.of(year, 1, 1);
+            return new InvoiceListFilter(clientId, from, from.plusYears(1), null);
+        }
+        LocalDate from = LocalDate.of(year, month, 1);
+        return new InvoiceListFilter(clientId, from, from.plusMonths(1), null);
+    }
+
+    /**
+     * Date range search with an inclusive upper bound (as entered on the form).
+     */
+    static InvoiceListFilter forDateRange(Long clientId, LocalDate fromDate, LocalDate toDateInclusive) {
+        return new InvoiceListFilter(clientId, fromDate, toDateInclusive != null ? toDateInclusive.plusDays(1) : null, null);
+    }
+
+    /**
+     * @return " WHERE ..." with the supplied filters, or "" when nothing is filtered
+     */
+    String whereClause() {
+        List<String> conditions = new ArrayList<>(4);
+        if (clientId != null) {
+            conditions.add("i.client.id = :clientId");
+        }
+        if (fromDate != null) {
+            conditions.add("i.issueDate >= :fromDate");
+        }
+        if (toDateExclusive != null) {
+            conditions.add("i.issueDate < :toDate");
+        }
+        if (monthOfAnyYear != null) {
+            conditions.add("MONTH(i.issueDate) = :month");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Bind the parameters used by {@link #whereClause()}.
+     */
+    void bind(Query query) {
+        if (clientId != null) {
+            query.setParameter("clientId", clientId);
+        }
+        if (fromDate != null) {
+            query.setParameter("fromDate", fromDate);
+        }
+        if (toDateExclusive != null) {
+            query.setParameter("toDate", toDateExclusive);
+        }
+        if (monthOfAnyYear != null) {
+            query.setParameter("month", monthOfAnyYear);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package dev.robgro.timesheet.invoice;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Full invoice list (with items) without materializing the whole history.
+ *
+ * <p>Both modes walk invoices in list order (numberSortKey DESC, id DESC):
+ * - keyset pages: one page query per request, resumed from an opaque {@link InvoiceCursor}
+ *   (no OFFSET - page N costs the same as page 1)
+ * - export: the same keyset page query repeated, {@link Invoice#ITEM_BATCH_SIZE} invoices at a time
+ *
+ * <p>Items load in batches of {@link Invoice#ITEM_BATCH_SIZE} invoices in both modes.
+ * The export detaches every mapped page, so memory stays at one page no matter
+ * how many invoices exist. No result set stays open while items load: the MariaDB driver
+ * would have to buffer the rest of a streaming result before the connection can run
+ * another statement.
+ *
+ * <p>Report detail rows stream the same way, as {@link InvoiceSummary} projections.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceListingService {
+
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceDtoMapper invoiceDtoMapper;
+    private final EntityManager entityManager;
+
+    /**
+     * One keyset page of invoices.
+     *
+     * @param cursor Token from the previous page's nextCursor (null/blank = first page)
+     * @param limit Invoices per page (clamped to 1..200)
+     * @return Page with the cursor of the next page (null on the last page)
+     * @throws dev.robgro.timesheet.exception.ValidationException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public InvoiceKeysetPage getPage(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists (no COUNT query)
+        Pageable window = PageRequest.of(0, pageSize + 1);
+
+        List<Invoice> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = invoiceRepository.findFirstKeysetPage(window);
+        } else {
+            InvoiceCursor after = InvoiceCursor.decode(cursor);
+            rows = invoiceRepository.findKeysetPageAfter(after.numberSortKey(), after.id(), window);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Invoice> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? InvoiceCursor.after(page.get(page.size() - 1)).encode() : null;
+
+        return new InvoiceKeysetPage(page.stream().map(invoiceDtoMapper).toList(), nextCursor);
+    }
+
+    /**
+     * Stream every invoice to {@code sink} in list order, as it is mapped.
+     *
+     * <p>Reads a keyset page of {@link Invoice#ITEM_BATCH_SIZE} invoices, maps them (their items
+     * load in one batch), hands them to the sink and clears the persistence context before
+     * reading the next page after the last invoice written.
+     *
+     * @param sink Receives invoices in list order (e.g. writes an NDJSON line)
+     * @return Number of invoices streamed
+     */
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<InvoiceDto> sink) {
+        Pageable window = PageRequest.of(0, Invoice.ITEM_BATCH_SIZE);
+        long streamed = 0;
+
+        List<Invoice> page = invoiceRepository.findFirstKeysetPage(window);
+        while (!page.isEmpty()) {
+            for (Invoice invoice : page) {
+                sink.accept(invoiceDtoMapper.apply(invoice));
+            }
+            streamed += page.size();
+            if (page.size() < Invoice.ITEM_BATCH_SIZE) {
+                break;
+            }
+            InvoiceCursor after = InvoiceCursor.after(page.get(page.size() - 1));
+            // Detach written invoices (and their items, clients, sellers) - read-only, nothing to flush
+            entityManager.clear();
+            page = invoiceRepository.findKeysetPageAfter(after.numberSortKey(), after.id(), window);
+        }
+
+        log.info("Invoice export streamed {} invoices", streamed);
+        return streamed;
+    }
+
+    /**
+     * Stream the detail rows of an invoice report to {@code sink}, oldest issue date first.
+     *
+     * <p>Rows are projections, not entities, so nothing accumulates in the persistence context.
+     *
+     * @param dateRange Issue month range (missing bounds = unbounded)
+     * @param clientId Client ID, null = all clients
+     * @param sink Receives rows as they are read (e.g. writes an NDJSON line)
+     * @return Number of rows streamed
+     */
+    @Transactional(readOnly = true)
+    public long streamReport(DateRangeRequest dateRange, Long clientId, Consumer<InvoiceSummary> sink) {
+        long streamed = 0;
+        try (Stream<InvoiceSummary> rows = invoiceRepository.streamSummariesForReporting(
+                clientId, dateRange.startDate(), dateRange.endDate())) {
+            Iterator<InvoiceSummary> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                streamed++;
+            }
+        }
+        log.info("Invoice report streamed {} rows", streamed);
+        return streamed;
+    }
+}
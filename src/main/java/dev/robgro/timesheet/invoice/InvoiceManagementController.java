@@ -1,16 +1,29 @@
 package dev.robgro.timesheet.invoice;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.robgro.timesheet.etag.ConditionalResponses;
+import dev.robgro.timesheet.etag.TrackedResource;
+import dev.robgro.timesheet.etag.VersionStamp;
+import dev.robgro.timesheet.exception.ValidationException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/invoices")
@@ -18,24 +31,95 @@ import java.util.List;
 @Tag(name = "Invoice Management", description = "API endpoints for general invoice operations")
 public class InvoiceManagementController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final InvoiceService invoiceService;
     private final BillingService billingService;
+    private final InvoiceListingService invoiceListingService;
+    private final ObjectMapper objectMapper;
+    private final ConditionalResponses conditionalResponses;
 
-    @Operation(summary = "Get all invoices")
-    @ApiResponse(responseCode = "200", description = "List of all invoices retrieved successfully")
+    /**
+     * Whole invoice list as one JSON array. Kept for existing callers - prefer
+     * {@code /page} (UI lists) or {@code /export} (integrations) for large histories.
+     */
+    @Operation(summary = "Get all invoices",
+            description = "Materializes every invoice in one response; use /page or /export for large histories")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of all invoices retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match / If-Modified-Since)")
+    })
     @GetMapping
-    public ResponseEntity<List<InvoiceDto>> getAllInvoices() {
-        return ResponseEntity.ok(invoiceService.getAllInvoices());
+    public ResponseEntity<List<InvoiceDto>> getAllInvoices(ServletWebRequest request) {
+        return conditionalResponses.collection(request, invoiceListStamp(), invoiceService::getAllInvoices);
+    }
+
+    @Operation(summary = "Get invoices page (keyset)",
+            description = "Newest period first. Pass nextCursor of the previous page as cursor; null nextCursor = last page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match / If-Modified-Since)"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor")
+    })
+    @GetMapping("/page")
+    public ResponseEntity<InvoiceKeysetPage> getInvoicePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            ServletWebRequest request) {
+        return conditionalResponses.collection(request, invoiceListStamp(),
+                () -> invoiceListingService.getPage(cursor, limit));
+    }
+
+    /**
+     * Invoice lists show client and seller names and the time-dependent email status.
+     */
+    private VersionStamp invoiceListStamp() {
+        return conditionalResponses.collectionStamp(TrackedResource.INVOICES, TrackedResource.CLIENTS,
+                        TrackedResource.SELLERS)
+                .withState(invoiceService.countEmailWarnings());
+    }
+
+    @Operation(summary = "Export all invoices (NDJSON)",
+            description = "Full history in list order, one invoice JSON per line, streamed as it is read")
+    @ApiResponse(responseCode = "200", description = "Invoice stream started")
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportInvoices() {
+        StreamingResponseBody body = out -> invoiceListingService.streamAll(invoice -> writeLine(out, invoice));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    @Operation(summary = "Get invoice report totals",
+            description = "Invoice count, total and per-client/per-month subtotals for an issue month range, "
+                    + "grouped in the database. Detail rows: /report/details")
+    @ApiResponse(responseCode = "200", description = "Report totals computed")
+    @GetMapping("/report")
+    public ResponseEntity<InvoiceReportData> getReport(
+            @RequestParam(required = false) Long clientId,
+            @ModelAttribute DateRangeRequest dateRange) {
+        return ResponseEntity.ok(invoiceService.generateReport(dateRange, clientId, false));
+    }
+
+    @Operation(summary = "Export invoice report rows (NDJSON)",
+            description = "One invoice summary per line for an issue month range, oldest first, streamed as it is read")
+    @ApiResponse(responseCode = "200", description = "Report row stream started")
+    @GetMapping(value = "/report/details", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReportDetails(
+            @RequestParam(required = false) Long clientId,
+            @ModelAttribute DateRangeRequest dateRange) {
+        StreamingResponseBody body = out -> invoiceListingService.streamReport(dateRange, clientId, row -> writeLine(out, row));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
     }
 
     @Operation(summary = "Get invoice by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Invoice found"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match / If-Modified-Since)"),
             @ApiResponse(responseCode = "404", description = "Invoice not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<InvoiceDto> getInvoiceById(@PathVariable long id) {
-        return ResponseEntity.ok(invoiceService.getInvoiceById(id));
+    public ResponseEntity<InvoiceDto> getInvoiceById(@PathVariable long id, ServletWebRequest request) {
+        return conditionalResponses.resource(request, invoiceService.findVersionStamp(id),
+                () -> invoiceService.getInvoiceById(id));
     }
 
     @Operation(summary = "Find invoice by number")
@@ -57,7 +141,7 @@ public class InvoiceManagementController {
             @RequestParam int year,
             @RequestParam int month) {
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(billingService.generateMonthlyInvoices(year, month));
+                .body(billingService.generateMonthlyInvoices(year, month).invoices());
     }
 
     @Operation(summary = "Update existing invoice")
@@ -72,4 +156,29 @@ public class InvoiceManagementController {
             @RequestBody InvoiceUpdateRequest request) {
         return ResponseEntity.ok(invoiceService.updateInvoice(id, request));
     }
+
+    @Operation(summary = "Delete several invoices",
+            description = "All-or-nothing, one transaction (e.g. undo a botched monthly run). ADMIN only")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Invoices deleted"),
+            @ApiResponse(responseCode = "404", description = "An invoice was not found - nothing deleted")
+    })
+    @PostMapping("/bulk-delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> deleteInvoices(@RequestBody BulkDeleteInvoicesRequest request) {
+        if (request.invoiceIds() == null || request.invoiceIds().isEmpty()) {
+            throw new ValidationException("invoiceIds", "At least one invoice ID is required");
+        }
+        return ResponseEntity.ok(Map.of("deleted",
+                invoiceService.deleteInvoices(request.invoiceIds(), request.deleteTimesheets())));
+    }
+
+    private void writeLine(OutputStream out, Object line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invoice export stream interrupted", e);
+        }
+    }
 }
@@ -1,8 +1,11 @@
 package dev.robgro.timesheet.invoice;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,50 +20,13 @@ import java.util.List;
  *
  * <p>Thread-safe: Multiple concurrent requests for same scope
  * (seller_id, reset_period, period_key) will get unique sequence numbers.
+ *
+ * <p>The increment itself lives in {@link InvoiceNumberCounterRepositoryCustom#bumpAndGet}
+ * (single round trip via JDBC generated keys).
  */
 @Repository
-public interface InvoiceNumberCounterRepository extends JpaRepository<InvoiceNumberCounter, Long> {
-
-    /**
-     * Atomically increment counter and set LAST_INSERT_ID() for retrieval.
-     *
-     * <p>UPSERT behavior:
-     * - First invoice: INSERT with last_value=LAST_INSERT_ID(1), sets LAST_INSERT_ID=1
-     * - Subsequent: UPDATE last_value=LAST_INSERT_ID(last_value+1), returns new value
-     *
-     * <p>CRITICAL: Must use {@code LAST_INSERT_ID(1)} in INSERT to ensure
-     * first sequence returns 1 (not auto_increment ID). Correctness > hygiene.
-     *
-     * @param sellerId Tenant ID (multi-tenant isolation)
-     * @param resetPeriod Reset strategy (MONTHLY, YEARLY, NEVER)
-     * @param periodKey Period identifier matching V27 format (e.g., "2026-02")
-     * @param fyStartYear Fiscal year start (currently unused, pass null)
-     * @return Number of rows affected (1 = success)
-     */
-    @Modifying
-    @Transactional
-    @Query(value = """
-        INSERT INTO invoice_number_counters (seller_id, reset_period, period_key, last_value, fy_start_year)
-        VALUES (:sellerId, :resetPeriod, :periodKey, LAST_INSERT_ID(1), :fyStartYear)
-        ON DUPLICATE KEY UPDATE last_value = LAST_INSERT_ID(last_value + 1)
-        """, nativeQuery = true)
-    int bumpAndSetLastInsertId(
-        @Param("sellerId") Long sellerId,
-        @Param("resetPeriod") String resetPeriod,
-        @Param("periodKey") String periodKey,
-        @Param("fyStartYear") Integer fyStartYear
-    );
-
-    /**
-     * Retrieve the value set by LAST_INSERT_ID() in previous UPSERT call.
-     *
-     * <p>MUST be called in same transaction as {@link #bumpAndSetLastInsertId}.
-     * Returns the newly generated sequence number.
-     *
-     * @return Sequence number (1, 2, 3, ...)
-     */
-    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
-    long lastInsertId();
+public interface InvoiceNumberCounterRepository extends JpaRepository<InvoiceNumberCounter, Long>,
+        InvoiceNumberCounterRepositoryCustom {
 
     /**
      * Find all counters for a seller with stable ordering.
@@ -104,6 +70,7 @@ public interface InvoiceNumberCounterRepository extends JpaRepository<InvoiceNum
      */
     @Modifying
     @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "invoice_number_counters"))
     @Query(value = """
         INSERT INTO invoice_number_counters (seller_id, reset_period, period_key, last_value, fy_start_year)
         VALUES (:sellerId, :resetPeriod, :periodKey, :minValue, :fyStartYear)
@@ -0,0 +1,52 @@
+package dev.robgro.timesheet.invoice;
+
+import java.util.List;
+
+/**
+ * JDBC-level counter operations that Spring Data query methods cannot express.
+ *
+ * <p>Implemented by {@link InvoiceNumberCounterRepositoryCustomImpl} and exposed
+ * through {@link InvoiceNumberCounterRepository}.
+ */
+public interface InvoiceNumberCounterRepositoryCustom {
+
+    /**
+     * Atomically increment counter and return the new value in ONE round trip.
+     *
+     * <p>UPSERT behavior:
+     * - First invoice: INSERT with last_value=LAST_INSERT_ID(1) → returns 1
+     * - Subsequent: UPDATE last_value=LAST_INSERT_ID(last_value+1) → returns new value
+     *
+     * <p>MUST run inside the transaction that inserts the invoice (row lock on the
+     * counter is held until commit, rollback restores the previous value).
+     *
+     * @param sellerId Tenant ID (multi-tenant isolation)
+     * @param resetPeriod Reset strategy (MONTHLY, YEARLY, NEVER)
+     * @param periodKey Period identifier matching V27 format (e.g., "2026-02")
+     * @param fyStartYear Fiscal year start (currently unused, pass null)
+     * @return Sequence number (1, 2, 3, ...)
+     */
+    long bumpAndGet(Long sellerId, String resetPeriod, String periodKey, Integer fyStartYear);
+
+    /**
+     * Counters of sellers in [fromSellerId, toSellerId] joined with the aggregates of their
+     * period's invoices - COUNT, MAX(sequence_number) and the last display number - in ONE query.
+     *
+     * <p>Counter period is mapped to invoices (period_year, period_month) like
+     * PeriodKeyFactory.parse: MONTHLY "2026-02" → (2026, 2), YEARLY "2026" → (2026, 0), NEVER → (0, 0).
+     *
+     * @param fromSellerId First seller ID (inclusive)
+     * @param toSellerId Last seller ID (inclusive)
+     * @return Rows ordered by seller_id, reset_period ASC, period_key DESC
+     */
+    List<CounterStatusRow> findCounterStatus(long fromSellerId, long toSellerId);
+
+    /**
+     * Next page of seller IDs that own counters (keyset pagination for the drift report).
+     *
+     * @param afterSellerId Last seller ID of the previous page, null for the first page
+     * @param limit Page size
+     * @return Seller IDs in ascending order
+     */
+    List<Long> findCounterSellerIds(Long afterSellerId, int limit);
+}
@@ -0,0 +1,132 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Single round trip counter increment.
+ *
+ * <p>The value passed to LAST_INSERT_ID(expr) is sent back by the server in the
+ * OK packet of the UPSERT itself (the same value mysql_insert_id() reports), and
+ * the driver exposes it as a generated key. No follow-up SELECT LAST_INSERT_ID() needed.
+ *
+ * <p>Affected rows tell which branch ran:
+ * - 1 → row inserted with LAST_INSERT_ID(1), sequence is 1
+ *   (the generated key would be the auto_increment id, NOT the sequence)
+ * - 2 → row updated, generated key is last_value + 1
+ *
+ * <p>Fallback: if the driver reports no key, SELECT LAST_INSERT_ID() on the same connection.
+ *
+ * <p>Also hosts the counter status query for observability (one query instead of
+ * three per counter row).
+ */
+@RequiredArgsConstructor
+class InvoiceNumberCounterRepositoryCustomImpl implements InvoiceNumberCounterRepositoryCustom {
+
+    private static final String BUMP_SQL = """
+        INSERT INTO invoice_number_counters (seller_id, reset_period, period_key, last_value, fy_start_year)
+        VALUES (?, ?, ?, LAST_INSERT_ID(1), ?)
+        ON DUPLICATE KEY UPDATE last_value = LAST_INSERT_ID(last_value + 1)
+        """;
+
+    /**
+     * Counters joined with per-period invoice aggregates. Window functions give count,
+     * MAX(sequence_number) and the display number of the highest sequence per period
+     * in one scan of the sellers' invoices (rn = 1 keeps one row per period).
+     */
+    private static final String COUNTER_STATUS_SQL = """
+        SELECT c.seller_id, c.reset_period, c.period_key, c.last_value, c.updated_at,
+               COALESCE(p.invoice_count, 0) AS invoice_count,
+               p.max_sequence,
+               p.invoice_number_display AS last_invoice_number
+        FROM invoice_number_counters c
+        LEFT JOIN (
+            SELECT ranked.seller_id, ranked.period_year, ranked.period_month,
+                   ranked.invoice_count, ranked.max_sequence, ranked.invoice_number_display
+            FROM (
+                SELECT i.seller_id, i.period_year, i.period_month, i.invoice_number_display,
+                       COUNT(*) OVER (PARTITION BY i.seller_id, i.period_year, i.period_month) AS invoice_count,
+                       MAX(i.sequence_number) OVER (PARTITION BY i.seller_id, i.period_year, i.period_month) AS max_sequence,
+                       ROW_NUMBER() OVER (PARTITION BY i.seller_id, i.period_year, i.period_month
+                                          ORDER BY i.sequence_number DESC, i.id DESC) AS rn
+                FROM invoices i
+                WHERE i.seller_id BETWEEN ? AND ?
+            ) ranked
+            WHERE ranked.rn = 1
+        ) p ON p.seller_id = c.seller_id
+           AND p.period_year = CASE c.reset_period
+                                   WHEN 'MONTHLY' THEN CAST(SUBSTRING(c.period_key, 1, 4) AS SIGNED)
+                                   WHEN 'YEARLY' THEN CAST(c.period_key AS SIGNED)
+                                   ELSE 0
+                               END
+           AND p.period_month = CASE c.reset_period
+                                    WHEN 'MONTHLY' THEN CAST(SUBSTRING(c.period_key, 6, 2) AS SIGNED)
+                                    ELSE 0
+                                END
+        WHERE c.seller_id BETWEEN ? AND ?
+        ORDER BY c.seller_id, c.reset_period ASC, c.period_key DESC
+        """;
+
+    private static final String COUNTER_SELLER_IDS_SQL = """
+        SELECT DISTINCT seller_id FROM invoice_number_counters
+        WHERE seller_id > ?
+        ORDER BY seller_id
+        LIMIT ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public long bumpAndGet(Long sellerId, String resetPeriod, String periodKey, Integer fyStartYear) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        int affectedRows = jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(BUMP_SQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, sellerId);
+            ps.setString(2, resetPeriod);
+            ps.setString(3, periodKey);
+            ps.setObject(4, fyStartYear, Types.INTEGER);
+            return ps;
+        }, keyHolder);
+
+        if (affectedRows == 1) {
+            return 1L;
+        }
+
+        if (!keyHolder.getKeyList().isEmpty()) {
+            Object key = keyHolder.getKeyList().get(0).values().iterator().next();
+            if (key instanceof Number number && number.longValue() > 0) {
+                return number.longValue();
+            }
+        }
+
+        Long lastInsertId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        return lastInsertId != null ? lastInsertId : 0L;
+    }
+
+    @Override
+    public List<CounterStatusRow> findCounterStatus(long fromSellerId, long toSellerId) {
+        return jdbcTemplate.query(COUNTER_STATUS_SQL, (rs, rowNum) -> new CounterStatusRow(
+            rs.getLong("seller_id"),
+            ResetPeriod.valueOf(rs.getString("reset_period")),
+            rs.getString("period_key"),
+            rs.getInt("last_value"),
+            rs.getObject("updated_at", LocalDateTime.class),
+            rs.getLong("invoice_count"),
+            rs.getObject("max_sequence", Integer.class),
+            rs.getString("last_invoice_number")
+        ), fromSellerId, toSellerId, fromSellerId, toSellerId);
+    }
+
+    @Override
+    public List<Long> findCounterSellerIds(Long afterSellerId, int limit) {
+        return jdbcTemplate.queryForList(COUNTER_SELLER_IDS_SQL, Long.class,
+            afterSellerId != null ? afterSellerId : 0L, limit);
+    }
+}
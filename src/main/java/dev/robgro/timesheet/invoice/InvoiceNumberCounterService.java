@@ -4,6 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service for atomic invoice number sequence generation.
@@ -11,18 +13,26 @@ import org.springframework.transaction.annotation.Transactional;
  * <p>Uses MySQL UPSERT pattern to atomically increment counters without race conditions.
  * Thread-safe: Multiple concurrent requests for same scope will get unique sequence numbers.
  *
- * <p>Self-healing: Before each increment, checks MAX(sequence_number) in invoices table.
- * If counter is behind (drift detected), heals automatically using GREATEST() UPSERT.
- * This prevents duplicate number collisions caused by:
- * - V27 backfill bugs (COUNT vs MAX)
- * - Race conditions with transaction rollbacks
- * - Manual database edits
+ * <p>Drift check (verify once, not on every number): the first time a scope is used on
+ * this node, checks MAX(sequence_number) in invoices table and heals the counter with a
+ * GREATEST() UPSERT if it is behind. The scope is then recorded in
+ * {@link VerifiedCounterScopeRegistry} and later numbers skip the check.
+ * The check is forced again after events that can cause drift:
+ * - rollback of a transaction that issued a number from this scope
+ * - manual database edits (admin reconcile endpoint)
+ * - V27-style backfills (startup / periodic reconciliation, see InvoiceCounterReconciliationService)
+ *
+ * <p>No block reservation: the monthly billing run also takes one number per invoice. Each
+ * client's invoice commits in its own transaction, so numbers reserved up front for the whole
+ * run could not be handed back once a later client had committed - a failed client would leave
+ * a gap. A run of N clients therefore updates the counter row N times.
  *
  * <p>Contract:
  * - Input: sellerId, resetPeriod, periodKey, fyStartYear, periodYear, periodMonth
  * - Output: next sequence number (1, 2, 3, ...)
  * - Thread-safe: atomic increment via UPSERT
- * - Self-healing: counter drift corrected automatically before increment
+ * - Verified scope: ONE round trip per number (UPSERT returning LAST_INSERT_ID)
+ * - Every counter change drops the seller's preview snapshot after commit
  */
 @Service
 @RequiredArgsConstructor
@@ -31,23 +41,24 @@ public class InvoiceNumberCounterService {
 
     private final InvoiceNumberCounterRepository repository;
     private final InvoiceRepository invoiceRepository;
+    private final VerifiedCounterScopeRegistry verifiedScopes;
+    private final InvoiceNumberPreviewService previewService;
 
     /**
-     * Get next sequence number for given scope (atomically), with self-healing drift correction.
+     * Get next sequence number for given scope (atomically).
      *
-     * <p>Self-healing logic (runs before each increment):
+     * <p>Flow:
      * <ol>
-     *   <li>Query MAX(sequence_number) from invoices for this seller+period</li>
-     *   <li>Query current counter value</li>
-     *   <li>If counter is behind MAX(seq) → heal via GREATEST() UPSERT</li>
-     *   <li>Increment counter atomically</li>
+     *   <li>Scope not verified yet → drift check (MAX(seq), counter read, heal if behind)</li>
+     *   <li>Increment counter atomically (single UPSERT round trip)</li>
+     *   <li>After commit → scope marked verified; after rollback → scope invalidated</li>
      * </ol>
      *
      * <p>Example — drift scenario:
      * <pre>
      * invoices: seq 1, 2 (counter somehow lost update for seq=2)
      * counter.lastValue = 1
-     * → self-healing bumps counter to 2
+     * → first use of scope heals counter to 2
      * → nextSequence returns 3 (no collision)
      * </pre>
      *
@@ -64,38 +75,50 @@ public class InvoiceNumberCounterService {
                             Integer fyStartYear, int periodYear, int periodMonth) {
         log.debug("Generating next sequence: sellerId={}, resetPeriod={}, periodKey={}", sellerId, resetPeriod, periodKey);
 
-        // Self-healing: detect and correct counter drift before issuing next number
-        healIfDrifted(sellerId, resetPeriod, periodKey, fyStartYear, periodYear, periodMonth);
+        InvoiceCounterScope scope = new InvoiceCounterScope(sellerId, resetPeriod, periodKey);
+        boolean verified = verifiedScopes.isVerified(scope);
+        if (!verified) {
+            healIfDrifted(sellerId, resetPeriod, periodKey, fyStartYear, periodYear, periodMonth);
+        }
 
-        // Atomic UPSERT: INSERT or UPDATE + set LAST_INSERT_ID
-        repository.bumpAndSetLastInsertId(sellerId, resetPeriod.name(), periodKey, fyStartYear);
+        // Atomic UPSERT: INSERT or UPDATE, new value returned in the same round trip
+        long sequence = repository.bumpAndGet(sellerId, resetPeriod.name(), periodKey, fyStartYear);
 
-        // Retrieve the value set by LAST_INSERT_ID() in same transaction
-        long sequence = repository.lastInsertId();
+        trackScopeOutcome(scope, verified);
+        previewService.invalidateAfterCommit(sellerId);
 
         log.debug("Generated sequence: {} for sellerId={}, periodKey={}", sequence, sellerId, periodKey);
         return (int) sequence;
     }
 
     /**
-     * Peek next sequence number WITHOUT incrementing counter.
+     * Mark scope verified once the issuing transaction commits, drop it on rollback.
      *
-     * <p>CRITICAL: Read-only operation for preview purposes.
-     * Does NOT heal drift — preview may show an optimistic next number.
-     * Actual invoice generation must use {@link #nextSequence} to reserve number.
-     *
-     * @param sellerId Tenant ID (multi-tenant isolation)
-     * @param resetPeriod Reset strategy (MONTHLY, YEARLY, NEVER)
-     * @param periodKey Period identifier matching V27 format (e.g., "2026-02", "2026", "NEVER")
-     * @return Next sequence number (1 if no counter exists, lastValue+1 otherwise)
+     * <p>Verification is only trusted after commit: a heal that rolled back did not happen.
+     * A rollback after the number was issued is the main runtime source of drift,
+     * so the next issuance re-checks the scope.
      */
-    public int peekNextSequence(Long sellerId, ResetPeriod resetPeriod, String periodKey) {
-        log.debug("Peeking next sequence (read-only): sellerId={}, resetPeriod={}, periodKey={}",
-            sellerId, resetPeriod, periodKey);
+    private void trackScopeOutcome(InvoiceCounterScope scope, boolean alreadyVerified) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!alreadyVerified) {
+                verifiedScopes.markVerified(scope);
+            }
+            return;
+        }
 
-        return repository.findBySellerIdAndResetPeriodAndPeriodKey(sellerId, resetPeriod, periodKey)
-            .map(counter -> counter.getLastValue() + 1)
-            .orElse(1);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    if (!alreadyVerified) {
+                        verifiedScopes.markVerified(scope);
+                    }
+                } else {
+                    log.info("Invoice number transaction rolled back - scope will be re-verified: {}", scope);
+                    verifiedScopes.invalidate(scope);
+                }
+            }
+        });
     }
 
     /**
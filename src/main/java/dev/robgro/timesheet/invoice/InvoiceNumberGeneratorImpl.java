@@ -19,6 +19,9 @@ import java.time.LocalDate;
  * - Component-based numbering (sequence, year, month)
  * - Support for backdated invoices (uses issue date, not current date)
  * - No retry logic needed (counters handle concurrency)
+ * - Block reservation for bulk generation (one counter UPSERT per batch)
+ * - Effective scheme resolved from cached per-seller timeline (no scheme query per number)
+ * - Preview (peek) served from a per-seller counter snapshot, see InvoiceNumberPreviewService
  *
  * <p>Replaced MAX+1 approach with atomic UPSERT counters for thread-safety.
  */
@@ -27,10 +30,11 @@ import java.time.LocalDate;
 @Slf4j
 public class InvoiceNumberGeneratorImpl implements InvoiceNumberGenerator {
 
-    private final InvoiceNumberingSchemeRepository schemeRepository;
+    private final EffectiveSchemeResolver schemeResolver;
     private final InvoiceNumberCounterService counterService;
     private final PeriodKeyFactory periodKeyFactory;
     private final TemplateParser templateParser;
+    private final InvoiceNumberPreviewService previewService;
 
     @Override
     @Transactional
@@ -42,15 +46,15 @@ public class InvoiceNumberGeneratorImpl implements InvoiceNumberGenerator {
             throw new ValidationException("Issue date is required");
         }
 
-        InvoiceNumberingScheme scheme = schemeRepository
+        NumberingSchemeSnapshot scheme = schemeResolver
             .findEffectiveScheme(sellerId, issueDate)
             .orElseThrow(() -> new NoSchemeConfiguredException(
                 "No numbering scheme configured for seller " + sellerId + " effective on " + issueDate
             ));
 
-        PeriodComponents period = determinePeriod(issueDate, scheme.getResetPeriod());
-        String periodKey = periodKeyFactory.build(scheme.getResetPeriod(), period.year(), period.month());
-        int seq = counterService.nextSequence(sellerId, scheme.getResetPeriod(), periodKey, null, period.year(), period.month());
+        PeriodComponents period = PeriodComponents.of(issueDate, scheme.resetPeriod());
+        String periodKey = periodKeyFactory.build(scheme.resetPeriod(), period.year(), period.month());
+        int seq = counterService.nextSequence(sellerId, scheme.resetPeriod(), periodKey, null, period.year(), period.month());
 
         TemplateContext context = TemplateContext.builder()
             .sequenceNumber(seq)
@@ -59,61 +63,20 @@ public class InvoiceNumberGeneratorImpl implements InvoiceNumberGenerator {
             .department(department)
             .build();
 
-        String displayNumber = templateParser.apply(scheme.getTemplate(), context);
+        String displayNumber = templateParser.apply(scheme.template(), context);
 
         log.info("Generated invoice number: {} (sellerId={}, resetPeriod={}, periodKey={}, seq={}, year={}, month={})",
-            displayNumber, sellerId, scheme.getResetPeriod(), periodKey, seq, period.year(), period.month());
+            displayNumber, sellerId, scheme.resetPeriod(), periodKey, seq, period.year(), period.month());
 
-        return new GeneratedInvoiceNumber(seq, period.year(), period.month(), displayNumber, scheme.getId());
+        return new GeneratedInvoiceNumber(seq, period.year(), period.month(), displayNumber, scheme.id());
     }
 
+    /**
+     * Served by {@link InvoiceNumberPreviewService} from the cached scheme timeline and
+     * per-seller counter snapshot - no database round trip in the common case.
+     */
     @Override
     public GeneratedInvoiceNumber peekNextInvoiceNumber(Long sellerId, LocalDate issueDate, Department department) {
-        if (sellerId == null) {
-            throw new BusinessRuleViolationException("sellerId is required for invoice number generation");
-        }
-        if (issueDate == null) {
-            throw new ValidationException("Issue date is required");
-        }
-
-        InvoiceNumberingScheme scheme = schemeRepository
-            .findEffectiveScheme(sellerId, issueDate)
-            .orElseThrow(() -> new NoSchemeConfiguredException(
-                "No numbering scheme configured for seller " + sellerId + " effective on " + issueDate
-            ));
-
-        PeriodComponents period = determinePeriod(issueDate, scheme.getResetPeriod());
-        String periodKey = periodKeyFactory.build(scheme.getResetPeriod(), period.year(), period.month());
-        int seq = counterService.peekNextSequence(sellerId, scheme.getResetPeriod(), periodKey);
-
-        TemplateContext context = TemplateContext.builder()
-            .sequenceNumber(seq)
-            .year(issueDate.getYear())
-            .month(issueDate.getMonthValue())
-            .department(department)
-            .build();
-
-        String displayNumber = templateParser.apply(scheme.getTemplate(), context);
-
-        log.info("Peeked invoice number (preview, NOT reserved): {} (sellerId={}, resetPeriod={}, periodKey={}, seq={}, year={}, month={})",
-            displayNumber, sellerId, scheme.getResetPeriod(), periodKey, seq, period.year(), period.month());
-
-        return new GeneratedInvoiceNumber(seq, period.year(), period.month(), displayNumber, scheme.getId());
-    }
-
-    private PeriodComponents determinePeriod(LocalDate issueDate, ResetPeriod resetPeriod) {
-        PeriodComponents period = switch (resetPeriod) {
-            case MONTHLY -> new PeriodComponents(issueDate.getYear(), issueDate.getMonthValue());
-            case YEARLY  -> new PeriodComponents(issueDate.getYear(), 0);
-            case NEVER   -> new PeriodComponents(0, 0);
-        };
-
-        if (resetPeriod == ResetPeriod.MONTHLY && period.month() == 0) {
-            throw new IllegalStateException(
-                "Invalid period: MONTHLY reset cannot have month=0. issueDate=" + issueDate
-            );
-        }
-
-        return period;
+        return previewService.preview(sellerId, issueDate, department);
     }
-}
\ No newline at end of file
+}
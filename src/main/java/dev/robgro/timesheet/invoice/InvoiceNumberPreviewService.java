@@ -0,0 +1,159 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.exception.BusinessRuleViolationException;
+import dev.robgro.timesheet.exception.NoSchemeConfiguredException;
+import dev.robgro.timesheet.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invoice number preview ("what number WOULD the next invoice get") without database
+ * round trips in the common case.
+ *
+ * <p>The create form re-previews on every issue date / selection change. Each preview used to
+ * resolve the scheme, build the period key and read the counter row. Now:
+ * - scheme: cached per-seller timeline ({@link EffectiveSchemeResolver})
+ * - template: compiled token program ({@link TemplateParser} cache)
+ * - counter: short-lived per-seller {@link CounterValueSnapshot} (all counters, one query)
+ *
+ * <p>The snapshot is dropped whenever a number is actually issued, a block is released or a
+ * counter is healed on this node ({@link #invalidateAfterCommit}), so the next preview reloads.
+ * Numbers issued on other nodes show up after the TTL
+ * (app.invoice-numbering.preview-snapshot-ttl-seconds) - previews are NOT reserved anyway.
+ *
+ * <p>Same generation guard as EffectiveSchemeResolver: a load that raced with an
+ * invalidation drops its own entry.
+ */
+@Service
+@Slf4j
+public class InvoiceNumberPreviewService {
+
+    private final EffectiveSchemeResolver schemeResolver;
+    private final InvoiceNumberCounterRepository counterRepository;
+    private final PeriodKeyFactory periodKeyFactory;
+    private final TemplateParser templateParser;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Long, CounterValueSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationGeneration = new AtomicLong();
+
+    public InvoiceNumberPreviewService(EffectiveSchemeResolver schemeResolver,
+                                       InvoiceNumberCounterRepository counterRepository,
+                                       PeriodKeyFactory periodKeyFactory,
+                                       TemplateParser templateParser,
+                                       InvoiceNumberingProperties properties) {
+        this.schemeResolver = schemeResolver;
+        this.counterRepository = counterRepository;
+        this.periodKeyFactory = periodKeyFactory;
+        this.templateParser = templateParser;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(properties.getPreviewSnapshotTtlSeconds());
+    }
+
+    /**
+     * Next invoice number for the seller and issue date, WITHOUT reserving it.
+     * Does not heal drift - may show an optimistic number until the counter is verified.
+     *
+     * @param sellerId  ID of the seller (tenant) — must not be null
+     * @param issueDate Date when invoice is issued (can be in the past for backdating)
+     * @param department Optional department for multi-department numbering (null in MVP)
+     * @return Previewed number with all components
+     * @throws NoSchemeConfiguredException if no scheme configured for seller
+     * @throws BusinessRuleViolationException if sellerId is null
+     */
+    public GeneratedInvoiceNumber preview(Long sellerId, LocalDate issueDate, Department department) {
+        if (sellerId == null) {
+            throw new BusinessRuleViolationException("sellerId is required for invoice number generation");
+        }
+        if (issueDate == null) {
+            throw new ValidationException("Issue date is required");
+        }
+
+        NumberingSchemeSnapshot scheme = schemeResolver
+            .findEffectiveScheme(sellerId, issueDate)
+            .orElseThrow(() -> new NoSchemeConfiguredException(
+                "No numbering scheme configured for seller " + sellerId + " effective on " + issueDate
+            ));
+
+        PeriodComponents period = PeriodComponents.of(issueDate, scheme.resetPeriod());
+        String periodKey = periodKeyFactory.build(scheme.resetPeriod(), period.year(), period.month());
+        int seq = snapshot(sellerId).nextSequence(new InvoiceCounterScope(sellerId, scheme.resetPeriod(), periodKey));
+
+        TemplateContext context = TemplateContext.builder()
+            .sequenceNumber(seq)
+            .year(issueDate.getYear())
+            .month(issueDate.getMonthValue())
+            .department(department)
+            .build();
+
+        String displayNumber = templateParser.apply(scheme.template(), context);
+
+        log.debug("Previewed invoice number (NOT reserved): {} (sellerId={}, resetPeriod={}, periodKey={}, seq={})",
+            displayNumber, sellerId, scheme.resetPeriod(), periodKey, seq);
+
+        return new GeneratedInvoiceNumber(seq, period.year(), period.month(), displayNumber, scheme.id());
+    }
+
+    /**
+     * Drop the seller's counter snapshot once the current transaction commits
+     * (immediately when called outside a transaction). A null sellerId drops all snapshots.
+     * Rolled back changes keep the snapshot - it still matches the database.
+     */
+    public void invalidateAfterCommit(Long sellerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(sellerId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(sellerId);
+            }
+        });
+    }
+
+    /**
+     * Drop the seller's counter snapshot now (all snapshots for a null sellerId).
+     */
+    public void invalidate(Long sellerId) {
+        invalidationGeneration.incrementAndGet();
+        if (sellerId == null) {
+            snapshots.clear();
+        } else {
+            snapshots.remove(sellerId);
+        }
+    }
+
+    public int cachedSellers() {
+        return snapshots.size();
+    }
+
+    private CounterValueSnapshot snapshot(Long sellerId) {
+        long now = System.nanoTime();
+        CounterValueSnapshot cached = snapshots.get(sellerId);
+        if (cached != null && !isExpired(cached, now)) {
+            return cached;
+        }
+
+        long generation = invalidationGeneration.get();
+        CounterValueSnapshot loaded = CounterValueSnapshot.of(
+            counterRepository.findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(sellerId), now);
+
+        snapshots.put(sellerId, loaded);
+        if (invalidationGeneration.get() != generation) {
+            // Invalidation raced with this load - the values may predate the issued number
+            snapshots.remove(sellerId, loaded);
+        }
+        return loaded;
+    }
+
+    private boolean isExpired(CounterValueSnapshot snapshot, long now) {
+        return now - snapshot.loadedAtNanos() >= ttlNanos;
+    }
+}
@@ -0,0 +1,27 @@
+package dev.robgro.timesheet.invoice;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.invoice-numbering")
+@Getter
+@Setter
+public class InvoiceNumberingProperties {
+
+    /**
+     * Maximum age of a cached per-seller scheme timeline in minutes (0 = no expiry)
+     * Local changes evict immediately after commit; the TTL only bounds staleness
+     * on nodes that did not receive a cross-node eviction
+     */
+    private long schemeCacheTtlMinutes = 10;
+
+    /**
+     * Maximum age of a cached per-seller counter snapshot used for number previews in seconds
+     * (0 = read counters on every preview). Numbers issued on this node drop the snapshot
+     * after commit; the TTL only bounds staleness for numbers issued on other nodes
+     */
+    private long previewSnapshotTtlSeconds = 30;
+}
@@ -1,5 +1,6 @@
 package dev.robgro.timesheet.invoice;
 
+import dev.robgro.timesheet.cache.ReferenceCacheRegions;
 import dev.robgro.timesheet.exception.BusinessRuleViolationException;
 import dev.robgro.timesheet.exception.ValidationException;
 import dev.robgro.timesheet.seller.Seller;
@@ -7,6 +8,8 @@ import dev.robgro.timesheet.user.User;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -28,6 +31,8 @@ import java.time.LocalDateTime;
  * - Tax authority requirements (fixed invoice sequences)
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceCacheRegions.NUMBERING_SCHEME)
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @NoArgsConstructor
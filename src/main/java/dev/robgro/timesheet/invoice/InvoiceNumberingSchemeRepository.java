@@ -55,6 +55,21 @@ public interface InvoiceNumberingSchemeRepository extends JpaRepository<InvoiceN
         @Param("issueDate") LocalDate issueDate
     );
 
+    /**
+     * Find every scheme that can be effective for some issue date (ACTIVE or ARCHIVED).
+     * Loads the per-seller timeline cached by EffectiveSchemeResolver; ordering is done in memory.
+     *
+     * @param sellerId Seller ID
+     * @return ACTIVE and ARCHIVED schemes for this seller, unordered
+     */
+    @Query("""
+        SELECT s FROM InvoiceNumberingScheme s
+        WHERE s.seller.id = :sellerId
+          AND s.status IN (dev.robgro.timesheet.invoice.SchemeStatus.ACTIVE,
+                          dev.robgro.timesheet.invoice.SchemeStatus.ARCHIVED)
+        """)
+    List<InvoiceNumberingScheme> findResolvableBySeller(@Param("sellerId") Long sellerId);
+
     /**
      * Find all schemes for seller, ordered by effective date (newest first).
      * Used for displaying numbering history in UI.
@@ -30,6 +30,7 @@ public class InvoiceNumberingSchemeService {
     private final SellerRepository sellerRepository;
     private final TemplateParser templateParser;
     private final InvoiceNumberingSchemeDtoMapper schemeMapper;
+    private final EffectiveSchemeResolver schemeResolver;
 
     /**
      * Create and activate a new numbering scheme for current seller.
@@ -119,6 +120,7 @@ public class InvoiceNumberingSchemeService {
 
         scheme.archive();
         schemeRepository.save(scheme);
+        schemeResolver.evictAfterCommit(currentSeller.getId());
 
         log.info("Archived invoice numbering scheme: id={}, seller={}", schemeId, currentSeller.getId());
     }
@@ -18,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
  * 2. Archive ALL active schemes for this seller (one ACTIVE per seller, always)
  * 3. Calculate next version (max + 1)
  * 4. Create and save new ACTIVE scheme
+ * 5. Evict cached scheme timeline after commit (EffectiveSchemeResolver)
  *
  * Retry logic and exception mapping live in InvoiceNumberingSchemeService (orchestrator).
  */
@@ -28,6 +29,7 @@ class InvoiceNumberingSchemeTransactionalWorker {
 
     private final InvoiceNumberingSchemeRepository schemeRepository;
     private final SellerRepository sellerRepository;
+    private final EffectiveSchemeResolver schemeResolver;
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     void createAndActivateOnce(CreateSchemeCommand cmd) {
@@ -66,6 +68,9 @@ class InvoiceNumberingSchemeTransactionalWorker {
         // Ensures DataIntegrityViolationException is catchable by the retry loop in orchestrator
         schemeRepository.saveAndFlush(scheme);
 
+        // Step 5: Drop cached timeline once this attempt commits (failed attempts keep it)
+        schemeResolver.evictAfterCommit(cmd.sellerId());
+
         log.info("Activated scheme: seller={}, effectiveFrom={}, version={}, template={}",
             cmd.sellerId(), cmd.effectiveFrom(), nextVersion, cmd.template());
     }
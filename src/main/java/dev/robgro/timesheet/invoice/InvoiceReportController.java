@@ -23,17 +23,22 @@ public class InvoiceReportController {
             @RequestParam(required = false) Integer fromMonth,
             @RequestParam(required = false) Integer toYear,
             @RequestParam(required = false) Integer toMonth,
+            @RequestParam(defaultValue = "true") boolean details,
             Model model) {
 
         log.debug("Generating report for: clientId={}, from year={}, from month={}, to year={}, to month={}",
                 clientId, fromYear, fromMonth, toYear, toMonth);
 
         DateRangeRequest dateRange = new DateRangeRequest(fromYear, fromMonth, toYear, toMonth);
-        InvoiceReportData reportData = invoiceService.generateReport(dateRange, clientId);
+        InvoiceReportData reportData = invoiceService.generateReport(dateRange, clientId, details);
 
         model.addAttribute("period", reportData.period());
+        model.addAttribute("details", details);
         model.addAttribute("invoices", reportData.invoices());
-        model.addAttribute("totalAmount", reportData.totalAmount());
+        model.addAttribute("totalAmount", reportData.totals().totalAmount());
+        model.addAttribute("invoiceCount", reportData.totals().invoiceCount());
+        model.addAttribute("clientSubtotals", reportData.totals().byClient());
+        model.addAttribute("monthSubtotals", reportData.totals().byMonth());
 
         if (reportData.clientName() != null) {
             model.addAttribute("clientName", reportData.clientName());
@@ -1,11 +1,16 @@
 package dev.robgro.timesheet.invoice;
 
-import java.math.BigDecimal;
 import java.util.List;
 
+/**
+ * @param invoices Detail rows, empty unless the detail table was requested
+ * @param totals Totals and per-client/per-month subtotals (always computed in the database)
+ * @param period Period label
+ * @param clientName Client name, null for an all-client report
+ */
 public record InvoiceReportData(
-        List<InvoiceDto> invoices,
-        BigDecimal totalAmount,
+        List<InvoiceSummary> invoices,
+        InvoiceReportTotals totals,
         String period,
         String clientName
 ) {
@@ -0,0 +1,27 @@
+package dev.robgro.timesheet.invoice;
+
+import java.math.BigDecimal;
+
+/**
+ * Invoice count and total of one report group, computed by GROUP BY in the database.
+ *
+ * <p>Like a SQL ROLLUP row, a null dimension means "all values": a per-client subtotal has no
+ * year/month, a per-month subtotal has no client. Query cells (client + month) have all four set,
+ * except clientId/clientName for invoices whose client row is gone.
+ *
+ * @param clientId Client ID, null = all clients (or client row gone)
+ * @param clientName Client name, null = all clients (or client row gone)
+ * @param year Issue year, null = all months
+ * @param month Issue month 1-12, null = all months
+ * @param invoiceCount Number of invoices in the group
+ * @param totalAmount Sum of invoice totals in the group
+ */
+public record InvoiceReportGroup(
+        Long clientId,
+        String clientName,
+        Integer year,
+        Integer month,
+        long invoiceCount,
+        BigDecimal totalAmount
+) {
+}
@@ -0,0 +1,68 @@
+package dev.robgro.timesheet.invoice;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Report totals rolled up from the (client, month) cells of one GROUP BY query.
+ *
+ * <p>Size depends on clients x months in the range, never on the number of invoices.
+ *
+ * @param invoiceCount Invoices in the report
+ * @param totalAmount Sum of all invoice totals
+ * @param byClient Per-client subtotals, by client name
+ * @param byMonth Per-month subtotals, oldest month first
+ */
+public record InvoiceReportTotals(
+        long invoiceCount,
+        BigDecimal totalAmount,
+        List<InvoiceReportGroup> byClient,
+        List<InvoiceReportGroup> byMonth
+) {
+
+    private static final Comparator<InvoiceReportGroup> BY_CLIENT_NAME = Comparator.comparing(
+            InvoiceReportGroup::clientName, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /**
+     * Roll (client, month) cells up to client, month and grand totals - the ROLLUP levels the report shows.
+     *
+     * @param cells Query cells in year/month order
+     */
+    static InvoiceReportTotals rollUp(List<InvoiceReportGroup> cells) {
+        Map<Long, InvoiceReportGroup> byClient = new LinkedHashMap<>();
+        Map<List<Integer>, InvoiceReportGroup> byMonth = new LinkedHashMap<>();
+        long invoiceCount = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+
+        for (InvoiceReportGroup cell : cells) {
+            byClient.merge(cell.clientId(),
+                    new InvoiceReportGroup(cell.clientId(), cell.clientName(), null, null, cell.invoiceCount(), amount(cell)),
+                    InvoiceReportTotals::add);
+            byMonth.merge(Arrays.asList(cell.year(), cell.month()),
+                    new InvoiceReportGroup(null, null, cell.year(), cell.month(), cell.invoiceCount(), amount(cell)),
+                    InvoiceReportTotals::add);
+            invoiceCount += cell.invoiceCount();
+            totalAmount = totalAmount.add(amount(cell));
+        }
+
+        List<InvoiceReportGroup> clients = new ArrayList<>(byClient.values());
+        clients.sort(BY_CLIENT_NAME);
+        return new InvoiceReportTotals(invoiceCount, totalAmount, clients, List.copyOf(byMonth.values()));
+    }
+
+    private static InvoiceReportGroup add(InvoiceReportGroup a, InvoiceReportGroup b) {
+        return new InvoiceReportGroup(a.clientId(), a.clientName(), a.year(), a.month(),
+                a.invoiceCount() + b.invoiceCount(), a.totalAmount().add(b.totalAmount()));
+    }
+
+    private static BigDecimal amount(InvoiceReportGroup cell) {
+        // SUM over invoices without a total is NULL
+        return Objects.requireNonNullElse(cell.totalAmount(), BigDecimal.ZERO);
+    }
+}
@@ -1,97 +1,93 @@
 package dev.robgro.timesheet.invoice;
 
-import org.springframework.data.domain.Page;
+import dev.robgro.timesheet.etag.VersionStamp;
+import dev.robgro.timesheet.search.IndexedInvoice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @RepositoryRestResource(exported = false)
-public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+public interface InvoiceRepository extends JpaRepository<Invoice, Long>, InvoiceRepositoryCustom {
+
+    /**
+     * {@link InvoiceSummary} projection for list/archive/report views: one statement per page,
+     * no entities, no items. LEFT JOINs keep invoices whose client row is gone.
+     * Filtered list queries live in {@link InvoiceRepositoryCustom} (WHERE built from supplied filters).
+     */
+    String SUMMARY_COLUMNS = "new dev.robgro.timesheet.invoice.InvoiceSummary(" +
+            "i.id, i.invoiceNumber, i.issueDate, c.id, c.clientName, s.id, s.name, " +
+            "i.totalAmount, i.pdfPath, i.pdfGeneratedAt, i.emailSentAt) ";
+    String SUMMARY_FROM = "FROM Invoice i LEFT JOIN i.client c LEFT JOIN i.seller s ";
 
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
 
+    @EntityGraph(Invoice.GRAPH_PARTIES)
     List<Invoice> findByClientIdAndIssueDateBetween(Long clientId, LocalDate startDate, LocalDate endDate);
 
     long countByInvoiceNumberEndingWith(String yearMonth);
 
-    // Sort by invoice number components (year DESC, month DESC, sequence DESC)
-    // NOT by invoice_number string (alphabetical) or ID (insertion order)
-    // Allows backdated invoices to appear in correct logical order
-    List<Invoice> findAllByOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc();
+    // Invoice number order (numberSortKey = year, month, sequence as one indexed column),
+    // NOT by invoice_number string (alphabetical) or ID (insertion order).
+    // Allows backdated invoices to appear in correct logical order; id breaks ties between sellers.
+    // Invoice lists use the GRAPH_PARTIES fetch plan: client + seller in the same query
+    @EntityGraph(Invoice.GRAPH_PARTIES)
+    List<Invoice> findAllByOrderByNumberSortKeyDescIdDesc();
 
-    List<Invoice> findByIssueDateBetweenOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc(LocalDate startDate, LocalDate endDate);
+    @EntityGraph(Invoice.GRAPH_PARTIES)
+    List<Invoice> findByIssueDateBetweenOrderByNumberSortKeyDescIdDesc(LocalDate startDate, LocalDate endDate);
 
-    List<Invoice> findByClientIdOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc(Long clientId);
+    @EntityGraph(Invoice.GRAPH_PARTIES)
+    List<Invoice> findByClientIdOrderByNumberSortKeyDescIdDesc(Long clientId);
 
     List<Invoice> findByInvoiceNumberEndingWith(String yearMonth);
 
-    @Modifying
-    @Query("DELETE FROM InvoiceItem i WHERE i.id = :id")
-    void deleteInvoiceItem(@Param("id") Long id);
+    // ===== Keyset pagination / export =====
+    // Order (numberSortKey, id) DESC, served by idx_invoices_number_sort (V35).
 
-    @Modifying
-    @Query(value = "DELETE FROM invoice_items WHERE invoice_id = :invoiceId", nativeQuery = true)
-    void deleteInvoiceItemsByInvoiceId(@Param("invoiceId") Long invoiceId);
-
-    @Query("SELECT i FROM Invoice i WHERE " +
-            "(:fromDate IS NULL OR i.issueDate >= :fromDate) AND " +
-            "(:toDate IS NULL OR i.issueDate <= :toDate) AND " +
-            "(:clientId IS NULL OR i.client.id = :clientId)")
-    Page<Invoice> findByDateRangeAndClient(
-            @Param("fromDate") LocalDate fromDate,
-            @Param("toDate") LocalDate toDate,
-            @Param("clientId") Long clientId,
-            Pageable pageable);
+    String KEYSET_ORDER = "ORDER BY i.numberSortKey DESC, i.id DESC";
+
+    @EntityGraph(Invoice.GRAPH_PARTIES)
+    @Query("SELECT i FROM Invoice i " + KEYSET_ORDER)
+    List<Invoice> findFirstKeysetPage(Pageable pageable);
 
-    @Query("SELECT i FROM Invoice i WHERE " +
-            "(:clientId IS NULL OR i.client.id = :clientId) AND " +
-            "(:year IS NULL OR YEAR(i.issueDate) = :year) AND " +
-            "(:month IS NULL OR MONTH(i.issueDate) = :month) " +
-            "ORDER BY i.periodYear DESC, i.periodMonth DESC, i.sequenceNumber DESC")
-    List<Invoice> findFilteredInvoices(
-            @Param("clientId") Long clientId,
-            @Param("year") Integer year,
-            @Param("month") Integer month);
-
-    @Query("SELECT i FROM Invoice i WHERE " +
-            "(:clientId IS NULL OR i.client.id = :clientId) AND " +
-            "(:year IS NULL OR YEAR(i.issueDate) = :year) AND " +
-            "(:month IS NULL OR MONTH(i.issueDate) = :month)")
-    Page<Invoice> findFilteredInvoices(
-            @Param("clientId") Long clientId,
-            @Param("year") Integer year,
-            @Param("month") Integer month,
+    @EntityGraph(Invoice.GRAPH_PARTIES)
+    @Query("SELECT i FROM Invoice i WHERE i.numberSortKey <= :sortKey AND " +
+            "(i.numberSortKey < :sortKey OR i.id < :id) " + KEYSET_ORDER)
+    List<Invoice> findKeysetPageAfter(
+            @Param("sortKey") long numberSortKey,
+            @Param("id") long id,
             Pageable pageable);
 
-    @Query("SELECT i FROM Invoice i WHERE " +
-            "(:clientId IS NULL OR i.client.id = :clientId) AND " +
-            "(:fromDate IS NULL OR i.issueDate >= :fromDate) AND " +
-            "(:toDate IS NULL OR i.issueDate <= :toDate)")
-    List<Invoice> findForReporting(
-            @Param("clientId") Long clientId,
-            @Param("fromDate") LocalDate fromDate,
-            @Param("toDate") LocalDate toDate,
-            Sort sort);
+    /**
+     * Seller, client and issue date of invoices about to be deleted (no entity loading).
+     */
+    @Query("SELECT new dev.robgro.timesheet.invoice.InvoiceDeletionTarget(i.id, i.seller.id, i.client.id, i.issueDate) " +
+            "FROM Invoice i WHERE i.id IN :ids")
+    List<InvoiceDeletionTarget> findDeletionTargets(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM InvoiceItem it WHERE it.invoice.id IN :invoiceIds")
+    int deleteItemsByInvoiceIds(@Param("invoiceIds") Collection<Long> invoiceIds);
 
-    @Modifying
-    @Query(value = "INSERT INTO invoice_items (invoice_id, service_date, description, duration, amount, timesheet_id) VALUES (:invoiceId, :serviceDate, :description, :duration, :amount, :timesheetId)", nativeQuery = true)
-    void insertInvoiceItem(
-            @Param("invoiceId") Long invoiceId,
-            @Param("serviceDate") java.sql.Date serviceDate,
-            @Param("description") String description,
-            @Param("duration") double duration,
-            @Param("amount") BigDecimal amount,
-            @Param("timesheetId") Long timesheetId
-    );
+    /**
+     * Delete invoices in one statement. Items, tracking rows and timesheet links must be gone first.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Invoice i WHERE i.id IN :ids")
+    int bulkDeleteByIds(@Param("ids") Collection<Long> ids);
 
     // ===== Configurable Invoice Numbering =====
 
@@ -118,32 +114,76 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     );
 
     /**
-     * Count total invoices for seller and period.
-     * Used for observability endpoint to show invoice count vs counter value.
+     * MAX(sequence_number) per (seller, period_year, period_month) in one query.
+     * Used by counter reconciliation to check every counter without a query per counter.
      *
-     * @param sellerId Seller ID (tenant isolation)
-     * @param year Period year (e.g., 2026)
-     * @param month Period month: 1-12 for MONTHLY, 0 for YEARLY/NEVER
-     * @return Total invoice count for this period
+     * @param sellerId Seller ID to restrict to, or null for all sellers
+     * @return One row per period that has numbered invoices
      */
-    Long countBySellerIdAndPeriodYearAndPeriodMonth(
-        Long sellerId,
-        Integer year,
-        Integer month
-    );
+    @Query("SELECT new dev.robgro.timesheet.invoice.PeriodMaxSequence(" +
+           "i.seller.id, i.periodYear, i.periodMonth, MAX(i.sequenceNumber)) " +
+           "FROM Invoice i WHERE " +
+           "(:sellerId IS NULL OR i.seller.id = :sellerId) AND " +
+           "i.sequenceNumber IS NOT NULL " +
+           "GROUP BY i.seller.id, i.periodYear, i.periodMonth")
+    List<PeriodMaxSequence> findMaxSequencePerPeriod(@Param("sellerId") Long sellerId);
+
+    // ===== Conditional GET validators =====
 
     /**
-     * Find last invoice for seller and period (by sequence number DESC).
-     * Used for observability endpoint to show last invoice display number.
+     * Validators of one invoice (and the client and seller it shows) for conditional GET,
+     * read without loading entities. The email open count is stamped on its own (opens do not bump
+     * the version). The last component is 1 once the invoice shows UNOPENED_WARNING, which happens
+     * with time alone.
      *
-     * @param sellerId Seller ID (tenant isolation)
-     * @param year Period year (e.g., 2026)
-     * @param month Period month: 1-12 for MONTHLY, 0 for YEARLY/NEVER
-     * @return Last invoice (highest sequence number), or empty if no invoices
+     * @param warnBefore Sent before this and still unopened = warning
      */
-    Optional<Invoice> findTopBySellerIdAndPeriodYearAndPeriodMonthOrderBySequenceNumberDesc(
-        Long sellerId,
-        Integer year,
-        Integer month
-    );
+    @Query("SELECT new dev.robgro.timesheet.etag.VersionStamp(i.version, i.updatedAt, c.version, c.updatedAt, " +
+            "s.version, s.updatedAt, i.emailOpenCount, " +
+            "CASE WHEN i.emailSentAt < :warnBefore AND i.emailOpenedAt IS NULL THEN 1 ELSE 0 END) " +
+            "FROM Invoice i JOIN i.client c JOIN i.seller s WHERE i.id = :id")
+    Optional<VersionStamp> findVersionStamp(@Param("id") long id, @Param("warnBefore") LocalDateTime warnBefore);
+
+    /**
+     * Copies the email open fields of the invoice's tracking row. No version check or bump:
+     * pixel hits arrive concurrently with each other and with user edits of the invoice.
+     * updatedAt still moves (Last-Modified, change feed); the open count is part of the ETag.
+     *
+     * @param now Update time
+     */
+    @Modifying
+    @Query("UPDATE Invoice i SET i.emailOpenedAt = :openedAt, i.emailOpenCount = :openCount, " +
+            "i.lastEmailOpenedAt = :lastOpenedAt, i.updatedAt = :now WHERE i.id = :id")
+    int updateEmailOpenStatus(@Param("id") long id,
+                              @Param("openedAt") LocalDateTime openedAt,
+                              @Param("openCount") int openCount,
+                              @Param("lastOpenedAt") LocalDateTime lastOpenedAt,
+                              @Param("now") LocalDateTime now);
+
+    /**
+     * Invoices currently showing UNOPENED_WARNING. Only grows with time (an open is a write),
+     * so it tells list validators when a warning appeared. Range scan on idx_invoices_email_unopened (V39).
+     */
+    @Query("SELECT COUNT(i) FROM Invoice i WHERE i.emailOpenedAt IS NULL AND i.emailSentAt < :warnBefore")
+    long countEmailWarnings(@Param("warnBefore") LocalDateTime warnBefore);
+
+    /**
+     * Invoices changed after a change feed position, in feed order (updated_at, id),
+     * served by idx_invoices_updated_at (V40). Items load in batches when mapped.
+     * Read-only: never dirty-checked.
+     */
+    @EntityGraph(Invoice.GRAPH_PARTIES)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT i FROM Invoice i WHERE i.updatedAt >= :at AND (i.updatedAt > :at OR i.id > :id) " +
+            "AND i.updatedAt <= :until ORDER BY i.updatedAt, i.id")
+    List<Invoice> findChangedAfter(@Param("at") LocalDateTime at,
+                                   @Param("id") long id,
+                                   @Param("until") LocalDateTime until,
+                                   Pageable pageable);
+
+    /**
+     * All invoices in the form the search index holds them, read without loading entities.
+     */
+    @Query("SELECT new dev.robgro.timesheet.search.IndexedInvoice(i.id, i.invoiceNumber, i.client.id, i.version) FROM Invoice i")
+    List<IndexedInvoice> findAllIndexed();
 }
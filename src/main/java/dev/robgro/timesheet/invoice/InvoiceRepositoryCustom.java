@@ -0,0 +1,61 @@
+package dev.robgro.timesheet.invoice;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Invoice list queries whose WHERE clause depends on which filters are supplied
+ * (see {@link InvoiceListFilter}). Implemented by {@link InvoiceRepositoryCustomImpl}.
+ */
+public interface InvoiceRepositoryCustom {
+
+    /**
+     * Invoices (client + seller fetched) for the archive/PDF filters, newest number first.
+     *
+     * @param clientId Client ID, null = all
+     * @param year Issue year, null = all
+     * @param month Issue month 1-12, null = all (without a year: that month in every year)
+     */
+    List<Invoice> findFilteredInvoices(Long clientId, Integer year, Integer month);
+
+    /**
+     * One page of invoices (client + seller fetched) for the archive/PDF filters, sorted in the database.
+     *
+     * @param pageable Page and sort (see {@link InvoiceSortOrder})
+     */
+    Page<Invoice> findFilteredInvoices(Long clientId, Integer year, Integer month, Pageable pageable);
+
+    /**
+     * {@link InvoiceSummary} page for the archive/PDF filters (same filters as {@link #findFilteredInvoices}).
+     */
+    Page<InvoiceSummary> findFilteredSummaries(Long clientId, Integer year, Integer month, Pageable pageable);
+
+    /**
+     * {@link InvoiceSummary} page for an issue date range, both bounds inclusive and optional.
+     */
+    Page<InvoiceSummary> findSummariesByDateRangeAndClient(LocalDate fromDate, LocalDate toDate, Long clientId, Pageable pageable);
+
+    /**
+     * All {@link InvoiceSummary} rows for a report, both bounds inclusive and optional.
+     */
+    List<InvoiceSummary> findSummariesForReporting(Long clientId, LocalDate fromDate, LocalDate toDate, Sort sort);
+
+    /**
+     * Invoice count and total per (client, issue month) for a report, both bounds inclusive and optional.
+     * Grouped in the database - one row per cell, not per invoice.
+     *
+     * @return Cells in year/month/client name order, see {@link InvoiceReportTotals#rollUp}
+     */
+    List<InvoiceReportGroup> aggregateForReporting(Long clientId, LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * {@link InvoiceSummary} rows for a report as a forward-only stream, oldest issue date first.
+     * Must be consumed (and closed) inside a transaction.
+     */
+    Stream<InvoiceSummary> streamSummariesForReporting(Long clientId, LocalDate fromDate, LocalDate toDate);
+}
@@ -0,0 +1,122 @@
+package dev.robgro.timesheet.invoice;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static dev.robgro.timesheet.invoice.InvoiceRepository.SUMMARY_COLUMNS;
+import static dev.robgro.timesheet.invoice.InvoiceRepository.SUMMARY_FROM;
+
+/**
+ * JPQL built from the supplied filters only. Sorting goes through Spring Data's
+ * {@link QueryUtils#applySorting}, the same rendering derived/@Query methods use,
+ * so sort properties like {@code client.clientName} keep working.
+ */
+@RequiredArgsConstructor
+class InvoiceRepositoryCustomImpl implements InvoiceRepositoryCustom {
+
+    private static final String ALIAS = "i";
+    private static final String NUMBER_ORDER = " ORDER BY i.numberSortKey DESC, i.id DESC";
+    private static final String REPORT_CELL = "c.id, c.clientName, YEAR(i.issueDate), MONTH(i.issueDate)";
+    private static final Sort REPORT_ORDER = Sort.by("issueDate", "id");
+    private static final int REPORT_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Invoice> findFilteredInvoices(Long clientId, Integer year, Integer month) {
+        InvoiceListFilter filter = InvoiceListFilter.forPeriod(clientId, year, month);
+        TypedQuery<Invoice> query = entityManager.createQuery(
+                "SELECT i FROM Invoice i" + filter.whereClause() + NUMBER_ORDER, Invoice.class);
+        query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Invoice.GRAPH_PARTIES));
+        filter.bind(query);
+        return query.getResultList();
+    }
+
+    @Override
+    public Page<Invoice> findFilteredInvoices(Long clientId, Integer year, Integer month, Pageable pageable) {
+        InvoiceListFilter filter = InvoiceListFilter.forPeriod(clientId, year, month);
+        String jpql = QueryUtils.applySorting("SELECT i FROM Invoice i" + filter.whereClause(), pageable.getSort(), ALIAS);
+        TypedQuery<Invoice> query = entityManager.createQuery(jpql, Invoice.class);
+        query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Invoice.GRAPH_PARTIES));
+        filter.bind(query);
+        return PageableExecutionUtils.getPage(page(query, pageable).getResultList(), pageable, () -> count(filter));
+    }
+
+    @Override
+    public Page<InvoiceSummary> findFilteredSummaries(Long clientId, Integer year, Integer month, Pageable pageable) {
+        return findSummaryPage(InvoiceListFilter.forPeriod(clientId, year, month), pageable);
+    }
+
+    @Override
+    public Page<InvoiceSummary> findSummariesByDateRangeAndClient(LocalDate fromDate, LocalDate toDate,
+                                                                  Long clientId, Pageable pageable) {
+        return findSummaryPage(InvoiceListFilter.forDateRange(clientId, fromDate, toDate), pageable);
+    }
+
+    @Override
+    public List<InvoiceSummary> findSummariesForReporting(Long clientId, LocalDate fromDate, LocalDate toDate, Sort sort) {
+        InvoiceListFilter filter = InvoiceListFilter.forDateRange(clientId, fromDate, toDate);
+        return summaryQuery(filter, sort).getResultList();
+    }
+
+    @Override
+    public List<InvoiceReportGroup> aggregateForReporting(Long clientId, LocalDate fromDate, LocalDate toDate) {
+        InvoiceListFilter filter = InvoiceListFilter.forDateRange(clientId, fromDate, toDate);
+        TypedQuery<InvoiceReportGroup> query = entityManager.createQuery(
+                "SELECT new dev.robgro.timesheet.invoice.InvoiceReportGroup(" + REPORT_CELL
+                        + ", COUNT(i), SUM(i.totalAmount)) FROM Invoice i LEFT JOIN i.client c" + filter.whereClause()
+                        + " GROUP BY " + REPORT_CELL
+                        + " ORDER BY YEAR(i.issueDate), MONTH(i.issueDate), c.clientName", InvoiceReportGroup.class);
+        filter.bind(query);
+        return query.getResultList();
+    }
+
+    @Override
+    public Stream<InvoiceSummary> streamSummariesForReporting(Long clientId, LocalDate fromDate, LocalDate toDate) {
+        TypedQuery<InvoiceSummary> query = summaryQuery(InvoiceListFilter.forDateRange(clientId, fromDate, toDate), REPORT_ORDER);
+        // Positive fetch size makes MariaDB Connector/J stream rows instead of buffering the whole result
+        query.setHint(AvailableHints.HINT_FETCH_SIZE, REPORT_FETCH_SIZE);
+        query.setHint(AvailableHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+
+    private Page<InvoiceSummary> findSummaryPage(InvoiceListFilter filter, Pageable pageable) {
+        TypedQuery<InvoiceSummary> query = page(summaryQuery(filter, pageable.getSort()), pageable);
+        // COUNT only when the page alone cannot tell the total (same as Spring Data's paged @Query)
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(filter));
+    }
+
+    private static <T> TypedQuery<T> page(TypedQuery<T> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    private TypedQuery<InvoiceSummary> summaryQuery(InvoiceListFilter filter, Sort sort) {
+        String jpql = QueryUtils.applySorting("SELECT " + SUMMARY_COLUMNS + SUMMARY_FROM + filter.whereClause(), sort, ALIAS);
+        TypedQuery<InvoiceSummary> query = entityManager.createQuery(jpql, InvoiceSummary.class);
+        filter.bind(query);
+        return query;
+    }
+
+    private long count(InvoiceListFilter filter) {
+        TypedQuery<Long> query = entityManager.createQuery(
+                "SELECT COUNT(i) FROM Invoice i" + filter.whereClause(), Long.class);
+        filter.bind(query);
+        return query.getSingleResult();
+    }
+}
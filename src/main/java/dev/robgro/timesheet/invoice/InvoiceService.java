@@ -1,9 +1,11 @@
 package dev.robgro.timesheet.invoice;
 
+import dev.robgro.timesheet.etag.VersionStamp;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +21,21 @@ public interface InvoiceService {
 
     Optional<InvoiceDto> findByInvoiceNumber(String invoiceNumber);
 
-    List<InvoiceDto> searchAndSortInvoices(Long clientId, Integer year, Integer month, String sortBy, String sortDir);
+    /**
+     * Validators of one invoice for conditional GET (no entity loading).
+     *
+     * @return Empty if the invoice does not exist
+     */
+    Optional<VersionStamp> findVersionStamp(long id);
+
+    /**
+     * Number of invoices currently showing UNOPENED_WARNING - part of invoice list validators,
+     * since that status appears with time alone.
+     */
+    long countEmailWarnings();
+
+    Page<InvoiceDto> searchAndSortInvoices(Long clientId, Integer year, Integer month,
+                                           String sortBy, String sortDir, int page, int size);
 
     List<InvoiceDto> getMonthlyInvoices(Long clientId, int year, int month);
 
@@ -39,9 +55,24 @@ public interface InvoiceService {
 
     void deleteInvoice(Long id, boolean deleteTimesheets, boolean detachFromClient);
 
-    Page<InvoiceDto> getAllInvoicesPageable(Long clientId, Integer year, Integer month, Pageable pageable);
-
-    Page<InvoiceDto> searchInvoices(DateRangeRequest dateRange, Long clientId, Pageable pageable);
-
-    InvoiceReportData generateReport(DateRangeRequest dateRange, Long clientId);
+    /**
+     * Delete several invoices in one transaction with a fixed number of bulk statements.
+     *
+     * @param ids Invoices to delete; all must exist, otherwise nothing is deleted
+     * @param deleteTimesheets true = delete their timesheets, false = detach them
+     * @return Number of invoices deleted
+     * @throws dev.robgro.timesheet.exception.EntityNotFoundException if any invoice does not exist
+     */
+    int deleteInvoices(Collection<Long> ids, boolean deleteTimesheets);
+
+    Page<InvoiceSummary> getAllInvoicesPageable(Long clientId, Integer year, Integer month, Pageable pageable);
+
+    Page<InvoiceSummary> searchInvoices(DateRangeRequest dateRange, Long clientId, Pageable pageable);
+
+    /**
+     * Report totals and per-client/per-month subtotals, grouped in the database.
+     *
+     * @param includeDetails Also load one row per invoice for the detail table
+     */
+    InvoiceReportData generateReport(DateRangeRequest dateRange, Long clientId, boolean includeDetails);
 }
@@ -2,13 +2,21 @@ package dev.robgro.timesheet.invoice;
 
 import dev.robgro.timesheet.client.Client;
 import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.etag.ResourceChangeTracker;
+import dev.robgro.timesheet.etag.TrackedResource;
+import dev.robgro.timesheet.etag.VersionStamp;
 import dev.robgro.timesheet.exception.EntityNotFoundException;
 import dev.robgro.timesheet.exception.IntegrationException;
 import dev.robgro.timesheet.exception.ResourceAlreadyExistsException;
 import dev.robgro.timesheet.exception.ValidationException;
+import dev.robgro.timesheet.revenue.RevenueBucket;
+import dev.robgro.timesheet.revenue.RevenueRollupService;
+import dev.robgro.timesheet.search.SearchIndexService;
+import dev.robgro.timesheet.sync.ChangeTombstoneRepository;
 import dev.robgro.timesheet.timesheet.Timesheet;
 import dev.robgro.timesheet.timesheet.TimesheetRepository;
 import dev.robgro.timesheet.timesheet.TimesheetService;
+import dev.robgro.timesheet.tracking.EmailTrackingRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
@@ -27,15 +36,18 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toList;
@@ -63,6 +75,13 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     @Qualifier("dedicatedInvoiceCreationService")
     private final InvoiceCreationService invoiceCreationService;
+    private final CounterLockRetryPolicy counterLockRetryPolicy;
+    private final RevenueRollupService revenueRollupService;
+    private final EmailTrackingRepository emailTrackingRepository;
+    private final InvoiceNumberPreviewService invoiceNumberPreviewService;
+    private final ResourceChangeTracker resourceChangeTracker;
+    private final ChangeTombstoneRepository changeTombstoneRepository;
+    private final SearchIndexService searchIndexService;
 
 
     @Override
@@ -70,7 +89,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     public List<InvoiceDto> getAllInvoices() {
         // Sort by invoice number components (year DESC, month DESC, sequence DESC)
         // NOT by ID or invoice_number string
-        return invoiceRepository.findAllByOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc().stream()
+        return invoiceRepository.findAllByOrderByNumberSortKeyDescIdDesc().stream()
                 .map(invoiceDtoMapper)
                 .toList();
     }
@@ -80,7 +99,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     public List<InvoiceDto> getAllInvoicesOrderByDateDesc() {
         // Sort by invoice number components (year DESC, month DESC, sequence DESC)
         // NOT by issue_date (allows backdated invoices in correct logical order)
-        return invoiceRepository.findAllByOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc()
+        return invoiceRepository.findAllByOrderByNumberSortKeyDescIdDesc()
                 .stream()
                 .map(invoiceDtoMapper)
                 .toList();
@@ -89,7 +108,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     @Transactional(readOnly = true)
     public List<InvoiceDto> getInvoicesByDateRange(LocalDate startDate, LocalDate endDate) {
-        return invoiceRepository.findByIssueDateBetweenOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc(startDate, endDate)
+        return invoiceRepository.findByIssueDateBetweenOrderByNumberSortKeyDescIdDesc(startDate, endDate)
                 .stream()
                 .map(invoiceDtoMapper)
                 .toList();
@@ -101,6 +120,22 @@ public class InvoiceServiceImpl implements InvoiceService {
         return invoiceDtoMapper.apply(getInvoiceOrThrow(id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> findVersionStamp(long id) {
+        return invoiceRepository.findVersionStamp(id, emailWarningThreshold());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countEmailWarnings() {
+        return invoiceRepository.countEmailWarnings(emailWarningThreshold());
+    }
+
+    private LocalDateTime emailWarningThreshold() {
+        return LocalDateTime.now().minusDays(Invoice.UNOPENED_WARNING_DAYS);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<InvoiceDto> findByInvoiceNumber(String invoiceNumber) {
@@ -109,25 +144,13 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     @Override
-    public List<InvoiceDto> searchAndSortInvoices(Long clientId, Integer year, Integer month, String sortBy, String sortDir) {
-        List<InvoiceDto> invoices = searchInvoices(clientId, year, month);
-        return sortInvoices(invoices, sortBy, sortDir);
-    }
-
-    private List<InvoiceDto> sortInvoices(List<InvoiceDto> invoices, String sortBy, String sortDir) {
-        Comparator<InvoiceDto> comparator = switch (sortBy) {
-            case "invoiceNumber" -> Comparator
-                    .comparing((InvoiceDto i) -> i.invoiceNumber().substring(i.invoiceNumber().length() - 4))
-                    .thenComparing(i -> i.invoiceNumber().substring(4, 6))
-                    .thenComparing(i -> i.invoiceNumber().substring(0, 3));
-            case "issueDate" -> Comparator.comparing(InvoiceDto::issueDate);
-            case "clientName" -> Comparator.comparing(InvoiceDto::clientName);
-            case "totalAmount" -> Comparator.comparing(InvoiceDto::totalAmount);
-            default -> Comparator.comparing(InvoiceDto::invoiceNumber);
-        };
-        return invoices.stream()
-                .sorted(sortDir.equals("desc") ? comparator.reversed() : comparator)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<InvoiceDto> searchAndSortInvoices(Long clientId, Integer year, Integer month,
+                                                  String sortBy, String sortDir, int page, int size) {
+        // ORDER BY + LIMIT in the database - invoice number via the persisted sort key
+        Pageable pageable = PageRequest.of(page, size, InvoiceSortOrder.of(sortBy, sortDir));
+        return invoiceRepository.findFilteredInvoices(clientId, year, month, pageable)
+                .map(invoiceDtoMapper);
     }
 
     @Override
@@ -182,12 +205,13 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     @Override
     public InvoiceDto createAndRedirectInvoice(CreateInvoiceRequest request) {
-        return invoiceCreationService.createInvoice(
+        // Not transactional: each retry runs createInvoice in a fresh transaction
+        return counterLockRetryPolicy.execute("createInvoice", () -> invoiceCreationService.createInvoice(
                 request.clientId(),
                 request.sellerId(),
                 request.issueDate(),
                 request.timesheetIds()
-        );
+        ));
     }
 
     @Override
@@ -207,20 +231,16 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     @Override
     @Transactional(readOnly = true)
-    public InvoiceReportData generateReport(DateRangeRequest dateRange, Long clientId) {
-        LocalDate fromDate = convertToStartDate(dateRange);
-        LocalDate toDate = convertToEndDate(dateRange);
+    public InvoiceReportData generateReport(DateRangeRequest dateRange, Long clientId, boolean includeDetails) {
+        LocalDate fromDate = dateRange.startDate();
+        LocalDate toDate = dateRange.endDate();
 
-        Sort sort = Sort.by(Sort.Direction.ASC, "issueDate");
-        List<Invoice> invoices = invoiceRepository.findForReporting(clientId, fromDate, toDate, sort);
-
-        List<InvoiceDto> sortedInvoiceDtos = invoices.stream()
-                .map(invoiceDtoMapper)
-                .toList();
-
-        BigDecimal totalAmount = invoices.stream()
-                .map(Invoice::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Totals come from one GROUP BY query - no invoice rows unless the detail table is shown
+        InvoiceReportTotals totals = InvoiceReportTotals.rollUp(
+                invoiceRepository.aggregateForReporting(clientId, fromDate, toDate));
+        List<InvoiceSummary> invoices = includeDetails
+                ? invoiceRepository.findSummariesForReporting(clientId, fromDate, toDate, Sort.by("issueDate", "id"))
+                : List.of();
 
         String period = generatePeriodLabel(dateRange);
 
@@ -232,13 +252,14 @@ public class InvoiceServiceImpl implements InvoiceService {
             }
         }
 
-        return new InvoiceReportData(sortedInvoiceDtos, totalAmount, period, clientName);
+        return new InvoiceReportData(invoices, totals, period, clientName);
     }
 
     @Transactional
     @Override
     public InvoiceDto updateInvoice(Long id, InvoiceUpdateRequest request) {
         Invoice invoice = getInvoiceOrThrow(id);
+        RevenueBucket previousBucket = RevenueBucket.of(invoice);
         Client newClient = clientRepository.findById(request.clientId())
                 .orElseThrow(() -> new EntityNotFoundException("Client", request.clientId()));
 
@@ -249,70 +270,89 @@ public class InvoiceServiceImpl implements InvoiceService {
                     });
         }
 
-        // Map existing invoice items to their timesheets (SOURCE OF TRUTH from DB)
-        Map<Long, Long> oldItemIdToTimesheetId = invoice.getItemsList().stream()
-                .filter(item -> item.getTimesheetId() != null)
-                .collect(Collectors.toMap(
-                        InvoiceItem::getId,
-                        InvoiceItem::getTimesheetId
-                ));
-
-        // Collect invoice item IDs that are being kept in the update
-        Set<Long> keptItemIds = request.items().stream()
-                .map(InvoiceItemUpdateRequest::id)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-
-        // Detach ONLY timesheets whose invoice items were removed
-        oldItemIdToTimesheetId.entrySet().stream()
-                .filter(entry -> !keptItemIds.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .forEach(timesheetId -> timesheetService.detachFromInvoice(timesheetId));
+        // Existing invoice items by ID (SOURCE OF TRUTH from DB)
+        Map<Long, InvoiceItem> remainingItems = invoice.getItemsList().stream()
+                .collect(Collectors.toMap(InvoiceItem::getId, Function.identity()));
 
         invoice.setIssueDate(request.issueDate());
         invoice.setInvoiceNumber(request.invoiceNumber());
         invoice.setClient(newClient);
 
-        invoiceRepository.save(invoice);
-
-        invoiceRepository.deleteInvoiceItemsByInvoiceId(id);
-
+        // Kept items are updated in place, new ones added and dropped ones orphan-removed -
+        // Hibernate writes each kind as one JDBC batch on flush
+        List<InvoiceItem> items = new ArrayList<>(request.items().size());
         BigDecimal totalAmount = BigDecimal.ZERO;
         for (InvoiceItemUpdateRequest itemRequest : request.items()) {
             totalAmount = totalAmount.add(itemRequest.amount());
 
-            InvoiceItem item = new InvoiceItem();
-            item.setInvoice(invoice);
+            InvoiceItem item = itemRequest.id() != null ? remainingItems.remove(itemRequest.id()) : null;
+            if (item == null) {
+                item = new InvoiceItem();
+                item.setInvoice(invoice);
+            }
             item.setServiceDate(itemRequest.serviceDate());
             item.setDescription(itemRequest.description());
             item.setDuration(itemRequest.duration());
             item.setAmount(itemRequest.amount());
             item.setHourlyRate(itemRequest.hourlyRate());
-
-            if (itemRequest.timesheetId() != null) {
-                item.setTimesheetId(itemRequest.timesheetId());
-                Timesheet timesheet = timesheetRepository.findById(itemRequest.timesheetId())
-                        .orElseThrow(() -> new ResponseStatusException(
-                                HttpStatus.NOT_FOUND, "Timesheet not found: " + itemRequest.timesheetId()));
-
-                // Update timesheet - pozostaje is_invoiced=true
-                timesheet.setInvoiced(true);
-                timesheet.setInvoice(invoice);
-                timesheet.setInvoiceNumber(invoice.getInvoiceNumber());
-                timesheetRepository.save(timesheet);
-            }
-            invoice.getItemsList().add(item);
+            item.setTimesheetId(itemRequest.timesheetId());
+            items.add(item);
         }
+        invoice.getItemsList().clear();
+        invoice.getItemsList().addAll(items);
         invoice.setTotalAmount(totalAmount);
 
         if (invoice.getPdfPath() != null) {
             invoice.setPdfGeneratedAt(null);
             invoice.setPdfPath(null);
         }
-        return invoiceDtoMapper.apply(invoiceRepository.save(invoice));
+        // New version (ETag) even if only the items changed
+        invoice.touch();
+        Invoice saved = invoiceRepository.save(invoice);
+
+        // Detach ONLY timesheets whose invoice items were removed - before attaching,
+        // so a timesheet moved to another line stays attached
+        List<Long> detachedTimesheetIds = remainingItems.values().stream()
+                .map(InvoiceItem::getTimesheetId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!detachedTimesheetIds.isEmpty()) {
+            timesheetRepository.detachFromInvoice(detachedTimesheetIds, LocalDateTime.now());
+            resourceChangeTracker.markChanged(TrackedResource.TIMESHEETS);
+        }
+        attachTimesheets(saved, items.stream()
+                .map(InvoiceItem::getTimesheetId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+
+        // A changed client or issue month moves the invoice out of its old bucket
+        revenueRollupService.refresh(previousBucket, RevenueBucket.of(saved));
+        return invoiceDtoMapper.apply(saved);
+    }
+
+    /**
+     * Attach the invoice's timesheets in one UPDATE; existence is checked by the row count,
+     * so the happy path reads no timesheet rows.
+     */
+    private void attachTimesheets(Invoice invoice, List<Long> timesheetIds) {
+        if (timesheetIds.isEmpty()) {
+            return;
+        }
+        int attached = timesheetRepository.attachToInvoice(timesheetIds, invoice, invoice.getInvoiceNumber(),
+                LocalDateTime.now());
+        resourceChangeTracker.markChanged(TrackedResource.TIMESHEETS);
+        if (attached < timesheetIds.size()) {
+            Set<Long> found = timesheetRepository.findAllById(timesheetIds).stream()
+                    .map(Timesheet::getId)
+                    .collect(Collectors.toSet());
+            Long missing = timesheetIds.stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Timesheet not found: " + missing);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<InvoiceDto> searchInvoices(Long clientId, Integer year, Integer month) {
         return invoiceRepository.findFilteredInvoices(clientId, year, month).stream()
                 .map(invoiceDtoMapper)
@@ -323,87 +363,84 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     public void deleteInvoice(Long id, boolean deleteTimesheets, boolean detachFromClient) {
         log.info("Starting deletion of invoice ID: {}", id);
+        deleteInvoices(List.of(id), deleteTimesheets);
+        log.info("Successfully deleted invoice ID: {}", id);
+    }
 
-        Invoice invoice = invoiceRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Invoice", id));
+    /**
+     * Statements run regardless of how many invoices/timesheets are involved:
+     * 1. SELECT seller/client/issue date of the invoices (existence check + rollup buckets)
+     * 2. INSERT change feed tombstones of the invoices (and of their timesheets when deleted)
+     * 3. UPDATE (detach) or DELETE timesheets by invoice_id
+     * 4. DELETE items by invoice_id
+     * 5. DELETE tracking rows by invoice_id
+     * 6. DELETE invoices
+     * plus two per touched revenue bucket.
+     */
+    @Transactional
+    @Override
+    public int deleteInvoices(Collection<Long> ids, boolean deleteTimesheets) {
+        Set<Long> invoiceIds = new LinkedHashSet<>(ids);
+        if (invoiceIds.isEmpty()) {
+            return 0;
+        }
 
-        log.info("Found invoice: {}, associated timesheets: {}",
-                invoice.getInvoiceNumber(), invoice.getTimesheets().size());
+        List<InvoiceDeletionTarget> targets = invoiceRepository.findDeletionTargets(invoiceIds);
+        if (targets.size() < invoiceIds.size()) {
+            Set<Long> found = targets.stream().map(InvoiceDeletionTarget::id).collect(Collectors.toSet());
+            Long missing = invoiceIds.stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+            throw new EntityNotFoundException("Invoice", missing);
+        }
 
+        // Tombstones are selected from the rows, so they go first
+        LocalDateTime deletedAt = LocalDateTime.now();
+        changeTombstoneRepository.recordInvoices(invoiceIds, deletedAt);
         if (deleteTimesheets) {
-            // Delete all timesheets associated with invoice
-            log.info("Deleting {} timesheets", invoice.getTimesheets().size());
-            List<Timesheet> timesheetsToDelete = new ArrayList<>(invoice.getTimesheets());
-            timesheetsToDelete.forEach(ts -> {
-                removeTimesheetFromInvoice(invoice, ts);
-                timesheetRepository.delete(ts);
-            });
-        } else {
-            // Detach timesheets but keep them in DB
-            log.info("Detaching {} timesheets", invoice.getTimesheets().size());
-            detachAllTimesheets(invoice);
-
-            // Force immediate database synchronization to avoid race condition
-            log.debug("Flushing detached timesheets to database");
-            timesheetRepository.flush();
+            changeTombstoneRepository.recordTimesheetsOfInvoices(invoiceIds, deletedAt);
         }
 
-        log.info("Deleting invoice items using JPA repository");
-        invoiceRepository.deleteInvoiceItemsByInvoiceId(id);
-
-        log.info("Deleting invoice");
-        invoiceRepository.delete(invoice);
-
-        log.info("Successfully deleted invoice ID: {}", id);
-    }
-
-    /**
-     * Removes a timesheet from invoice and clears bidirectional relationship.
-     * Helper method for managing invoice-timesheet relationship.
-     */
-    private void removeTimesheetFromInvoice(Invoice invoice, Timesheet timesheet) {
-        invoice.getTimesheets().removeIf(ts -> ts == timesheet);
-        timesheet.setInvoice(null);
-        timesheet.setInvoiced(false);
-        timesheet.setInvoiceNumber(null);
-    }
+        int timesheets = deleteTimesheets
+                ? timesheetRepository.deleteByInvoiceIds(invoiceIds)
+                : timesheetRepository.detachFromInvoices(invoiceIds, deletedAt);
+        int items = invoiceRepository.deleteItemsByInvoiceIds(invoiceIds);
+        emailTrackingRepository.bulkDeleteByInvoiceIds(invoiceIds);
+        int deleted = invoiceRepository.bulkDeleteByIds(invoiceIds);
+        // Bulk statements bypass the entity listener
+        resourceChangeTracker.markChanged(TrackedResource.INVOICES);
+        resourceChangeTracker.markChanged(TrackedResource.TIMESHEETS);
+        searchIndexService.removeInvoicesAfterCommit(invoiceIds);
+
+        revenueRollupService.refresh(targets.stream()
+                .map(InvoiceDeletionTarget::revenueBucket)
+                .toArray(RevenueBucket[]::new));
+
+        // Previews re-read counters once the deletion is visible; a rolled back deletion keeps them
+        targets.stream()
+                .map(InvoiceDeletionTarget::sellerId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(invoiceNumberPreviewService::invalidateAfterCommit);
 
-    /**
-     * Detaches all timesheets from invoice.
-     * Used when deleting invoice but preserving timesheets.
-     */
-    private void detachAllTimesheets(Invoice invoice) {
-        new ArrayList<>(invoice.getTimesheets())
-                .forEach(ts -> removeTimesheetFromInvoice(invoice, ts));
+        log.info("Deleted {} invoices with {} items; {} timesheets {}",
+                deleted, items, timesheets, deleteTimesheets ? "deleted" : "detached");
+        return deleted;
     }
 
     @Override
-    public Page<InvoiceDto> getAllInvoicesPageable(Long clientId, Integer year, Integer month, Pageable pageable) {
-        return invoiceRepository.findFilteredInvoices(clientId, year, month, pageable)
-                .map(invoiceDtoMapper);
+    @Transactional(readOnly = true)
+    public Page<InvoiceSummary> getAllInvoicesPageable(Long clientId, Integer year, Integer month, Pageable pageable) {
+        return invoiceRepository.findFilteredSummaries(clientId, year, month, pageable);
     }
 
     @Override
-    public Page<InvoiceDto> searchInvoices(DateRangeRequest dateRange, Long clientId, Pageable pageable) {
-        LocalDate fromDate = convertToStartDate(dateRange);
-        LocalDate toDate = convertToEndDate(dateRange);
+    @Transactional(readOnly = true)
+    public Page<InvoiceSummary> searchInvoices(DateRangeRequest dateRange, Long clientId, Pageable pageable) {
+        LocalDate fromDate = dateRange.startDate();
+        LocalDate toDate = dateRange.endDate();
 
         validateDateRange(fromDate, toDate);
 
-        return invoiceRepository.findByDateRangeAndClient(fromDate, toDate, clientId, pageable)
-                .map(invoiceDtoMapper);
-    }
-
-    private LocalDate convertToStartDate(DateRangeRequest range) {
-        return range.fromYear() != null && range.fromMonth() != null
-                ? LocalDate.of(range.fromYear(), range.fromMonth(), 1)
-                : null;
-    }
-
-    private LocalDate convertToEndDate(DateRangeRequest range) {
-        return range.toYear() != null && range.toMonth() != null
-                ? LocalDate.of(range.toYear(), range.toMonth(), 1).plusMonths(1).minusDays(1)
-                : null;
+        return invoiceRepository.findSummariesByDateRangeAndClient(fromDate, toDate, clientId, pageable);
     }
 
     private void validateDateRange(LocalDate fromDate, LocalDate toDate) {
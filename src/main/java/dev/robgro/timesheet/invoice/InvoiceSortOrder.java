@@ -0,0 +1,27 @@
+package dev.robgro.timesheet.invoice;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Invoice list sort keys (sortBy/sortDir request params) as database sort orders.
+ *
+ * <p>Only whitelisted keys reach ORDER BY; "invoiceNumber" (and anything unknown) sorts by
+ * the persisted {@link Invoice#getNumberSortKey() number sort key}, never by the display string.
+ * Every order ends with id, so rows with equal values page deterministically.
+ */
+final class InvoiceSortOrder {
+
+    private InvoiceSortOrder() {
+    }
+
+    static Sort of(String sortBy, String sortDir) {
+        Sort.Direction direction = "asc".equalsIgnoreCase(sortDir) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String property = switch (sortBy == null ? "" : sortBy) {
+            case "issueDate" -> "issueDate";
+            case "clientName" -> "client.clientName";
+            case "totalAmount" -> "totalAmount";
+            default -> "numberSortKey";
+        };
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+}
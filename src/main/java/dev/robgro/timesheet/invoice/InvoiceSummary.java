@@ -0,0 +1,36 @@
+package dev.robgro.timesheet.invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight invoice row for list, archive and report views (no items, no entity).
+ * Selected directly by JPQL constructor expressions in {@link InvoiceRepository}.
+ *
+ * @param id Invoice ID
+ * @param invoiceNumber Display invoice number
+ * @param issueDate Issue date
+ * @param clientId Client ID (null if the client row is gone)
+ * @param clientName Client name (null if the client row is gone)
+ * @param sellerId Seller ID
+ * @param sellerName Seller name
+ * @param totalAmount Invoice total
+ * @param pdfPath Path of the generated PDF, null if not generated yet
+ * @param pdfGeneratedAt When the PDF was generated
+ * @param emailSentAt When the invoice was e-mailed, null if not sent
+ */
+public record InvoiceSummary(
+        Long id,
+        String invoiceNumber,
+        LocalDate issueDate,
+        Long clientId,
+        String clientName,
+        Long sellerId,
+        String sellerName,
+        BigDecimal totalAmount,
+        String pdfPath,
+        LocalDateTime pdfGeneratedAt,
+        LocalDateTime emailSentAt
+) {
+}
@@ -0,0 +1,40 @@
+package dev.robgro.timesheet.invoice;
+
+import java.util.List;
+
+/**
+ * Outcome of a monthly billing run: one entry per client with uninvoiced timesheets.
+ *
+ * @param invoices Created invoices, in client name order
+ * @param failures Clients whose invoice was rolled back, in client name order
+ */
+public record MonthlyBillingResult(
+        List<InvoiceDto> invoices,
+        List<ClientFailure> failures
+) {
+    public MonthlyBillingResult {
+        invoices = List.copyOf(invoices);
+        failures = List.copyOf(failures);
+    }
+
+    public static MonthlyBillingResult empty() {
+        return new MonthlyBillingResult(List.of(), List.of());
+    }
+
+    /**
+     * A client left unbilled by the run; its timesheets stay uninvoiced.
+     *
+     * @param clientId Client ID
+     * @param clientName Client name (from its timesheets)
+     * @param exception Why the client's invoice failed
+     */
+    public record ClientFailure(
+            Long clientId,
+            String clientName,
+            Exception exception
+    ) {
+        public String errorMessage() {
+            return exception.getMessage();
+        }
+    }
+}
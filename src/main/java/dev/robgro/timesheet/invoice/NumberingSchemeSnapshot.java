@@ -0,0 +1,52 @@
+package dev.robgro.timesheet.invoice;
+
+import java.time.LocalDate;
+
+/**
+ * Detached, immutable copy of the scheme fields needed to issue a number.
+ * Cached by {@link EffectiveSchemeResolver} instead of the managed entity
+ * (no lazy seller proxy, no persistence context outliving its transaction).
+ */
+public record NumberingSchemeSnapshot(
+    /**
+     * Scheme ID (stored on the invoice as audit trail).
+     */
+    Long id,
+
+    /**
+     * Template string with tokens, e.g. "{SEQ:3}-{MM}-{YYYY}".
+     */
+    String template,
+
+    /**
+     * When the sequence resets to 1.
+     */
+    ResetPeriod resetPeriod,
+
+    /**
+     * Date from which the scheme applies.
+     */
+    LocalDate effectiveFrom,
+
+    /**
+     * Version for the same effectiveFrom (higher wins).
+     */
+    Integer version,
+
+    /**
+     * ACTIVE or ARCHIVED (DRAFT schemes are never resolved).
+     */
+    SchemeStatus status
+) {
+
+    public static NumberingSchemeSnapshot from(InvoiceNumberingScheme scheme) {
+        return new NumberingSchemeSnapshot(
+            scheme.getId(),
+            scheme.getTemplate(),
+            scheme.getResetPeriod(),
+            scheme.getEffectiveFrom(),
+            scheme.getVersion(),
+            scheme.getStatus()
+        );
+    }
+}
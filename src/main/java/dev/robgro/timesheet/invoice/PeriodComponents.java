@@ -1,5 +1,7 @@
 package dev.robgro.timesheet.invoice;
 
+import java.time.LocalDate;
+
 /**
  * Simple record holding period components for invoice numbering.
  * Calculated based on issue date and reset period.
@@ -10,4 +12,24 @@ package dev.robgro.timesheet.invoice;
 public record PeriodComponents(
         Integer year,
         Integer month) {
+
+    /**
+     * Period of an invoice issued on issueDate under the given reset period.
+     * NEVER uses (0, 0), YEARLY uses month 0.
+     */
+    public static PeriodComponents of(LocalDate issueDate, ResetPeriod resetPeriod) {
+        PeriodComponents period = switch (resetPeriod) {
+            case MONTHLY -> new PeriodComponents(issueDate.getYear(), issueDate.getMonthValue());
+            case YEARLY  -> new PeriodComponents(issueDate.getYear(), 0);
+            case NEVER   -> new PeriodComponents(0, 0);
+        };
+
+        if (resetPeriod == ResetPeriod.MONTHLY && period.month() == 0) {
+            throw new IllegalStateException(
+                "Invalid period: MONTHLY reset cannot have month=0. issueDate=" + issueDate
+            );
+        }
+
+        return period;
+    }
 }
@@ -54,4 +54,26 @@ public class PeriodKeyFactory {
             case NEVER   -> "NEVER";                                           // "NEVER"
         };
     }
+
+    /**
+     * Parse period key back into period components (inverse of {@link #build}).
+     *
+     * <p>Examples:
+     * - MONTHLY "2026-02" → (2026, 2)
+     * - YEARLY "2026" → (2026, 0)
+     * - NEVER "NEVER" → (0, 0)
+     *
+     * @param resetPeriod Reset strategy the key was built for
+     * @param periodKey Period key in V27 format
+     * @return Period components matching invoices.period_year / period_month
+     */
+    public PeriodComponents parse(ResetPeriod resetPeriod, String periodKey) {
+        return switch (resetPeriod) {
+            case MONTHLY -> new PeriodComponents(
+                Integer.parseInt(periodKey.substring(0, 4)),
+                Integer.parseInt(periodKey.substring(5, 7)));
+            case YEARLY  -> new PeriodComponents(Integer.parseInt(periodKey), 0);
+            case NEVER   -> new PeriodComponents(0, 0);
+        };
+    }
 }
@@ -0,0 +1,28 @@
+package dev.robgro.timesheet.invoice;
+
+/**
+ * MAX(sequence_number) of issued invoices for one seller and period.
+ * Projection used by counter reconciliation (one GROUP BY query instead of one query per counter).
+ */
+public record PeriodMaxSequence(
+    /**
+     * Seller (tenant) ID.
+     */
+    Long sellerId,
+
+    /**
+     * Period year (0 for NEVER).
+     */
+    Integer periodYear,
+
+    /**
+     * Period month: 1-12 for MONTHLY, 0 for YEARLY/NEVER.
+     */
+    Integer periodMonth,
+
+    /**
+     * Highest sequence number issued in this period.
+     */
+    Integer maxSequence
+) {
+}
@@ -0,0 +1,22 @@
+package dev.robgro.timesheet.invoice;
+
+/**
+ * Cross-node hook for numbering scheme cache invalidation.
+ *
+ * <p>{@link EffectiveSchemeResolver} calls every registered broadcaster after a scheme
+ * change commits on this node. An implementation relays the seller ID to the other
+ * nodes (message broker, database notification, ...), where the receiving side calls
+ * {@link EffectiveSchemeResolver#evict(Long)}.
+ *
+ * <p>No implementation is registered by default (single node deployment); the
+ * resolver's TTL bounds staleness on nodes that miss a broadcast.
+ */
+public interface SchemeCacheInvalidationBroadcaster {
+
+    /**
+     * Schemes of this seller changed - drop cached timelines on other nodes.
+     *
+     * @param sellerId Seller whose schemes changed
+     */
+    void broadcastEviction(Long sellerId);
+}
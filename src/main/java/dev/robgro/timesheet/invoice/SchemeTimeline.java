@@ -0,0 +1,80 @@
+package dev.robgro.timesheet.invoice;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable per-seller timeline of resolvable numbering schemes.
+ *
+ * <p>Schemes are split by status and each group is sorted by (effectiveFrom, version).
+ * Resolution mirrors {@link InvoiceNumberingSchemeRepository#findEffectiveScheme}:
+ * <ol>
+ *   <li>ACTIVE schemes first - latest effectiveFrom &lt;= issueDate, then highest version</li>
+ *   <li>otherwise ARCHIVED schemes, same ordering</li>
+ * </ol>
+ * Each step is a binary search for the last entry with effectiveFrom &lt;= issueDate;
+ * because entries are sorted by (effectiveFrom, version), that entry also has the
+ * highest version for its date.
+ */
+final class SchemeTimeline {
+
+    private static final Comparator<NumberingSchemeSnapshot> ORDER = Comparator
+        .comparing(NumberingSchemeSnapshot::effectiveFrom)
+        .thenComparing(NumberingSchemeSnapshot::version);
+
+    private final NumberingSchemeSnapshot[] active;
+    private final NumberingSchemeSnapshot[] archived;
+    private final long loadedAtNanos;
+
+    private SchemeTimeline(NumberingSchemeSnapshot[] active, NumberingSchemeSnapshot[] archived, long loadedAtNanos) {
+        this.active = active;
+        this.archived = archived;
+        this.loadedAtNanos = loadedAtNanos;
+    }
+
+    static SchemeTimeline of(List<NumberingSchemeSnapshot> schemes, long loadedAtNanos) {
+        NumberingSchemeSnapshot[] active = schemes.stream()
+            .filter(s -> s.status() == SchemeStatus.ACTIVE)
+            .sorted(ORDER)
+            .toArray(NumberingSchemeSnapshot[]::new);
+        NumberingSchemeSnapshot[] archived = schemes.stream()
+            .filter(s -> s.status() == SchemeStatus.ARCHIVED)
+            .sorted(ORDER)
+            .toArray(NumberingSchemeSnapshot[]::new);
+        return new SchemeTimeline(active, archived, loadedAtNanos);
+    }
+
+    Optional<NumberingSchemeSnapshot> resolve(LocalDate issueDate) {
+        NumberingSchemeSnapshot scheme = latestOnOrBefore(active, issueDate);
+        if (scheme == null) {
+            scheme = latestOnOrBefore(archived, issueDate);
+        }
+        return Optional.ofNullable(scheme);
+    }
+
+    long loadedAtNanos() {
+        return loadedAtNanos;
+    }
+
+    int size() {
+        return active.length + archived.length;
+    }
+
+    private static NumberingSchemeSnapshot latestOnOrBefore(NumberingSchemeSnapshot[] schemes, LocalDate issueDate) {
+        int low = 0;
+        int high = schemes.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (schemes[mid].effectiveFrom().isAfter(issueDate)) {
+                high = mid - 1;
+            } else {
+                found = mid;
+                low = mid + 1;
+            }
+        }
+        return found < 0 ? null : schemes[found];
+    }
+}
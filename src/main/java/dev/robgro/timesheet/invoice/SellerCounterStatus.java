@@ -0,0 +1,17 @@
+package dev.robgro.timesheet.invoice;
+
+/**
+ * Drift report entry: counter status tagged with its seller (all-sellers report).
+ */
+public record SellerCounterStatus(
+    /**
+     * Seller (tenant) ID.
+     */
+    Long sellerId,
+
+    /**
+     * Counter status with drift detection.
+     */
+    CounterStatusDto counter
+) {
+}
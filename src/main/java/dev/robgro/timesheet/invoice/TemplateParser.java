@@ -3,8 +3,8 @@ package dev.robgro.timesheet.invoice;
 import dev.robgro.timesheet.exception.ValidationException;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Parses invoice number templates and applies token replacements.
@@ -18,13 +18,27 @@ import java.util.regex.Pattern;
  * - {DEPT} - Department code (e.g., DUT, DUI)
  * - {DEPT_NAME} - Full department name
  *
+ * Templates are compiled once into a token program (CompiledTemplate) and cached;
+ * rendering is a single pass into a presized char[].
+ *
  * IMPORTANT: This class does NOT depend on JPA entities.
  * Works only with TemplateContext (Value Object) for easier testing.
  */
 @Component
 public class TemplateParser {
 
-    private static final Pattern SEQ_PATTERN = Pattern.compile("\\{SEQ:(\\d+)}");
+    /**
+     * Upper bound of cached programs; schemes are few, the bound only guards
+     * against unbounded growth when ad-hoc templates are previewed
+     */
+    static final int MAX_CACHED_TEMPLATES = 256;
+
+    /**
+     * Compiled programs keyed by template text. A scheme's template never changes
+     * (new template = new scheme version), so this is effectively one entry per
+     * scheme id/version, shared by schemes with identical templates.
+     */
+    private final ConcurrentHashMap<String, CompiledTemplate> compiled = new ConcurrentHashMap<>();
 
     /**
      * Apply template to generate display number.
@@ -41,57 +55,39 @@ public class TemplateParser {
         if (context == null) {
             throw new ValidationException("Template context is required");
         }
-
-        String result = template;
-
-        // Process {SEQ:N} with padding
-        result = processSequenceToken(result, context.getSequenceNumber());
-
-        // Replace year tokens
-        result = result.replace("{YYYY}", String.valueOf(context.getYear()));
-        result = result.replace("{YY}", String.valueOf(context.getYear() % 100));
-
-        // Replace month tokens — {MM}/{M} are display tokens, always replaced with actual month
-        // month=0 is only a counter key sentinel (YEARLY/NEVER); display always uses issueDate month
-        result = result.replace("{MM}", String.format("%02d", context.getMonth()));
-        result = result.replace("{M}", String.valueOf(context.getMonth()));
-
-        // Replace department tokens if present
-        if (context.getDepartment() != null) {
-            result = result.replace("{DEPT}", context.getDepartment().getCode());
-            result = result.replace("{DEPT_NAME}", context.getDepartment().getName());
-        } else {
-            // Remove department tokens if no department
-            result = result.replace("-{DEPT}", "");
-            result = result.replace("{DEPT}-", "");
-            result = result.replace("{DEPT}", "");
-            result = result.replace("{DEPT_NAME}", "");
+        if (context.getSequenceNumber() == null) {
+            throw new ValidationException("Sequence number is required");
         }
 
-        return result;
+        // {MM}/{M} are display tokens, always rendered with the actual month
+        // month=0 is only a counter key sentinel (YEARLY/NEVER); display always uses issueDate month
+        return compile(template).render(
+            context.getSequenceNumber(),
+            context.getYear(),
+            context.getMonth(),
+            context.getDepartment()
+        );
     }
 
     /**
-     * Process {SEQ:N} token with zero-padding.
+     * Compiled program for template (cached).
      *
-     * @param template Template containing {SEQ:N} token
-     * @param sequenceNumber Sequence number to format
-     * @return Template with {SEQ:N} replaced by padded sequence
+     * @throws ValidationException if template has no {SEQ:N} token or invalid padding
      */
-    private String processSequenceToken(String template, Integer sequenceNumber) {
-        if (sequenceNumber == null) {
-            throw new ValidationException("Sequence number is required");
+    CompiledTemplate compile(String template) {
+        CompiledTemplate program = compiled.get(template);
+        if (program != null) {
+            return program;
         }
-
-        Matcher matcher = SEQ_PATTERN.matcher(template);
-        if (!matcher.find()) {
-            throw new ValidationException("Template must contain {SEQ:N} token");
+        program = CompiledTemplate.compile(template);
+        if (compiled.size() < MAX_CACHED_TEMPLATES) {
+            compiled.putIfAbsent(template, program);
         }
+        return program;
+    }
 
-        int padding = Integer.parseInt(matcher.group(1));
-        String paddedSequence = String.format("%0" + padding + "d", sequenceNumber);
-
-        return matcher.replaceAll(paddedSequence);
+    int cachedTemplates() {
+        return compiled.size();
     }
 
     /**
@@ -110,24 +106,21 @@ public class TemplateParser {
             throw new ValidationException("Template too long (max 64 characters)");
         }
 
+        List<CompiledTemplate.Op> tokens = CompiledTemplate.tokenize(template);
+
         // Must contain {SEQ:N}
-        Matcher matcher = SEQ_PATTERN.matcher(template);
-        if (!matcher.find()) {
+        int padding = CompiledTemplate.firstSequencePadding(tokens);
+        if (padding < 0) {
             throw new ValidationException("Template must contain {SEQ:N} token (e.g., {SEQ:3})");
         }
 
         // Validate padding value
-        int padding = Integer.parseInt(matcher.group(1));
-        if (padding < 1 || padding > 10) {
+        if (padding < CompiledTemplate.MIN_PADDING || padding > CompiledTemplate.MAX_PADDING) {
             throw new ValidationException("Sequence padding must be between 1 and 10");
         }
 
-        // Check for invalid tokens
-        String testTemplate = template;
-        testTemplate = matcher.replaceAll("SEQ");
-        testTemplate = testTemplate.replaceAll("\\{(YYYY|YY|MM|M|DEPT|DEPT_NAME)}", "");
-
-        if (testTemplate.contains("{") || testTemplate.contains("}")) {
+        // Check for invalid tokens (braces outside recognized tokens)
+        if (CompiledTemplate.hasUnknownTokens(tokens)) {
             throw new ValidationException("Template contains invalid tokens. Valid: {SEQ:N}, {YYYY}, {YY}, {MM}, {M}, {DEPT}, {DEPT_NAME}");
         }
     }
@@ -0,0 +1,57 @@
+package dev.robgro.timesheet.invoice;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of counter scopes whose drift check has already passed on this node.
+ *
+ * <p>Drift (counter.lastValue behind MAX(sequence_number)) cannot appear during normal
+ * issuance: the counter UPSERT and the invoice INSERT share one transaction. It only
+ * appears after events outside that path:
+ * - rollback of a transaction that issued a number
+ * - manual database edits (flagged by an admin via /internal/invoice-counters/reconcile)
+ * - migrations/backfills (covered by the startup and periodic reconciliation)
+ *
+ * <p>So the MAX(sequence_number) check runs once per scope, and again only after
+ * one of those events removes the scope from this registry.
+ *
+ * <p>Node-local by design: an unverified scope just costs one extra check.
+ */
+@Component
+public class VerifiedCounterScopeRegistry {
+
+    private final Set<InvoiceCounterScope> verified = ConcurrentHashMap.newKeySet();
+
+    public boolean isVerified(InvoiceCounterScope scope) {
+        return verified.contains(scope);
+    }
+
+    public void markVerified(InvoiceCounterScope scope) {
+        verified.add(scope);
+    }
+
+    /**
+     * Force drift check on next issuance for this scope.
+     */
+    public void invalidate(InvoiceCounterScope scope) {
+        verified.remove(scope);
+    }
+
+    /**
+     * Force drift check on next issuance for every scope of the seller.
+     */
+    public void invalidateSeller(Long sellerId) {
+        verified.removeIf(scope -> scope.sellerId().equals(sellerId));
+    }
+
+    public void invalidateAll() {
+        verified.clear();
+    }
+
+    public int size() {
+        return verified.size();
+    }
+}
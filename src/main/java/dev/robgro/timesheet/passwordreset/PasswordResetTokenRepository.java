@@ -1,5 +1,6 @@
 package dev.robgro.timesheet.passwordreset;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -48,13 +49,26 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     int deleteExpiredTokens(@Param("cutoff") LocalDateTime cutoff);
 
     /**
-     * Delete all old tokens (regardless of used status).
-     * Used for compliance/retention policy (e.g., delete tokens older than 7 days).
+     * Find ids of tokens expired before cutoff (regardless of used status).
+     * Used by chunked retention purge - keyset-ordered by id.
      *
-     * @param cutoff Timestamp cutoff (tokens created before this are deleted)
+     * @param cutoff Timestamp cutoff (tokens with expiresAt before this are eligible)
+     * @param afterId Last id of the previous chunk (0 for the first chunk)
+     * @param pageable Chunk size (use PageRequest.of(0, size))
+     * @return Ids in ascending order
+     */
+    @Query("SELECT t.id FROM PasswordResetToken t WHERE t.expiresAt < :cutoff AND t.id > :afterId ORDER BY t.id")
+    List<Long> findIdsExpiredBefore(@Param("cutoff") LocalDateTime cutoff,
+                                    @Param("afterId") long afterId,
+                                    Pageable pageable);
+
+    /**
+     * Bulk delete tokens by id (single DELETE statement, no entity loading).
+     *
+     * @param ids Token ids from findIdsExpiredBefore
      * @return Number of deleted tokens
      */
     @Modifying
-    @Query("DELETE FROM PasswordResetToken t WHERE t.createdAt < :cutoff")
-    int deleteOldTokens(@Param("cutoff") LocalDateTime cutoff);
+    @Query("DELETE FROM PasswordResetToken t WHERE t.id IN :ids")
+    int bulkDeleteByIds(@Param("ids") List<Long> ids);
 }
@@ -5,13 +5,13 @@ import dev.robgro.timesheet.exception.InvalidTokenException;
 import dev.robgro.timesheet.exception.ServiceOperationException;
 import dev.robgro.timesheet.exception.TokenAlreadyUsedException;
 import dev.robgro.timesheet.exception.TokenExpiredException;
+import dev.robgro.timesheet.retention.RetentionPurgeService;
 import dev.robgro.timesheet.user.User;
 import dev.robgro.timesheet.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Hex;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.session.SessionInformation;
 import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -41,6 +41,7 @@ public class PasswordResetTokenService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final SessionRegistry sessionRegistry;
+    private final RetentionPurgeService retentionPurgeService;
 
     @Value("${app.password-reset.token-ttl-minutes:30}")
     private int tokenTtlMinutes;
@@ -251,18 +252,14 @@ public class PasswordResetTokenService {
     }
 
     /**
-     * Scheduled cleanup of old tokens (compliance/retention policy).
-     * Runs daily at 2 AM.
-     * Deletes tokens older than 7 days regardless of used status.
+     * Cleanup of expired tokens (compliance/retention policy).
+     * Scheduled nightly by RetentionScheduler; deletes in keyset-ordered chunks
+     * tokens expired more than app.retention.password-reset-token-retention-days ago
+     * (default 7 days), regardless of used status.
+     *
+     * @return Number of deleted tokens
      */
-    @Scheduled(cron = "0 0 2 * * ?")
-    @Transactional
-    public void cleanupExpiredTokens() {
-        LocalDateTime cutoff = LocalDateTime.now().minusDays(7);
-        int deleted = tokenRepository.deleteOldTokens(cutoff);
-
-        if (deleted > 0) {
-            log.info("Cleaned up {} old password reset tokens", deleted);
-        }
+    public long cleanupExpiredTokens() {
+        return retentionPurgeService.purgePasswordResetTokens().rowsDeleted();
     }
 }
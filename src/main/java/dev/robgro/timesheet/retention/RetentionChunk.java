@@ -0,0 +1,13 @@
+package dev.robgro.timesheet.retention;
+
+/**
+ * Result of deleting one keyset-ordered chunk.
+ *
+ * @param deleted rows removed by the bulk DELETE
+ * @param lastId  highest id in the chunk (keyset position for the next chunk)
+ * @param hasMore true if the chunk was full (more eligible rows may follow)
+ */
+record RetentionChunk(int deleted, long lastId, boolean hasMore) {
+
+    static final RetentionChunk EMPTY = new RetentionChunk(0, 0L, false);
+}
@@ -0,0 +1,45 @@
+package dev.robgro.timesheet.retention;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Internal observability endpoint for the retention purge.
+ *
+ * <p><b>ADMIN ONLY:</b> Shows the last run per target (rows removed, chunks,
+ * duration, completed flag) so ops can verify the nightly purge without DB access.
+ *
+ * <p><b>Feature flag:</b> Shares {@code internal.counters.observability.enabled}
+ * with the other internal endpoints.
+ */
+@RestController
+@RequestMapping("/internal/retention")
+@PreAuthorize("hasRole('ADMIN')")
+@ConditionalOnProperty(
+    name = "internal.counters.observability.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionObservabilityController {
+
+    private final RetentionPurgeService retentionPurgeService;
+
+    /**
+     * Get last retention purge report per target.
+     *
+     * @return Reports sorted by target name (empty until the first run)
+     */
+    @GetMapping
+    public List<RetentionPurgeReport> getLastReports() {
+        return retentionPurgeService.getLastReports();
+    }
+}
@@ -0,0 +1,54 @@
+package dev.robgro.timesheet.retention;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.retention")
+@Getter
+@Setter
+public class RetentionProperties {
+
+    /**
+     * Enable/disable the scheduled retention purge
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cron expression for the nightly purge run
+     * Default: every day at 2:30 AM
+     */
+    private String cron = "0 30 2 * * ?";
+
+    /**
+     * Maximum number of rows deleted per chunk (one short transaction per chunk)
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Pause between chunks in milliseconds
+     * Gives replicas time to catch up and releases row locks between chunks
+     */
+    private long pauseBetweenChunksMs = 100;
+
+    /**
+     * Email tracking rows older than this are deleted
+     * Default: 12 months (GDPR compliance plan)
+     */
+    private int trackingRetentionMonths = 12;
+
+    /**
+     * Password reset tokens expired for longer than this are deleted
+     * Default: 7 days (kept briefly for audit trail)
+     */
+    private int passwordResetTokenRetentionDays = 7;
+
+    /**
+     * Change feed tombstones older than this are deleted; sync cursors older than this
+     * are rejected (the client syncs again from scratch)
+     * Default: 90 days
+     */
+    private int tombstoneRetentionDays = 90;
+}
@@ -0,0 +1,47 @@
+package dev.robgro.timesheet.retention;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a single retention purge run for one target table.
+ *
+ * <p>Exposed via the internal retention endpoint so ops can verify
+ * how many rows each nightly run removed and how long it took.
+ */
+public record RetentionPurgeReport(
+    /**
+     * Purged table (e.g., "email_tracking", "password_reset_tokens").
+     */
+    String target,
+
+    /**
+     * Rows older than this timestamp were eligible for deletion.
+     */
+    LocalDateTime cutoff,
+
+    /**
+     * Total rows deleted in this run.
+     */
+    long rowsDeleted,
+
+    /**
+     * Number of chunks (short transactions) executed.
+     */
+    int chunks,
+
+    /**
+     * When the run started.
+     */
+    LocalDateTime startedAt,
+
+    /**
+     * Wall-clock duration of the run in milliseconds (including pauses).
+     */
+    long durationMs,
+
+    /**
+     * False if the run stopped early (interrupted or failed mid-way).
+     */
+    boolean completed
+) {
+}
@@ -0,0 +1,170 @@
+package dev.robgro.timesheet.retention;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retention engine - deletes old rows in keyset-ordered chunks.
+ *
+ * NOT @Transactional - every chunk runs in its own REQUIRES_NEW transaction
+ * (RetentionPurgeTransactionalWorker), so locks are held only for one chunk
+ * and a failure mid-way keeps everything deleted so far.
+ *
+ * Between chunks the engine sleeps (app.retention.pause-between-chunks-ms)
+ * to limit replication lag and lock time on the primary.
+ *
+ * Targets:
+ * - email_tracking: rows created more than app.retention.tracking-retention-months ago
+ * - password_reset_tokens: tokens expired more than app.retention.password-reset-token-retention-days ago
+ * - change_tombstones: change feed tombstones older than app.retention.tombstone-retention-days
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionPurgeService {
+
+    static final String TARGET_EMAIL_TRACKING = "email_tracking";
+    static final String TARGET_PASSWORD_RESET_TOKENS = "password_reset_tokens";
+    static final String TARGET_CHANGE_TOMBSTONES = "change_tombstones";
+
+    private final RetentionPurgeTransactionalWorker worker;
+    private final RetentionProperties properties;
+
+    /**
+     * Last report per target (for the internal observability endpoint).
+     */
+    private final Map<String, RetentionPurgeReport> lastReports = new ConcurrentHashMap<>();
+
+    /**
+     * Purges email tracking data older than the retention period.
+     *
+     * @return Report with rows removed in this run
+     */
+    public RetentionPurgeReport purgeEmailTracking() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(properties.getTrackingRetentionMonths());
+        return purge(TARGET_EMAIL_TRACKING, cutoff, worker::purgeTrackingChunk);
+    }
+
+    /**
+     * Purges password reset tokens expired longer than the retention period.
+     *
+     * @return Report with rows removed in this run
+     */
+    public RetentionPurgeReport purgePasswordResetTokens() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getPasswordResetTokenRetentionDays());
+        return purge(TARGET_PASSWORD_RESET_TOKENS, cutoff, worker::purgePasswordResetTokenChunk);
+    }
+
+    /**
+     * Purges change feed tombstones older than the retention period.
+     *
+     * @return Report with rows removed in this run
+     */
+    public RetentionPurgeReport purgeChangeTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getTombstoneRetentionDays());
+        return purge(TARGET_CHANGE_TOMBSTONES, cutoff, worker::purgeChangeTombstoneChunk);
+    }
+
+    /**
+     * Runs all retention targets one after another.
+     * A failing target does not prevent the remaining ones from running.
+     *
+     * @return Reports in execution order
+     */
+    public List<RetentionPurgeReport> purgeAll() {
+        return List.of(purgeEmailTracking(), purgePasswordResetTokens(), purgeChangeTombstones());
+    }
+
+    /**
+     * Returns the last report per target (empty until the first run).
+     */
+    public List<RetentionPurgeReport> getLastReports() {
+        return lastReports.values().stream()
+            .sorted((a, b) -> a.target().compareTo(b.target()))
+            .toList();
+    }
+
+    private RetentionPurgeReport purge(String target, LocalDateTime cutoff, ChunkDeleter deleter) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        int chunkSize = Math.max(1, properties.getChunkSize());
+
+        long rowsDeleted = 0;
+        int chunks = 0;
+        long afterId = 0L;
+        boolean completed = true;
+
+        try {
+            while (true) {
+                RetentionChunk chunk = deleter.deleteChunk(cutoff, afterId, chunkSize);
+                if (RetentionChunk.EMPTY.equals(chunk)) {
+                    break;
+                }
+
+                chunks++;
+                rowsDeleted += chunk.deleted();
+                afterId = chunk.lastId();
+
+                if (!chunk.hasMore()) {
+                    break;
+                }
+                if (!pauseBetweenChunks()) {
+                    completed = false;
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            completed = false;
+            log.error("Retention purge of {} failed after {} chunks ({} rows deleted): {}",
+                target, chunks, rowsDeleted, e.getMessage(), e);
+        }
+
+        RetentionPurgeReport report = new RetentionPurgeReport(
+            target,
+            cutoff,
+            rowsDeleted,
+            chunks,
+            startedAt,
+            System.currentTimeMillis() - start,
+            completed
+        );
+        lastReports.put(target, report);
+
+        if (rowsDeleted > 0 || !completed) {
+            log.info("Retention purge {}: deleted {} rows older than {} in {} chunks ({} ms, completed={})",
+                target, rowsDeleted, cutoff, chunks, report.durationMs(), completed);
+        } else {
+            log.debug("Retention purge {}: nothing to delete (cutoff {})", target, cutoff);
+        }
+        return report;
+    }
+
+    /**
+     * @return false if the thread was interrupted (stop purging)
+     */
+    private boolean pauseBetweenChunks() {
+        long pause = properties.getPauseBetweenChunksMs();
+        if (pause <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Retention purge interrupted - stopping early");
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    interface ChunkDeleter {
+        RetentionChunk deleteChunk(LocalDateTime cutoff, long afterId, int chunkSize);
+    }
+}
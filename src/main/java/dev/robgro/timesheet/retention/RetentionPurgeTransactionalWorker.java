@@ -0,0 +1,71 @@
+package dev.robgro.timesheet.retention;
+
+import dev.robgro.timesheet.passwordreset.PasswordResetTokenRepository;
+import dev.robgro.timesheet.sync.ChangeTombstoneRepository;
+import dev.robgro.timesheet.tracking.EmailTrackingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional worker deleting one retention chunk per call.
+ * Exists as a separate bean so that @Transactional(REQUIRES_NEW) is applied
+ * through Spring AOP proxy — self-invocation would bypass the proxy.
+ *
+ * Each chunk is one short transaction with two statements:
+ * 1. SELECT ids ... WHERE id > :afterId ORDER BY id LIMIT :chunkSize (keyset, uses PK index)
+ * 2. DELETE ... WHERE id IN (:ids) (bulk, no entity loading, no per-row DELETE)
+ *
+ * Looping, pauses and reporting live in RetentionPurgeService (orchestrator).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class RetentionPurgeTransactionalWorker {
+
+    private final EmailTrackingRepository trackingRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final ChangeTombstoneRepository changeTombstoneRepository;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    RetentionChunk purgeTrackingChunk(LocalDateTime cutoff, long afterId, int chunkSize) {
+        List<Long> ids = trackingRepository.findIdsCreatedBefore(cutoff, afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return RetentionChunk.EMPTY;
+        }
+
+        int deleted = trackingRepository.bulkDeleteByIds(ids);
+        log.debug("Deleted {} email_tracking rows (ids {}..{})", deleted, ids.get(0), ids.get(ids.size() - 1));
+        return new RetentionChunk(deleted, ids.get(ids.size() - 1), ids.size() == chunkSize);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    RetentionChunk purgePasswordResetTokenChunk(LocalDateTime cutoff, long afterId, int chunkSize) {
+        List<Long> ids = passwordResetTokenRepository.findIdsExpiredBefore(cutoff, afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return RetentionChunk.EMPTY;
+        }
+
+        int deleted = passwordResetTokenRepository.bulkDeleteByIds(ids);
+        log.debug("Deleted {} password_reset_tokens rows (ids {}..{})", deleted, ids.get(0), ids.get(ids.size() - 1));
+        return new RetentionChunk(deleted, ids.get(ids.size() - 1), ids.size() == chunkSize);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    RetentionChunk purgeChangeTombstoneChunk(LocalDateTime cutoff, long afterId, int chunkSize) {
+        List<Long> ids = changeTombstoneRepository.findIdsDeletedBefore(cutoff, afterId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return RetentionChunk.EMPTY;
+        }
+
+        int deleted = changeTombstoneRepository.bulkDeleteByIds(ids);
+        log.debug("Deleted {} change_tombstones rows (ids {}..{})", deleted, ids.get(0), ids.get(ids.size() - 1));
+        return new RetentionChunk(deleted, ids.get(ids.size() - 1), ids.size() == chunkSize);
+    }
+}
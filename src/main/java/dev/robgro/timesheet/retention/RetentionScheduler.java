@@ -0,0 +1,34 @@
+package dev.robgro.timesheet.retention;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class RetentionScheduler {
+
+    private final RetentionPurgeService retentionPurgeService;
+
+    @Scheduled(cron = "${app.retention.cron:0 30 2 * * ?}")
+    public void purgeExpiredData() {
+        log.info("▶ Starting scheduled task: retention purge");
+
+        List<RetentionPurgeReport> reports = retentionPurgeService.purgeAll();
+
+        long total = reports.stream().mapToLong(RetentionPurgeReport::rowsDeleted).sum();
+        boolean allCompleted = reports.stream().allMatch(RetentionPurgeReport::completed);
+
+        if (allCompleted) {
+            log.info("✅ Retention purge completed. Deleted {} rows", total);
+        } else {
+            log.warn("⚠️ Retention purge finished with errors. Deleted {} rows, reports: {}", total, reports);
+        }
+    }
+}
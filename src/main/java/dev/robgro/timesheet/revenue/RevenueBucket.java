@@ -0,0 +1,43 @@
+package dev.robgro.timesheet.revenue;
+
+import dev.robgro.timesheet.invoice.Invoice;
+
+import java.time.LocalDate;
+
+/**
+ * One revenue_rollup row key, as touched by an invoice write.
+ *
+ * @param sellerId Seller ID
+ * @param clientId Client ID
+ * @param periodYear Issue year
+ * @param periodMonth Issue month 1-12
+ */
+public record RevenueBucket(Long sellerId, Long clientId, int periodYear, int periodMonth) {
+
+    /**
+     * Bucket of an invoice.
+     *
+     * @return Bucket, or null if the invoice has no seller, client or issue date (not rolled up)
+     */
+    public static RevenueBucket of(Long sellerId, Long clientId, LocalDate issueDate) {
+        if (sellerId == null || clientId == null || issueDate == null) {
+            return null;
+        }
+        return new RevenueBucket(sellerId, clientId, issueDate.getYear(), issueDate.getMonthValue());
+    }
+
+    /**
+     * Bucket of an invoice, as currently set on the entity.
+     *
+     * @return Bucket, or null if the invoice has no seller, client or issue date (not rolled up)
+     */
+    public static RevenueBucket of(Invoice invoice) {
+        return of(invoice.getSeller() != null ? invoice.getSeller().getId() : null,
+                invoice.getClient() != null ? invoice.getClient().getId() : null,
+                invoice.getIssueDate());
+    }
+
+    LocalDate firstDay() {
+        return LocalDate.of(periodYear, periodMonth, 1);
+    }
+}
@@ -0,0 +1,50 @@
+package dev.robgro.timesheet.revenue;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized monthly revenue per seller and client (revenue_rollup, created by V36).
+ *
+ * <p>Read-only for JPA: rows are written only by the set-based refresh/rebuild statements in
+ * {@link RevenueRollupRepository}, which recompute a bucket from invoices, invoice items and
+ * timesheets inside the invoice write transaction.
+ */
+@Entity
+@Table(name = "revenue_rollup")
+@org.hibernate.annotations.Immutable
+@Getter
+@NoArgsConstructor
+public class RevenueRollup {
+
+    @EmbeddedId
+    private RevenueRollupId id;
+
+    @Column(name = "invoice_count", nullable = false)
+    private long invoiceCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    /**
+     * Sum of invoice item durations (hours).
+     */
+    @Column(name = "billed_hours", nullable = false, precision = 12, scale = 2)
+    private BigDecimal billedHours;
+
+    /**
+     * Sum of invoice item amounts whose timesheet has a payment date.
+     */
+    @Column(name = "paid_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal paidAmount;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
@@ -0,0 +1,52 @@
+package dev.robgro.timesheet.revenue;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/revenue")
+@RequiredArgsConstructor
+@Tag(name = "Revenue", description = "Monthly revenue per seller and client from the revenue rollup")
+public class RevenueRollupController {
+
+    private final RevenueRollupService revenueRollupService;
+
+    @Operation(summary = "Get monthly revenue",
+            description = "One row per seller, client and issue month, oldest month first. Defaults to the current year")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Revenue rows retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "fromYear after toYear")
+    })
+    @GetMapping("/monthly")
+    public ResponseEntity<List<RevenueRollupDto>> getMonthlyRevenue(
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Integer fromYear,
+            @RequestParam(required = false) Integer toYear) {
+        int currentYear = Year.now().getValue();
+        return ResponseEntity.ok(revenueRollupService.getMonthlyRevenue(clientId,
+                fromYear != null ? fromYear : currentYear, toYear != null ? toYear : currentYear));
+    }
+
+    @Operation(summary = "Rebuild revenue rollup",
+            description = "Recomputes every bucket from invoices (backfill / repair). ADMIN only")
+    @ApiResponse(responseCode = "200", description = "Rollup rebuilt")
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuild() {
+        return ResponseEntity.ok(Map.of("buckets", revenueRollupService.rebuild()));
+    }
+}
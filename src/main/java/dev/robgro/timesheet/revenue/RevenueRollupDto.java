@@ -0,0 +1,37 @@
+package dev.robgro.timesheet.revenue;
+
+import java.math.BigDecimal;
+
+/**
+ * @param sellerId Seller ID
+ * @param clientId Client ID
+ * @param year Issue year
+ * @param month Issue month 1-12
+ * @param invoiceCount Invoices issued in the month
+ * @param totalAmount Sum of invoice totals
+ * @param billedHours Sum of invoiced hours
+ * @param paidAmount Part of the total whose timesheets are paid
+ */
+public record RevenueRollupDto(
+        Long sellerId,
+        Long clientId,
+        int year,
+        int month,
+        long invoiceCount,
+        BigDecimal totalAmount,
+        BigDecimal billedHours,
+        BigDecimal paidAmount
+) {
+
+    static RevenueRollupDto from(RevenueRollup rollup) {
+        return new RevenueRollupDto(
+                rollup.getId().getSellerId(),
+                rollup.getId().getClientId(),
+                rollup.getId().getPeriodYear(),
+                rollup.getId().getPeriodMonth(),
+                rollup.getInvoiceCount(),
+                rollup.getTotalAmount(),
+                rollup.getBilledHours(),
+                rollup.getPaidAmount());
+    }
+}
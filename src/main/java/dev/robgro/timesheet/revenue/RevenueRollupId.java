@@ -0,0 +1,33 @@
+package dev.robgro.timesheet.revenue;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Rollup row key: one row per seller, client and issue month.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class RevenueRollupId implements Serializable {
+
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "period_year", nullable = false)
+    private Integer periodYear;
+
+    @Column(name = "period_month", nullable = false)
+    private Integer periodMonth;
+}
@@ -0,0 +1,97 @@
+package dev.robgro.timesheet.revenue;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reads and set-based maintenance of revenue_rollup.
+ *
+ * <p>A bucket is never adjusted by deltas: it is deleted and recomputed from the source rows
+ * in two statements, so a refresh is idempotent and cannot drift. Both statements flush pending
+ * entity changes first, so they see the invoice write of the current transaction.
+ *
+ * <p>The native statements declare revenue_rollup as their only query space; without it Hibernate
+ * treats a native write as touching every table and empties all second-level cache regions.
+ */
+@RepositoryRestResource(exported = false)
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, RevenueRollupId> {
+
+    /**
+     * One row per invoice (total, hours and paid amount of its items), grouped into buckets.
+     * Followed by the invoice filter and {@link #GROUP_BUCKETS}.
+     */
+    String INSERT_BUCKETS = """
+            INSERT INTO revenue_rollup (seller_id, client_id, period_year, period_month,
+                                        invoice_count, total_amount, billed_hours, paid_amount, refreshed_at)
+            SELECT p.seller_id, p.client_id, p.period_year, p.period_month,
+                   COUNT(*), SUM(p.total_amount), SUM(p.billed_hours), SUM(p.paid_amount), CURRENT_TIMESTAMP
+            FROM (
+                SELECT i.seller_id, i.client_id,
+                       YEAR(i.issue_date) AS period_year, MONTH(i.issue_date) AS period_month,
+                       COALESCE(i.total_amount, 0) AS total_amount,
+                       COALESCE(SUM(it.duration), 0) AS billed_hours,
+                       COALESCE(SUM(CASE WHEN t.payment_date IS NOT NULL THEN it.amount END), 0) AS paid_amount
+                FROM invoices i
+                LEFT JOIN invoice_items it ON it.invoice_id = i.id
+                LEFT JOIN timesheets t ON t.id = it.timesheet_id
+                WHERE\s""";
+
+    String GROUP_BUCKETS = """
+
+                GROUP BY i.id, i.seller_id, i.client_id, i.issue_date, i.total_amount
+            ) p
+            GROUP BY p.seller_id, p.client_id, p.period_year, p.period_month
+            """;
+
+    @Query("SELECT r FROM RevenueRollup r WHERE r.id.clientId = :clientId " +
+            "AND r.id.periodYear BETWEEN :fromYear AND :toYear " +
+            "ORDER BY r.id.periodYear, r.id.periodMonth, r.id.sellerId")
+    List<RevenueRollup> findByClient(@Param("clientId") Long clientId,
+                                     @Param("fromYear") int fromYear, @Param("toYear") int toYear);
+
+    @Query("SELECT r FROM RevenueRollup r WHERE r.id.periodYear BETWEEN :fromYear AND :toYear " +
+            "ORDER BY r.id.periodYear, r.id.periodMonth, r.id.clientId, r.id.sellerId")
+    List<RevenueRollup> findAllClients(@Param("fromYear") int fromYear, @Param("toYear") int toYear);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revenue_rollup"))
+    @Query(value = "DELETE FROM revenue_rollup WHERE seller_id = :sellerId AND client_id = :clientId " +
+            "AND period_year = :year AND period_month = :month", nativeQuery = true)
+    int deleteBucket(@Param("sellerId") Long sellerId, @Param("clientId") Long clientId,
+                     @Param("year") int year, @Param("month") int month);
+
+    /**
+     * Recompute one bucket; the issue date range [fromDate, toDate) lets (client_id, issue_date) be range-scanned.
+     *
+     * @return 1 if the bucket still has invoices, 0 if it became empty
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revenue_rollup"))
+    @Query(value = INSERT_BUCKETS + "i.client_id = :clientId AND i.seller_id = :sellerId " +
+            "AND i.issue_date >= :fromDate AND i.issue_date < :toDate" + GROUP_BUCKETS, nativeQuery = true)
+    int insertBucket(@Param("sellerId") Long sellerId, @Param("clientId") Long clientId,
+                     @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revenue_rollup"))
+    @Query(value = "DELETE FROM revenue_rollup", nativeQuery = true)
+    int deleteAllBuckets();
+
+    /**
+     * @return Number of buckets written
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revenue_rollup"))
+    @Query(value = INSERT_BUCKETS + "i.issue_date IS NOT NULL AND i.client_id IS NOT NULL AND i.seller_id IS NOT NULL"
+            + GROUP_BUCKETS, nativeQuery = true)
+    int insertAllBuckets();
+}
@@ -0,0 +1,74 @@
+package dev.robgro.timesheet.revenue;
+
+import dev.robgro.timesheet.exception.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps revenue_rollup current and serves it to charts/reports.
+ *
+ * <p>Invoice and timesheet write paths call {@link #refresh} with the buckets they touched
+ * (old and new bucket when an invoice moves). The refresh joins the caller's transaction, so the
+ * rollup commits or rolls back together with the invoice. {@link #rebuild()} recomputes every
+ * bucket (backfill, or repair after manual SQL edits).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueRollupService {
+
+    private final RevenueRollupRepository revenueRollupRepository;
+
+    /**
+     * Recompute the given buckets from invoices, items and timesheets.
+     *
+     * @param buckets Touched buckets; nulls (invoice without seller/client/date) and duplicates are skipped
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(RevenueBucket... buckets) {
+        Arrays.stream(buckets).filter(Objects::nonNull).distinct().forEach(bucket -> {
+            revenueRollupRepository.deleteBucket(bucket.sellerId(), bucket.clientId(), bucket.periodYear(), bucket.periodMonth());
+            revenueRollupRepository.insertBucket(bucket.sellerId(), bucket.clientId(),
+                    bucket.firstDay(), bucket.firstDay().plusMonths(1));
+        });
+    }
+
+    /**
+     * Recompute the whole table in one transaction (readers see the old rows until commit).
+     *
+     * @return Number of buckets written
+     */
+    @Transactional
+    public int rebuild() {
+        int deleted = revenueRollupRepository.deleteAllBuckets();
+        int written = revenueRollupRepository.insertAllBuckets();
+        log.info("Revenue rollup rebuilt: {} buckets removed, {} written", deleted, written);
+        return written;
+    }
+
+    /**
+     * Monthly revenue rows, oldest month first.
+     *
+     * @param clientId Client ID, null = all clients
+     * @param fromYear First issue year included
+     * @param toYear Last issue year included
+     * @throws ValidationException if fromYear is after toYear
+     */
+    @Transactional(readOnly = true)
+    public List<RevenueRollupDto> getMonthlyRevenue(Long clientId, int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            throw new ValidationException("fromYear", "From year cannot be after to year");
+        }
+        List<RevenueRollup> rows = clientId != null
+                ? revenueRollupRepository.findByClient(clientId, fromYear, toYear)
+                : revenueRollupRepository.findAllClients(fromYear, toYear);
+        return rows.stream().map(RevenueRollupDto::from).toList();
+    }
+}
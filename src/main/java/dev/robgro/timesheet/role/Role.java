@@ -1,9 +1,14 @@
 package dev.robgro.timesheet.role;
 
+import dev.robgro.timesheet.cache.ReferenceCacheRegions;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceCacheRegions.ROLE)
 @Table(name = "roles")
 @Data
 public class Role {
@@ -1,12 +1,20 @@
 package dev.robgro.timesheet.role;
 
+import dev.robgro.timesheet.cache.ReferenceCacheRegions;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.LOOKUPS)
+    })
     Optional<Role> findByName(RoleName name);
 
     boolean existsByName(RoleName name);
@@ -6,13 +6,13 @@ import dev.robgro.timesheet.config.InvoicingSchedulerProperties;
 import dev.robgro.timesheet.invoice.BillingService;
 import dev.robgro.timesheet.invoice.InvoiceDto;
 import dev.robgro.timesheet.invoice.InvoiceService;
+import dev.robgro.timesheet.invoice.MonthlyBillingResult;
 import dev.robgro.timesheet.invoice.PrintMode;
 import dev.robgro.timesheet.timesheet.TimesheetDto;
 import dev.robgro.timesheet.timesheet.TimesheetService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.YearMonth;
@@ -31,19 +31,33 @@ public class InvoicingTaskServiceImpl implements InvoicingTaskService {
     private final AdminNotificationService notificationService;
     private final InvoicingSchedulerProperties properties;
 
+    /**
+     * Not @Transactional: invoices are created in their own transactions on the billing
+     * pool, and each one is then sent in its own transaction - a run-wide snapshot taken
+     * before they committed would not see them.
+     */
     @Override
-    @Transactional
     public InvoicingSummary executeMonthlyInvoicing() {
         log.info("=== STARTING AUTOMATED MONTHLY INVOICING ===");
 
         YearMonth previousMonth = YearMonth.now().minusMonths(1);
         log.info("Generating invoices for: {}", previousMonth);
 
-        List<InvoiceDto> createdInvoices = billingService.generateMonthlyInvoices(
+        MonthlyBillingResult billing = billingService.generateMonthlyInvoices(
                 previousMonth.getYear(),
                 previousMonth.getMonthValue()
         );
-        log.info("Created {} invoices", createdInvoices.size());
+        List<InvoiceDto> createdInvoices = billing.invoices();
+        log.info("Created {} invoices, {} clients failed", createdInvoices.size(), billing.failures().size());
+
+        // Failed clients have no invoice to process - report each one, its timesheets stay unbilled
+        for (MonthlyBillingResult.ClientFailure failure : billing.failures()) {
+            notificationService.sendErrorNotification(
+                    "Invoice Creation Error: " + failure.clientName(),
+                    buildErrorDetails(failure, previousMonth),
+                    failure.exception()
+            );
+        }
 
         List<InvoiceProcessingResult> results = new ArrayList<>();
         for (InvoiceDto invoice : createdInvoices) {
@@ -56,9 +70,9 @@ public class InvoicingTaskServiceImpl implements InvoicingTaskService {
         InvoicingSummary summary = InvoicingSummary.builder()
                 .executionTime(LocalDateTime.now())
                 .previousMonth(previousMonth)
-                .totalInvoices(createdInvoices.size())
+                .totalInvoices(createdInvoices.size() + billing.failures().size())
                 .successfulInvoices(countSuccessful(results))
-                .failedInvoices(countFailed(results))
+                .failedInvoices(countFailed(results) + billing.failures().size())
                 .clientsWithoutTimesheets(emptyClients)
                 .processingResults(results)
                 .build();
@@ -139,6 +153,16 @@ public class InvoicingTaskServiceImpl implements InvoicingTaskService {
         );
     }
 
+    private String buildErrorDetails(MonthlyBillingResult.ClientFailure failure, YearMonth month) {
+        return String.format(
+                "Client: %s\nClient ID: %d\nPeriod: %s\nError: %s\nThe client's timesheets were not invoiced.",
+                failure.clientName(),
+                failure.clientId(),
+                month,
+                failure.errorMessage()
+        );
+    }
+
     private int countSuccessful(List<InvoiceProcessingResult> results) {
         return (int) results.stream().filter(InvoiceProcessingResult::isSuccess).count();
     }
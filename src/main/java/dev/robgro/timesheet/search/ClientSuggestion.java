@@ -0,0 +1,8 @@
+package dev.robgro.timesheet.search;
+
+public record ClientSuggestion(
+        long id,
+        String clientName,
+        String email
+) {
+}
@@ -0,0 +1,19 @@
+package dev.robgro.timesheet.search;
+
+/**
+ * Client as held by the search index.
+ *
+ * @param id Client id
+ * @param clientName Searchable by whole name and by each word
+ * @param email Searchable
+ * @param active Inactive clients stay indexed (invoices show their name) but are not suggested
+ * @param version Row version; an older one never replaces a newer one in the index
+ */
+public record IndexedClient(
+        long id,
+        String clientName,
+        String email,
+        boolean active,
+        long version
+) {
+}
@@ -0,0 +1,17 @@
+package dev.robgro.timesheet.search;
+
+/**
+ * Invoice as held by the search index.
+ *
+ * @param id Invoice id
+ * @param invoiceNumber Display number, searchable as a whole and by each alphanumeric part
+ * @param clientId Client whose name is shown with the suggestion
+ * @param version Row version; an older one never replaces a newer one in the index
+ */
+public record IndexedInvoice(
+        long id,
+        String invoiceNumber,
+        long clientId,
+        long version
+) {
+}
@@ -0,0 +1,12 @@
+package dev.robgro.timesheet.search;
+
+/**
+ * @param clientName Current name of the invoice's client
+ */
+public record InvoiceSuggestion(
+        long id,
+        String invoiceNumber,
+        long clientId,
+        String clientName
+) {
+}
@@ -0,0 +1,198 @@
+package dev.robgro.timesheet.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable-snapshot prefix index: sorted key array with a parallel array of document ids.
+ *
+ * <p>A lookup is a binary search for the first key at or after the prefix, then a scan while keys
+ * still start with it - O(log n + keys read). Readers never lock:
+ * writers build a new snapshot (one linear merge per batch of changes) and publish it through a
+ * volatile field.
+ *
+ * @param <T> Document type
+ */
+class PrefixIndex<T> {
+
+    private final ToLongFunction<T> idOf;
+    private final ToLongFunction<T> versionOf;
+    private final Function<T, Collection<String>> keysOf;
+    private volatile Snapshot<T> snapshot = new Snapshot<>(new String[0], new long[0], Map.of());
+
+    /**
+     * @param idOf Document id
+     * @param versionOf Document version, increasing with every change of the document
+     * @param keysOf Searchable keys of a document (normalized here, duplicates dropped)
+     */
+    PrefixIndex(ToLongFunction<T> idOf, ToLongFunction<T> versionOf, Function<T, Collection<String>> keysOf) {
+        this.idOf = idOf;
+        this.versionOf = versionOf;
+        this.keysOf = keysOf;
+    }
+
+    /**
+     * Lowercase, trimmed, single-spaced - the form both keys and queries are compared in.
+     */
+    static String normalize(String text) {
+        return text == null ? "" : text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Replaces the whole content.
+     */
+    synchronized void replaceAll(Collection<T> documents) {
+        Map<Long, T> byId = new HashMap<>(documents.size() * 2);
+        documents.forEach(document -> byId.put(idOf.applyAsLong(document), document));
+        List<Entry> entries = entriesOf(byId.values());
+        snapshot = new Snapshot<>(
+                entries.stream().map(Entry::key).toArray(String[]::new),
+                entries.stream().mapToLong(Entry::id).toArray(),
+                byId);
+    }
+
+    /**
+     * Adds or replaces documents and removes ids, as one new snapshot.
+     * Documents equal to the indexed ones or older than them (lower version) are skipped;
+     * nothing to change publishes nothing.
+     */
+    synchronized void apply(Collection<T> upserts, Collection<Long> removals) {
+        Snapshot<T> current = snapshot;
+        Map<Long, T> changed = new LinkedHashMap<>();
+        upserts.forEach(document -> changed.put(idOf.applyAsLong(document), document));
+        changed.entrySet().removeIf(change -> isCurrent(current.documents().get(change.getKey()), change.getValue()));
+        Set<Long> dropped = new HashSet<>(changed.keySet());
+        removals.stream().filter(current.documents()::containsKey).forEach(dropped::add);
+        if (dropped.isEmpty()) {
+            return;
+        }
+
+        Map<Long, T> documents = new HashMap<>(current.documents());
+        dropped.forEach(documents::remove);
+        documents.putAll(changed);
+        List<Entry> added = entriesOf(changed.values());
+
+        // Merge surviving keys (already sorted) with the new ones
+        String[] keys = new String[current.keys().length + added.size()];
+        long[] ids = new long[keys.length];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < current.keys().length; i++) {
+            if (dropped.contains(current.ids()[i])) {
+                continue;
+            }
+            while (next < added.size() && before(added.get(next), current.keys()[i], current.ids()[i])) {
+                keys[size] = added.get(next).key();
+                ids[size++] = added.get(next++).id();
+            }
+            keys[size] = current.keys()[i];
+            ids[size++] = current.ids()[i];
+        }
+        while (next < added.size()) {
+            keys[size] = added.get(next).key();
+            ids[size++] = added.get(next++).id();
+        }
+        snapshot = new Snapshot<>(Arrays.copyOf(keys, size), Arrays.copyOf(ids, size), documents);
+    }
+
+    /**
+     * First {@code limit} distinct documents having a key that starts with {@code prefix}, in key order.
+     *
+     * @param prefix Query (normalized here; blank matches nothing)
+     * @param limit Maximum documents returned
+     * @param filter Documents failing it are skipped and do not count towards the limit
+     */
+    List<T> search(String prefix, int limit, Predicate<T> filter) {
+        String query = normalize(prefix);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Snapshot<T> current = snapshot;
+        String[] keys = current.keys();
+        List<T> results = new ArrayList<>(Math.min(limit, 16));
+        Set<Long> seen = new HashSet<>();
+        for (int i = lowerBound(keys, query); i < keys.length && keys[i].startsWith(query); i++) {
+            long id = current.ids()[i];
+            T document = current.documents().get(id);
+            if (seen.add(id) && filter.test(document)) {
+                results.add(document);
+                if (results.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Indexed document by id, or null.
+     */
+    T get(long id) {
+        return snapshot.documents().get(id);
+    }
+
+    int size() {
+        return snapshot.documents().size();
+    }
+
+    private boolean isCurrent(T indexed, T document) {
+        return indexed != null
+                && (indexed.equals(document) || versionOf.applyAsLong(indexed) > versionOf.applyAsLong(document));
+    }
+
+    private List<Entry> entriesOf(Collection<T> documents) {
+        List<Entry> entries = new ArrayList<>();
+        for (T document : documents) {
+            long id = idOf.applyAsLong(document);
+            keysOf.apply(document).stream()
+                    .map(PrefixIndex::normalize)
+                    .filter(key -> !key.isEmpty())
+                    .distinct()
+                    .forEach(key -> entries.add(new Entry(key, id)));
+        }
+        entries.sort(Comparator.comparing(Entry::key).thenComparingLong(Entry::id));
+        return entries;
+    }
+
+    private static int lowerBound(String[] keys, String query) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean before(Entry entry, String key, long id) {
+        int byKey = entry.key().compareTo(key);
+        return byKey != 0 ? byKey < 0 : entry.id() < id;
+    }
+
+    private record Entry(String key, long id) {
+    }
+
+    /**
+     * @param keys Normalized keys, sorted by key then id
+     * @param ids Document id of each key
+     * @param documents Documents by id
+     */
+    private record Snapshot<T>(String[] keys, long[] ids, Map<Long, T> documents) {
+    }
+}
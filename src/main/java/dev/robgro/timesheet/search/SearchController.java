@@ -0,0 +1,31 @@
+package dev.robgro.timesheet.search;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "Typeahead over clients and invoice numbers")
+public class SearchController {
+
+    private final SearchIndexService searchIndexService;
+
+    @Operation(summary = "Suggest clients and invoices",
+            description = "Matches the start of a client name, any word of it or the email, and the start of "
+                    + "an invoice number or any part of it. Served from memory, no database query")
+    @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+    @GetMapping("/typeahead")
+    public ResponseEntity<TypeaheadResult> typeahead(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchIndexService.typeahead(q, limit));
+    }
+}
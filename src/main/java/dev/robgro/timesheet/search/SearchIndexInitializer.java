@@ -0,0 +1,25 @@
+package dev.robgro.timesheet.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexInitializer {
+
+    private final SearchIndexService searchIndexService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            searchIndexService.rebuild();
+        } catch (Exception e) {
+            // Typeahead stays empty until restart - the rest of the application is unaffected
+            log.error("❌ Search index load failed", e);
+        }
+    }
+}
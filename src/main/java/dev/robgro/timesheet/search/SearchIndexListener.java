@@ -0,0 +1,48 @@
+package dev.robgro.timesheet.search;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.invoice.Invoice;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+/**
+ * JPA entity listener passing client and invoice writes to {@link SearchIndexService}.
+ *
+ * <p>Created by Hibernate through Spring's bean container; contexts without the service
+ * (JPA test slices) index nothing.
+ */
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndexService> searchIndex;
+
+    public SearchIndexListener(ObjectProvider<SearchIndexService> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onWrite(Object entity) {
+        searchIndex.ifAvailable(index -> {
+            if (entity instanceof Client client) {
+                index.indexAfterCommit(client);
+            } else if (entity instanceof Invoice invoice) {
+                index.indexAfterCommit(invoice);
+            }
+        });
+    }
+
+    @PostRemove
+    void onRemove(Object entity) {
+        searchIndex.ifAvailable(index -> {
+            if (entity instanceof Client client) {
+                index.removeClientAfterCommit(client.getId());
+            } else if (entity instanceof Invoice invoice) {
+                index.removeInvoicesAfterCommit(List.of(invoice.getId()));
+            }
+        });
+    }
+}
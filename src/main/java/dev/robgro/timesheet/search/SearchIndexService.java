@@ -0,0 +1,153 @@
+package dev.robgro.timesheet.search;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.invoice.Invoice;
+import dev.robgro.timesheet.invoice.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead over client names/emails and invoice numbers, answered from memory.
+ *
+ * <p>Two {@link PrefixIndex}es: clients keyed by whole name, each word of the name and email;
+ * invoices keyed by display number and each alphanumeric part of it ("001-03-2025" is found by
+ * "001-03", "03" or "2025"). Matching is by prefix of a key, so "acm" finds "Acme Ltd" and
+ * "ltd" finds it too, but "cme" does not.
+ *
+ * <p>Loaded on startup ({@link SearchIndexInitializer}), then kept current by entity writes
+ * ({@link SearchIndexListener}) and by bulk deletions reporting their ids. Changes apply after
+ * commit, so rolled back writes never show. Index updates and rebuilds are serialized: a write that
+ * commits while the index loads is applied after the loaded content, not overwritten by it.
+ * Concurrent transactions may run their after-commit callbacks out of order, so each indexed
+ * document carries its row version and an older write never replaces a newer one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexService {
+
+    static final int MAX_LIMIT = 50;
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ClientRepository clientRepository;
+    private final InvoiceRepository invoiceRepository;
+
+    private final PrefixIndex<IndexedClient> clients =
+            new PrefixIndex<>(IndexedClient::id, IndexedClient::version, SearchIndexService::clientKeys);
+    private final PrefixIndex<IndexedInvoice> invoices =
+            new PrefixIndex<>(IndexedInvoice::id, IndexedInvoice::version, SearchIndexService::invoiceKeys);
+
+    /**
+     * Top matches of {@code query} among active clients and invoices.
+     *
+     * @param query Typed text (blank = no matches)
+     * @param limit Maximum matches per list (clamped to 1..50)
+     */
+    public TypeaheadResult typeahead(String query, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return new TypeaheadResult(
+                clients.search(query, size, IndexedClient::active).stream()
+                        .map(client -> new ClientSuggestion(client.id(), client.clientName(), client.email()))
+                        .toList(),
+                invoices.search(query, size, invoice -> true).stream()
+                        .map(invoice -> new InvoiceSuggestion(invoice.id(), invoice.invoiceNumber(),
+                                invoice.clientId(), clientNameOf(invoice.clientId())))
+                        .toList());
+    }
+
+    /**
+     * Reloads both indexes from the database.
+     *
+     * <p>Read-write on purpose: read-only transactions may be served by the replica, and a lagging
+     * replica would leave out recent rows that no later write event brings back.
+     */
+    @Transactional
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        clients.replaceAll(clientRepository.findAllIndexed());
+        invoices.replaceAll(invoiceRepository.findAllIndexed());
+        log.info("Search index loaded: {} clients, {} invoices in {} ms",
+                clients.size(), invoices.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Indexes the client as it is now, once the transaction commits.
+     */
+    public void indexAfterCommit(Client client) {
+        IndexedClient indexed = new IndexedClient(client.getId(), client.getClientName(), client.getEmail(),
+                client.isActive(), client.getVersion());
+        afterCommit(() -> clients.apply(List.of(indexed), List.of()));
+    }
+
+    /**
+     * Indexes the invoice as it is now, once the transaction commits.
+     */
+    public void indexAfterCommit(Invoice invoice) {
+        IndexedInvoice indexed = new IndexedInvoice(invoice.getId(), invoice.getInvoiceNumber(),
+                invoice.getClient().getId(), invoice.getVersion());
+        afterCommit(() -> invoices.apply(List.of(indexed), List.of()));
+    }
+
+    public void removeClientAfterCommit(long clientId) {
+        afterCommit(() -> clients.apply(List.of(), List.of(clientId)));
+    }
+
+    /**
+     * For bulk deletions, which bypass the entity listener.
+     */
+    public void removeInvoicesAfterCommit(Collection<Long> invoiceIds) {
+        List<Long> ids = List.copyOf(invoiceIds);
+        afterCommit(() -> invoices.apply(List.of(), ids));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyNow(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyNow(change);
+            }
+        });
+    }
+
+    private synchronized void applyNow(Runnable change) {
+        change.run();
+    }
+
+    private String clientNameOf(long clientId) {
+        IndexedClient client = clients.get(clientId);
+        return client != null ? client.clientName() : null;
+    }
+
+    private static Collection<String> clientKeys(IndexedClient client) {
+        List<String> keys = new ArrayList<>(partsOf(client.clientName()));
+        keys.add(client.clientName());
+        keys.add(client.email());
+        return keys;
+    }
+
+    private static Collection<String> invoiceKeys(IndexedInvoice invoice) {
+        List<String> keys = new ArrayList<>(partsOf(invoice.invoiceNumber()));
+        keys.add(invoice.invoiceNumber());
+        return keys;
+    }
+
+    private static List<String> partsOf(String text) {
+        return text == null ? List.of() : Arrays.asList(NON_ALPHANUMERIC.split(text));
+    }
+}
@@ -0,0 +1,15 @@
+package dev.robgro.timesheet.search;
+
+import java.util.List;
+
+/**
+ * Top matches of one typeahead query, each list in key order.
+ *
+ * @param clients Active clients whose name, a word of it or email starts with the query
+ * @param invoices Invoices whose number or a part of it starts with the query
+ */
+public record TypeaheadResult(
+        List<ClientSuggestion> clients,
+        List<InvoiceSuggestion> invoices
+) {
+}
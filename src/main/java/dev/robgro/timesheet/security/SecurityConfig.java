@@ -116,6 +116,9 @@ public class SecurityConfig {
                         // API endpoints - access levels
                         .requestMatchers("/api/v1/clients/**").hasAnyRole("ADMIN", "USER")
                         .requestMatchers("/api/v1/invoices/**").hasAnyRole("ADMIN", "USER")
+                        .requestMatchers("/api/v1/revenue/**").hasAnyRole("ADMIN", "USER")
+                        .requestMatchers("/api/v1/changes/**").hasAnyRole("ADMIN", "USER")
+                        .requestMatchers("/api/v1/search/**").hasAnyRole("ADMIN", "USER")
                         .requestMatchers("/api/v1/timesheets/**").hasAnyRole("ADMIN", "USER", "GUEST")
 
                         // Web UI endpoints
@@ -1,17 +1,24 @@
 package dev.robgro.timesheet.seller;
 
+import dev.robgro.timesheet.cache.ReferenceCacheRegions;
+import dev.robgro.timesheet.etag.ResourceChangeListener;
 import dev.robgro.timesheet.invoice.Invoice;
 import dev.robgro.timesheet.user.User;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 
 @Entity
+@EntityListeners(ResourceChangeListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceCacheRegions.SELLER)
 @Getter
 @Setter
 @RequiredArgsConstructor
@@ -79,6 +86,13 @@ public class  Seller {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Row version (V39): +1 per write, part of the ETag of invoices showing this seller
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(name = "created_by")
     private Long createdBy;
 
@@ -1,7 +1,11 @@
 package dev.robgro.timesheet.seller;
 
+import dev.robgro.timesheet.cache.ReferenceCacheRegions;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
@@ -11,6 +15,10 @@ public interface SellerRepository extends JpaRepository<Seller, Long> {
 
     List<Seller> findByActiveTrue();
 
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.LOOKUPS)
+    })
     Optional<Seller> findByIsSystemDefaultTrue();
 
     @Query("SELECT s FROM Seller s WHERE " +
@@ -18,6 +26,10 @@ public interface SellerRepository extends JpaRepository<Seller, Long> {
            "(:name IS NULL OR LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%')))")
     List<Seller> findActiveSellersByName(@Param("name") String name);
 
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = ReferenceCacheRegions.LOOKUPS)
+    })
     @Query("SELECT s FROM Seller s WHERE s.active = true ORDER BY s.name ASC")
     List<Seller> findAllActiveOrderByName();
 
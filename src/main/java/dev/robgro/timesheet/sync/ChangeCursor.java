@@ -0,0 +1,89 @@
+package dev.robgro.timesheet.sync;
+
+import dev.robgro.timesheet.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Change feed position: one keyset position per stream (clients, timesheets, invoices, deletions),
+ * each in (updated_at, id) order - (deleted_at, id) for deletions.
+ *
+ * <p>Sent to clients as an opaque URL-safe token; the next page returns only rows strictly after it.
+ * Positions only move forward, so a client that stores the latest token never sees a change twice
+ * or misses one.
+ *
+ * @param clients Last client sent
+ * @param timesheets Last timesheet sent
+ * @param invoices Last invoice sent
+ * @param deletions Last tombstone sent
+ */
+public record ChangeCursor(Position clients, Position timesheets, Position invoices, Position deletions) {
+
+    /**
+     * Before every row: a feed without a cursor returns the full current state.
+     */
+    public static final ChangeCursor START =
+            new ChangeCursor(Position.START, Position.START, Position.START, Position.START);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * @throws ValidationException if the token was not produced by {@link #encode()}
+     */
+    public static ChangeCursor decode(String token) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 8) {
+                throw new IllegalArgumentException("expected 8 components");
+            }
+            return new ChangeCursor(
+                    Position.decode(parts[0], parts[1]),
+                    Position.decode(parts[2], parts[3]),
+                    Position.decode(parts[4], parts[5]),
+                    Position.decode(parts[6], parts[7]));
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            throw new ValidationException("cursor", "Malformed change cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = String.join(":", clients.encode(), timesheets.encode(), invoices.encode(), deletions.encode());
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Keyset position in one stream; rows strictly after (at, id) come next.
+     *
+     * @param at updated_at (deleted_at) of the last row sent, microsecond precision as stored
+     * @param id ID of the last row sent (tie-breaker for equal timestamps)
+     */
+    public record Position(LocalDateTime at, long id) implements Comparable<Position> {
+
+        private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+        static final Position START = new Position(EPOCH, 0L);
+
+        @Override
+        public int compareTo(Position other) {
+            int byTime = at.compareTo(other.at);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+
+        private String encode() {
+            return ChronoUnit.MICROS.between(EPOCH, at) + ":" + id;
+        }
+
+        private static Position decode(String micros, String id) {
+            LocalDateTime at = EPOCH.plus(Long.parseLong(micros), ChronoUnit.MICROS);
+            if (at.isBefore(EPOCH)) {
+                throw new IllegalArgumentException("position before epoch");
+            }
+            return new Position(at, Long.parseLong(id));
+        }
+    }
+}
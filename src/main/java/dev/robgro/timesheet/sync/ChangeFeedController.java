@@ -0,0 +1,36 @@
+package dev.robgro.timesheet.sync;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+@RequiredArgsConstructor
+@Tag(name = "Change Feed", description = "Incremental sync of clients, timesheets and invoices")
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    @Operation(summary = "Get changes since a cursor",
+            description = "Without since: full initial sync. Store nextCursor and pass it as since next time; "
+                    + "repeat at once while hasMore is true")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor"),
+            @ApiResponse(responseCode = "410", description = "Cursor expired - sync again without since")
+    })
+    @GetMapping
+    public ResponseEntity<ChangeFeedPage> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(changeFeedService.getChanges(since, limit));
+    }
+}
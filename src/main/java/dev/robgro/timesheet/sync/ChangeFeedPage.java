@@ -0,0 +1,31 @@
+package dev.robgro.timesheet.sync;
+
+import dev.robgro.timesheet.client.ClientDto;
+import dev.robgro.timesheet.invoice.InvoiceDto;
+import dev.robgro.timesheet.timesheet.TimesheetDto;
+
+import java.util.List;
+
+/**
+ * One page of the change feed: current state of rows created or updated since the cursor,
+ * plus rows deleted since it.
+ *
+ * <p>Embedded data (client name on a timesheet, client and seller on an invoice) is current as of
+ * this page; renamed clients arrive in {@code clients}, and the sync client refreshes copies from there.
+ *
+ * @param clients Changed clients, oldest change first
+ * @param timesheets Changed timesheets, oldest change first
+ * @param invoices Changed invoices (with items), oldest change first
+ * @param deleted Deleted rows, oldest first
+ * @param nextCursor Token for the next request - always present, store it even when hasMore is false
+ * @param hasMore True if more changes are ready now (request again with nextCursor)
+ */
+public record ChangeFeedPage(
+        List<ClientDto> clients,
+        List<TimesheetDto> timesheets,
+        List<InvoiceDto> invoices,
+        List<DeletedRecord> deleted,
+        String nextCursor,
+        boolean hasMore
+) {
+}
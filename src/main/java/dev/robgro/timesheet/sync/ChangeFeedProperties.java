@@ -0,0 +1,20 @@
+package dev.robgro.timesheet.sync;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.change-feed")
+@Getter
+@Setter
+public class ChangeFeedProperties {
+
+    /**
+     * Rows changed within this many seconds are held back until the next sync.
+     * updated_at is set before commit, so a transaction still running can commit a row older than
+     * one already sent; the window must exceed the longest write transaction, or the row is missed
+     */
+    private long settleSeconds = 10;
+}
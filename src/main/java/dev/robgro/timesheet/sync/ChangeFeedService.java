@@ -0,0 +1,144 @@
+package dev.robgro.timesheet.sync;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientDtoMapper;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.etag.TrackedResource;
+import dev.robgro.timesheet.exception.ChangeCursorExpiredException;
+import dev.robgro.timesheet.invoice.Invoice;
+import dev.robgro.timesheet.invoice.InvoiceDtoMapper;
+import dev.robgro.timesheet.invoice.InvoiceRepository;
+import dev.robgro.timesheet.retention.RetentionProperties;
+import dev.robgro.timesheet.sync.ChangeCursor.Position;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import dev.robgro.timesheet.timesheet.TimesheetDtoMapper;
+import dev.robgro.timesheet.timesheet.TimesheetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Incremental sync: rows created, updated or deleted since the client's last cursor.
+ *
+ * <p>Four independent keyset streams - clients, timesheets, invoices by (updated_at, id) and
+ * tombstones by (deleted_at, id) - each read with one indexed range query per page. A sync costs
+ * queries proportional to the changes, not to the history.
+ *
+ * <p>Every page stops at {@code now - app.change-feed.settle-seconds}: a write transaction stamps
+ * updated_at before it commits, so a row stamped just before the last one sent may still become
+ * visible. Rows inside the window arrive with the next sync. A stream that has sent everything up
+ * to that bound moves its position to it, so idle streams do not fall behind the tombstone retention.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeFeedService {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Tables whose deletions the feed reports
+     */
+    private static final List<String> SYNCED_RESOURCES = List.of(
+            TrackedResource.CLIENTS.key(), TrackedResource.TIMESHEETS.key(), TrackedResource.INVOICES.key());
+
+    private final ClientRepository clientRepository;
+    private final TimesheetRepository timesheetRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final ChangeTombstoneRepository changeTombstoneRepository;
+    private final ClientDtoMapper clientDtoMapper;
+    private final TimesheetDtoMapper timesheetDtoMapper;
+    private final InvoiceDtoMapper invoiceDtoMapper;
+    private final ChangeFeedProperties properties;
+    private final RetentionProperties retentionProperties;
+
+    /**
+     * Changes after {@code cursor}.
+     *
+     * <p>Read-write on purpose: read-only transactions may be served by the replica, and a lagging
+     * replica would move the cursor past rows it has not received yet. Queries are read-only, so
+     * nothing is flushed.
+     *
+     * @param cursor Token from the previous response's nextCursor (null/blank = full initial sync)
+     * @param limit Rows per stream (clamped to 1..500)
+     * @return Changes with the cursor of the next request
+     * @throws dev.robgro.timesheet.exception.ValidationException if the cursor is malformed
+     * @throws ChangeCursorExpiredException if tombstones after the cursor may have been purged
+     */
+    @Transactional
+    public ChangeFeedPage getChanges(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime now = LocalDateTime.now();
+        boolean initialSync = cursor == null || cursor.isBlank();
+        ChangeCursor since = initialSync ? ChangeCursor.START : ChangeCursor.decode(cursor);
+        LocalDateTime retainedSince = now.minusDays(retentionProperties.getTombstoneRetentionDays());
+        if (!initialSync && since.deletions().at().isBefore(retainedSince)) {
+            throw new ChangeCursorExpiredException(
+                    "Change cursor is older than the tombstone retention - sync again without a cursor");
+        }
+
+        LocalDateTime until = now.minusSeconds(properties.getSettleSeconds());
+        // One extra row tells whether the stream has more (no COUNT query)
+        Pageable window = PageRequest.of(0, pageSize + 1);
+
+        StreamPage<Client> clients = page(since.clients(), until, pageSize,
+                clientRepository.findChangedAfter(since.clients().at(), since.clients().id(), until, window),
+                client -> new Position(client.getUpdatedAt(), client.getId()));
+        StreamPage<Timesheet> timesheets = page(since.timesheets(), until, pageSize,
+                timesheetRepository.findChangedAfter(since.timesheets().at(), since.timesheets().id(), until, window),
+                timesheet -> new Position(timesheet.getUpdatedAt(), timesheet.getId()));
+        StreamPage<Invoice> invoices = page(since.invoices(), until, pageSize,
+                invoiceRepository.findChangedAfter(since.invoices().at(), since.invoices().id(), until, window),
+                invoice -> new Position(invoice.getUpdatedAt(), invoice.getId()));
+        StreamPage<ChangeTombstone> deletions = page(since.deletions(), until, pageSize,
+                changeTombstoneRepository.findDeletedAfter(SYNCED_RESOURCES,
+                        since.deletions().at(), since.deletions().id(), until, window),
+                tombstone -> new Position(tombstone.getDeletedAt(), tombstone.getId()));
+
+        ChangeCursor next = new ChangeCursor(clients.next(), timesheets.next(), invoices.next(), deletions.next());
+        boolean hasMore = clients.hasMore() || timesheets.hasMore() || invoices.hasMore() || deletions.hasMore();
+        log.debug("Change feed page: {} clients, {} timesheets, {} invoices, {} deletions (hasMore={})",
+                clients.rows().size(), timesheets.rows().size(), invoices.rows().size(),
+                deletions.rows().size(), hasMore);
+
+        return new ChangeFeedPage(
+                clients.rows().stream().map(clientDtoMapper).toList(),
+                timesheets.rows().stream().map(timesheetDtoMapper).toList(),
+                invoices.rows().stream().map(invoiceDtoMapper).toList(),
+                deletions.rows().stream()
+                        .map(tombstone -> new DeletedRecord(tombstone.getResource(), tombstone.getRecordId(),
+                                tombstone.getDeletedAt()))
+                        .toList(),
+                next.encode(),
+                hasMore);
+    }
+
+    private <T> StreamPage<T> page(Position from, LocalDateTime until, int pageSize, List<T> rows,
+                                   Function<T, Position> positionOf) {
+        if (rows.size() > pageSize) {
+            List<T> page = rows.subList(0, pageSize);
+            return new StreamPage<>(page, positionOf.apply(page.get(page.size() - 1)), true);
+        }
+        Position next = rows.isEmpty() ? from : positionOf.apply(rows.get(rows.size() - 1));
+        // Everything up to the bound has been sent - later rows start after it
+        Position bound = new Position(until, 0L);
+        return new StreamPage<>(rows, next.compareTo(bound) < 0 ? bound : next, false);
+    }
+
+    /**
+     * One stream's share of a page.
+     *
+     * @param rows Rows of this page, in feed order
+     * @param next Position the next page of this stream starts after
+     * @param hasMore True if the stream has rows beyond this page
+     */
+    private record StreamPage<T>(List<T> rows, Position next, boolean hasMore) {
+    }
+}
@@ -0,0 +1,48 @@
+package dev.robgro.timesheet.sync;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted tracked row - client, timesheet, invoice or seller (change_tombstones, created by V40).
+ *
+ * <p>Written in the deleting transaction - by {@link dev.robgro.timesheet.etag.ResourceChangeTracker}
+ * for entity removals, by {@link ChangeTombstoneRepository} for bulk deletes - and served by the
+ * change feed until the retention purge removes it.
+ */
+@Entity
+@Table(name = "change_tombstones")
+@Getter
+@NoArgsConstructor
+public class ChangeTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Table of the deleted row, as {@link dev.robgro.timesheet.etag.TrackedResource#key()}
+     */
+    @Column(name = "resource", nullable = false, length = 32)
+    private String resource;
+
+    @Column(name = "record_id", nullable = false)
+    private long recordId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public ChangeTombstone(String resource, long recordId, LocalDateTime deletedAt) {
+        this.resource = resource;
+        this.recordId = recordId;
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,71 @@
+package dev.robgro.timesheet.sync;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@RepositoryRestResource(exported = false)
+public interface ChangeTombstoneRepository extends JpaRepository<ChangeTombstone, Long> {
+
+    /**
+     * Tombstones of the given tables after a change feed position, in feed order
+     * (deleted_at, id), served by idx_change_tombstones_deleted_at (V40).
+     */
+    @Query("SELECT t FROM ChangeTombstone t WHERE t.deletedAt >= :at AND (t.deletedAt > :at OR t.id > :id) " +
+            "AND t.deletedAt <= :until AND t.resource IN :resources ORDER BY t.deletedAt, t.id")
+    List<ChangeTombstone> findDeletedAfter(@Param("resources") Collection<String> resources,
+                                           @Param("at") LocalDateTime at,
+                                           @Param("id") long id,
+                                           @Param("until") LocalDateTime until,
+                                           Pageable pageable);
+
+    /**
+     * Tombstone the given invoices in one statement. Run before the bulk delete - it reads the rows.
+     * Declares the only table it writes, so the second-level cache keeps every other region.
+     *
+     * @return Number of tombstones written
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_tombstones"))
+    @Query(value = "INSERT INTO change_tombstones (resource, record_id, deleted_at) " +
+            "SELECT 'invoices', id, :deletedAt FROM invoices WHERE id IN (:ids)", nativeQuery = true)
+    int recordInvoices(@Param("ids") Collection<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Tombstone every timesheet of the given invoices in one statement (see {@link #recordInvoices}).
+     *
+     * @return Number of tombstones written
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "change_tombstones"))
+    @Query(value = "INSERT INTO change_tombstones (resource, record_id, deleted_at) " +
+            "SELECT 'timesheets', id, :deletedAt FROM timesheets WHERE invoice_id IN (:invoiceIds)", nativeQuery = true)
+    int recordTimesheetsOfInvoices(@Param("invoiceIds") Collection<Long> invoiceIds,
+                                   @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Find ids of tombstones written before specified date (for retention purge)
+     * Keyset-ordered by id: pass the last id of the previous chunk as afterId
+     */
+    @Query("SELECT t.id FROM ChangeTombstone t WHERE t.deletedAt < :threshold AND t.id > :afterId ORDER BY t.id")
+    List<Long> findIdsDeletedBefore(@Param("threshold") LocalDateTime threshold,
+                                    @Param("afterId") long afterId,
+                                    Pageable pageable);
+
+    /**
+     * Bulk delete tombstones by id (single DELETE statement, no entity loading)
+     */
+    @Modifying
+    @Query("DELETE FROM ChangeTombstone t WHERE t.id IN :ids")
+    int bulkDeleteByIds(@Param("ids") List<Long> ids);
+}
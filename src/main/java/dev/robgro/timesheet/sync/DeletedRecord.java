@@ -0,0 +1,17 @@
+package dev.robgro.timesheet.sync;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row removed since the previous sync; clients drop their copy.
+ *
+ * @param resource Table of the row: clients, timesheets or invoices
+ * @param id ID of the deleted row
+ * @param deletedAt When the deleting transaction ran
+ */
+public record DeletedRecord(
+        String resource,
+        long id,
+        LocalDateTime deletedAt
+) {
+}
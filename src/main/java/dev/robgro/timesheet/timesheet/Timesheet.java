@@ -1,15 +1,18 @@
 package dev.robgro.timesheet.timesheet;
 
 import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.etag.ResourceChangeListener;
 import dev.robgro.timesheet.invoice.Invoice;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+@EntityListeners(ResourceChangeListener.class)
 @Getter
 @Setter
 @Table(name = "timesheets")
@@ -44,6 +47,27 @@ public class Timesheet {
     @Column(name = "payment_date")
     private LocalDate paymentDate;
 
+    /**
+     * Row version (V39): +1 per write, also by the bulk invoice attach/detach statements
+     * in {@link TimesheetRepository}; source of the timesheet's ETag
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     /**
      * Returns the effective hourly rate for this timesheet.
      * If hourlyRate is not set (null or 0 - for old timesheets), returns the client's current hourly rate.
@@ -1,5 +1,8 @@
 package dev.robgro.timesheet.timesheet;
 
+import dev.robgro.timesheet.etag.ConditionalResponses;
+import dev.robgro.timesheet.etag.TrackedResource;
+import dev.robgro.timesheet.etag.VersionStamp;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -8,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -18,6 +22,7 @@ import java.util.List;
 public class TimesheetController {
 
     private final TimesheetService timesheetService;
+    private final ConditionalResponses conditionalResponses;
 
     @Operation(summary = "Create new timesheet")
     @ApiResponses(value = {
@@ -37,10 +42,25 @@ public class TimesheetController {
     }
 
     @Operation(summary = "Get all timesheets")
-    @ApiResponse(responseCode = "200", description = "List of all timesheets retrieved successfully")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of all timesheets retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match / If-Modified-Since)")
+    })
     @GetMapping("/all")
-    public ResponseEntity<List<TimesheetDto>> getAllTimesheets() {
-        return ResponseEntity.ok(timesheetService.getAllTimesheets());
+    public ResponseEntity<List<TimesheetDto>> getAllTimesheets(ServletWebRequest request) {
+        return conditionalResponses.collection(request, timesheetListStamp(), timesheetService::getAllTimesheets);
+    }
+
+    @Operation(summary = "Get timesheet by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Timesheet found"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match / If-Modified-Since)"),
+            @ApiResponse(responseCode = "404", description = "Timesheet not found")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<TimesheetDto> getTimesheetById(@PathVariable Long id, ServletWebRequest request) {
+        return conditionalResponses.resource(request, timesheetService.findVersionStamp(id),
+                () -> timesheetService.getTimesheetById(id));
     }
 
     @Operation(summary = "Update existing timesheet")
@@ -89,17 +109,28 @@ public class TimesheetController {
             description = "Retrieve all timesheets for specific client with optional invoice status filter")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Timesheets retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Not modified (If-None-Match / If-Modified-Since)"),
             @ApiResponse(responseCode = "404", description = "Client not found")
     })
     @GetMapping("/client/{clientId}")
     public ResponseEntity<List<TimesheetDto>> getTimesheetsByClient(
             @PathVariable Long clientId,
-            @RequestParam(required = false) Boolean invoiced) {
+            @RequestParam(required = false) Boolean invoiced,
+            ServletWebRequest request) {
 
         if (invoiced != null) {
-            return ResponseEntity.ok(timesheetService.getTimesheetsByClientAndInvoiceStatus(clientId, invoiced));
+            return conditionalResponses.collection(request, timesheetListStamp(),
+                    () -> timesheetService.getTimesheetsByClientAndInvoiceStatus(clientId, invoiced));
         }
-        return ResponseEntity.ok(timesheetService.getTimesheetByClientId(clientId));
+        return conditionalResponses.collection(request, timesheetListStamp(),
+                () -> timesheetService.getTimesheetByClientId(clientId));
+    }
+
+    /**
+     * Timesheet lists show the client's name and (for old rows) its current rate.
+     */
+    private VersionStamp timesheetListStamp() {
+        return conditionalResponses.collectionStamp(TrackedResource.TIMESHEETS, TrackedResource.CLIENTS);
     }
 
     @Operation(summary = "Update timesheet payment status",
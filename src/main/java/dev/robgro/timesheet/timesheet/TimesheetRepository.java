@@ -1,16 +1,34 @@
 package dev.robgro.timesheet.timesheet;
 
+import dev.robgro.timesheet.etag.VersionStamp;
+import dev.robgro.timesheet.invoice.Invoice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RestResource;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+public interface TimesheetRepository extends JpaRepository<Timesheet, Long>, TimesheetRepositoryCustom {
+
+    /**
+     * Bulk statements skip @Version and entity callbacks - they move version and updated_at
+     * themselves, so the ETags of the touched timesheets change. Callers report the write
+     * to ResourceChangeTracker. {@code :now} comes from the application clock, like the
+     * entity callbacks and the change feed, never from the database clock.
+     */
+    String VERSION_BUMP = "t.version = t.version + 1, t.updatedAt = :now ";
 
-public interface TimesheetRepository extends JpaRepository<Timesheet, Long> {
     List<Timesheet> findByInvoiced(boolean invoiced);
 
     @RestResource(path = "byClientId")
@@ -40,31 +58,96 @@ public interface TimesheetRepository extends JpaRepository<Timesheet, Long> {
             "(:clientId IS NULL OR t.client.id = :clientId)")
     List<Timesheet> findUnbilledTimesheetsByClientId(@Param("clientId") Long clientId);
 
-    @Query(value = "SELECT t.* FROM timesheets t " +
-            "LEFT JOIN invoices i ON t.invoice_id = i.id " +
-            "WHERE (:clientId IS NULL OR t.client_id = :clientId) " +
-            "ORDER BY STR_TO_DATE(i.invoice_number, '%d-%m-%Y') ASC",
-            countQuery = "SELECT COUNT(*) FROM timesheets t WHERE (:clientId IS NULL OR t.client_id = :clientId)",
-            nativeQuery = true)
-    Page<Timesheet> findAllSortedByInvoiceNumber(@Param("clientId") Long clientId, Pageable pageable);
-
     Page<Timesheet> findAll(Pageable pageable);
 
     @RestResource(path = "byClientIdPaged")
     Page<Timesheet> findAllByClientId(Long clientId, Pageable pageable);
 
-    @Query(value = "SELECT t FROM Timesheet t WHERE " +
-            "(:clientId IS NULL OR t.client.id = :clientId) AND " +
-            "(:paymentStatus IS NULL OR " +
-            "(:paymentStatus = 'true' AND t.paymentDate IS NOT NULL) OR " +
-            "(:paymentStatus = 'false' AND t.paymentDate IS NULL))",
-            countQuery = "SELECT COUNT(t) FROM Timesheet t WHERE " +
-                    "(:clientId IS NULL OR t.client.id = :clientId) AND " +
-                    "(:paymentStatus IS NULL OR " +
-                    "(:paymentStatus = 'true' AND t.paymentDate IS NOT NULL) OR " +
-                    "(:paymentStatus = 'false' AND t.paymentDate IS NULL))")
-    Page<Timesheet> findByClientIdAndPaymentStatus(
-            @Param("clientId") Long clientId,
-            @Param("paymentStatus") String paymentStatus,
-            Pageable pageable);
+    /**
+     * Uninvoiced timesheets of every active client in a service date range, with their clients,
+     * in billing order: client name, then service date. Deactivated clients are not billed.
+     */
+    @Query("SELECT t FROM Timesheet t JOIN FETCH t.client c " +
+            "WHERE t.invoiced = false AND t.serviceDate BETWEEN :from AND :to AND c.active = true " +
+            "ORDER BY c.clientName, c.id, t.serviceDate, t.id")
+    List<Timesheet> findUninvoicedForBilling(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Attach timesheets to an invoice in one statement.
+     * Bypasses the persistence context: already loaded timesheets keep their old invoice fields.
+     *
+     * @return Number of timesheets updated (less than ids.size() if some do not exist)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Timesheet t SET t.invoiced = true, t.invoice = :invoice, t.invoiceNumber = :invoiceNumber, " +
+            VERSION_BUMP +
+            "WHERE t.id IN :ids")
+    int attachToInvoice(@Param("ids") Collection<Long> ids, @Param("invoice") Invoice invoice,
+                        @Param("invoiceNumber") String invoiceNumber, @Param("now") LocalDateTime now);
+
+    /**
+     * Like {@link #attachToInvoice}, but only takes timesheets that are still uninvoiced,
+     * so a concurrent invoice cannot bill them twice.
+     *
+     * @return Number of timesheets claimed (less than ids.size() if some were invoiced meanwhile)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Timesheet t SET t.invoiced = true, t.invoice = :invoice, t.invoiceNumber = :invoiceNumber, " +
+            VERSION_BUMP +
+            "WHERE t.id IN :ids AND t.invoiced = false")
+    int claimForInvoice(@Param("ids") Collection<Long> ids, @Param("invoice") Invoice invoice,
+                        @Param("invoiceNumber") String invoiceNumber, @Param("now") LocalDateTime now);
+
+    /**
+     * Detach timesheets from their invoice in one statement (see {@link #attachToInvoice}).
+     *
+     * @return Number of timesheets updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Timesheet t SET t.invoiced = false, t.invoice = null, t.invoiceNumber = null, " +
+            VERSION_BUMP + "WHERE t.id IN :ids")
+    int detachFromInvoice(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Detach every timesheet of the given invoices in one statement (invoice deletion).
+     *
+     * @return Number of timesheets updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Timesheet t SET t.invoiced = false, t.invoice = null, t.invoiceNumber = null, " +
+            VERSION_BUMP +
+            "WHERE t.invoice.id IN :invoiceIds")
+    int detachFromInvoices(@Param("invoiceIds") Collection<Long> invoiceIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete every timesheet of the given invoices in one statement (invoice deletion).
+     *
+     * @return Number of timesheets deleted
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Timesheet t WHERE t.invoice.id IN :invoiceIds")
+    int deleteByInvoiceIds(@Param("invoiceIds") Collection<Long> invoiceIds);
+
+    /**
+     * Validators of one timesheet (and the client whose name and rate it shows)
+     * for conditional GET, read without loading entities.
+     */
+    @Query("SELECT new dev.robgro.timesheet.etag.VersionStamp(t.version, t.updatedAt, c.version, c.updatedAt) " +
+            "FROM Timesheet t JOIN t.client c WHERE t.id = :id")
+    Optional<VersionStamp> findVersionStamp(@Param("id") Long id);
+
+    /**
+     * Timesheets changed after a change feed position, in feed order (updated_at, id),
+     * served by idx_timesheets_updated_at (V40). Client and invoice come in the same query
+     * (the DTO shows client name and invoice number). Read-only: never dirty-checked.
+     */
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT t FROM Timesheet t JOIN FETCH t.client LEFT JOIN FETCH t.invoice " +
+            "WHERE t.updatedAt >= :at AND (t.updatedAt > :at OR t.id > :id) " +
+            "AND t.updatedAt <= :until ORDER BY t.updatedAt, t.id")
+    List<Timesheet> findChangedAfter(@Param("at") LocalDateTime at,
+                                     @Param("id") long id,
+                                     @Param("until") LocalDateTime until,
+                                     Pageable pageable);
 }
@@ -0,0 +1,19 @@
+package dev.robgro.timesheet.timesheet;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TimesheetRepositoryCustom {
+
+    /**
+     * One page of timesheets, filtered and sorted in the database.
+     *
+     * @param clientId Client ID, null = all clients
+     * @param paid true = paid only, false = unpaid only, null = both
+     * @param pageable Page and sort - sort properties: serviceDate, duration, paymentDate,
+     *                 value, invoiceNumber, id
+     * @return Page of timesheets with client and invoice loaded
+     * @throws IllegalArgumentException if a sort property is not one of the above
+     */
+    Page<Timesheet> findFilteredTimesheets(Long clientId, Boolean paid, Pageable pageable);
+}
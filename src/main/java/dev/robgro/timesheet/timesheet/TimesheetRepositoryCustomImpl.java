@@ -0,0 +1,87 @@
+package dev.robgro.timesheet.timesheet;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPQL built from the supplied filters only, ordered by whitelisted sort expressions.
+ *
+ * <p>"value" is the effective-rate amount ({@link Timesheet#getValue()}) and "invoiceNumber" is the
+ * invoice's persisted number sort key, so both sort in the database in the same order the UI shows.
+ * Timesheets without an invoice stay in the result (LEFT JOIN).
+ */
+@RequiredArgsConstructor
+class TimesheetRepositoryCustomImpl implements TimesheetRepositoryCustom {
+
+    private static final Map<String, String> SORT_EXPRESSIONS = Map.of(
+            "serviceDate", "t.serviceDate",
+            "duration", "t.duration",
+            "paymentDate", "t.paymentDate",
+            TimesheetSortOrder.VALUE, "t.duration * CASE WHEN t.hourlyRate > 0 THEN t.hourlyRate ELSE c.hourlyRate END",
+            TimesheetSortOrder.INVOICE_NUMBER, "i.numberSortKey",
+            "id", "t.id");
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<Timesheet> findFilteredTimesheets(Long clientId, Boolean paid, Pageable pageable) {
+        String where = whereClause(clientId, paid);
+        TypedQuery<Timesheet> query = entityManager.createQuery(
+                "SELECT t FROM Timesheet t JOIN FETCH t.client c LEFT JOIN FETCH t.invoice i"
+                        + where + orderBy(pageable.getSort()), Timesheet.class);
+        bind(query, clientId);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(where, clientId));
+    }
+
+    private static String whereClause(Long clientId, Boolean paid) {
+        List<String> conditions = new ArrayList<>(2);
+        if (clientId != null) {
+            conditions.add("t.client.id = :clientId");
+        }
+        if (paid != null) {
+            conditions.add(paid ? "t.paymentDate IS NOT NULL" : "t.paymentDate IS NULL");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String expression = SORT_EXPRESSIONS.get(order.getProperty());
+            if (expression == null) {
+                throw new IllegalArgumentException("Unsupported timesheet sort property: " + order.getProperty());
+            }
+            orders.add(expression + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return " ORDER BY " + String.join(", ", orders);
+    }
+
+    private static void bind(Query query, Long clientId) {
+        if (clientId != null) {
+            query.setParameter("clientId", clientId);
+        }
+    }
+
+    private long count(String where, Long clientId) {
+        TypedQuery<Long> query = entityManager.createQuery("SELECT COUNT(t) FROM Timesheet t" + where, Long.class);
+        bind(query, clientId);
+        return query.getSingleResult();
+    }
+}
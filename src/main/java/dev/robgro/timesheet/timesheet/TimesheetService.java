@@ -1,10 +1,13 @@
 package dev.robgro.timesheet.timesheet;
 
+import dev.robgro.timesheet.etag.VersionStamp;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface TimesheetService {
     TimesheetDto createTimesheet(Long clientId, LocalDate serviceDate, double duration, Boolean isPaidAlready);
@@ -13,17 +16,39 @@ public interface TimesheetService {
 
     TimesheetDto getTimesheetById(Long id);
 
+    /**
+     * Validators of one timesheet for conditional GET (no entity loading).
+     *
+     * @return Empty if the timesheet does not exist
+     */
+    Optional<VersionStamp> findVersionStamp(Long id);
+
+    /**
+     * Load several timesheets in one query.
+     *
+     * @return Timesheets in the order of {@code ids}
+     * @throws dev.robgro.timesheet.exception.EntityNotFoundException if any ID does not exist
+     */
+    List<TimesheetDto> getTimesheetsByIds(List<Long> ids);
+
     List<TimesheetDto> getTimesheetByClientId(Long clientId);
 
     public List<TimesheetDto> getMonthlyTimesheets(Long clientId, int year, int month);
 
+    /**
+     * Uninvoiced timesheets of every active client for one month, read in one query.
+     *
+     * @return Timesheets grouped by client ID - clients in name order, timesheets by service date
+     */
+    Map<Long, List<TimesheetDto>> getUninvoicedTimesheetsByClient(int year, int month);
+
     List<TimesheetDto> getUnbilledTimesheets();
 
     List<TimesheetDto> getUnbilledTimesheetsByClientId(Long clientId);
 
     List<TimesheetDto> getTimesheetsByFilters(Long clientId, String paymentStatus);
 
-    List<TimesheetDto> searchAndSortTimesheets(Long clientId, String sortBy, String sortDir);
+    Page<TimesheetDto> searchAndSortTimesheets(Long clientId, String sortBy, String sortDir, int page, int size);
 
     TimesheetDto updateTimesheet(Long id, Long clientId, LocalDate serviceDate, double duration, Boolean isPaidAlready);
 
@@ -3,13 +3,16 @@ package dev.robgro.timesheet.timesheet;
 import dev.robgro.timesheet.exception.BusinessRuleViolationException;
 import dev.robgro.timesheet.exception.EntityNotFoundException;
 import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.etag.VersionStamp;
 import dev.robgro.timesheet.invoice.Invoice;
 import dev.robgro.timesheet.invoice.InvoiceItem;
 import dev.robgro.timesheet.client.ClientRepository;
-import dev.robgro.timesheet.utils.PaginationUtils;
+import dev.robgro.timesheet.revenue.RevenueBucket;
+import dev.robgro.timesheet.revenue.RevenueRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,7 +21,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toList;
@@ -31,6 +38,7 @@ public class TimesheetServiceImpl implements TimesheetService {
     private final TimesheetRepository timesheetRepository;
     private final ClientRepository clientRepository;
     private final TimesheetDtoMapper timesheetDtoMapper;
+    private final RevenueRollupService revenueRollupService;
 
     @Override
     @Transactional(readOnly = true)
@@ -46,6 +54,18 @@ public class TimesheetServiceImpl implements TimesheetService {
         return timesheetDtoMapper.apply(getTimesheetOrThrow(id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<TimesheetDto> getTimesheetsByIds(List<Long> ids) {
+        Map<Long, Timesheet> byId = timesheetRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Timesheet::getId, Function.identity()));
+        return ids.stream()
+                .map(id -> Optional.ofNullable(byId.get(id))
+                        .orElseThrow(() -> new EntityNotFoundException("Timesheet", id)))
+                .map(timesheetDtoMapper)
+                .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<TimesheetDto> getUnbilledTimesheetsByClientId(Long clientId) {
@@ -105,58 +125,8 @@ public class TimesheetServiceImpl implements TimesheetService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<TimesheetDto> searchAndSortTimesheets(Long clientId, String sortBy, String sortDir) {
-        List<Timesheet> timesheets;
-        if (clientId != null) {
-            timesheets = timesheetRepository.findAllByClientId(clientId);
-        } else {
-            timesheets = timesheetRepository.findAll();
-        }
-
-        List<TimesheetDto> dtos = timesheets.stream()
-                .map(timesheetDtoMapper)
-                .collect(toList());
-
-        return sortTimesheets(dtos, sortBy, sortDir);
-    }
-
-    private List<TimesheetDto> sortTimesheets(List<TimesheetDto> timesheets, String sortBy, String sortDir) {
-
-        log.debug("Sorting timesheets by: {}, direction: {}", sortBy, sortDir);
-        if (sortBy.equals("invoiceNumber")) {
-            log.debug("First timesheet invoice number: {}",
-                    timesheets.isEmpty() ? "none" : timesheets.get(0).invoiceNumber());
-        }
-
-        Comparator<TimesheetDto> comparator = switch (sortBy) {
-            case "invoiceNumber" -> Comparator
-                    .comparing((TimesheetDto i) -> {
-                        String year = i.invoiceNumber() != null ?
-                                i.invoiceNumber().substring(i.invoiceNumber().length() - 4) : "";
-                        log.debug("Comparing year: {} for invoice {}", year, i.invoiceNumber());
-                        return year;
-                    })
-                    .thenComparing(i -> {
-                        String month = i.invoiceNumber() != null ?
-                                i.invoiceNumber().substring(4, 6) : "";
-                        log.debug("Comparing month: {} for invoice {}", month, i.invoiceNumber());
-                        return month;
-                    })
-                    .thenComparing(i -> {
-                        String number = i.invoiceNumber() != null ?
-                                i.invoiceNumber().substring(0, 3) : "";
-                        log.debug("Comparing number: {} for invoice {}", number, i.invoiceNumber());
-                        return number;
-                    });
-            case "serviceDate" -> Comparator.comparing(TimesheetDto::serviceDate);
-            case "duration" -> Comparator.comparing(TimesheetDto::duration);
-            case "value" -> Comparator.comparing(TimesheetDto::value);
-            default -> Comparator.comparing(TimesheetDto::serviceDate);
-        };
-
-        return timesheets.stream()
-                .sorted(sortDir.equals("desc") ? comparator.reversed() : comparator)
-                .collect(toList());
+    public Page<TimesheetDto> searchAndSortTimesheets(Long clientId, String sortBy, String sortDir, int page, int size) {
+        return getFilteredAndPaginatedTimesheets(clientId, null, sortBy, sortDir, page, size);
     }
 
     @Override
@@ -169,19 +139,16 @@ public class TimesheetServiceImpl implements TimesheetService {
             int page,
             int size) {
 
-        sortBy = (sortBy == null || sortBy.isEmpty()) ? "serviceDate" : sortBy;
-        sortDir = (sortDir == null || sortDir.isEmpty()) ? "desc" : sortDir;
-
-        if (paymentStatus != null && paymentStatus.isEmpty()) {
-            paymentStatus = null;
-        }
+        // "true"/"false" filter by payment, anything else (null, "") shows both
+        Boolean paid = "true".equals(paymentStatus) ? Boolean.TRUE
+                : "false".equals(paymentStatus) ? Boolean.FALSE : null;
 
-        log.debug("Retrieving paginated timesheets with params: clientId={}, paymentStatus={}, sortBy={}, sortDir={}, page={}, size={}",
-                clientId, paymentStatus, sortBy, sortDir, page, size);
+        log.debug("Retrieving paginated timesheets with params: clientId={}, paid={}, sortBy={}, sortDir={}, page={}, size={}",
+                clientId, paid, sortBy, sortDir, page, size);
 
-        Pageable pageable = PaginationUtils.createPageable(sortBy, sortDir, page, size);
+        Pageable pageable = PageRequest.of(page, size, TimesheetSortOrder.of(sortBy, sortDir));
 
-        Page<Timesheet> timesheetsPage = timesheetRepository.findByClientIdAndPaymentStatus(clientId, paymentStatus, pageable);
+        Page<Timesheet> timesheetsPage = timesheetRepository.findFilteredTimesheets(clientId, paid, pageable);
 
         log.debug("Found {} timesheets in page {} of {}",
                 timesheetsPage.getNumberOfElements(),
@@ -213,7 +180,9 @@ public class TimesheetServiceImpl implements TimesheetService {
             }
         }
 
-        return timesheetDtoMapper.apply(timesheetRepository.save(timesheet));
+        Timesheet saved = timesheetRepository.save(timesheet);
+        refreshRevenue(saved.getInvoice());
+        return timesheetDtoMapper.apply(saved);
     }
 
     @Transactional
@@ -225,14 +194,25 @@ public class TimesheetServiceImpl implements TimesheetService {
             throw new BusinessRuleViolationException("Cannot delete timesheet that is attached to an invoice");
         }
 
-        if (timesheet.getInvoice() != null) {
-            Invoice invoice = timesheet.getInvoice();
+        Invoice invoice = timesheet.getInvoice();
+        if (invoice != null) {
             invoice.getItemsList().removeIf(item -> item.getTimesheetId().equals(timesheet.getId()));
             invoice.setTotalAmount(calculateTotalAmount(invoice.getItemsList()));
+            invoice.touch();
             timesheet.setInvoice(null);
             timesheet.setInvoiced(false);
         }
         timesheetRepository.delete(timesheet);
+        refreshRevenue(invoice);
+    }
+
+    /**
+     * Paid amount and totals of the invoice's revenue bucket depend on its timesheets.
+     */
+    private void refreshRevenue(Invoice invoice) {
+        if (invoice != null) {
+            revenueRollupService.refresh(RevenueBucket.of(invoice));
+        }
     }
 
     private BigDecimal calculateTotalAmount(List<InvoiceItem> items) {
@@ -272,11 +252,28 @@ public class TimesheetServiceImpl implements TimesheetService {
                 .collect(toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<TimesheetDto>> getUninvoicedTimesheetsByClient(int year, int month) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        // Rows arrive in billing order; LinkedHashMap keeps it
+        return timesheetRepository.findUninvoicedForBilling(yearMonth.atDay(1), yearMonth.atEndOfMonth())
+                .stream()
+                .map(timesheetDtoMapper)
+                .collect(Collectors.groupingBy(TimesheetDto::clientId, LinkedHashMap::new, toList()));
+    }
+
     private Timesheet getTimesheetOrThrow(Long id) {
         return timesheetRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Timesheet", id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> findVersionStamp(Long id) {
+        return timesheetRepository.findVersionStamp(id);
+    }
+
     @Override
     public void markAsInvoiced(Long id) {
         Timesheet timesheet = getTimesheetOrThrow(id);
@@ -318,7 +315,9 @@ public class TimesheetServiceImpl implements TimesheetService {
     @Override
     @Transactional(readOnly = true)
     public Page<TimesheetDto> getAllTimesheetsSortedByInvoiceNumber(Long clientId, Pageable pageable) {
-        return timesheetRepository.findAllSortedByInvoiceNumber(clientId, pageable)
+        Pageable byInvoiceNumber = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                TimesheetSortOrder.of(TimesheetSortOrder.INVOICE_NUMBER, "asc"));
+        return timesheetRepository.findFilteredTimesheets(clientId, null, byInvoiceNumber)
                 .map(timesheetDtoMapper);
     }
 
@@ -339,6 +338,7 @@ public class TimesheetServiceImpl implements TimesheetService {
         Timesheet timesheet = getTimesheetOrThrow(id);
         timesheet.setPaymentDate(paymentDate);
         timesheetRepository.save(timesheet);
+        refreshRevenue(timesheet.getInvoice());
     }
 
     @Override
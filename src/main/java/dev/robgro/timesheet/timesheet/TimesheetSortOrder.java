@@ -0,0 +1,32 @@
+package dev.robgro.timesheet.timesheet;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Timesheet list sort keys (sortBy/sortDir request params) as database sort orders.
+ *
+ * <p>Only whitelisted keys reach ORDER BY, unknown keys fall back to service date.
+ * "value" and "invoiceNumber" are not plain columns - {@link TimesheetRepositoryCustomImpl}
+ * renders them as expressions. Every order ends with id, so rows with equal values
+ * page deterministically.
+ */
+final class TimesheetSortOrder {
+
+    static final String VALUE = "value";
+    static final String INVOICE_NUMBER = "invoiceNumber";
+
+    private TimesheetSortOrder() {
+    }
+
+    static Sort of(String sortBy, String sortDir) {
+        Sort.Direction direction = "asc".equalsIgnoreCase(sortDir) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String property = switch (sortBy == null ? "" : sortBy) {
+            case "duration" -> "duration";
+            case "paymentDate" -> "paymentDate";
+            case VALUE -> VALUE;
+            case INVOICE_NUMBER -> INVOICE_NUMBER;
+            default -> "serviceDate";
+        };
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+}
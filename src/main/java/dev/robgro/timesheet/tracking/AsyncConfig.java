@@ -64,4 +64,34 @@ public class AsyncConfig {
 
         return executor;
     }
+
+    /**
+     * Executor for recording pixel hits served by TrackingPixelFilter
+     *
+     * Separate from notification executor so a burst of opens (e.g. Gmail proxy
+     * prefetching after a monthly run) never queues behind SMTP sends.
+     * - Core pool: 2 threads, max 4
+     * - Queue: 500 recordings (each is a short DB transaction)
+     * - CallerRunsPolicy: when saturated, record in the request thread
+     *   (slower pixel, but opens are never lost)
+     */
+    @Bean(name = "trackingPixelExecutor")
+    public Executor trackingPixelExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("tracking-pixel-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("Initialized tracking pixel executor: core={}, max={}, queue={}",
+                executor.getCorePoolSize(),
+                executor.getMaxPoolSize(),
+                executor.getQueueCapacity());
+
+        return executor;
+    }
 }
@@ -0,0 +1,33 @@
+package dev.robgro.timesheet.tracking;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves client IP address from request, handling proxies and load balancers.
+ * Shared by the MVC tracking path and the fast-path pixel filter.
+ */
+final class ClientIpResolver {
+
+    private ClientIpResolver() {
+    }
+
+    static String resolve(HttpServletRequest request) {
+        // Check X-Forwarded-For header (set by proxies/load balancers)
+        String ip = request.getHeader("X-Forwarded-For");
+        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
+            // X-Forwarded-For can contain multiple IPs: "client, proxy1, proxy2"
+            // Take the first one (original client IP)
+            int comma = ip.indexOf(',');
+            return (comma >= 0 ? ip.substring(0, comma) : ip).trim();
+        }
+
+        // Check X-Real-IP header (Nginx)
+        ip = request.getHeader("X-Real-IP");
+        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
+            return ip;
+        }
+
+        // Fallback to remote address
+        return request.getRemoteAddr();
+    }
+}
@@ -3,9 +3,12 @@ package dev.robgro.timesheet.tracking;
 import dev.robgro.timesheet.invoice.Invoice;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "email_tracking")
@@ -24,8 +27,12 @@ public class EmailTracking {
     @JoinColumn(name = "invoice_id", nullable = false)
     private Invoice invoice;
 
-    @Column(name = "tracking_token", nullable = false, unique = true, length = 255)
-    private String trackingToken;
+    /**
+     * Random UUID stored as BINARY(16) - compact unique index (V32)
+     */
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "tracking_token", nullable = false, unique = true, length = 16)
+    private UUID trackingToken;
 
     @Column(name = "opened_at")
     private LocalDateTime openedAt;
@@ -65,8 +72,16 @@ public class EmailTracking {
 
     /**
      * Records an email open event
+     * Classifies User-Agent with built-in rules (no cache) - services use UserAgentClassifier
      */
     public void recordOpen(String ipAddress, String userAgent) {
+        recordOpen(ipAddress, userAgent, UserAgentMatcher.defaults().classify(userAgent));
+    }
+
+    /**
+     * Records an email open event with an already computed User-Agent classification
+     */
+    public void recordOpen(String ipAddress, String userAgent, UserAgentClassification classification) {
         LocalDateTime now = LocalDateTime.now();
 
         if (this.openedAt == null) {
@@ -77,8 +92,8 @@ public class EmailTracking {
         this.openCount++;
         this.ipAddress = ipAddress;
         this.userAgent = userAgent;
-        this.deviceType = detectDeviceType(userAgent);
-        this.emailClient = detectEmailClient(userAgent);
+        this.deviceType = classification.deviceType();
+        this.emailClient = classification.emailClient();
     }
 
     /**
@@ -142,76 +157,4 @@ public class EmailTracking {
 
         return days + " days" + (remainingHours > 0 ? " " + remainingHours + " hours" : "");
     }
-
-    /**
-     * Detects device type from User-Agent string
-     */
-    private String detectDeviceType(String userAgent) {
-        if (userAgent == null) {
-            return "Unknown";
-        }
-
-        String ua = userAgent.toLowerCase();
-
-        if (ua.contains("mobile") || ua.contains("android") || ua.contains("iphone") || ua.contains("ipod")) {
-            return "Mobile";
-        } else if (ua.contains("tablet") || ua.contains("ipad")) {
-            return "Tablet";
-        } else {
-            return "Desktop";
-        }
-    }
-
-    /**
-     * Detects email client from User-Agent string
-     */
-    private String detectEmailClient(String userAgent) {
-        if (userAgent == null) {
-            return "Unknown";
-        }
-
-        String ua = userAgent.toLowerCase();
-
-        // Gmail
-        if (ua.contains("gmail") || ua.contains("google")) {
-            return "Gmail";
-        }
-        // Outlook
-        if (ua.contains("outlook") || ua.contains("microsoft outlook")) {
-            return "Outlook";
-        }
-        // Apple Mail
-        if (ua.contains("applemail") || ua.contains("apple mail")) {
-            return "Apple Mail";
-        }
-        // Thunderbird
-        if (ua.contains("thunderbird")) {
-            return "Thunderbird";
-        }
-        // Yahoo Mail
-        if (ua.contains("yahoo")) {
-            return "Yahoo Mail";
-        }
-        // ProtonMail
-        if (ua.contains("proton")) {
-            return "ProtonMail";
-        }
-        // Generic mobile email
-        if (ua.contains("mail")) {
-            return "Mail App";
-        }
-
-        // Browser-based (fallback to browser detection)
-        if (ua.contains("chrome")) {
-            return "Browser (Chrome)";
-        } else if (ua.contains("firefox")) {
-            return "Browser (Firefox)";
-        } else if (ua.contains("safari")) {
-            return "Browser (Safari)";
-        } else if (ua.contains("edge")) {
-            return "Browser (Edge)";
-        }
-
-        return "Unknown";
-    }
 }
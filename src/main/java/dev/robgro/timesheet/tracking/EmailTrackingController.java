@@ -10,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,6 +25,9 @@ import java.util.concurrent.TimeUnit;
  * - Never returns 404 or error codes (to prevent token enumeration)
  * - Cache headers prevent image caching to ensure multiple opens are tracked
  * - Endpoint is public (no authentication required)
+ *
+ * NOTE: With app.email-tracking.fast-path-enabled=true (default) pixel hits are served
+ * by TrackingPixelFilter before reaching this controller; trackEmail() is the fallback path.
  */
 @RestController
 @RequestMapping("/api/track")
@@ -78,9 +82,16 @@ public class EmailTrackingController {
                 request.getRemoteAddr(),
                 request.getHeader("User-Agent"));
 
+        // Parse token to its 16-byte form (UUID) - invalid tokens are never looked up
+        UUID trackingToken = TrackingTokens.parse(token);
+
         // Record the tracking event (async - doesn't block response)
         try {
-            trackingService.recordEmailOpen(token, request);
+            if (trackingToken != null) {
+                trackingService.recordEmailOpen(trackingToken, request);
+            } else {
+                log.warn("⚠️ Tracking pixel requested with malformed token: {}", token);
+            }
         } catch (Exception e) {
             // NEVER fail the request - always return the pixel
             // This ensures email clients don't retry and tracking still works
@@ -5,6 +5,9 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "app.email-tracking")
 @Getter
@@ -32,4 +35,54 @@ public class EmailTrackingProperties {
      * If false, reports are batched (future feature)
      */
     private boolean sendInstantReport = true;
+
+    /**
+     * Serve the tracking pixel from TrackingPixelFilter (ahead of Spring Security and MVC)
+     * If false, the pixel is served by EmailTrackingController
+     */
+    private boolean fastPathEnabled = true;
+
+    /**
+     * User-Agent classification (device type / email client)
+     */
+    private UserAgent userAgent = new UserAgent();
+
+    @Getter
+    @Setter
+    public static class UserAgent {
+
+        /**
+         * Max distinct raw User-Agents kept in the classification LRU cache
+         */
+        private int cacheSize = 512;
+
+        /**
+         * Additional device rules, checked BEFORE built-in rules (first match wins)
+         * Example: app.email-tracking.user-agent.device-rules[0].label=Tablet
+         *          app.email-tracking.user-agent.device-rules[0].patterns=kindle,silk
+         */
+        private List<Rule> deviceRules = new ArrayList<>();
+
+        /**
+         * Additional email client rules, checked BEFORE built-in rules (first match wins)
+         * Example: app.email-tracking.user-agent.client-rules[0].label=Superhuman
+         *          app.email-tracking.user-agent.client-rules[0].patterns=superhuman
+         */
+        private List<Rule> clientRules = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Rule {
+
+        /**
+         * Value stored in device_type / email_client
+         */
+        private String label;
+
+        /**
+         * Case-insensitive ASCII substrings of the User-Agent
+         */
+        private List<String> patterns = new ArrayList<>();
+    }
 }
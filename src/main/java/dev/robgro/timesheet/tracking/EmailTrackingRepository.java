@@ -1,21 +1,30 @@
 package dev.robgro.timesheet.tracking;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface EmailTrackingRepository extends JpaRepository<EmailTracking, Long> {
 
     /**
-     * Find tracking by token
+     * Find tracking by token (BINARY(16) unique index lookup) and lock it (SELECT FOR UPDATE):
+     * concurrent opens of one email count one after the other instead of overwriting each other's count.
      */
-    Optional<EmailTracking> findByTrackingToken(String trackingToken);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT et FROM EmailTracking et WHERE et.trackingToken = :token")
+    Optional<EmailTracking> findByTrackingTokenForUpdate(@Param("token") UUID trackingToken);
 
     /**
      * Find tracking by invoice ID
@@ -67,8 +76,25 @@ public interface EmailTrackingRepository extends JpaRepository<EmailTracking, Lo
     Double getAverageTimeToFirstOpenMinutes();
 
     /**
-     * Find all tracking records created before specified date (for cleanup)
+     * Find ids of tracking records created before specified date (for retention purge)
+     * Keyset-ordered by id: pass the last id of the previous chunk as afterId
      */
-    @Query("SELECT et FROM EmailTracking et WHERE et.createdAt < :threshold")
-    List<EmailTracking> findCreatedBefore(@Param("threshold") LocalDateTime threshold);
+    @Query("SELECT et.id FROM EmailTracking et WHERE et.createdAt < :threshold AND et.id > :afterId ORDER BY et.id")
+    List<Long> findIdsCreatedBefore(@Param("threshold") LocalDateTime threshold,
+                                    @Param("afterId") long afterId,
+                                    Pageable pageable);
+
+    /**
+     * Bulk delete tracking records by id (single DELETE statement, no entity loading)
+     */
+    @Modifying
+    @Query("DELETE FROM EmailTracking et WHERE et.id IN :ids")
+    int bulkDeleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Bulk delete tracking records of invoices being deleted (single DELETE statement)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM EmailTracking et WHERE et.invoice.id IN :invoiceIds")
+    int bulkDeleteByInvoiceIds(@Param("invoiceIds") Collection<Long> invoiceIds);
 }
@@ -3,6 +3,8 @@ package dev.robgro.timesheet.tracking;
 import dev.robgro.timesheet.invoice.Invoice;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.UUID;
+
 public interface EmailTrackingService {
 
     /**
@@ -12,8 +14,15 @@ public interface EmailTrackingService {
 
     /**
      * Records email open event and sends notification if enabled
+     * Token is parsed from the pixel URL with TrackingTokens.parse
+     */
+    boolean recordEmailOpen(UUID token, HttpServletRequest request);
+
+    /**
+     * Records email open event from client IP and User-Agent extracted by the caller
+     * (request object may already be recycled when this runs asynchronously)
      */
-    boolean recordEmailOpen(String token, HttpServletRequest request);
+    boolean recordEmailOpen(UUID token, String ipAddress, String userAgent);
 
     /**
      * Gets comprehensive tracking statistics
@@ -22,6 +31,7 @@ public interface EmailTrackingService {
 
     /**
      * Cleanup job - removes tracking data older than retention period
+     * Returns number of rows deleted
      */
-    void cleanupOldTrackingData();
+    long cleanupOldTrackingData();
 }
@@ -1,7 +1,10 @@
 package dev.robgro.timesheet.tracking;
 
+import dev.robgro.timesheet.etag.ResourceChangeTracker;
+import dev.robgro.timesheet.etag.TrackedResource;
 import dev.robgro.timesheet.invoice.Invoice;
 import dev.robgro.timesheet.invoice.InvoiceRepository;
+import dev.robgro.timesheet.retention.RetentionPurgeService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +13,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -23,6 +25,9 @@ public class EmailTrackingServiceImpl implements EmailTrackingService {
     private final EmailTrackingProperties trackingProperties;
     private final EmailTrackingNotificationService notificationService;
     private final EmailTrackingStatsService statsService;
+    private final RetentionPurgeService retentionPurgeService;
+    private final UserAgentClassifier userAgentClassifier;
+    private final ResourceChangeTracker resourceChangeTracker;
 
     /**
      * Creates a new tracking token for an invoice
@@ -36,7 +41,7 @@ public class EmailTrackingServiceImpl implements EmailTrackingService {
             return null;
         }
 
-        String token = UUID.randomUUID().toString();
+        UUID token = UUID.randomUUID();
         LocalDateTime expiresAt = LocalDateTime.now().plusDays(trackingProperties.getTokenExpiryDays());
 
         EmailTracking tracking = EmailTracking.builder()
@@ -54,7 +59,7 @@ public class EmailTrackingServiceImpl implements EmailTrackingService {
 
         log.info("Created tracking token {} for invoice {} (expires: {})",
                 token, invoice.getId(), expiresAt);
-        return token;
+        return token.toString();
     }
 
     /**
@@ -65,13 +70,27 @@ public class EmailTrackingServiceImpl implements EmailTrackingService {
      */
     @Override
     @Transactional
-    public boolean recordEmailOpen(String token, HttpServletRequest request) {
+    public boolean recordEmailOpen(UUID token, HttpServletRequest request) {
+        return recordEmailOpen(token, ClientIpResolver.resolve(request), request.getHeader("User-Agent"));
+    }
+
+    /**
+     * Records an email open event from already extracted request data
+     * Used by the fast-path pixel filter, which records after the response is written
+     *
+     * Concurrent opens of one email (mail proxies fetch the pixel several times) wait for each
+     * other on the tracking row. The invoice's open fields are written by a bulk update without
+     * a version check, so opens never fail against each other or against an edit of the invoice.
+     */
+    @Override
+    @Transactional
+    public boolean recordEmailOpen(UUID token, String ipAddress, String userAgent) {
         if (!trackingProperties.isEnabled()) {
             log.debug("Email tracking is disabled");
             return false;
         }
 
-        return trackingRepository.findByTrackingToken(token)
+        return trackingRepository.findByTrackingTokenForUpdate(token)
                 .map(tracking -> {
                     // Check if token expired
                     if (tracking.isExpired()) {
@@ -82,16 +101,15 @@ public class EmailTrackingServiceImpl implements EmailTrackingService {
 
                     boolean isFirstOpen = tracking.getOpenedAt() == null;
 
-                    String ipAddress = getClientIp(request);
-                    String userAgent = request.getHeader("User-Agent");
-
-                    tracking.recordOpen(ipAddress, userAgent);
+                    tracking.recordOpen(ipAddress, userAgent, userAgentClassifier.classify(userAgent));
                     trackingRepository.save(tracking);
 
                     // Update invoice denormalized fields
                     Invoice invoice = tracking.getInvoice();
-                    invoice.updateEmailOpenStatus(tracking);
-                    invoiceRepository.save(invoice);
+                    invoiceRepository.updateEmailOpenStatus(invoice.getId(), tracking.getOpenedAt(),
+                            tracking.getOpenCount(), tracking.getLastOpenedAt(), LocalDateTime.now());
+                    // Bulk statement bypasses the entity listener
+                    resourceChangeTracker.markChanged(TrackedResource.INVOICES);
 
                     if (isFirstOpen) {
                         log.info("✅ FIRST email open recorded for invoice {} ({}), client: {}, device: {}, client: {}",
@@ -142,29 +160,6 @@ public class EmailTrackingServiceImpl implements EmailTrackingService {
         }
     }
 
-    /**
-     * Gets client IP address from request, handling proxies and load balancers
-     */
-    private String getClientIp(HttpServletRequest request) {
-        // Check X-Forwarded-For header (set by proxies/load balancers)
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-            // X-Forwarded-For can contain multiple IPs: "client, proxy1, proxy2"
-            // Take the first one (original client IP)
-            ip = ip.split(",")[0].trim();
-            return ip;
-        }
-
-        // Check X-Real-IP header (Nginx)
-        ip = request.getHeader("X-Real-IP");
-        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-            return ip;
-        }
-
-        // Fallback to remote address
-        return request.getRemoteAddr();
-    }
-
     /**
      * Gets comprehensive tracking statistics
      * Delegates to EmailTrackingStatsService to avoid code duplication
@@ -177,20 +172,10 @@ public class EmailTrackingServiceImpl implements EmailTrackingService {
 
     /**
      * Cleanup job - removes tracking data older than retention period
-     * Should be scheduled to run periodically (e.g., daily)
+     * Delegates to the chunked retention engine (scheduled by RetentionScheduler)
      */
     @Override
-    @Transactional
-    public void cleanupOldTrackingData() {
-        // Keep data for 12 months as per GDPR compliance plan
-        LocalDateTime threshold = LocalDateTime.now().minusMonths(12);
-        List<EmailTracking> oldRecords = trackingRepository.findCreatedBefore(threshold);
-
-        if (!oldRecords.isEmpty()) {
-            log.info("Deleting {} old email tracking records (older than 12 months)", oldRecords.size());
-            trackingRepository.deleteAll(oldRecords);
-        } else {
-            log.debug("No old tracking records to clean up");
-        }
+    public long cleanupOldTrackingData() {
+        return retentionPurgeService.purgeEmailTracking().rowsDeleted();
     }
 }
@@ -0,0 +1,132 @@
+package dev.robgro.timesheet.tracking;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Fast-path servlet filter for the tracking pixel: GET /api/track/{token}.png
+ *
+ * Registered ahead of the Spring Security filter chain (see TrackingPixelFilterConfig),
+ * so pixel hits skip JwtAuthenticationFilter, session handling, MVC dispatching and
+ * path-variable binding. The filter:
+ * 1. Parses the token straight from the request URI (no path matching, no String copies)
+ * 2. Writes a constant header set and the static PNG bytes
+ * 3. Hands token + IP + User-Agent to trackingPixelExecutor for recording
+ *
+ * Everything else (health check, non-GET methods, other paths) continues down the chain,
+ * so POST/PUT/DELETE on /api/track/** are still denied by SecurityConfig.
+ *
+ * Same guarantees as EmailTrackingController:
+ * - Always 200 OK with a valid PNG (even for invalid tokens - prevents enumeration)
+ * - No-cache headers so every open reaches the server
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingPixelFilter implements Filter {
+
+    static final String PATH_PREFIX = "/api/track/";
+    static final String PATH_SUFFIX = ".png";
+
+    /**
+     * Preencoded response headers (same values EmailTrackingController produces via HttpHeaders).
+     * Security header writers are bypassed on this path, so nosniff is added explicitly.
+     */
+    private static final String[][] PIXEL_HEADERS = {
+            {"Cache-Control", "max-age=0, must-revalidate, no-cache, no-store, private"},
+            {"Pragma", "no-cache"},
+            {"Expires", "Thu, 01 Jan 1970 00:00:00 GMT"},
+            {"X-Accel-Expires", "0"},
+            {"Surrogate-Control", "no-store"},
+            {"X-Content-Type-Options", "nosniff"}
+    };
+
+    private static final String CONTENT_TYPE = "image/png";
+
+    private final EmailTrackingService trackingService;
+    private final EmailTrackingProperties trackingProperties;
+    private final Executor trackingPixelExecutor;
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+
+        if (!"GET".equals(request.getMethod())) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        String uri = request.getRequestURI();
+        int start = request.getContextPath().length() + PATH_PREFIX.length();
+        int end = uri.length() - PATH_SUFFIX.length();
+        if (end <= start
+                || !uri.startsWith(PATH_PREFIX, start - PATH_PREFIX.length())
+                || !uri.endsWith(PATH_SUFFIX)
+                || uri.indexOf('/', start) >= 0) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        UUID token = TrackingTokens.parse(uri, start, end);
+        if (token != null) {
+            submitRecording(token, request);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Tracking pixel requested with malformed token: {}", uri.substring(start, end));
+        }
+
+        writePixel(response);
+    }
+
+    /**
+     * Extracts IP and User-Agent on the request thread (request objects are recycled
+     * after the response completes) and records the open asynchronously.
+     * Recording failures never affect the pixel response.
+     */
+    private void submitRecording(UUID token, HttpServletRequest request) {
+        if (!trackingProperties.isEnabled()) {
+            return;
+        }
+
+        String ipAddress = ClientIpResolver.resolve(request);
+        String userAgent = request.getHeader("User-Agent");
+
+        try {
+            trackingPixelExecutor.execute(() -> {
+                try {
+                    trackingService.recordEmailOpen(token, ipAddress, userAgent);
+                } catch (Exception e) {
+                    log.error("Failed to record email open for token {}: {}", token, e.getMessage(), e);
+                }
+            });
+        } catch (Exception e) {
+            // NEVER fail the request - always return the pixel
+            log.error("Failed to submit email open recording for token {}: {}", token, e.getMessage(), e);
+        }
+    }
+
+    private void writePixel(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(EmailTrackingController.TRANSPARENT_PNG.length);
+        for (String[] header : PIXEL_HEADERS) {
+            response.setHeader(header[0], header[1]);
+        }
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(EmailTrackingController.TRANSPARENT_PNG);
+        out.flush();
+    }
+}
@@ -0,0 +1,47 @@
+package dev.robgro.timesheet.tracking;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Registers TrackingPixelFilter for /api/track/* ahead of the Spring Security filter chain.
+ *
+ * The filter is NOT a @Component on purpose - Spring Boot would then register it
+ * for every URL. Here it is mapped only to the tracking path.
+ *
+ * Can be disabled via {@code app.email-tracking.fast-path-enabled=false};
+ * the pixel is then served by EmailTrackingController as before.
+ */
+@Configuration
+@ConditionalOnProperty(
+        name = "app.email-tracking.fast-path-enabled",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class TrackingPixelFilterConfig {
+
+    /**
+     * Runs before DelegatingFilterProxy for springSecurityFilterChain
+     * (SecurityProperties.DEFAULT_FILTER_ORDER = -100).
+     */
+    static final int FILTER_ORDER = SecurityProperties.DEFAULT_FILTER_ORDER - 10;
+
+    @Bean
+    public FilterRegistrationBean<TrackingPixelFilter> trackingPixelFilterRegistration(
+            EmailTrackingService trackingService,
+            EmailTrackingProperties trackingProperties,
+            @Qualifier("trackingPixelExecutor") Executor trackingPixelExecutor) {
+        FilterRegistrationBean<TrackingPixelFilter> registration = new FilterRegistrationBean<>(
+                new TrackingPixelFilter(trackingService, trackingProperties, trackingPixelExecutor));
+        registration.setName("trackingPixelFilter");
+        registration.addUrlPatterns(TrackingPixelFilter.PATH_PREFIX + "*");
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+}
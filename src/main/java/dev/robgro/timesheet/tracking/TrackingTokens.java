@@ -0,0 +1,87 @@
+package dev.robgro.timesheet.tracking;
+
+import java.util.UUID;
+
+/**
+ * Parsing of tracking tokens from URL path segments.
+ *
+ * Tokens are random UUIDs stored as BINARY(16) (see V32 migration).
+ * Parsing goes straight from the characters of the path segment to the
+ * two 64-bit halves of the UUID - no substring, no split, no intermediate String.
+ *
+ * Accepted formats (case-insensitive hex):
+ * - 36 chars, canonical: 3f2504e0-4f89-11d3-9a0c-0305e82c3301 (all emails sent so far)
+ * - 32 chars, compact:   3f2504e04f8911d39a0c0305e82c3301
+ *
+ * Anything else is rejected with null (never an exception) - callers must
+ * still return the pixel for invalid tokens to prevent enumeration.
+ */
+public final class TrackingTokens {
+
+    private TrackingTokens() {
+    }
+
+    /**
+     * Parses a whole char sequence as a tracking token.
+     *
+     * @return token or null if the input is not a valid UUID
+     */
+    public static UUID parse(CharSequence token) {
+        if (token == null) {
+            return null;
+        }
+        return parse(token, 0, token.length());
+    }
+
+    /**
+     * Parses token from chars [start, end) of the given sequence
+     * (e.g. the path segment between "/api/track/" and ".png").
+     *
+     * @return token or null if the range is not a valid UUID
+     */
+    public static UUID parse(CharSequence s, int start, int end) {
+        int length = end - start;
+        if (length == 36) {
+            if (s.charAt(start + 8) != '-' || s.charAt(start + 13) != '-'
+                    || s.charAt(start + 18) != '-' || s.charAt(start + 23) != '-') {
+                return null;
+            }
+        } else if (length != 32) {
+            return null;
+        }
+
+        long msb = 0;
+        long lsb = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '-' && length == 36) {
+                continue;
+            }
+            int nibble = hexValue(c);
+            if (nibble < 0) {
+                return null;
+            }
+            if (digits < 16) {
+                msb = (msb << 4) | nibble;
+            } else {
+                lsb = (lsb << 4) | nibble;
+            }
+            digits++;
+        }
+        return digits == 32 ? new UUID(msb, lsb) : null;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,19 @@
+package dev.robgro.timesheet.tracking;
+
+/**
+ * Result of User-Agent classification stored on EmailTracking.
+ */
+public record UserAgentClassification(
+        /**
+         * Mobile, Tablet, Desktop (or Unknown for missing User-Agent).
+         */
+        String deviceType,
+
+        /**
+         * Email client or browser, e.g. "Gmail", "Outlook", "Browser (Chrome)", "Unknown".
+         */
+        String emailClient
+) {
+
+    static final UserAgentClassification UNKNOWN = new UserAgentClassification("Unknown", "Unknown");
+}
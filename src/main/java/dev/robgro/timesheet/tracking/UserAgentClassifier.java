@@ -0,0 +1,100 @@
+package dev.robgro.timesheet.tracking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cached User-Agent classification for recorded email opens.
+ *
+ * Almost all pixel traffic comes from a handful of proxy User-Agents
+ * (GoogleImageProxy, Outlook, Apple Mail), so results are kept in a bounded
+ * LRU keyed by the raw User-Agent string; misses go through the compiled
+ * single-pass UserAgentMatcher.
+ *
+ * Rules: configured rules (app.email-tracking.user-agent.*) are checked first,
+ * then the built-in rules - new clients can be added without code changes.
+ */
+@Component
+@Slf4j
+public class UserAgentClassifier {
+
+    /**
+     * User-Agents longer than this are classified but not cached
+     * (email_tracking.user_agent is VARCHAR(500) - longer values are junk/abuse)
+     */
+    static final int MAX_CACHED_LENGTH = 500;
+
+    private final UserAgentMatcher matcher;
+    private final Map<String, UserAgentClassification> cache;
+
+    public UserAgentClassifier(EmailTrackingProperties trackingProperties) {
+        EmailTrackingProperties.UserAgent config = trackingProperties.getUserAgent();
+        this.matcher = new UserAgentMatcher(
+                withDefaults(config.getDeviceRules(), UserAgentMatcher.DEFAULT_DEVICE_RULES),
+                withDefaults(config.getClientRules(), UserAgentMatcher.DEFAULT_CLIENT_RULES),
+                UserAgentMatcher.DEFAULT_DEVICE,
+                UserAgentMatcher.DEFAULT_CLIENT);
+
+        int cacheSize = Math.max(1, config.getCacheSize());
+        this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserAgentClassification> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        log.info("Initialized User-Agent classifier: {} custom device rules, {} custom client rules, cache={}",
+                config.getDeviceRules().size(), config.getClientRules().size(), cacheSize);
+    }
+
+    /**
+     * Classifies User-Agent into device type and email client.
+     * Null User-Agent -> Unknown / Unknown.
+     */
+    public UserAgentClassification classify(String userAgent) {
+        if (userAgent == null) {
+            return UserAgentClassification.UNKNOWN;
+        }
+        if (userAgent.length() > MAX_CACHED_LENGTH) {
+            return matcher.classify(userAgent);
+        }
+
+        synchronized (cache) {
+            UserAgentClassification cached = cache.get(userAgent);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Classify outside the lock - concurrent misses for the same UA compute the same value
+        UserAgentClassification classification = matcher.classify(userAgent);
+        synchronized (cache) {
+            cache.put(userAgent, classification);
+        }
+        return classification;
+    }
+
+    /**
+     * Number of cached User-Agents (for diagnostics/tests)
+     */
+    int cachedEntries() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static List<UserAgentMatcher.Rule> withDefaults(List<EmailTrackingProperties.Rule> configured,
+                                                            List<UserAgentMatcher.Rule> defaults) {
+        List<UserAgentMatcher.Rule> rules = new ArrayList<>(configured.size() + defaults.size());
+        for (EmailTrackingProperties.Rule rule : configured) {
+            rules.add(new UserAgentMatcher.Rule(rule.getLabel(), List.copyOf(rule.getPatterns())));
+        }
+        rules.addAll(defaults);
+        return rules;
+    }
+}
@@ -0,0 +1,213 @@
+package dev.robgro.timesheet.tracking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Compiled multi-pattern User-Agent matcher (Aho-Corasick automaton).
+ *
+ * All device and client patterns are compiled into a single DFA over
+ * case-folded ASCII, so classification is ONE pass over the User-Agent:
+ * - no toLowerCase() copy of the string
+ * - no sequential contains() scans per pattern
+ * - one array lookup per character
+ *
+ * Rule priority is preserved: rules are ordered, and when several rules match
+ * the one listed first wins (same semantics as the former if/else chains
+ * in EmailTracking.detectDeviceType / detectEmailClient).
+ *
+ * Immutable and thread-safe once built.
+ */
+public final class UserAgentMatcher {
+
+    /**
+     * Ordered rule: label returned when any of the patterns occurs in the User-Agent.
+     */
+    public record Rule(String label, List<String> patterns) {
+    }
+
+    private static final int ALPHABET = 128;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    /**
+     * Built-in device rules (first match wins, fallback: Desktop).
+     */
+    static final List<Rule> DEFAULT_DEVICE_RULES = List.of(
+            new Rule("Mobile", List.of("mobile", "android", "iphone", "ipod")),
+            new Rule("Tablet", List.of("tablet", "ipad"))
+    );
+
+    /**
+     * Built-in email client rules (first match wins, fallback: Unknown).
+     */
+    static final List<Rule> DEFAULT_CLIENT_RULES = List.of(
+            new Rule("Gmail", List.of("gmail", "google")),
+            new Rule("Outlook", List.of("outlook", "microsoft outlook")),
+            new Rule("Apple Mail", List.of("applemail", "apple mail")),
+            new Rule("Thunderbird", List.of("thunderbird")),
+            new Rule("Yahoo Mail", List.of("yahoo")),
+            new Rule("ProtonMail", List.of("proton")),
+            new Rule("Mail App", List.of("mail")),
+            new Rule("Browser (Chrome)", List.of("chrome")),
+            new Rule("Browser (Firefox)", List.of("firefox")),
+            new Rule("Browser (Safari)", List.of("safari")),
+            new Rule("Browser (Edge)", List.of("edge"))
+    );
+
+    static final String DEFAULT_DEVICE = "Desktop";
+    static final String DEFAULT_CLIENT = "Unknown";
+
+    private static final UserAgentMatcher DEFAULTS =
+            new UserAgentMatcher(DEFAULT_DEVICE_RULES, DEFAULT_CLIENT_RULES, DEFAULT_DEVICE, DEFAULT_CLIENT);
+
+    private final String[] deviceLabels;
+    private final String[] clientLabels;
+    private final String defaultDevice;
+    private final String defaultClient;
+
+    /**
+     * Full transition table: transitions[state * ALPHABET + c] -> next state
+     */
+    private final int[] transitions;
+
+    /**
+     * Best (lowest) device / client rule index recognised in each state, NO_MATCH if none
+     */
+    private final int[] deviceOutput;
+    private final int[] clientOutput;
+
+    public UserAgentMatcher(List<Rule> deviceRules, List<Rule> clientRules,
+                            String defaultDevice, String defaultClient) {
+        this.deviceLabels = deviceRules.stream().map(Rule::label).toArray(String[]::new);
+        this.clientLabels = clientRules.stream().map(Rule::label).toArray(String[]::new);
+        this.defaultDevice = defaultDevice;
+        this.defaultClient = defaultClient;
+
+        // Phase 1: trie of all patterns
+        List<int[]> gotoTable = new ArrayList<>();
+        List<int[]> outputs = new ArrayList<>(); // {deviceRule, clientRule}
+        newState(gotoTable, outputs);
+        insertRules(deviceRules, 0, gotoTable, outputs);
+        insertRules(clientRules, 1, gotoTable, outputs);
+
+        // Phase 2: failure links (BFS) folded into a complete DFA
+        int states = gotoTable.size();
+        int[] fail = new int[states];
+        this.transitions = new int[states * ALPHABET];
+        this.deviceOutput = new int[states];
+        this.clientOutput = new int[states];
+        for (int s = 0; s < states; s++) {
+            deviceOutput[s] = outputs.get(s)[0];
+            clientOutput[s] = outputs.get(s)[1];
+        }
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = gotoTable.get(0)[c];
+            if (next > 0) {
+                fail[next] = 0;
+                transitions[c] = next;
+                queue.add(next);
+            } else {
+                transitions[c] = 0;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            deviceOutput[state] = Math.min(deviceOutput[state], deviceOutput[fail[state]]);
+            clientOutput[state] = Math.min(clientOutput[state], clientOutput[fail[state]]);
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = gotoTable.get(state)[c];
+                if (next > 0) {
+                    fail[next] = transitions[fail[state] * ALPHABET + c];
+                    transitions[state * ALPHABET + c] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * ALPHABET + c] = transitions[fail[state] * ALPHABET + c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Matcher with built-in rules only (same results as the former EmailTracking detection).
+     */
+    public static UserAgentMatcher defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Classifies a User-Agent in a single pass.
+     * Null User-Agent -> Unknown / Unknown.
+     */
+    public UserAgentClassification classify(String userAgent) {
+        if (userAgent == null) {
+            return UserAgentClassification.UNKNOWN;
+        }
+
+        int state = 0;
+        int bestDevice = NO_MATCH;
+        int bestClient = NO_MATCH;
+        for (int i = 0, n = userAgent.length(); i < n; i++) {
+            char c = userAgent.charAt(i);
+            if (c >= ALPHABET) {
+                // Patterns are ASCII - a non-ASCII char can only restart matching
+                state = 0;
+                continue;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            state = transitions[state * ALPHABET + c];
+            if (deviceOutput[state] < bestDevice) {
+                bestDevice = deviceOutput[state];
+            }
+            if (clientOutput[state] < bestClient) {
+                bestClient = clientOutput[state];
+            }
+        }
+
+        return new UserAgentClassification(
+                bestDevice == NO_MATCH ? defaultDevice : deviceLabels[bestDevice],
+                bestClient == NO_MATCH ? defaultClient : clientLabels[bestClient]);
+    }
+
+    private static void insertRules(List<Rule> rules, int category,
+                                    List<int[]> gotoTable, List<int[]> outputs) {
+        for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+            Rule rule = rules.get(ruleIndex);
+            for (String pattern : rule.patterns()) {
+                if (pattern == null || pattern.isEmpty()) {
+                    throw new IllegalArgumentException("Empty User-Agent pattern in rule: " + rule.label());
+                }
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = Character.toLowerCase(pattern.charAt(i));
+                    if (c >= ALPHABET) {
+                        throw new IllegalArgumentException(
+                                "User-Agent patterns must be ASCII: '" + pattern + "' (rule: " + rule.label() + ")");
+                    }
+                    int next = gotoTable.get(state)[c];
+                    if (next == 0) {
+                        next = newState(gotoTable, outputs);
+                        gotoTable.get(state)[c] = next;
+                    }
+                    state = next;
+                }
+                int[] output = outputs.get(state);
+                output[category] = Math.min(output[category], ruleIndex);
+            }
+        }
+    }
+
+    private static int newState(List<int[]> gotoTable, List<int[]> outputs) {
+        gotoTable.add(new int[ALPHABET]);
+        int[] output = new int[2];
+        Arrays.fill(output, NO_MATCH);
+        outputs.add(output);
+        return gotoTable.size() - 1;
+    }
+}
@@ -0,0 +1,56 @@
+-- V32: Store email tracking tokens as BINARY(16) instead of 36-char strings
+-- Rationale: tokens are random UUIDs; the VARCHAR(255) unique index on tracking_token
+-- is ~4x wider than needed (utf8mb4 key + 36 chars per entry) and lookups touch more pages.
+-- BINARY(16) = raw UUID bytes (big-endian, same order as java.util.UUID msb/lsb).
+--
+-- Backward compatibility: links in already-sent emails contain the canonical string
+-- form (/api/track/3f2504e0-4f89-11d3-9a0c-0305e82c3301.png). The application parses
+-- that string straight to the same 16 bytes (TrackingTokens.parse), so old links keep resolving.
+--
+-- Conversion: UNHEX(REPLACE(token, '-', '')) is lossless for UUID strings.
+-- Any non-UUID token would convert to NULL and make STEP C fail -> migration aborts, data intact.
+
+-- STEP A: Add binary columns next to the string columns
+-- IF NOT EXISTS: safe if DDL auto-commit partially applied in previous failed run
+ALTER TABLE email_tracking
+  ADD COLUMN IF NOT EXISTS tracking_token_bin BINARY(16) NULL AFTER tracking_token;
+
+ALTER TABLE invoices
+  ADD COLUMN IF NOT EXISTS email_tracking_token_bin BINARY(16) NULL AFTER email_tracking_token;
+
+-- STEP B: Backfill binary values from string tokens
+UPDATE email_tracking
+SET tracking_token_bin = UNHEX(REPLACE(tracking_token, '-', ''))
+WHERE tracking_token_bin IS NULL;
+
+UPDATE invoices
+SET email_tracking_token_bin = UNHEX(REPLACE(email_tracking_token, '-', ''))
+WHERE email_tracking_token IS NOT NULL
+  AND email_tracking_token_bin IS NULL;
+
+-- STEP C: Enforce NOT NULL on the new tracking token column
+ALTER TABLE email_tracking
+  MODIFY COLUMN tracking_token_bin BINARY(16) NOT NULL;
+
+-- STEP D: Drop string columns (their indexes, incl. the old wide UNIQUE, are dropped with them)
+ALTER TABLE email_tracking DROP COLUMN IF EXISTS tracking_token;
+ALTER TABLE invoices DROP COLUMN IF EXISTS email_tracking_token;
+
+-- STEP E: Rename binary columns to the original names (entity mapping unchanged by name)
+ALTER TABLE email_tracking
+  CHANGE COLUMN tracking_token_bin tracking_token BINARY(16) NOT NULL
+  COMMENT 'Random UUID token (raw 16 bytes)';
+
+ALTER TABLE invoices
+  CHANGE COLUMN email_tracking_token_bin email_tracking_token BINARY(16) NULL
+  COMMENT 'Copy of email_tracking.tracking_token (raw 16 bytes)';
+
+-- STEP F: Compact unique index (16-byte keys)
+CREATE UNIQUE INDEX IF NOT EXISTS unique_email_tracking_token
+  ON email_tracking (tracking_token);
+
+-- Verification:
+-- SELECT HEX(tracking_token), LENGTH(tracking_token) FROM email_tracking LIMIT 5;   -- 32 hex chars, length 16
+-- SHOW INDEX FROM email_tracking;
+-- Lookup by canonical string (same as application):
+-- SELECT * FROM email_tracking WHERE tracking_token = UNHEX(REPLACE('3f2504e0-4f89-11d3-9a0c-0305e82c3301', '-', ''));
@@ -0,0 +1,13 @@
+-- V33: Index for keyset pagination / streaming export of invoices
+-- Rationale: GET /api/v1/invoices/page and /export walk invoices in
+-- (period_year DESC, period_month DESC, sequence_number DESC, id DESC) order.
+-- Existing indexes all start with seller_id, so every page used to sort the full table.
+-- With this index each page is a bounded range scan from the cursor, and the export
+-- reads rows in index order (no filesort before the first row is sent).
+--
+-- id is the InnoDB primary key and would be appended implicitly; it is listed
+-- explicitly so the index matches the ORDER BY tie-breaker on any engine.
+
+-- IF NOT EXISTS: safe to re-run after a partially applied migration
+CREATE INDEX IF NOT EXISTS idx_invoices_period_order
+  ON invoices (period_year, period_month, sequence_number, id);
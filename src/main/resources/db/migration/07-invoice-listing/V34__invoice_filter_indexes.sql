@@ -0,0 +1,25 @@
+-- V34: Composite indexes for invoice list filters
+-- Rationale: archive/PDF lists and reports filter by client and issue date. The filters are
+-- now half-open ranges on issue_date (no YEAR()/MONTH() on the column), so they can use:
+--   (client_id, issue_date) - client picked: equality + range on one index
+--   (issue_date)            - all clients: range only
+--
+-- Other access paths are already indexed:
+--   (seller_id, period_year, period_month, sequence_number) - unique_invoice_sequence (V23),
+--     used by MAX(sequence_number) / counter reconciliation
+--   (period_year, period_month, sequence_number[, id])      - idx_invoices_period_order (V33),
+--     used by list order / keyset pages / export
+--
+-- IF NOT EXISTS / IF EXISTS: safe to re-run after a partially applied migration
+
+-- STEP A: Filter indexes
+CREATE INDEX IF NOT EXISTS idx_invoices_client_issue_date
+  ON invoices (client_id, issue_date);
+
+CREATE INDEX IF NOT EXISTS idx_invoices_issue_date
+  ON invoices (issue_date);
+
+-- STEP B: Drop duplicate of unique_invoice_sequence (same columns, same order)
+-- Every insert maintained both; the UNIQUE key serves all its reads.
+-- seller_id stays the leading column of unique_invoice_sequence and idx_invoices_seller_scheme.
+DROP INDEX IF EXISTS idx_seller_period_seq ON invoices;
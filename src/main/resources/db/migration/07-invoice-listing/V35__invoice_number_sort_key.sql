@@ -0,0 +1,32 @@
+-- V35: Persisted invoice number sort key
+-- Rationale: "sort by invoice number" used to parse display number substrings in Java
+-- (and STR_TO_DATE(invoice_number, ...) for timesheets), after loading every row.
+-- number_sort_key encodes (period_year, period_month, sequence_number) as one BIGINT:
+--   (period_year * 100 + period_month) * 10000000000 + sequence_number
+-- so invoice-number order is a single indexed ORDER BY column - also through
+-- timesheets LEFT JOIN invoices, and for keyset pages / export (number_sort_key, id).
+-- The application sets it together with the components (Invoice.setInvoiceNumberComponents).
+--
+-- idx_invoices_period_order (V33) served the same order on three columns; it is replaced.
+--
+-- IF NOT EXISTS / IF EXISTS: safe to re-run after a partially applied migration
+
+-- STEP A: Add nullable column
+ALTER TABLE invoices
+  ADD COLUMN IF NOT EXISTS number_sort_key BIGINT NULL AFTER sequence_number;
+
+-- STEP B: Backfill from components (NOT NULL since V23)
+UPDATE invoices
+SET number_sort_key = (period_year * 100 + period_month) * 10000000000 + sequence_number
+WHERE number_sort_key IS NULL;
+
+-- STEP C: Enforce NOT NULL
+ALTER TABLE invoices
+  MODIFY COLUMN number_sort_key BIGINT NOT NULL;
+
+-- STEP D: Index for ORDER BY number_sort_key [DESC], id [DESC] (+ keyset range)
+CREATE INDEX IF NOT EXISTS idx_invoices_number_sort
+  ON invoices (number_sort_key, id);
+
+-- STEP E: Drop the three-column order index it replaces
+DROP INDEX IF EXISTS idx_invoices_period_order ON invoices;
@@ -0,0 +1,51 @@
+-- V36: Materialized monthly revenue per seller and client
+-- Rationale: every report/dashboard recomputed revenue from raw invoices (+ items for hours).
+-- revenue_rollup keeps one row per (seller, client, issue year, issue month), so a
+-- year-over-year client chart reads a few dozen rows instead of scanning invoices and items.
+--
+-- Maintenance (application): invoice create/update/delete and timesheet payment changes
+-- recompute the touched buckets in the same transaction (RevenueRollupService.refresh).
+-- Full recompute: POST /api/v1/revenue/rebuild (RevenueRollupService.rebuild).
+--
+-- paid_amount: sum of item amounts whose timesheet has a payment_date.
+--
+-- IF NOT EXISTS: safe to re-run after a partially applied migration
+
+-- STEP A: Create table
+CREATE TABLE IF NOT EXISTS revenue_rollup (
+    seller_id     BIGINT         NOT NULL,
+    client_id     BIGINT         NOT NULL,
+    period_year   INT            NOT NULL,
+    period_month  INT            NOT NULL,
+    invoice_count BIGINT         NOT NULL,
+    total_amount  DECIMAL(14, 2) NOT NULL,
+    billed_hours  DECIMAL(12, 2) NOT NULL,
+    paid_amount   DECIMAL(14, 2) NOT NULL,
+    refreshed_at  TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (seller_id, client_id, period_year, period_month)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- STEP B: Per-client charts across sellers
+CREATE INDEX IF NOT EXISTS idx_revenue_rollup_client_period
+  ON revenue_rollup (client_id, period_year, period_month);
+
+-- STEP C: Backfill (same statement as RevenueRollupRepository.insertAllBuckets)
+DELETE FROM revenue_rollup;
+
+INSERT INTO revenue_rollup (seller_id, client_id, period_year, period_month,
+                            invoice_count, total_amount, billed_hours, paid_amount, refreshed_at)
+SELECT p.seller_id, p.client_id, p.period_year, p.period_month,
+       COUNT(*), SUM(p.total_amount), SUM(p.billed_hours), SUM(p.paid_amount), CURRENT_TIMESTAMP
+FROM (
+    SELECT i.seller_id, i.client_id,
+           YEAR(i.issue_date) AS period_year, MONTH(i.issue_date) AS period_month,
+           COALESCE(i.total_amount, 0) AS total_amount,
+           COALESCE(SUM(it.duration), 0) AS billed_hours,
+           COALESCE(SUM(CASE WHEN t.payment_date IS NOT NULL THEN it.amount END), 0) AS paid_amount
+    FROM invoices i
+    LEFT JOIN invoice_items it ON it.invoice_id = i.id
+    LEFT JOIN timesheets t ON t.id = it.timesheet_id
+    WHERE i.issue_date IS NOT NULL AND i.client_id IS NOT NULL AND i.seller_id IS NOT NULL
+    GROUP BY i.id, i.seller_id, i.client_id, i.issue_date, i.total_amount
+) p
+GROUP BY p.seller_id, p.client_id, p.period_year, p.period_month;
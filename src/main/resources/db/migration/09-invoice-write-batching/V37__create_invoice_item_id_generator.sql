@@ -0,0 +1,24 @@
+-- V37: Pooled ID generator for invoice_items
+-- Rationale: with AUTO_INCREMENT Hibernate must run every item INSERT on its own to learn the id,
+-- so an invoice with 40 lines costs 40 round trips. InvoiceItem now takes ids from a table
+-- generator that reserves 50 at a time; item INSERTs/UPDATEs/DELETEs are JDBC-batched
+-- (hibernate.jdbc.batch_size=50, order_inserts, order_updates).
+--
+-- Pooled optimizer: next_val is the HIGHEST id of the next block; ids handed out are
+-- next_val - 49 .. next_val. The backfill therefore stores MAX(id) + 50, matching
+-- InvoiceItem.ID_ALLOCATION_SIZE, so the first generated id is MAX(id) + 1.
+--
+-- AUTO_INCREMENT stays on invoice_items.id (harmless, ids are always supplied now).
+--
+-- IF NOT EXISTS / INSERT IGNORE: safe to re-run after a partially applied migration
+
+-- STEP A: Generator table (one row per generator, Hibernate TableGenerator layout)
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT       NOT NULL,
+    PRIMARY KEY (sequence_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- STEP B: Start after the existing items
+INSERT IGNORE INTO id_generators (sequence_name, next_val)
+SELECT 'invoice_items', COALESCE(MAX(id), 0) + 50 FROM invoice_items;
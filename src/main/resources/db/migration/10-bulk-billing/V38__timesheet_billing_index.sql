@@ -0,0 +1,11 @@
+-- V38: Index for the monthly billing run
+-- Rationale: generateMonthlyInvoices now reads the uninvoiced timesheets of ALL clients
+-- for the month in one query (is_invoice = false AND service_date in the month) instead
+-- of one query per client. (is_invoice, service_date) turns it into one range scan over
+-- the month's uninvoiced rows; invoiced history is never read.
+--
+-- IF NOT EXISTS: safe to re-run after a partially applied migration
+
+-- STEP A: Billing run index
+CREATE INDEX IF NOT EXISTS idx_timesheets_invoiced_service_date
+  ON timesheets (is_invoice, service_date);
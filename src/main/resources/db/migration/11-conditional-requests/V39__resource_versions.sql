@@ -0,0 +1,46 @@
+-- V39: Validators for HTTP conditional requests (ETag / Last-Modified)
+-- Rationale: API clients (mobile app, dashboards) poll every minute and re-downloaded every
+-- response in full. Each client/seller/timesheet/invoice row now carries a version (JPA
+-- @Version, +1 per write) and updated_at, so a single-resource GET answers If-None-Match
+-- from these two columns without loading the entity.
+--
+-- resource_change_counters: one row per table, +1 in every transaction that writes the table
+-- (ResourceChangeTracker, just before commit). List endpoints derive their ETag from it,
+-- so "nothing changed" costs one primary-key read instead of the whole list.
+--
+-- IF NOT EXISTS / INSERT IGNORE: safe to re-run after a partially applied migration
+
+-- STEP A: Row versions
+ALTER TABLE clients
+  ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN IF NOT EXISTS updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+ALTER TABLE sellers
+  ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE timesheets
+  ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN IF NOT EXISTS updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+ALTER TABLE invoices
+  ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN IF NOT EXISTS updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+-- STEP B: Per-table change counters
+CREATE TABLE IF NOT EXISTS resource_change_counters (
+    resource     VARCHAR(32) NOT NULL,
+    change_count BIGINT      NOT NULL,
+    changed_at   DATETIME(6) NOT NULL,
+    PRIMARY KEY (resource)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT IGNORE INTO resource_change_counters (resource, change_count, changed_at) VALUES
+  ('clients', 0, CURRENT_TIMESTAMP(6)),
+  ('sellers', 0, CURRENT_TIMESTAMP(6)),
+  ('timesheets', 0, CURRENT_TIMESTAMP(6)),
+  ('invoices', 0, CURRENT_TIMESTAMP(6));
+
+-- STEP C: Invoices whose email status turned UNOPENED_WARNING (sent > 7 days ago, never opened).
+-- The status changes with time alone, so invoice list ETags include this count.
+CREATE INDEX IF NOT EXISTS idx_invoices_email_unopened
+  ON invoices (email_opened_at, email_sent_at);
@@ -0,0 +1,30 @@
+-- V40: Incremental change feed (GET /api/v1/changes)
+-- Rationale: the mobile app re-downloaded whole timesheet and invoice lists to stay current.
+-- It now asks for rows changed since its last sync, walking each table in (updated_at, id)
+-- order from an opaque cursor. The updated_at columns come from V39 (set by entity callbacks
+-- and by the bulk timesheet attach/detach statements); this migration indexes them.
+--
+-- change_tombstones: one row per deleted client/timesheet/invoice, so deletes sync too.
+-- Purged after app.retention.tombstone-retention-days; older cursors must resync in full.
+--
+-- IF NOT EXISTS: safe to re-run after a partially applied migration
+
+-- STEP A: Keyset order of the change feed
+CREATE INDEX IF NOT EXISTS idx_clients_updated_at
+  ON clients (updated_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_timesheets_updated_at
+  ON timesheets (updated_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_invoices_updated_at
+  ON invoices (updated_at, id);
+
+-- STEP B: Tombstones of deleted rows
+CREATE TABLE IF NOT EXISTS change_tombstones (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    resource   VARCHAR(32) NOT NULL,
+    record_id  BIGINT      NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_change_tombstones_deleted_at (deleted_at, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,260 @@
+package dev.robgro.timesheet.cache;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.invoice.GeneratedInvoiceNumber;
+import dev.robgro.timesheet.invoice.InvoiceCreationService;
+import dev.robgro.timesheet.invoice.InvoiceNumberGenerator;
+import dev.robgro.timesheet.invoice.InvoiceService;
+import dev.robgro.timesheet.seller.Seller;
+import dev.robgro.timesheet.seller.SellerRepository;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import dev.robgro.timesheet.timesheet.TimesheetRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Second-level cache of reference entities: reads after the first one skip the database,
+ * writes through JPA update or invalidate what is cached, native writes of other tables leave it
+ * alone, and region counters add up.
+ *
+ * <p>Full context without a test transaction: every call runs in its own committed transaction
+ * (fresh persistence context), as in production, so repeated reads can only be served by the
+ * second-level cache. Invoice numbers are stubbed (numbering needs a scheme per seller).
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create; the cache is enabled for this context only.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=ehcache.xml",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ReferenceCacheTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private TimesheetRepository timesheetRepository;
+
+    @Autowired
+    private InvoiceCreationService invoiceCreationService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReferenceCacheStatisticsService statisticsService;
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private List<Long> invoiceIds = List.of();
+
+    @MockBean
+    private InvoiceNumberGenerator invoiceNumberGenerator;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService = new ReferenceCacheStatisticsService(entityManagerFactory);
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceService.deleteInvoices(invoiceIds, true);
+        timesheetRepository.deleteAll();
+        sellerRepository.deleteAll();
+        clientRepository.deleteAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void shouldLoadClientFromDatabaseOnce() {
+        // given - nothing cached yet
+        Long clientId = clientRepository.save(newClient("Acme")).getId();
+        resetCacheAndStatistics();
+
+        // when - three reads, each in its own persistence context
+        for (int i = 0; i < 3; i++) {
+            assertThat(clientRepository.findById(clientId)).isPresent();
+        }
+
+        // then - one SELECT, then cache hits
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(regionStats(ReferenceCacheRegions.CLIENT))
+                .returns(2L, CacheRegionStats::hits)
+                .returns(1L, CacheRegionStats::misses);
+    }
+
+    @Test
+    void shouldServeUpdatedClient_fromCache_afterCommit() {
+        // given - cached client
+        Long clientId = clientRepository.save(newClient("Acme")).getId();
+        resetCacheAndStatistics();
+        clientRepository.findById(clientId);
+
+        // when - renamed through JPA
+        transaction.executeWithoutResult(status ->
+                clientRepository.findById(clientId).orElseThrow().setClientName("Acme Ltd"));
+        long statementsBefore = statistics.getPrepareStatementCount();
+        Client reloaded = clientRepository.findById(clientId).orElseThrow();
+
+        // then - new name, served without a SELECT
+        assertThat(reloaded.getClientName()).isEqualTo("Acme Ltd");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+    }
+
+    @Test
+    void shouldCacheSystemDefaultSellerLookup_andInvalidateOnWrite() {
+        // given
+        Seller first = sellerRepository.save(newSeller("First", true));
+        Seller second = sellerRepository.save(newSeller("Second", false));
+        resetCacheAndStatistics();
+
+        // when - repeated lookup
+        sellerRepository.findByIsSystemDefaultTrue();
+        sellerRepository.findByIsSystemDefaultTrue();
+
+        // then - query ran once, seller served from its entity region
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(regionStats(ReferenceCacheRegions.LOOKUPS)).returns(1L, CacheRegionStats::hits);
+
+        // when - default moves to the other seller
+        transaction.executeWithoutResult(status -> {
+            sellerRepository.findById(first.getId()).orElseThrow().setSystemDefault(false);
+            sellerRepository.findById(second.getId()).orElseThrow().setSystemDefault(true);
+        });
+
+        // then - cached result is stale and not used
+        assertThat(sellerRepository.findByIsSystemDefaultTrue()).get()
+                .extracting(Seller::getName).isEqualTo("Second");
+    }
+
+    @Test
+    void shouldCacheActiveClientList() {
+        // given
+        clientRepository.save(newClient("Beta"));
+        clientRepository.save(newClient("Alpha"));
+        resetCacheAndStatistics();
+
+        // when
+        clientRepository.findAllActiveOrderByName();
+        long statementsAfterFirst = statistics.getPrepareStatementCount();
+        var names = clientRepository.findAllActiveOrderByName().stream().map(Client::getClientName).toList();
+
+        // then - second list built from the query and entity regions
+        assertThat(names).containsExactly("Alpha", "Beta");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirst);
+    }
+
+    @Test
+    void shouldKeepClientCached_whenInvoiceIsCreated() {
+        // given - cached client
+        Client client = clientRepository.save(newClient("Acme"));
+        Seller seller = sellerRepository.save(newSeller("Seller", true));
+        Timesheet timesheet = timesheetRepository.save(newTimesheet(client));
+        when(invoiceNumberGenerator.generateInvoiceNumber(anyLong(), any(), any()))
+                .thenReturn(new GeneratedInvoiceNumber(1, 2025, 3, "001-03-2025", null));
+        resetCacheAndStatistics();
+        clientRepository.findById(client.getId());
+
+        // when - invoice creation refreshes the revenue rollup with native statements
+        invoiceIds = List.of(invoiceCreationService.createInvoice(
+                client.getId(), seller.getId(), LocalDate.of(2025, 3, 31), List.of(timesheet.getId())).id());
+        statistics.clear();
+        clientRepository.findById(client.getId());
+
+        // then - client region still warm
+        assertThat(regionStats(ReferenceCacheRegions.CLIENT))
+                .returns(1L, CacheRegionStats::hits)
+                .returns(0L, CacheRegionStats::misses);
+    }
+
+    @Test
+    void shouldReportEveryReferenceRegion() {
+        // when
+        ReferenceCacheStatistics result = statisticsService.getStatistics();
+
+        // then
+        assertThat(result.statisticsEnabled()).isTrue();
+        assertThat(result.regions()).extracting(CacheRegionStats::region).containsExactly(
+                ReferenceCacheRegions.CLIENT, ReferenceCacheRegions.SELLER, ReferenceCacheRegions.DEPARTMENT,
+                ReferenceCacheRegions.ROLE, ReferenceCacheRegions.NUMBERING_SCHEME, ReferenceCacheRegions.LOOKUPS);
+    }
+
+    private void resetCacheAndStatistics() {
+        // entity and query regions
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics.clear();
+    }
+
+    private CacheRegionStats regionStats(String region) {
+        return statisticsService.getStatistics().regions().stream()
+                .filter(stats -> stats.region().equals(region))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Timesheet newTimesheet(Client client) {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setClient(client);
+        timesheet.setServiceDate(LocalDate.of(2025, 3, 10));
+        timesheet.setDuration(2.0);
+        timesheet.setHourlyRate(50.0);
+        return timesheet;
+    }
+
+    private Client newClient(String name) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setActive(true);
+        return client;
+    }
+
+    private Seller newSeller(String name, boolean systemDefault) {
+        Seller seller = new Seller();
+        seller.setName(name);
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        seller.setSystemDefault(systemDefault);
+        return seller;
+    }
+}
@@ -0,0 +1,164 @@
+package dev.robgro.timesheet.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read/write routing against two in-process H2 databases standing in for primary and replica.
+ *
+ * <p>Each database holds one row naming itself, so a query shows which pool served it.
+ * The lag query is a constant SELECT, so lag and stopped replication can be simulated.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String WHERE_AM_I = "SELECT name FROM origin";
+
+    private DataSource primary;
+    private FailingDataSource replica;
+    private ReplicaDataSourceProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("routing_primary");
+        replica = new FailingDataSource(database("routing_replica"));
+        properties = new ReplicaDataSourceProperties();
+        properties.setMaxLagSeconds(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("DROP TABLE origin");
+        new JdbcTemplate(replica).execute("DROP TABLE origin");
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToReplica_andWritesToPrimary() {
+        // given - replica 2s behind
+        Routing routing = routing("SELECT 2 AS Seconds_Behind_Master");
+
+        // when
+        String readOnly = routing.readOnly().execute(status -> routing.jdbc().queryForObject(WHERE_AM_I, String.class));
+        String readWrite = routing.readWrite().execute(status -> routing.jdbc().queryForObject(WHERE_AM_I, String.class));
+
+        // then
+        assertThat(readOnly).isEqualTo("replica");
+        assertThat(readWrite).isEqualTo("primary");
+        assertThat(routing.router().getReplicaConnections()).isEqualTo(1);
+        assertThat(routing.router().getFallbackConnections()).isZero();
+    }
+
+    @Test
+    void shouldKeepWorkOutsideTransactions_onPrimary() {
+        // given
+        Routing routing = routing("SELECT 0 AS Seconds_Behind_Master");
+
+        // when/then
+        assertThat(routing.jdbc().queryForObject(WHERE_AM_I, String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldFallBackToPrimary_whenReplicaLagsTooMuch() {
+        // given - 60s behind, 10s allowed
+        Routing routing = routing("SELECT 60 AS Seconds_Behind_Master");
+
+        // when
+        String readOnly = routing.readOnly().execute(status -> routing.jdbc().queryForObject(WHERE_AM_I, String.class));
+
+        // then
+        assertThat(readOnly).isEqualTo("primary");
+        assertThat(routing.monitor().isReplicaUsable()).isFalse();
+        assertThat(routing.monitor().getLastLagSeconds()).isEqualTo(60);
+        assertThat(routing.router().getFallbackConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFallBackToPrimary_whenReplicationIsStopped() {
+        // given - Seconds_Behind_Master is NULL while the replication threads are stopped
+        Routing routing = routing("SELECT CAST(NULL AS BIGINT) AS Seconds_Behind_Master");
+
+        // when
+        String readOnly = routing.readOnly().execute(status -> routing.jdbc().queryForObject(WHERE_AM_I, String.class));
+
+        // then
+        assertThat(readOnly).isEqualTo("primary");
+        assertThat(routing.monitor().getLastLagSeconds()).isNull();
+    }
+
+    @Test
+    void shouldFallBackToPrimary_whenReplicaRefusesConnections_untilNextGoodCheck() {
+        // given - replica healthy at the last check, then goes down
+        Routing routing = routing("SELECT 0 AS Seconds_Behind_Master");
+        replica.failing = true;
+
+        // when
+        String duringOutage = routing.readOnly().execute(status -> routing.jdbc().queryForObject(WHERE_AM_I, String.class));
+        replica.failing = false;
+        String beforeNextCheck = routing.readOnly().execute(status -> routing.jdbc().queryForObject(WHERE_AM_I, String.class));
+        routing.monitor().check();
+        String afterNextCheck = routing.readOnly().execute(status -> routing.jdbc().queryForObject(WHERE_AM_I, String.class));
+
+        // then
+        assertThat(duringOutage).isEqualTo("primary");
+        assertThat(beforeNextCheck).isEqualTo("primary");
+        assertThat(afterNextCheck).isEqualTo("replica");
+        assertThat(routing.router().getFallbackConnections()).isEqualTo(2);
+        assertThat(routing.router().getReplicaConnections()).isEqualTo(1);
+    }
+
+    private Routing routing(String lagQuery) {
+        properties.setLagQuery(lagQuery);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, properties);
+        monitor.check();
+        ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource(primary, replica, monitor);
+        router.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return new Routing(router, monitor, new JdbcTemplate(dataSource), readOnly, new TransactionTemplate(transactionManager));
+    }
+
+    private DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE origin (name VARCHAR(20))");
+        jdbc.update("INSERT INTO origin VALUES (?)", name.substring("routing_".length()));
+        return dataSource;
+    }
+
+    private record Routing(ReadWriteRoutingDataSource router, ReplicaLagMonitor monitor, JdbcTemplate jdbc,
+                           TransactionTemplate readOnly, TransactionTemplate readWrite) {
+    }
+
+    private static class FailingDataSource extends DelegatingDataSource {
+
+        private volatile boolean failing;
+
+        FailingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLTransientConnectionException("replica down");
+            }
+            return super.getConnection();
+        }
+    }
+}
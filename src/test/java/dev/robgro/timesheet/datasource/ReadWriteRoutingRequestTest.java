@@ -0,0 +1,135 @@
+package dev.robgro.timesheet.datasource;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read/write routing within one web request: open-session-in-view keeps one EntityManager
+ * for the whole request, and each of its transactions must still get its own route.
+ *
+ * <p>Two in-memory H2 databases stand in for primary and replica; the lag query reports 0s,
+ * so read-only transactions go to the replica.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_request_primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:routing_request_replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.datasource.replica.lag-query=SELECT 0 AS Seconds_Behind_Master",
+        "app.datasource.replica.lag-check-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+@Import(ReadWriteRoutingRequestTest.CopyController.class)
+class ReadWriteRoutingRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @AfterEach
+    void tearDown() {
+        clientRepository.deleteAll();
+        new JdbcTemplate(replicaDataSource).execute("DROP TABLE IF EXISTS clients");
+    }
+
+    @Test
+    void shouldWriteToPrimary_afterReadOnlyTransactionInSameRequest() throws Exception {
+        // given - replica in sync with the primary
+        Client client = clientRepository.save(newClient("Acme"));
+        replicateClients();
+
+        // when - read-only read (replica), then insert (primary)
+        mockMvc.perform(get("/test/routing/clients/{id}/copy", client.getId()))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(clientNamesIn(primaryDataSource)).containsExactlyInAnyOrder("Acme", "Acme copy");
+        assertThat(clientNamesIn(replicaDataSource)).containsExactly("Acme");
+    }
+
+    /**
+     * Copy the clients table (schema and rows) from primary to replica.
+     */
+    private void replicateClients() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP TABLE IF EXISTS clients");
+        new JdbcTemplate(primaryDataSource).queryForList("SCRIPT TABLE clients", String.class).stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+    }
+
+    private static List<String> clientNamesIn(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList("SELECT client_name FROM clients", String.class);
+    }
+
+    private static Client newClient(String name) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setActive(true);
+        return client;
+    }
+
+    /**
+     * Reads a client in a read-only transaction, then saves a copy in a read-write one - one request.
+     */
+    @RestController
+    static class CopyController {
+
+        private final ClientRepository clientRepository;
+        private final PlatformTransactionManager transactionManager;
+
+        CopyController(ClientRepository clientRepository, PlatformTransactionManager transactionManager) {
+            this.clientRepository = clientRepository;
+            this.transactionManager = transactionManager;
+        }
+
+        @GetMapping("/test/routing/clients/{id}/copy")
+        Long copy(@PathVariable Long id) {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            String name = readOnly.execute(status -> clientRepository.findById(id).orElseThrow().getClientName());
+            return new TransactionTemplate(transactionManager).execute(status ->
+                    clientRepository.save(newClient(name + " copy")).getId());
+        }
+    }
+}
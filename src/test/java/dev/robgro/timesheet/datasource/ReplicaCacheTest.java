@@ -0,0 +1,198 @@
+package dev.robgro.timesheet.datasource;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level cache with a read replica that lags behind: a stale row read from the replica
+ * must not be cached and then served to transactions on the primary.
+ *
+ * <p>Two in-memory H2 databases stand in for primary and replica. "Replication" copies the
+ * clients table to the replica; writes after the copy are the lag. The lag query reports 0s,
+ * so read-only transactions go to the replica.
+ *
+ * <p>Own context, closed after the class: the cache manager of ehcache.xml is shared by contexts.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica_cache_primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:replica_cache_replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.datasource.replica.lag-query=SELECT 0 AS Seconds_Behind_Master",
+        "app.datasource.replica.lag-check-interval-ms=3600000",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=ehcache.xml",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail"
+})
+@DirtiesContext
+class ReplicaCacheTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        evictCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clientRepository.deleteAll();
+        new JdbcTemplate(replicaDataSource).execute("DROP TABLE IF EXISTS clients");
+        evictCache();
+    }
+
+    @Test
+    void shouldNotCacheStaleClient_readFromLaggingReplica() {
+        // given - replica has the client, then misses its rename
+        Client client = clientRepository.save(newClient("Acme"));
+        replicateClients();
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        readWrite.executeWithoutResult(status ->
+                clientRepository.findById(client.getId()).orElseThrow().setClientName("Acme Ltd"));
+        evictCache();
+
+        // when - read-only lookup served by the replica, then a read-write one
+        String fromReplica = clientRepository.findById(client.getId()).orElseThrow().getClientName();
+        String fromPrimary = readWrite.execute(status ->
+                clientRepository.findById(client.getId()).orElseThrow().getClientName());
+
+        // then - the replica's stale name stayed out of the cache
+        assertThat(fromReplica).isEqualTo("Acme");
+        assertThat(fromPrimary).isEqualTo("Acme Ltd");
+    }
+
+    @Test
+    void shouldNotCacheQueryResult_readFromLaggingReplica() {
+        // given - replica has one active client, primary two
+        clientRepository.save(newClient("Beta"));
+        replicateClients();
+        clientRepository.save(newClient("Alpha"));
+
+        // when
+        Integer fromReplica = readOnly().execute(status -> clientRepository.findAllActiveOrderByName().size());
+        Integer fromPrimary = new TransactionTemplate(transactionManager).execute(status ->
+                clientRepository.findAllActiveOrderByName().size());
+
+        // then
+        assertThat(fromReplica).isEqualTo(1);
+        assertThat(fromPrimary).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCacheAgain_inReadWriteTransaction_afterReadOnlyOneOnSharedEntityManager() {
+        // given - one EntityManager for both transactions, as open-session-in-view binds it per request
+        Client client = clientRepository.save(newClient("Acme"));
+        replicateClients();
+        evictCache();
+        EntityManager shared = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(shared));
+
+        // when
+        try {
+            readOnly().executeWithoutResult(status -> clientRepository.findById(client.getId()).orElseThrow());
+            shared.clear();
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    clientRepository.findById(client.getId()).orElseThrow());
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            shared.close();
+        }
+
+        // then - the read-write lookup stored the client again
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .containsEntity(Client.class, client.getId())).isTrue();
+    }
+
+    @Test
+    void shouldRestoreCacheMode_afterReadOnlyTransaction() {
+        // given
+        EntityManager shared = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(shared));
+
+        // when
+        try {
+            readOnly().executeWithoutResult(status ->
+                    assertThat(shared.unwrap(Session.class).getCacheMode()).isEqualTo(CacheMode.IGNORE));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        }
+
+        // then
+        assertThat(shared.unwrap(Session.class).getCacheMode()).isEqualTo(CacheMode.NORMAL);
+        shared.close();
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+
+    /**
+     * Copy the clients table (schema and rows) from primary to replica.
+     */
+    private void replicateClients() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP TABLE IF EXISTS clients");
+        new JdbcTemplate(primaryDataSource).queryForList("SCRIPT TABLE clients", String.class).stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+    }
+
+    private void evictCache() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private Client newClient(String name) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setActive(true);
+        return client;
+    }
+}
@@ -0,0 +1,203 @@
+package dev.robgro.timesheet.etag;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import dev.robgro.timesheet.timesheet.TimesheetRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GET on the client and timesheet APIs: validators on 200, 304 for a current copy
+ * (answered without loading entities), new validators after entity and bulk writes.
+ *
+ * <p>Writes commit (no test transaction), so change counters move as in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TimesheetRepository timesheetRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ResourceChangeTracker tracker;
+
+    private Statistics statistics;
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        client = clientRepository.save(newClient());
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        timesheetRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void shouldReturnNotModified_withoutLoadingClient() throws Exception {
+        // given
+        String etag = etagOf("/api/v1/clients/" + client.getId());
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // when / then
+        mockMvc.perform(get("/api/v1/clients/{id}", client.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void shouldSendValidators_andNewEtagAfterUpdate() throws Exception {
+        // given
+        String etag = etagOf("/api/v1/clients/" + client.getId());
+        String listEtag = etagOf("/api/v1/clients");
+
+        // when - renamed through the API (request-scoped EntityManager, as in production)
+        mockMvc.perform(put("/api/v1/clients/{id}", client.getId()).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"clientName\":\"Acme Ltd\",\"hourlyRate\":50.0,\"houseNo\":\"1\","
+                                + "\"streetName\":\"High Street\",\"city\":\"London\",\"postCode\":\"EC1A 1BB\","
+                                + "\"email\":\"acme@test.com\",\"active\":true}"))
+                .andExpect(status().isOk());
+
+        // then - old copy is stale
+        mockMvc.perform(get("/api/v1/clients/{id}", client.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.clientName").value("Acme Ltd"));
+        assertThat(etagOf("/api/v1/clients/" + client.getId())).isNotEqualTo(etag);
+        assertThat(etagOf("/api/v1/clients")).isNotEqualTo(listEtag);
+    }
+
+    @Test
+    void shouldRevalidateClientList_fromChangeCounter() throws Exception {
+        // given
+        String etag = etagOf("/api/v1/clients");
+
+        // then - unchanged
+        mockMvc.perform(get("/api/v1/clients").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // when - another client added
+        clientRepository.save(newClient());
+
+        // then
+        mockMvc.perform(get("/api/v1/clients").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void shouldChangeTimesheetEtags_afterBulkDetach() throws Exception {
+        // given
+        Timesheet timesheet = timesheetRepository.save(newTimesheet());
+        String single = etagOf("/api/v1/timesheets/" + timesheet.getId());
+        String list = etagOf("/api/v1/timesheets/all");
+
+        // when - bulk statement, as used by invoice update/deletion
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            timesheetRepository.detachFromInvoice(List.of(timesheet.getId()), LocalDateTime.now());
+            tracker.markChanged(TrackedResource.TIMESHEETS);
+        });
+
+        // then - both stale
+        assertThat(etagOf("/api/v1/timesheets/" + timesheet.getId())).isNotEqualTo(single);
+        assertThat(etagOf("/api/v1/timesheets/all")).isNotEqualTo(list);
+    }
+
+    @Test
+    void shouldKeepTimesheetEtag_untilClientRenamed() throws Exception {
+        // given
+        Timesheet timesheet = timesheetRepository.save(newTimesheet());
+        String etag = etagOf("/api/v1/timesheets/" + timesheet.getId());
+        assertThat(etagOf("/api/v1/timesheets/" + timesheet.getId())).isEqualTo(etag);
+
+        // when - client renamed (timesheet shows the client name)
+        Client renamed = clientRepository.findById(client.getId()).orElseThrow();
+        renamed.setClientName("Renamed");
+        clientRepository.save(renamed);
+
+        // then
+        mockMvc.perform(get("/api/v1/timesheets/{id}", timesheet.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientName").value("Renamed"));
+    }
+
+    private String etagOf(String uri) throws Exception {
+        String etag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        return etag;
+    }
+
+    private Timesheet newTimesheet() {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setClient(client);
+        timesheet.setServiceDate(LocalDate.of(2025, 3, 10));
+        timesheet.setDuration(2.0);
+        timesheet.setHourlyRate(50.0);
+        return timesheet;
+    }
+
+    private Client newClient() {
+        Client client = new Client();
+        client.setClientName("Acme");
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail("acme@test.com");
+        client.setActive(true);
+        return client;
+    }
+}
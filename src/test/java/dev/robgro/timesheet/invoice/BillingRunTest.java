@@ -0,0 +1,124 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.seller.Seller;
+import dev.robgro.timesheet.seller.SellerRepository;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import dev.robgro.timesheet.timesheet.TimesheetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Monthly billing run against the database: which clients get an invoice.
+ *
+ * <p>No test transaction - every client's invoice commits in its own, as in production.
+ * Numbers are stubbed: numbering has its own tests and needs a scheme per seller.
+ */
+@SpringBootTest
+class BillingRunTest {
+
+    private static final int YEAR = 2019;
+    private static final int MONTH = 5;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private TimesheetRepository timesheetRepository;
+
+    @MockBean
+    private InvoiceNumberGenerator invoiceNumberGenerator;
+
+    private Seller seller;
+    private List<InvoiceDto> invoices = List.of();
+
+    @BeforeEach
+    void setUp() {
+        seller = sellerRepository.save(newSeller());
+        AtomicInteger sequence = new AtomicInteger();
+        when(invoiceNumberGenerator.generateInvoiceNumber(anyLong(), any(), any())).thenAnswer(invocation -> {
+            int next = sequence.incrementAndGet();
+            return new GeneratedInvoiceNumber(next, YEAR, MONTH, String.format("%03d-05-2019", next), null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceService.deleteInvoices(invoices.stream().map(InvoiceDto::id).toList(), true);
+        timesheetRepository.deleteAll();
+        clientRepository.deleteAll();
+        sellerRepository.delete(seller);
+    }
+
+    @Test
+    void shouldSkipInactiveClient_withUninvoicedTimesheets() {
+        // given
+        Client active = clientRepository.save(newClient("Acme", true));
+        Client inactive = clientRepository.save(newClient("Beta", false));
+        timesheetRepository.save(newTimesheet(active));
+        Timesheet leftover = timesheetRepository.save(newTimesheet(inactive));
+
+        // when
+        invoices = billingService.generateMonthlyInvoices(YEAR, MONTH).invoices();
+
+        // then
+        assertThat(invoices).extracting(InvoiceDto::clientId).containsExactly(active.getId());
+        assertThat(timesheetRepository.findById(leftover.getId()).orElseThrow().isInvoiced()).isFalse();
+    }
+
+    private Timesheet newTimesheet(Client client) {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setClient(client);
+        timesheet.setServiceDate(LocalDate.of(YEAR, MONTH, 10));
+        timesheet.setDuration(2.0);
+        timesheet.setHourlyRate(50.0);
+        return timesheet;
+    }
+
+    private Client newClient(String name, boolean active) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setActive(active);
+        return client;
+    }
+
+    private Seller newSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        seller.setSystemDefault(true);
+        return seller;
+    }
+}
@@ -0,0 +1,152 @@
+package dev.robgro.timesheet.invoice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CounterLockRetryPolicyTest {
+
+    private InvoiceCounterProperties properties;
+    private CounterLockRetryPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InvoiceCounterProperties();
+        properties.setLockRetryInitialBackoffMs(0);
+        properties.setLockRetryMaxBackoffMs(0);
+        policy = new CounterLockRetryPolicy(properties);
+    }
+
+    // ===== Classification =====
+
+    @Test
+    void shouldClassifyDeadlockAndLockWaitTimeoutAsRetryable() {
+        // given - as thrown by the MariaDB driver, wrapped by Spring/Hibernate
+        RuntimeException deadlock = new CannotAcquireLockException("could not execute statement",
+            new SQLException("Deadlock found when trying to get lock", "40001", 1213));
+        RuntimeException lockWait = new PessimisticLockingFailureException("could not execute statement",
+            new SQLException("Lock wait timeout exceeded", "HY000", 1205));
+        RuntimeException serialization = new RuntimeException(new SQLException("serialization failure", "40001"));
+
+        // when / then
+        assertThat(CounterLockRetryPolicy.isRetryable(deadlock)).isTrue();
+        assertThat(CounterLockRetryPolicy.isRetryable(lockWait)).isTrue();
+        assertThat(CounterLockRetryPolicy.isRetryable(serialization)).isTrue();
+    }
+
+    @Test
+    void shouldNotRetryConstraintViolationsOrOtherErrors() {
+        // given
+        RuntimeException duplicate = new DataIntegrityViolationException("duplicate",
+            new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062));
+
+        // when / then
+        assertThat(CounterLockRetryPolicy.isRetryable(duplicate)).isFalse();
+        assertThat(CounterLockRetryPolicy.isRetryable(new IllegalStateException("boom"))).isFalse();
+    }
+
+    // ===== Retry loop =====
+
+    @Test
+    void shouldRetryUntilSuccess() {
+        // given - two deadlocks, then success
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        Integer result = policy.execute("test", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw deadlock();
+            }
+            return 42;
+        });
+
+        // then
+        assertThat(result).isEqualTo(42);
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(policy.retryCount()).isEqualTo(2);
+        assertThat(policy.exhaustedCount()).isZero();
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+
+        // when / then
+        assertThatThrownBy(() -> policy.execute("test", () -> {
+            calls.incrementAndGet();
+            throw deadlock();
+        })).isInstanceOf(CannotAcquireLockException.class);
+
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(policy.retryCount()).isEqualTo(2);
+        assertThat(policy.exhaustedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotRetryNonLockFailures() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+
+        // when / then
+        assertThatThrownBy(() -> policy.execute("test", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("bad input");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(policy.retryCount()).isZero();
+    }
+
+    @Test
+    void shouldRunOnce_whenCallerTransactionIsActive() {
+        // given - retrying inside an already rolled-back outer transaction cannot succeed
+        AtomicInteger calls = new AtomicInteger();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            // when / then
+            assertThatThrownBy(() -> policy.execute("test", () -> {
+                calls.incrementAndGet();
+                throw deadlock();
+            })).isInstanceOf(CannotAcquireLockException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(policy.retryCount()).isZero();
+        assertThat(policy.exhaustedCount()).isZero();
+    }
+
+    // ===== Backoff =====
+
+    @Test
+    void shouldKeepJitteredBackoffWithinExponentialCeiling() {
+        // given
+        properties.setLockRetryInitialBackoffMs(25);
+        properties.setLockRetryMaxBackoffMs(250);
+
+        // when / then - 0..25, 0..50, 0..100, ... capped at 250
+        for (int i = 0; i < 200; i++) {
+            assertThat(policy.backoffMillis(1)).isBetween(0L, 25L);
+            assertThat(policy.backoffMillis(2)).isBetween(0L, 50L);
+            assertThat(policy.backoffMillis(3)).isBetween(0L, 100L);
+            assertThat(policy.backoffMillis(30)).isBetween(0L, 250L);
+        }
+    }
+
+    private static RuntimeException deadlock() {
+        return new CannotAcquireLockException("could not execute statement",
+            new SQLException("Deadlock found when trying to get lock", "40001", 1213));
+    }
+}
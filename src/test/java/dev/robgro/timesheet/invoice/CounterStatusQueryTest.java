@@ -0,0 +1,153 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.seller.Seller;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Persistence test for the single-query counter status (counters joined with invoice aggregates).
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create. No Docker required.
+ */
+@DataJpaTest
+class CounterStatusQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InvoiceNumberCounterRepository counterRepository;
+
+    private Seller seller;
+    private Client client;
+
+    @BeforeEach
+    void setUp() {
+        seller = persistSeller("Status Seller");
+        client = new Client();
+        client.setClientName("Status Client");
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail("client@test.com");
+        client.setActive(true);
+        entityManager.persist(client);
+    }
+
+    @Test
+    void shouldJoinCountersWithPeriodAggregates_inOneQuery() {
+        // given - February: 3 invoices, counter in sync; March: counter behind (drift)
+        persistInvoice(seller, 1, 2026, 2, "001-02-2026");
+        persistInvoice(seller, 3, 2026, 2, "003-02-2026");
+        persistInvoice(seller, 2, 2026, 2, "002-02-2026");
+        persistInvoice(seller, 5, 2026, 3, "005-03-2026");
+        persistCounter(seller, ResetPeriod.MONTHLY, "2026-02", 3);
+        persistCounter(seller, ResetPeriod.MONTHLY, "2026-03", 4);
+        persistCounter(seller, ResetPeriod.MONTHLY, "2026-04", 0);
+        entityManager.flush();
+
+        // when
+        List<CounterStatusRow> rows = counterRepository.findCounterStatus(seller.getId(), seller.getId());
+
+        // then - newest period first, same values as the former per-counter queries
+        assertThat(rows).extracting(CounterStatusRow::periodKey).containsExactly("2026-04", "2026-03", "2026-02");
+
+        CounterStatusDto april = rows.get(0).toStatus();
+        assertThat(april.invoiceCount()).isZero();
+        assertThat(april.lastInvoiceNumber()).isNull();
+        assertThat(april.hasDrift()).isFalse();
+
+        CounterStatusDto march = rows.get(1).toStatus();
+        assertThat(march.invoiceCount()).isEqualTo(1);
+        assertThat(march.expectedValue()).isEqualTo(5);
+        assertThat(march.hasDrift()).isTrue();
+
+        CounterStatusDto february = rows.get(2).toStatus();
+        assertThat(february.invoiceCount()).isEqualTo(3);
+        assertThat(february.lastInvoiceNumber()).isEqualTo("003-02-2026");
+        assertThat(february.expectedValue()).isEqualTo(3);
+        assertThat(february.hasDrift()).isFalse();
+    }
+
+    @Test
+    void shouldMapYearlyAndNeverCountersToMonthZero() {
+        // given
+        Seller yearlySeller = persistSeller("Yearly Seller");
+        persistInvoice(yearlySeller, 7, 2025, 0, "INV-007-2025");
+        persistCounter(yearlySeller, ResetPeriod.YEARLY, "2025", 7);
+        persistCounter(yearlySeller, ResetPeriod.NEVER, "NEVER", 0);
+        entityManager.flush();
+
+        // when
+        List<CounterStatusRow> rows = counterRepository.findCounterStatus(yearlySeller.getId(), yearlySeller.getId());
+
+        // then
+        assertThat(rows).extracting(CounterStatusRow::periodKey).containsExactly("NEVER", "2025");
+        assertThat(rows).extracting(CounterStatusRow::lastInvoiceNumber).containsExactly(null, "INV-007-2025");
+        assertThat(rows).noneMatch(CounterStatusRow::hasDrift);
+    }
+
+    @Test
+    void shouldPageSellersWithCounters_andKeepSellersApart() {
+        // given
+        Seller other = persistSeller("Other Seller");
+        persistInvoice(seller, 1, 2026, 2, "001-02-2026");
+        persistInvoice(other, 9, 2026, 2, "009-02-2026");
+        persistCounter(seller, ResetPeriod.MONTHLY, "2026-02", 1);
+        persistCounter(other, ResetPeriod.MONTHLY, "2026-02", 9);
+        entityManager.flush();
+
+        // when
+        List<Long> firstPage = counterRepository.findCounterSellerIds(null, 1);
+        List<Long> secondPage = counterRepository.findCounterSellerIds(firstPage.get(0), 1);
+        List<CounterStatusRow> rows = counterRepository.findCounterStatus(seller.getId(), other.getId());
+
+        // then
+        assertThat(firstPage).containsExactly(seller.getId());
+        assertThat(secondPage).containsExactly(other.getId());
+        assertThat(rows).extracting(CounterStatusRow::sellerId).containsExactly(seller.getId(), other.getId());
+        assertThat(rows).extracting(CounterStatusRow::invoiceCount).containsExactly(1L, 1L);
+        assertThat(rows).extracting(CounterStatusRow::maxSequence).containsExactly(1, 9);
+    }
+
+    private Seller persistSeller(String name) {
+        Seller newSeller = new Seller();
+        newSeller.setName(name);
+        newSeller.setStreet("123 Main St");
+        newSeller.setPostcode("SW1A 1AA");
+        newSeller.setCity("London");
+        newSeller.setServiceDescription("IT Services");
+        return entityManager.persist(newSeller);
+    }
+
+    private void persistInvoice(Seller owner, int sequence, int year, int month, String display) {
+        Invoice invoice = new Invoice();
+        invoice.setSeller(owner);
+        invoice.setClient(client);
+        invoice.setIssueDate(LocalDate.of(2026, 2, 15));
+        invoice.setInvoiceNumber(display);
+        invoice.setInvoiceNumberComponents(sequence, year, month, display, null);
+        entityManager.persist(invoice);
+    }
+
+    private void persistCounter(Seller owner, ResetPeriod resetPeriod, String periodKey, int lastValue) {
+        entityManager.persist(InvoiceNumberCounter.builder()
+            .sellerId(owner.getId())
+            .resetPeriod(resetPeriod)
+            .periodKey(periodKey)
+            .lastValue(lastValue)
+            .build());
+    }
+}
@@ -0,0 +1,158 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.seller.Seller;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EffectiveSchemeResolverTest {
+
+    @Mock
+    private InvoiceNumberingSchemeRepository schemeRepository;
+
+    @Mock
+    private ObjectProvider<SchemeCacheInvalidationBroadcaster> broadcasters;
+
+    @Mock
+    private SchemeCacheInvalidationBroadcaster broadcaster;
+
+    private EffectiveSchemeResolver resolver;
+    private Seller seller;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new EffectiveSchemeResolver(schemeRepository, new InvoiceNumberingProperties(), broadcasters);
+        seller = new Seller();
+        seller.setId(1L);
+    }
+
+    // ----- Resolution (same ordering as findEffectiveScheme) -----
+
+    @Test
+    void shouldPreferActiveScheme_overMoreRecentArchivedScheme() {
+        // given - A: 2020-01-01 v4 ACTIVE, B: 2026-02-03 v1 ARCHIVED
+        InvoiceNumberingScheme active = scheme("A-{SEQ:3}", "2020-01-01", 4, false);
+        InvoiceNumberingScheme archived = scheme("B-{SEQ:3}", "2026-02-03", 1, true);
+        when(schemeRepository.findResolvableBySeller(1L)).thenReturn(List.of(archived, active));
+
+        // when / then
+        assertThat(template(LocalDate.of(2026, 3, 1))).isEqualTo("A-{SEQ:3}");
+    }
+
+    @Test
+    void shouldFallBackToLatestArchivedScheme_whenActiveSchemeStartsLater() {
+        // given
+        when(schemeRepository.findResolvableBySeller(1L)).thenReturn(List.of(
+            scheme("2026-{SEQ:3}", "2026-01-01", 1, false),
+            scheme("2024-{SEQ:3}", "2024-01-01", 1, true),
+            scheme("2025-v1-{SEQ:3}", "2025-01-01", 1, true),
+            scheme("2025-v2-{SEQ:3}", "2025-01-01", 2, true)
+        ));
+
+        // when / then - backdated invoices use the archived scheme of their date, highest version
+        assertThat(template(LocalDate.of(2025, 6, 30))).isEqualTo("2025-v2-{SEQ:3}");
+        assertThat(template(LocalDate.of(2024, 12, 31))).isEqualTo("2024-{SEQ:3}");
+        assertThat(template(LocalDate.of(2025, 1, 1))).isEqualTo("2025-v2-{SEQ:3}");
+        assertThat(template(LocalDate.of(2026, 1, 1))).isEqualTo("2026-{SEQ:3}");
+        assertThat(resolver.findEffectiveScheme(1L, LocalDate.of(2023, 12, 31))).isEmpty();
+    }
+
+    @Test
+    void shouldReturnEmpty_whenSellerHasNoSchemes() {
+        // given
+        when(schemeRepository.findResolvableBySeller(1L)).thenReturn(List.of());
+
+        // when / then
+        assertThat(resolver.findEffectiveScheme(1L, LocalDate.of(2026, 2, 15))).isEmpty();
+    }
+
+    // ----- Caching and invalidation -----
+
+    @Test
+    void shouldLoadTimelineOncePerSeller() {
+        // given
+        when(schemeRepository.findResolvableBySeller(1L))
+            .thenReturn(List.of(scheme("{SEQ:3}", "2020-01-01", 1, false)));
+
+        // when
+        for (int day = 1; day <= 28; day++) {
+            resolver.findEffectiveScheme(1L, LocalDate.of(2026, 2, day));
+        }
+
+        // then
+        verify(schemeRepository, times(1)).findResolvableBySeller(1L);
+        assertThat(resolver.cachedSellers()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictOnlyAfterCommit_andNotifyOtherNodes() {
+        // given
+        when(schemeRepository.findResolvableBySeller(1L))
+            .thenReturn(List.of(scheme("OLD-{SEQ:3}", "2020-01-01", 1, false)))
+            .thenReturn(List.of(scheme("NEW-{SEQ:3}", "2026-02-01", 1, false)));
+        when(broadcasters.orderedStream()).thenReturn(Stream.of(broadcaster));
+        assertThat(template(LocalDate.of(2026, 2, 15))).isEqualTo("OLD-{SEQ:3}");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when - scheme change inside a transaction
+            resolver.evictAfterCommit(1L);
+
+            // then - still cached while uncommitted
+            assertThat(resolver.cachedSellers()).isEqualTo(1);
+            verifyNoInteractions(broadcaster);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // then - reloaded after commit, other nodes notified
+        assertThat(resolver.cachedSellers()).isZero();
+        assertThat(template(LocalDate.of(2026, 2, 15))).isEqualTo("NEW-{SEQ:3}");
+        verify(broadcaster).broadcastEviction(1L);
+    }
+
+    @Test
+    void shouldKeepOtherSellersCached_whenOneSellerIsEvicted() {
+        // given
+        when(schemeRepository.findResolvableBySeller(anyLong()))
+            .thenReturn(List.of(scheme("{SEQ:3}", "2020-01-01", 1, false)));
+        resolver.findEffectiveScheme(1L, LocalDate.of(2026, 2, 15));
+        resolver.findEffectiveScheme(2L, LocalDate.of(2026, 2, 15));
+
+        // when - eviction received from another node
+        resolver.evict(1L);
+
+        // then
+        assertThat(resolver.cachedSellers()).isEqualTo(1);
+        resolver.findEffectiveScheme(2L, LocalDate.of(2026, 2, 15));
+        verify(schemeRepository, times(1)).findResolvableBySeller(2L);
+    }
+
+    private String template(LocalDate issueDate) {
+        return resolver.findEffectiveScheme(1L, issueDate).orElseThrow().template();
+    }
+
+    private InvoiceNumberingScheme scheme(String template, String effectiveFrom, int version, boolean archived) {
+        InvoiceNumberingScheme scheme = InvoiceNumberingScheme.create(
+            seller, template, ResetPeriod.MONTHLY, LocalDate.parse(effectiveFrom), version);
+        if (archived) {
+            scheme.archive();
+        }
+        return scheme;
+    }
+}
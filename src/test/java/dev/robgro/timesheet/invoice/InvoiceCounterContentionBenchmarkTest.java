@@ -0,0 +1,152 @@
+package dev.robgro.timesheet.invoice;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention harness: N threads issue invoice numbers for the SAME seller period at once.
+ *
+ * <p>Each issuance is one transaction (counter UPSERT + simulated invoice insert holding the
+ * counter row lock for {@code holdMs}), wrapped in {@link CounterLockRetryPolicy} exactly like
+ * the non-transactional createInvoice entry points. Reports throughput, p50/p99/max latency
+ * and retry counts, and asserts the issued numbers are unique and contiguous.
+ *
+ * <p>Database: the test profile datasource (H2 in MySQL mode) is the local stand-in.
+ * Point {@code spring.datasource.*} at a local MariaDB to measure the production engine
+ * (deadlock / lock wait timeouts 1213/1205 only show up there).
+ *
+ * <p><b>Status: DISABLED - timing-sensitive, prints results only</b>
+ * Uniqueness under concurrency is also covered by InvoiceNumberCounterServiceConcurrencyTest.
+ *
+ * <p><b>To run:</b> Remove @Disabled and run
+ * {@code mvn test -Dtest=InvoiceCounterContentionBenchmarkTest -Dcontention.threads=16 -Dcontention.perThread=50 -Dcontention.holdMs=2}
+ */
+@Disabled("Benchmark - enable manually")
+@SpringBootTest
+// NO @Transactional here - every issuance must run in its own transaction
+class InvoiceCounterContentionBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("contention.threads", 16);
+    private static final int PER_THREAD = Integer.getInteger("contention.perThread", 50);
+    private static final long HOLD_MS = Long.getLong("contention.holdMs", 2);
+
+    @Autowired
+    private InvoiceNumberCounterService counterService;
+
+    @Autowired
+    private CounterLockRetryPolicy retryPolicy;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void measureSameSellerPeriodContention() throws Exception {
+        Long sellerId = 99101L;
+        String periodKey = "2026-03";
+
+        // Warm-up on another period (connection pool, JIT, first-use drift check)
+        runRound(sellerId, "2026-01", 1, 2, 0);
+
+        long retriesBefore = retryPolicy.retryCount();
+        long exhaustedBefore = retryPolicy.exhaustedCount();
+
+        long start = System.nanoTime();
+        Round round = runRound(sellerId, periodKey, THREADS, PER_THREAD, HOLD_MS);
+        long elapsedNanos = System.nanoTime() - start;
+
+        int issued = round.sequences.size();
+        long[] latencies = round.latencyNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+
+        System.out.printf("threads=%d perThread=%d holdMs=%d%n", THREADS, PER_THREAD, HOLD_MS);
+        System.out.printf("throughput   %8.1f numbers/s (%d in %.1f ms)%n",
+                issued / (elapsedNanos / 1e9), issued, elapsedNanos / 1e6);
+        System.out.printf("latency p50  %8.2f ms%n", percentile(latencies, 50) / 1e6);
+        System.out.printf("latency p99  %8.2f ms%n", percentile(latencies, 99) / 1e6);
+        System.out.printf("latency max  %8.2f ms%n", latencies[latencies.length - 1] / 1e6);
+        System.out.printf("retries      %8d (exhausted %d, failed %d)%n",
+                retryPolicy.retryCount() - retriesBefore, retryPolicy.exhaustedCount() - exhaustedBefore,
+                round.failures);
+
+        // Correctness: no duplicates, no gaps
+        int[] sorted = round.sequences.stream().mapToInt(Integer::intValue).sorted().toArray();
+        assertThat(Arrays.stream(sorted).distinct().count()).isEqualTo(sorted.length);
+        assertThat(sorted[sorted.length - 1] - sorted[0] + 1).isEqualTo(sorted.length);
+    }
+
+    private Round runRound(Long sellerId, String periodKey, int threads, int perThread, long holdMs)
+            throws Exception {
+        int year = Integer.parseInt(periodKey.substring(0, 4));
+        int month = Integer.parseInt(periodKey.substring(5, 7));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Round>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                Round local = new Round();
+                startGate.await();
+                for (int i = 0; i < perThread; i++) {
+                    long begin = System.nanoTime();
+                    try {
+                        local.sequences.add(retryPolicy.execute("benchmark", () -> transactionTemplate.execute(status -> {
+                            int sequence = counterService.nextSequence(
+                                    sellerId, ResetPeriod.MONTHLY, periodKey, null, year, month);
+                            hold(holdMs); // invoice insert while the counter row stays locked
+                            return sequence;
+                        })));
+                        local.latencyNanos.add(System.nanoTime() - begin);
+                    } catch (RuntimeException e) {
+                        local.failures++;
+                    }
+                }
+                return local;
+            }));
+        }
+
+        startGate.countDown();
+        Round total = new Round();
+        for (Future<Round> future : futures) {
+            Round part = future.get();
+            total.sequences.addAll(part.sequences);
+            total.latencyNanos.addAll(part.latencyNanos);
+            total.failures += part.failures;
+        }
+        executor.shutdown();
+        return total;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static void hold(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Round {
+        final List<Integer> sequences = new ArrayList<>();
+        final List<Long> latencyNanos = new ArrayList<>();
+        int failures;
+    }
+}
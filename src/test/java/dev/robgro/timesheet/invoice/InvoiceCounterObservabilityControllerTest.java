@@ -6,9 +6,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -83,4 +89,39 @@ class InvoiceCounterObservabilityControllerTest {
             .andExpect(jsonPath("$.counters").isEmpty())
             .andExpect(jsonPath("$.currentTemplate").doesNotExist());
     }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReconcileCounters_whenAdminForcesReconciliation() throws Exception {
+        // Given - admin flags a manual edit for seller
+        Long sellerId = 999999L;
+
+        // When - force reconciliation
+        // Then - report for that seller (nothing to heal in empty DB)
+        mockMvc.perform(post("/internal/invoice-counters/reconcile")
+                .param("sellerId", sellerId.toString())
+                .with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sellerId").value(sellerId))
+            .andExpect(jsonPath("$.countersChecked").value(0))
+            .andExpect(jsonPath("$.countersHealed").value(0));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldStreamDriftReport_asNdjson() throws Exception {
+        // Given - empty DB, no counters
+
+        // When - request drift report for all sellers
+        MvcResult result = mockMvc.perform(get("/internal/invoice-counters/drift-report")
+                .param("pageSize", "50"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then - NDJSON stream, no entries
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(""));
+    }
 }
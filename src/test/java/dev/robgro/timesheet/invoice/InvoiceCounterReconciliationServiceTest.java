@@ -0,0 +1,109 @@
+package dev.robgro.timesheet.invoice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceCounterReconciliationServiceTest {
+
+    @Mock
+    private InvoiceNumberCounterRepository counterRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private InvoiceNumberPreviewService previewService;
+
+    private VerifiedCounterScopeRegistry verifiedScopes;
+    private InvoiceCounterReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        verifiedScopes = new VerifiedCounterScopeRegistry();
+        service = new InvoiceCounterReconciliationService(
+            counterRepository, invoiceRepository, new PeriodKeyFactory(), verifiedScopes, previewService);
+    }
+
+    @Test
+    void shouldHealOnlyCountersBehindMaxSequence() {
+        // given - monthly counter behind, yearly counter in sync, never counter ahead (gap, not drift)
+        when(invoiceRepository.findMaxSequencePerPeriod(null)).thenReturn(List.of(
+            new PeriodMaxSequence(1L, 2026, 2, 10),
+            new PeriodMaxSequence(1L, 2025, 0, 4),
+            new PeriodMaxSequence(2L, 0, 0, 3)
+        ));
+        when(counterRepository.findAll()).thenReturn(List.of(
+            counter(1L, ResetPeriod.MONTHLY, "2026-02", 7),
+            counter(1L, ResetPeriod.YEARLY, "2025", 4),
+            counter(2L, ResetPeriod.NEVER, "NEVER", 5)
+        ));
+
+        // when
+        CounterReconciliationReport report = service.reconcile(null);
+
+        // then
+        assertThat(report.countersChecked()).isEqualTo(3);
+        assertThat(report.countersHealed()).isEqualTo(1);
+        verify(counterRepository).healCounterIfBehind(1L, "MONTHLY", "2026-02", null, 10);
+        verify(counterRepository, times(1)).healCounterIfBehind(any(), any(), any(), any(), anyInt());
+        // no per-counter MAX queries
+        verify(invoiceRepository, never()).findMaxSequenceNumber(any(), any(), any());
+    }
+
+    @Test
+    void shouldMarkReconciledScopesVerified_andDropOthers() {
+        // given - scope without a counter row was verified earlier
+        InvoiceCounterScope orphan = new InvoiceCounterScope(1L, ResetPeriod.MONTHLY, "2024-01");
+        verifiedScopes.markVerified(orphan);
+        when(invoiceRepository.findMaxSequencePerPeriod(null)).thenReturn(List.of());
+        when(counterRepository.findAll()).thenReturn(List.of(counter(1L, ResetPeriod.MONTHLY, "2026-02", 3)));
+
+        // when
+        CounterReconciliationReport report = service.reconcile(null);
+
+        // then
+        assertThat(verifiedScopes.isVerified(new InvoiceCounterScope(1L, ResetPeriod.MONTHLY, "2026-02"))).isTrue();
+        assertThat(verifiedScopes.isVerified(orphan)).isFalse();
+        assertThat(report.verifiedScopes()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReconcileSingleSeller_withoutTouchingOtherSellers() {
+        // given
+        InvoiceCounterScope otherSeller = new InvoiceCounterScope(2L, ResetPeriod.YEARLY, "2026");
+        InvoiceCounterScope editedSellerScope = new InvoiceCounterScope(1L, ResetPeriod.YEARLY, "2026");
+        verifiedScopes.markVerified(otherSeller);
+        verifiedScopes.markVerified(editedSellerScope);
+        when(invoiceRepository.findMaxSequencePerPeriod(1L)).thenReturn(List.of(new PeriodMaxSequence(1L, 2026, 0, 9)));
+        when(counterRepository.findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(1L)).thenReturn(List.of());
+
+        // when
+        CounterReconciliationReport report = service.reconcile(1L);
+
+        // then - edited seller re-verifies on next issuance, other seller untouched
+        assertThat(report.sellerId()).isEqualTo(1L);
+        assertThat(verifiedScopes.isVerified(editedSellerScope)).isFalse();
+        assertThat(verifiedScopes.isVerified(otherSeller)).isTrue();
+        verify(counterRepository, never()).findAll();
+        verify(previewService).invalidate(1L);
+    }
+
+    private static InvoiceNumberCounter counter(Long sellerId, ResetPeriod resetPeriod, String periodKey, int lastValue) {
+        return InvoiceNumberCounter.builder()
+            .sellerId(sellerId)
+            .resetPeriod(resetPeriod)
+            .periodKey(periodKey)
+            .lastValue(lastValue)
+            .build();
+    }
+}
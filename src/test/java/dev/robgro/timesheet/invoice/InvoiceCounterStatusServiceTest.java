@@ -0,0 +1,81 @@
+package dev.robgro.timesheet.invoice;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceCounterStatusServiceTest {
+
+    @Mock
+    private InvoiceNumberCounterRepository counterRepository;
+
+    @InjectMocks
+    private InvoiceCounterStatusService service;
+
+    @Test
+    void shouldBuildSellerStatusFromSingleQuery() {
+        // given
+        when(counterRepository.findCounterStatus(1L, 1L)).thenReturn(List.of(
+            row(1L, "2026-02", 7, 10),
+            row(1L, "2026-01", 4, 4)
+        ));
+
+        // when
+        List<CounterStatusDto> status = service.getCounterStatus(1L);
+
+        // then
+        assertThat(status).extracting(CounterStatusDto::hasDrift).containsExactly(true, false);
+        assertThat(status.get(0).expectedValue()).isEqualTo(10);
+        verify(counterRepository, times(1)).findCounterStatus(anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldWalkSellerPages_andEmitOnlyDrift() {
+        // given - 3 sellers, page size 2
+        when(counterRepository.findCounterSellerIds(null, 2)).thenReturn(List.of(1L, 2L));
+        when(counterRepository.findCounterSellerIds(2L, 2)).thenReturn(List.of(3L));
+        when(counterRepository.findCounterStatus(1L, 2L)).thenReturn(List.of(
+            row(1L, "2026-02", 3, 3),
+            row(2L, "2026-02", 1, 8)
+        ));
+        when(counterRepository.findCounterStatus(3L, 3L)).thenReturn(List.of(row(3L, "2026", 0, 2)));
+        List<SellerCounterStatus> emitted = new ArrayList<>();
+
+        // when
+        long count = service.streamDriftReport(null, true, 2, emitted::add);
+
+        // then - last page shorter than limit ends the walk without an extra query
+        assertThat(count).isEqualTo(2);
+        assertThat(emitted).extracting(SellerCounterStatus::sellerId).containsExactly(2L, 3L);
+        verify(counterRepository, times(2)).findCounterSellerIds(any(), anyInt());
+    }
+
+    @Test
+    void shouldClampPageSize() {
+        // given
+        when(counterRepository.findCounterSellerIds(null, InvoiceCounterStatusService.MAX_PAGE_SIZE))
+            .thenReturn(List.of());
+
+        // when
+        long count = service.streamDriftReport(null, false, 100_000, entry -> { });
+
+        // then
+        assertThat(count).isZero();
+    }
+
+    private static CounterStatusRow row(Long sellerId, String periodKey, int lastValue, Integer maxSequence) {
+        ResetPeriod resetPeriod = periodKey.length() == 4 ? ResetPeriod.YEARLY : ResetPeriod.MONTHLY;
+        return new CounterStatusRow(sellerId, resetPeriod, periodKey, lastValue, null,
+            maxSequence != null ? maxSequence : 0, maxSequence, null);
+    }
+}
@@ -0,0 +1,181 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.seller.Seller;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAIN regression test for invoice list filters: the SQL Hibernate generates for each
+ * filter combination must be planned as an index range scan, never a full table scan.
+ *
+ * <p>Captures the generated SQL with a {@link StatementInspector} and runs H2 EXPLAIN on it.
+ * A filter written as {@code YEAR(issue_date) = ?} or {@code (? IS NULL OR ...)} shows up
+ * as {@code tableScan} and fails the test.
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create. Indexes come from test/resources/db/h2-indexes.sql,
+ * which mirrors V34. No Docker required.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "dev.robgro.timesheet.invoice.InvoiceFilterExplainTest$CapturingInspector")
+class InvoiceFilterExplainTest {
+
+    private static final List<String> CAPTURED = new ArrayList<>();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private Long clientId;
+
+    @BeforeEach
+    void setUp() {
+        Client client = persistClient();
+        Seller seller = persistSeller();
+        for (int i = 1; i <= 30; i++) {
+            persistInvoice(client, seller, LocalDate.of(2025, 1, 1).plusDays(i * 20L), i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        clientId = client.getId();
+        CAPTURED.clear();
+    }
+
+    @Test
+    void shouldRangeScanClientIndex_forClientYearMonthFilter() {
+        // when
+        invoiceRepository.findFilteredInvoices(clientId, 2025, 3);
+
+        // then
+        assertThat(explainLastSelect()).containsIgnoringCase("IDX_INVOICES_CLIENT_ISSUE_DATE")
+                .doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void shouldRangeScanIssueDateIndex_forYearFilterWithoutClient() {
+        // when
+        invoiceRepository.findFilteredSummaries(null, 2025, null, PageRequest.of(0, 10, Sort.by("issueDate")));
+
+        // then - page query (count may be skipped for a short page)
+        assertThat(explain(firstSelectFrom("invoices"))).containsIgnoringCase("IDX_INVOICES_ISSUE_DATE")
+                .doesNotContainIgnoringCase("INVOICES.tableScan");
+    }
+
+    @Test
+    void shouldRangeScanClientIndex_forDateRangeSearch() {
+        // when
+        invoiceRepository.findSummariesByDateRangeAndClient(
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 4, 30), clientId, PageRequest.of(0, 10));
+
+        // then
+        assertThat(explain(firstSelectFrom("invoices"))).containsIgnoringCase("IDX_INVOICES_CLIENT_ISSUE_DATE")
+                .doesNotContainIgnoringCase("INVOICES.tableScan");
+    }
+
+    @Test
+    void shouldReturnSameRows_asCalendarFilter() {
+        // when
+        List<Invoice> march = invoiceRepository.findFilteredInvoices(clientId, 2025, 3);
+        List<Invoice> anyMarch = invoiceRepository.findFilteredInvoices(clientId, null, 3);
+        List<Invoice> year = invoiceRepository.findFilteredInvoices(null, 2025, null);
+
+        // then - half-open ranges keep first and last day of the period
+        assertThat(march).isNotEmpty().allMatch(invoice ->
+                invoice.getIssueDate().getYear() == 2025 && invoice.getIssueDate().getMonthValue() == 3);
+        assertThat(anyMarch).allMatch(invoice -> invoice.getIssueDate().getMonthValue() == 3)
+                .hasSizeGreaterThan(march.size());
+        assertThat(year).allMatch(invoice -> invoice.getIssueDate().getYear() == 2025)
+                .hasSize((int) countIssuedIn(2025));
+    }
+
+    private String explainLastSelect() {
+        return explain(firstSelectFrom("invoices"));
+    }
+
+    private String firstSelectFrom(String table) {
+        return CAPTURED.stream()
+                .filter(sql -> sql.toLowerCase().startsWith("select") && sql.toLowerCase().contains(" from " + table))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No SELECT from " + table + " captured: " + CAPTURED));
+    }
+
+    private String explain(String sql) {
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                StringBuilder text = new StringBuilder();
+                while (plan.next()) {
+                    text.append(plan.getString(1)).append('\n');
+                }
+                return text.toString();
+            }
+        });
+    }
+
+    private long countIssuedIn(int year) {
+        return invoiceRepository.findAll().stream()
+                .filter(invoice -> invoice.getIssueDate().getYear() == year)
+                .count();
+    }
+
+    private Client persistClient() {
+        Client client = new Client();
+        client.setClientName("Client");
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail("client@test.com");
+        client.setActive(true);
+        return entityManager.persist(client);
+    }
+
+    private Seller persistSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return entityManager.persist(seller);
+    }
+
+    private void persistInvoice(Client client, Seller seller, LocalDate issueDate, int sequence) {
+        Invoice invoice = new Invoice();
+        invoice.setClient(client);
+        invoice.setSeller(seller);
+        invoice.setIssueDate(issueDate);
+        invoice.setTotalAmount(BigDecimal.valueOf(100));
+        String display = String.format("%03d-%02d-%d", sequence, issueDate.getMonthValue(), issueDate.getYear());
+        invoice.setInvoiceNumberComponents(sequence, issueDate.getYear(), issueDate.getMonthValue(), display, null);
+        entityManager.persist(invoice);
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            CAPTURED.add(sql);
+            return sql;
+        }
+    }
+}
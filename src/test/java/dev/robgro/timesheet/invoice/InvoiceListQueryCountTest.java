@@ -0,0 +1,151 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.seller.Seller;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement-count guard for invoice list reads (no N+1 over client, seller or items).
+ *
+ * <p>60 invoices spread over 5 clients and 2 sellers, 2 items each. Counts JDBC statements
+ * via Hibernate statistics after clearing the persistence context, so every association
+ * must come from the database.
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create. No Docker required.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InvoiceListQueryCountTest {
+
+    private static final int INVOICES = 60;
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            clients.add(persistClient("Client " + i));
+        }
+        List<Seller> sellers = List.of(persistSeller("Seller A"), persistSeller("Seller B"));
+
+        for (int i = 1; i <= INVOICES; i++) {
+            persistInvoice(clients.get(i % clients.size()), sellers.get(i % sellers.size()), i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldMapFullInvoiceList_withConstantStatements() {
+        // when - full DTO mapping touches client, seller and items of every invoice
+        InvoiceDtoMapper mapper = new InvoiceDtoMapper(new InvoiceItemDtoMapper());
+        List<InvoiceDto> invoices = invoiceRepository.findAllByOrderByNumberSortKeyDescIdDesc()
+            .stream()
+            .map(mapper)
+            .toList();
+
+        // then - 1 list query (client + seller joined) + 2 item batches (50 + 10), not 1 + 3N
+        assertThat(invoices).hasSize(INVOICES);
+        assertThat(invoices).allMatch(invoice -> invoice.itemsList().size() == 2 && invoice.clientName() != null);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void shouldLoadSummaryPage_withPageQueryAndCountOnly() {
+        // when - archive page sorted by client name (as InvoiceArchiveController does)
+        Page<InvoiceSummary> page = invoiceRepository.findFilteredSummaries(
+            null, null, null, PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.ASC, "client.clientName")));
+
+        // then - page + count, nothing per row
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(INVOICES);
+        assertThat(page.getContent()).allMatch(summary -> summary.clientName() != null && summary.sellerName() != null);
+        assertThat(page.getContent().get(0).clientName()).isEqualTo("Client 0");
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void shouldLoadReportRows_withSingleStatement() {
+        // when
+        List<InvoiceSummary> rows = invoiceRepository.findSummariesForReporting(
+            null, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), Sort.by("issueDate"));
+
+        // then
+        assertThat(rows).hasSize(INVOICES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private Client persistClient(String name) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail("client@test.com");
+        client.setActive(true);
+        return entityManager.persist(client);
+    }
+
+    private Seller persistSeller(String name) {
+        Seller seller = new Seller();
+        seller.setName(name);
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return entityManager.persist(seller);
+    }
+
+    private void persistInvoice(Client client, Seller seller, int sequence) {
+        Invoice invoice = new Invoice();
+        invoice.setClient(client);
+        invoice.setSeller(seller);
+        invoice.setIssueDate(LocalDate.of(2026, 2, 1).plusDays(sequence % 28));
+        invoice.setTotalAmount(BigDecimal.valueOf(100));
+        String display = String.format("%03d-02-2026", sequence);
+        invoice.setInvoiceNumber(display);
+        invoice.setInvoiceNumberComponents(sequence, 2026, 2, display, null);
+        for (int i = 0; i < 2; i++) {
+            InvoiceItem item = new InvoiceItem();
+            item.setInvoice(invoice);
+            item.setServiceDate(invoice.getIssueDate());
+            item.setDuration(2.0);
+            item.setHourlyRate(25.0);
+            item.setAmount(BigDecimal.valueOf(50));
+            invoice.getItemsList().add(item);
+        }
+        entityManager.persist(invoice);
+    }
+}
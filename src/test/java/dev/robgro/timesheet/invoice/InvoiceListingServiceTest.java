@@ -0,0 +1,177 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.exception.ValidationException;
+import dev.robgro.timesheet.seller.Seller;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pages and streaming export of the full invoice list.
+ *
+ * <p>120 invoices over 2 sellers sharing sequence numbers (id is the tie-breaker),
+ * spread over two years and three months, 2 items each.
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create. No Docker required.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InvoiceListingServiceTest {
+
+    private static final int INVOICES = 120;
+
+    private static final Comparator<Invoice> LIST_ORDER = Comparator
+            .comparing(Invoice::getPeriodYear)
+            .thenComparing(Invoice::getPeriodMonth)
+            .thenComparing(Invoice::getSequenceNumber)
+            .thenComparing(Invoice::getId)
+            .reversed();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private InvoiceListingService service;
+    private Statistics statistics;
+    private List<Long> expectedOrder;
+
+    @BeforeEach
+    void setUp() {
+        Client client = persistClient();
+        List<Seller> sellers = List.of(persistSeller("Seller A"), persistSeller("Seller B"));
+
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < INVOICES; i++) {
+            invoices.add(persistInvoice(client, sellers.get(i % 2), 2025 + (i / 60), 1 + (i / 20) % 3, 1 + (i % 20) / 2));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        expectedOrder = invoices.stream().sorted(LIST_ORDER).map(Invoice::getId).toList();
+
+        service = new InvoiceListingService(
+                invoiceRepository, new InvoiceDtoMapper(new InvoiceItemDtoMapper()), entityManager.getEntityManager());
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldWalkAllInvoices_inListOrder_withKeysetPages() {
+        // when - follow nextCursor until the last page
+        List<Long> seen = new ArrayList<>();
+        List<Long> statementsPerPage = new ArrayList<>();
+        String cursor = null;
+        do {
+            long before = statistics.getPrepareStatementCount();
+            InvoiceKeysetPage page = service.getPage(cursor, 25);
+            statementsPerPage.add(statistics.getPrepareStatementCount() - before);
+            page.invoices().forEach(invoice -> seen.add(invoice.id()));
+            assertThat(page.invoices()).allMatch(invoice -> invoice.itemsList().size() == 2);
+            cursor = page.nextCursor();
+            entityManager.clear();
+        } while (cursor != null);
+
+        // then - every invoice exactly once, same order as the full list, page query + one item batch
+        assertThat(seen).containsExactlyElementsOf(expectedOrder);
+        assertThat(statementsPerPage).hasSize(5).allMatch(count -> count <= 2);
+    }
+
+    @Test
+    void shouldReturnNullCursor_onLastPage() {
+        // when
+        InvoiceKeysetPage page = service.getPage(null, 500);
+
+        // then - limit clamped to MAX_PAGE_SIZE, all 120 fit on one page
+        assertThat(page.invoices()).hasSize(INVOICES);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> service.getPage("not-a-cursor", 10))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldStreamAllInvoices_inKeysetPages_withBoundedPersistenceContext() {
+        // given
+        SessionImplementor session = entityManager.getEntityManager().unwrap(SessionImplementor.class);
+        List<Long> streamed = new ArrayList<>();
+        AtomicInteger maxManagedEntities = new AtomicInteger();
+
+        // when
+        long count = service.streamAll(invoice -> {
+            streamed.add(invoice.id());
+            maxManagedEntities.accumulateAndGet(
+                    session.getPersistenceContextInternal().getNumberOfManagedEntities(), Math::max);
+        });
+
+        // then - list order, 3 page queries (50 + 50 + 20), each + one item batch
+        assertThat(count).isEqualTo(INVOICES);
+        assertThat(streamed).containsExactlyElementsOf(expectedOrder);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+        // one chunk: 50 invoices + 100 items + client + 2 sellers (whole list would be 363)
+        assertThat(maxManagedEntities.get()).isLessThanOrEqualTo(Invoice.ITEM_BATCH_SIZE * 3 + 3);
+    }
+
+    private Client persistClient() {
+        Client client = new Client();
+        client.setClientName("Client");
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail("client@test.com");
+        client.setActive(true);
+        return entityManager.persist(client);
+    }
+
+    private Seller persistSeller(String name) {
+        Seller seller = new Seller();
+        seller.setName(name);
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return entityManager.persist(seller);
+    }
+
+    private Invoice persistInvoice(Client client, Seller seller, int year, int month, int sequence) {
+        Invoice invoice = new Invoice();
+        invoice.setClient(client);
+        invoice.setSeller(seller);
+        invoice.setIssueDate(LocalDate.of(year, month, 10));
+        invoice.setTotalAmount(BigDecimal.valueOf(100));
+        String display = String.format("%s/%03d-%02d-%d", seller.getName(), sequence, month, year);
+        invoice.setInvoiceNumberComponents(sequence, year, month, display, null);
+        for (int i = 0; i < 2; i++) {
+            InvoiceItem item = new InvoiceItem();
+            item.setInvoice(invoice);
+            item.setServiceDate(invoice.getIssueDate());
+            item.setDuration(2.0);
+            item.setHourlyRate(25.0);
+            item.setAmount(BigDecimal.valueOf(50));
+            invoice.getItemsList().add(item);
+        }
+        return entityManager.persist(invoice);
+    }
+}
@@ -0,0 +1,108 @@
+package dev.robgro.timesheet.invoice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the keyset page, NDJSON export, report and bulk delete endpoints
+ * of InvoiceManagementController.
+ * Paging/streaming behaviour with data is covered by InvoiceListingServiceTest.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class InvoiceManagementControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldReturnLastPage_whenNoInvoices() throws Exception {
+        // When / Then - empty DB: empty page, no next cursor
+        mockMvc.perform(get("/api/v1/invoices/page").param("limit", "20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.invoices").isArray())
+            .andExpect(jsonPath("$.invoices").isEmpty())
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/invoices/page").param("cursor", "%%%"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldStreamExport_asNdjson() throws Exception {
+        // When - request full export
+        MvcResult result = mockMvc.perform(get("/api/v1/invoices/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Then - NDJSON stream, no lines for an empty DB
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldReturnReportTotals_withoutDetailRows() throws Exception {
+        mockMvc.perform(get("/api/v1/invoices/report").param("fromYear", "2024").param("fromMonth", "1")
+                        .param("toYear", "2025").param("toMonth", "12"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totals.invoiceCount").value(0))
+            .andExpect(jsonPath("$.totals.byMonth").isEmpty())
+            .andExpect(jsonPath("$.invoices").isEmpty())
+            .andExpect(jsonPath("$.period").value("JANUARY 2024 - DECEMBER 2025"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldStreamReportDetails_asNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/invoices/report/details"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectBulkDelete_withoutIds() throws Exception {
+        mockMvc.perform(post("/api/v1/invoices/bulk-delete").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"invoiceIds\":[],\"deleteTimesheets\":false}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnNotFound_whenBulkDeletingUnknownInvoice() throws Exception {
+        mockMvc.perform(post("/api/v1/invoices/bulk-delete").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"invoiceIds\":[999999],\"deleteTimesheets\":false}"))
+            .andExpect(status().isNotFound());
+    }
+}
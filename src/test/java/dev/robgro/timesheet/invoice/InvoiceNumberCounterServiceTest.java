@@ -4,7 +4,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
@@ -14,16 +17,24 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class InvoiceNumberCounterServiceTest {
 
+    private static final InvoiceCounterScope SCOPE = new InvoiceCounterScope(1L, ResetPeriod.MONTHLY, "2026-02");
+
     @Mock
     private InvoiceNumberCounterRepository repository;
 
     @Mock
     private InvoiceRepository invoiceRepository;
 
+    @Spy
+    private VerifiedCounterScopeRegistry verifiedScopes = new VerifiedCounterScopeRegistry();
+
+    @Mock
+    private InvoiceNumberPreviewService previewService;
+
     @InjectMocks
     private InvoiceNumberCounterService service;
 
-    // ===== Self-healing tests =====
+    // ===== Self-healing tests (first use of scope) =====
 
     @Test
     void shouldHealCounterAndReturnCorrectSequence_whenCounterBehindMaxSeq() {
@@ -38,8 +49,8 @@ class InvoiceNumberCounterServiceTest {
         when(repository.findBySellerIdAndResetPeriodAndPeriodKey(sellerId, ResetPeriod.MONTHLY, periodKey))
             .thenReturn(Optional.of(staleCounter));
 
-        // Simulate: after heal, bump sets LAST_INSERT_ID to 11
-        when(repository.lastInsertId()).thenReturn(11L);
+        // Simulate: after heal, bump returns 11
+        when(repository.bumpAndGet(sellerId, "MONTHLY", periodKey, null)).thenReturn(11L);
 
         // When
         int result = service.nextSequence(sellerId, ResetPeriod.MONTHLY, periodKey, null, 2026, 2);
@@ -47,7 +58,7 @@ class InvoiceNumberCounterServiceTest {
         // Then - healed to 10, then bumped to 11
         assertThat(result).isEqualTo(11);
         verify(repository).healCounterIfBehind(sellerId, "MONTHLY", periodKey, null, 10);
-        verify(repository).bumpAndSetLastInsertId(sellerId, "MONTHLY", periodKey, null);
+        verify(repository).bumpAndGet(sellerId, "MONTHLY", periodKey, null);
     }
 
     @Test
@@ -63,7 +74,7 @@ class InvoiceNumberCounterServiceTest {
         when(repository.findBySellerIdAndResetPeriodAndPeriodKey(sellerId, ResetPeriod.MONTHLY, periodKey))
             .thenReturn(Optional.of(upToDateCounter));
 
-        when(repository.lastInsertId()).thenReturn(6L);
+        when(repository.bumpAndGet(sellerId, "MONTHLY", periodKey, null)).thenReturn(6L);
 
         // When
         int result = service.nextSequence(sellerId, ResetPeriod.MONTHLY, periodKey, null, 2026, 2);
@@ -71,7 +82,7 @@ class InvoiceNumberCounterServiceTest {
         // Then - no healing needed
         assertThat(result).isEqualTo(6);
         verify(repository, never()).healCounterIfBehind(any(), any(), any(), any(), anyInt());
-        verify(repository).bumpAndSetLastInsertId(sellerId, "MONTHLY", periodKey, null);
+        verify(repository).bumpAndGet(sellerId, "MONTHLY", periodKey, null);
     }
 
     @Test
@@ -81,7 +92,7 @@ class InvoiceNumberCounterServiceTest {
         String periodKey = "2026-03";
 
         when(invoiceRepository.findMaxSequenceNumber(sellerId, 2026, 3)).thenReturn(null);
-        when(repository.lastInsertId()).thenReturn(1L);
+        when(repository.bumpAndGet(sellerId, "MONTHLY", periodKey, null)).thenReturn(1L);
 
         // When
         int result = service.nextSequence(sellerId, ResetPeriod.MONTHLY, periodKey, null, 2026, 3);
@@ -102,7 +113,7 @@ class InvoiceNumberCounterServiceTest {
         when(repository.findBySellerIdAndResetPeriodAndPeriodKey(sellerId, ResetPeriod.MONTHLY, periodKey))
             .thenReturn(Optional.empty()); // counter missing
 
-        when(repository.lastInsertId()).thenReturn(35L);
+        when(repository.bumpAndGet(sellerId, "MONTHLY", periodKey, null)).thenReturn(35L);
 
         // When
         int result = service.nextSequence(sellerId, ResetPeriod.MONTHLY, periodKey, null, 2021, 1);
@@ -111,4 +122,83 @@ class InvoiceNumberCounterServiceTest {
         assertThat(result).isEqualTo(35);
         verify(repository).healCounterIfBehind(sellerId, "MONTHLY", periodKey, null, 34);
     }
-}
\ No newline at end of file
+
+    // ===== Verified scope registry =====
+
+    @Test
+    void shouldSkipDriftCheck_whenScopeAlreadyVerified() {
+        // Given - first call verifies the scope
+        when(invoiceRepository.findMaxSequenceNumber(1L, 2026, 2)).thenReturn(null);
+        when(repository.bumpAndGet(1L, "MONTHLY", "2026-02", null)).thenReturn(1L, 2L, 3L);
+        service.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2);
+
+        // When - subsequent numbers in the same scope
+        int second = service.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2);
+        int third = service.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2);
+
+        // Then - MAX(seq) checked once, hot path is the UPSERT only
+        assertThat(second).isEqualTo(2);
+        assertThat(third).isEqualTo(3);
+        verify(invoiceRepository, times(1)).findMaxSequenceNumber(1L, 2026, 2);
+        verify(repository, times(3)).bumpAndGet(1L, "MONTHLY", "2026-02", null);
+        assertThat(verifiedScopes.isVerified(SCOPE)).isTrue();
+        verify(previewService, times(3)).invalidateAfterCommit(1L);
+    }
+
+    @Test
+    void shouldCheckDriftPerScope() {
+        // Given - scope 2026-02 verified
+        verifiedScopes.markVerified(SCOPE);
+        when(invoiceRepository.findMaxSequenceNumber(1L, 2026, 3)).thenReturn(null);
+        when(repository.bumpAndGet(any(), any(), any(), any())).thenReturn(1L);
+
+        // When - new month
+        service.nextSequence(1L, ResetPeriod.MONTHLY, "2026-03", null, 2026, 3);
+
+        // Then - only the new scope is checked
+        verify(invoiceRepository).findMaxSequenceNumber(1L, 2026, 3);
+        verify(invoiceRepository, never()).findMaxSequenceNumber(1L, 2026, 2);
+    }
+
+    @Test
+    void shouldMarkScopeVerifiedOnlyAfterCommit() {
+        // Given
+        when(invoiceRepository.findMaxSequenceNumber(1L, 2026, 2)).thenReturn(null);
+        when(repository.bumpAndGet(1L, "MONTHLY", "2026-02", null)).thenReturn(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            service.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2);
+
+            // Then - not yet verified, transaction still open
+            assertThat(verifiedScopes.isVerified(SCOPE)).isFalse();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            assertThat(verifiedScopes.isVerified(SCOPE)).isTrue();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldInvalidateScope_whenIssuingTransactionRollsBack() {
+        // Given - verified scope
+        verifiedScopes.markVerified(SCOPE);
+        when(repository.bumpAndGet(1L, "MONTHLY", "2026-02", null)).thenReturn(7L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When - number issued, then invoice insert fails
+            service.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2);
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then - next issuance re-checks drift
+        assertThat(verifiedScopes.isVerified(SCOPE)).isFalse();
+    }
+}
@@ -24,7 +24,7 @@ import static org.mockito.Mockito.*;
 class InvoiceNumberGeneratorImplTest {
 
     @Mock
-    private InvoiceNumberingSchemeRepository schemeRepository;
+    private EffectiveSchemeResolver schemeResolver;
 
     @Mock
     private InvoiceNumberCounterService counterService;
@@ -35,6 +35,9 @@ class InvoiceNumberGeneratorImplTest {
     @Mock
     private TemplateParser templateParser;
 
+    @Mock
+    private InvoiceNumberPreviewService previewService;
+
     @InjectMocks
     private InvoiceNumberGeneratorImpl generator;
 
@@ -64,7 +67,7 @@ class InvoiceNumberGeneratorImplTest {
         // Given
         LocalDate issueDate = LocalDate.of(2026, 2, 15);
 
-        when(schemeRepository.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(testScheme));
+        when(schemeResolver.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(NumberingSchemeSnapshot.from(testScheme)));
         when(periodKeyFactory.build(ResetPeriod.MONTHLY, 2026, 2)).thenReturn("2026-02");
         when(counterService.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2)).thenReturn(1);
         when(templateParser.apply(eq("{SEQ:3}-{MM}-{YYYY}"), any()))
@@ -87,7 +90,7 @@ class InvoiceNumberGeneratorImplTest {
         // Given
         LocalDate issueDate = LocalDate.of(2026, 2, 15);
 
-        when(schemeRepository.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(testScheme));
+        when(schemeResolver.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(NumberingSchemeSnapshot.from(testScheme)));
         when(periodKeyFactory.build(ResetPeriod.MONTHLY, 2026, 2)).thenReturn("2026-02");
         when(counterService.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2)).thenReturn(6); // Counter returns 6
         when(templateParser.apply(eq("{SEQ:3}-{MM}-{YYYY}"), any()))
@@ -112,7 +115,7 @@ class InvoiceNumberGeneratorImplTest {
             1
         );
 
-        when(schemeRepository.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(yearlyScheme));
+        when(schemeResolver.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(NumberingSchemeSnapshot.from(yearlyScheme)));
         when(periodKeyFactory.build(ResetPeriod.YEARLY, 2026, 0)).thenReturn("2026");
         when(counterService.nextSequence(1L, ResetPeriod.YEARLY, "2026", null, 2026, 0)).thenReturn(1);
         when(templateParser.apply(eq("INV-{SEQ:3}-{YYYY}"), any()))
@@ -139,7 +142,7 @@ class InvoiceNumberGeneratorImplTest {
             1
         );
 
-        when(schemeRepository.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(neverScheme));
+        when(schemeResolver.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(NumberingSchemeSnapshot.from(neverScheme)));
         when(periodKeyFactory.build(ResetPeriod.NEVER, 0, 0)).thenReturn("NEVER");
         when(counterService.nextSequence(1L, ResetPeriod.NEVER, "NEVER", null, 0, 0)).thenReturn(42);
         when(templateParser.apply(eq("INV-{SEQ:4}"), any()))
@@ -160,7 +163,7 @@ class InvoiceNumberGeneratorImplTest {
         // Given
         LocalDate issueDate = LocalDate.of(2026, 2, 15);
 
-        when(schemeRepository.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.empty());
+        when(schemeResolver.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> generator.generateInvoiceNumber(1L, issueDate, null))
@@ -173,7 +176,7 @@ class InvoiceNumberGeneratorImplTest {
         // Given - invoice issued in the past
         LocalDate backdatedIssueDate = LocalDate.of(2025, 12, 15);
 
-        when(schemeRepository.findEffectiveScheme(1L, backdatedIssueDate)).thenReturn(Optional.of(testScheme));
+        when(schemeResolver.findEffectiveScheme(1L, backdatedIssueDate)).thenReturn(Optional.of(NumberingSchemeSnapshot.from(testScheme)));
         when(periodKeyFactory.build(ResetPeriod.MONTHLY, 2025, 12)).thenReturn("2025-12");
         when(counterService.nextSequence(1L, ResetPeriod.MONTHLY, "2025-12", null, 2025, 12)).thenReturn(11);
         when(templateParser.apply(any(), any())).thenReturn("011-12-2025");
@@ -187,7 +190,7 @@ class InvoiceNumberGeneratorImplTest {
         assertThat(result.getPeriodMonth()).isEqualTo(12);
 
         // Verify it used the backdated issue date, not current date
-        verify(schemeRepository).findEffectiveScheme(1L, backdatedIssueDate);
+        verify(schemeResolver).findEffectiveScheme(1L, backdatedIssueDate);
         verify(periodKeyFactory).build(ResetPeriod.MONTHLY, 2025, 12);
     }
 
@@ -196,7 +199,7 @@ class InvoiceNumberGeneratorImplTest {
         // Given - February, new month
         LocalDate februaryDate = LocalDate.of(2026, 2, 15);
 
-        when(schemeRepository.findEffectiveScheme(any(), any())).thenReturn(Optional.of(testScheme));
+        when(schemeResolver.findEffectiveScheme(any(), any())).thenReturn(Optional.of(NumberingSchemeSnapshot.from(testScheme)));
         when(periodKeyFactory.build(ResetPeriod.MONTHLY, 2026, 2)).thenReturn("2026-02");
         when(counterService.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2)).thenReturn(1); // New month, starts at 1
         when(templateParser.apply(any(), any())).thenReturn("001-02-2026");
@@ -228,28 +231,37 @@ class InvoiceNumberGeneratorImplTest {
     // ===== schemeId audit trail tests =====
 
     @Test
-    void shouldReturnSameSchemeId_fromBothPeekAndGenerate() {
+    void shouldReturnSchemeId_fromGenerate() {
         // Given
         LocalDate issueDate = LocalDate.of(2026, 2, 15);
-        InvoiceNumberingScheme schemeA = mock(InvoiceNumberingScheme.class);
-        when(schemeA.getId()).thenReturn(42L);
-        when(schemeA.getTemplate()).thenReturn("{SEQ:3}-{MM}-{YYYY}");
-        when(schemeA.getResetPeriod()).thenReturn(ResetPeriod.MONTHLY);
+        NumberingSchemeSnapshot schemeA = new NumberingSchemeSnapshot(
+            42L, "{SEQ:3}-{MM}-{YYYY}", ResetPeriod.MONTHLY, LocalDate.of(2020, 1, 1), 1, SchemeStatus.ACTIVE);
 
-        when(schemeRepository.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(schemeA));
+        when(schemeResolver.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(schemeA));
         when(periodKeyFactory.build(ResetPeriod.MONTHLY, 2026, 2)).thenReturn("2026-02");
         when(counterService.nextSequence(1L, ResetPeriod.MONTHLY, "2026-02", null, 2026, 2)).thenReturn(1);
-        when(counterService.peekNextSequence(1L, ResetPeriod.MONTHLY, "2026-02")).thenReturn(1);
         when(templateParser.apply(any(), any())).thenReturn("001-02-2026");
 
         // When
         GeneratedInvoiceNumber generated = generator.generateInvoiceNumber(1L, issueDate, null);
-        GeneratedInvoiceNumber peeked = generator.peekNextInvoiceNumber(1L, issueDate, null);
 
         // Then
         assertThat(generated.getSchemeId()).isEqualTo(42L);
-        assertThat(peeked.getSchemeId()).isEqualTo(42L);
-        assertThat(generated.getSchemeId()).isEqualTo(peeked.getSchemeId());
+    }
+
+    @Test
+    void shouldServePeekFromPreviewService_withoutTouchingCounter() {
+        // Given
+        LocalDate issueDate = LocalDate.of(2026, 2, 15);
+        GeneratedInvoiceNumber preview = new GeneratedInvoiceNumber(5, 2026, 2, "005-02-2026", 42L);
+        when(previewService.preview(1L, issueDate, null)).thenReturn(preview);
+
+        // When
+        GeneratedInvoiceNumber peeked = generator.peekNextInvoiceNumber(1L, issueDate, null);
+
+        // Then
+        assertThat(peeked).isEqualTo(preview);
+        verifyNoInteractions(counterService, schemeResolver);
     }
 
     @Test
@@ -257,17 +269,13 @@ class InvoiceNumberGeneratorImplTest {
         // Given - simulates scheme switch (archive A, activate B) between two invoice creations
         LocalDate issueDate = LocalDate.of(2026, 2, 15);
 
-        InvoiceNumberingScheme schemeA = mock(InvoiceNumberingScheme.class);
-        when(schemeA.getId()).thenReturn(100L);
-        when(schemeA.getTemplate()).thenReturn("{SEQ:3}-{MM}-{YYYY}");
-        when(schemeA.getResetPeriod()).thenReturn(ResetPeriod.MONTHLY);
+        NumberingSchemeSnapshot schemeA = new NumberingSchemeSnapshot(
+            100L, "{SEQ:3}-{MM}-{YYYY}", ResetPeriod.MONTHLY, LocalDate.of(2020, 1, 1), 1, SchemeStatus.ACTIVE);
 
-        InvoiceNumberingScheme schemeB = mock(InvoiceNumberingScheme.class);
-        when(schemeB.getId()).thenReturn(200L);
-        when(schemeB.getTemplate()).thenReturn("INV-{SEQ:4}-{YYYY}");
-        when(schemeB.getResetPeriod()).thenReturn(ResetPeriod.YEARLY);
+        NumberingSchemeSnapshot schemeB = new NumberingSchemeSnapshot(
+            200L, "INV-{SEQ:4}-{YYYY}", ResetPeriod.YEARLY, LocalDate.of(2020, 1, 1), 1, SchemeStatus.ACTIVE);
 
-        when(schemeRepository.findEffectiveScheme(eq(1L), any()))
+        when(schemeResolver.findEffectiveScheme(eq(1L), any()))
             .thenReturn(Optional.of(schemeA))
             .thenReturn(Optional.of(schemeB));
         when(periodKeyFactory.build(ResetPeriod.MONTHLY, 2026, 2)).thenReturn("2026-02");
@@ -293,12 +301,10 @@ class InvoiceNumberGeneratorImplTest {
         LocalDate issueDate = LocalDate.of(2026, 3, 15);
         String template = "INV-{SEQ:3}-{MM}-{YYYY}";
 
-        InvoiceNumberingScheme scheme = mock(InvoiceNumberingScheme.class);
-        when(scheme.getId()).thenReturn(77L);
-        when(scheme.getTemplate()).thenReturn(template);
-        when(scheme.getResetPeriod()).thenReturn(ResetPeriod.YEARLY);
+        NumberingSchemeSnapshot scheme = new NumberingSchemeSnapshot(
+            77L, template, ResetPeriod.YEARLY, LocalDate.of(2020, 1, 1), 1, SchemeStatus.ACTIVE);
 
-        when(schemeRepository.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(scheme));
+        when(schemeResolver.findEffectiveScheme(1L, issueDate)).thenReturn(Optional.of(scheme));
         when(periodKeyFactory.build(ResetPeriod.YEARLY, 2026, 0)).thenReturn("2026");
         when(counterService.nextSequence(1L, ResetPeriod.YEARLY, "2026", null, 2026, 0)).thenReturn(5);
 
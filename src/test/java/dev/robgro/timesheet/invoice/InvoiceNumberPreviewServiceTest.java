@@ -0,0 +1,149 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.exception.NoSchemeConfiguredException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceNumberPreviewServiceTest {
+
+    private static final NumberingSchemeSnapshot MONTHLY = new NumberingSchemeSnapshot(
+        42L, "{SEQ:3}-{MM}-{YYYY}", ResetPeriod.MONTHLY, LocalDate.of(2020, 1, 1), 1, SchemeStatus.ACTIVE);
+
+    @Mock
+    private EffectiveSchemeResolver schemeResolver;
+
+    @Mock
+    private InvoiceNumberCounterRepository counterRepository;
+
+    private InvoiceNumberingProperties properties;
+    private InvoiceNumberPreviewService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new InvoiceNumberingProperties();
+        service = newService();
+    }
+
+    @Test
+    void shouldPreviewFromSnapshot_withSingleCounterQueryPerSeller() {
+        // given - seller has counters for February and March
+        when(schemeResolver.findEffectiveScheme(eq(1L), any())).thenReturn(Optional.of(MONTHLY));
+        when(counterRepository.findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(1L)).thenReturn(List.of(
+            counter(1L, ResetPeriod.MONTHLY, "2026-03", 2),
+            counter(1L, ResetPeriod.MONTHLY, "2026-02", 7)));
+
+        // when - user changes issue date back and forth on the form
+        GeneratedInvoiceNumber february = service.preview(1L, LocalDate.of(2026, 2, 15), null);
+        GeneratedInvoiceNumber march = service.preview(1L, LocalDate.of(2026, 3, 1), null);
+        GeneratedInvoiceNumber april = service.preview(1L, LocalDate.of(2026, 4, 30), null);
+        service.preview(1L, LocalDate.of(2026, 2, 20), null);
+
+        // then - counters read once, period without counter starts at 1
+        assertThat(february.getDisplayNumber()).isEqualTo("008-02-2026");
+        assertThat(february.getSchemeId()).isEqualTo(42L);
+        assertThat(march.getDisplayNumber()).isEqualTo("003-03-2026");
+        assertThat(april.getSequenceNumber()).isEqualTo(1);
+        assertThat(april.getPeriodMonth()).isEqualTo(4);
+        verify(counterRepository, times(1)).findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(1L);
+        verifyNoMoreInteractions(counterRepository);
+    }
+
+    @Test
+    void shouldReloadSnapshot_afterNumberIssueCommits() {
+        // given
+        when(schemeResolver.findEffectiveScheme(eq(1L), any())).thenReturn(Optional.of(MONTHLY));
+        when(counterRepository.findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(1L))
+            .thenReturn(List.of(counter(1L, ResetPeriod.MONTHLY, "2026-02", 7)))
+            .thenReturn(List.of(counter(1L, ResetPeriod.MONTHLY, "2026-02", 8)));
+        LocalDate issueDate = LocalDate.of(2026, 2, 15);
+        service.preview(1L, issueDate, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when - number issued in a transaction
+            service.invalidateAfterCommit(1L);
+
+            // then - still cached until commit
+            assertThat(service.preview(1L, issueDate, null).getSequenceNumber()).isEqualTo(8);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // then - reloaded after commit
+        assertThat(service.preview(1L, issueDate, null).getSequenceNumber()).isEqualTo(9);
+        verify(counterRepository, times(2)).findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(1L);
+    }
+
+    @Test
+    void shouldInvalidateOnlyGivenSeller_orAllForNull() {
+        // given
+        when(schemeResolver.findEffectiveScheme(any(), any())).thenReturn(Optional.of(MONTHLY));
+        when(counterRepository.findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(any())).thenReturn(List.of());
+        LocalDate issueDate = LocalDate.of(2026, 2, 15);
+        service.preview(1L, issueDate, null);
+        service.preview(2L, issueDate, null);
+
+        // when / then
+        service.invalidate(1L);
+        assertThat(service.cachedSellers()).isEqualTo(1);
+        service.invalidate(null);
+        assertThat(service.cachedSellers()).isZero();
+    }
+
+    @Test
+    void shouldReadCountersEveryTime_whenTtlIsZero() {
+        // given
+        properties.setPreviewSnapshotTtlSeconds(0);
+        service = newService();
+        when(schemeResolver.findEffectiveScheme(eq(1L), any())).thenReturn(Optional.of(MONTHLY));
+        when(counterRepository.findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(1L)).thenReturn(List.of());
+
+        // when
+        service.preview(1L, LocalDate.of(2026, 2, 15), null);
+        service.preview(1L, LocalDate.of(2026, 2, 15), null);
+
+        // then
+        verify(counterRepository, times(2)).findBySellerIdOrderByResetPeriodAscPeriodKeyDesc(1L);
+    }
+
+    @Test
+    void shouldThrow_whenNoSchemeConfigured() {
+        // given
+        when(schemeResolver.findEffectiveScheme(eq(1L), any())).thenReturn(Optional.empty());
+
+        // when / then
+        assertThatThrownBy(() -> service.preview(1L, LocalDate.of(2026, 2, 15), null))
+            .isInstanceOf(NoSchemeConfiguredException.class);
+        verifyNoInteractions(counterRepository);
+    }
+
+    private InvoiceNumberPreviewService newService() {
+        return new InvoiceNumberPreviewService(
+            schemeResolver, counterRepository, new PeriodKeyFactory(), new TemplateParser(), properties);
+    }
+
+    private static InvoiceNumberCounter counter(Long sellerId, ResetPeriod resetPeriod, String periodKey, int lastValue) {
+        return InvoiceNumberCounter.builder()
+            .sellerId(sellerId)
+            .resetPeriod(resetPeriod)
+            .periodKey(periodKey)
+            .lastValue(lastValue)
+            .build();
+    }
+}
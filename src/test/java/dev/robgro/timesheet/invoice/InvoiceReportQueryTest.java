@@ -0,0 +1,153 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.seller.Seller;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Report totals grouped in the database and streamed report detail rows.
+ *
+ * <p>90 invoices over 3 clients and 15 months (Nov 2024 - Jan 2026), amounts 1..90.
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create. No Docker required.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InvoiceReportQueryTest {
+
+    private static final int INVOICES = 90;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private final List<Invoice> invoices = new ArrayList<>();
+    private List<Client> clients;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Seller seller = persistSeller();
+        clients = List.of(persistClient("Gamma"), persistClient("Alpha"), persistClient("Beta"));
+        LocalDate first = LocalDate.of(2024, 11, 3);
+        for (int i = 0; i < INVOICES; i++) {
+            invoices.add(persistInvoice(clients.get(i % 3), seller, first.plusDays(i * 5L), i + 1));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldRollUpTotals_fromOneGroupedQuery() {
+        // when - all clients, all years
+        InvoiceReportTotals totals = InvoiceReportTotals.rollUp(invoiceRepository.aggregateForReporting(null, null, null));
+
+        // then - one statement, totals match the invoices
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(totals.invoiceCount()).isEqualTo(INVOICES);
+        assertThat(totals.totalAmount()).isEqualByComparingTo(BigDecimal.valueOf(INVOICES * (INVOICES + 1) / 2));
+        assertThat(totals.byClient()).extracting(InvoiceReportGroup::clientName).containsExactly("Alpha", "Beta", "Gamma");
+        assertThat(totals.byClient()).allMatch(group -> group.invoiceCount() == INVOICES / 3);
+        assertThat(totals.byMonth()).hasSize(15);
+        assertThat(totals.byMonth().get(0)).extracting(InvoiceReportGroup::year, InvoiceReportGroup::month)
+                .containsExactly(2024, 11);
+        assertThat(totals.byMonth().stream().mapToLong(InvoiceReportGroup::invoiceCount).sum()).isEqualTo(INVOICES);
+    }
+
+    @Test
+    void shouldGroupWithinClientAndDateRange() {
+        // given
+        Client client = clients.get(1);
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 5, 31);
+
+        // when
+        InvoiceReportTotals totals = InvoiceReportTotals.rollUp(invoiceRepository.aggregateForReporting(client.getId(), from, to));
+
+        // then
+        List<Invoice> expected = invoices.stream()
+                .filter(invoice -> invoice.getClient().getId().equals(client.getId()))
+                .filter(invoice -> !invoice.getIssueDate().isBefore(from) && !invoice.getIssueDate().isAfter(to))
+                .toList();
+        assertThat(totals.invoiceCount()).isEqualTo(expected.size());
+        assertThat(totals.totalAmount()).isEqualByComparingTo(
+                expected.stream().map(Invoice::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add));
+        assertThat(totals.byClient()).singleElement().extracting(InvoiceReportGroup::clientName).isEqualTo("Alpha");
+        assertThat(totals.byMonth()).extracting(InvoiceReportGroup::month).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void shouldStreamDetailRows_oldestFirst() {
+        // given
+        InvoiceListingService service = new InvoiceListingService(
+                invoiceRepository, new InvoiceDtoMapper(new InvoiceItemDtoMapper()), entityManager.getEntityManager());
+        List<Long> streamed = new ArrayList<>();
+
+        // when
+        long count = service.streamReport(new DateRangeRequest(2025, 1, 2025, 12), null,
+                row -> streamed.add(row.id()));
+
+        // then - one query, projections only (no managed entities)
+        List<Long> expected = invoices.stream()
+                .filter(invoice -> invoice.getIssueDate().getYear() == 2025)
+                .map(Invoice::getId)
+                .toList();
+        assertThat(count).isEqualTo(expected.size());
+        assertThat(streamed).containsExactlyElementsOf(expected);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private Client persistClient(String name) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setActive(true);
+        return entityManager.persist(client);
+    }
+
+    private Seller persistSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return entityManager.persist(seller);
+    }
+
+    private Invoice persistInvoice(Client client, Seller seller, LocalDate issueDate, int sequence) {
+        Invoice invoice = new Invoice();
+        invoice.setClient(client);
+        invoice.setSeller(seller);
+        invoice.setIssueDate(issueDate);
+        invoice.setTotalAmount(BigDecimal.valueOf(sequence));
+        String display = String.format("%03d-%02d-%d", sequence, issueDate.getMonthValue(), issueDate.getYear());
+        invoice.setInvoiceNumberComponents(sequence, issueDate.getYear(), issueDate.getMonthValue(), display, null);
+        return entityManager.persist(invoice);
+    }
+}
@@ -0,0 +1,124 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.seller.Seller;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Database-side sorting and paging of the invoice archive list ({@link InvoiceSortOrder}).
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create. No Docker required.
+ */
+@DataJpaTest
+class InvoiceSortQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @BeforeEach
+    void setUp() {
+        Seller seller = persistSeller();
+        Client beta = persistClient("Beta");
+        Client alpha = persistClient("Alpha");
+        // Display strings sort "100-..." < "2-..." < "9-..." - the sort key must follow the numbering period
+        persistInvoice(beta, seller, 2024, 12, 100, "100-12-2024", 300);
+        persistInvoice(alpha, seller, 2025, 1, 2, "2-01-2025", 100);
+        persistInvoice(beta, seller, 2024, 12, 9, "9-12-2024", 200);
+        persistInvoice(alpha, seller, 2025, 1, 1, "1-01-2025", 400);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldComputeNumberSortKey_inPeriodThenSequenceOrder() {
+        assertThat(Invoice.numberSortKey(2024, 12, 9_999_999)).isLessThan(Invoice.numberSortKey(2025, 1, 1));
+        assertThat(Invoice.numberSortKey(2025, 1, 1)).isLessThan(Invoice.numberSortKey(2025, 1, 2));
+        assertThat(Invoice.numberSortKey(2025, 1, 2)).isLessThan(Invoice.numberSortKey(2025, 2, 1));
+    }
+
+    @Test
+    void shouldSortByInvoiceNumber_usingPersistedSortKey() {
+        // when
+        Page<Invoice> page = invoiceRepository.findFilteredInvoices(
+                null, null, null, PageRequest.of(0, 10, InvoiceSortOrder.of("invoiceNumber", "asc")));
+
+        // then
+        assertThat(page.getContent()).extracting(Invoice::getInvoiceNumber)
+                .containsExactly("9-12-2024", "100-12-2024", "1-01-2025", "2-01-2025");
+    }
+
+    @Test
+    void shouldSortByClientNameThenId_andPageInDatabase() {
+        // when
+        Page<Invoice> first = invoiceRepository.findFilteredInvoices(
+                null, null, null, PageRequest.of(0, 3, InvoiceSortOrder.of("clientName", "asc")));
+        Page<Invoice> second = invoiceRepository.findFilteredInvoices(
+                null, null, null, PageRequest.of(1, 3, InvoiceSortOrder.of("clientName", "asc")));
+
+        // then
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(first.getContent()).extracting(invoice -> invoice.getClient().getClientName())
+                .containsExactly("Alpha", "Alpha", "Beta");
+        assertThat(second.getContent()).extracting(Invoice::getInvoiceNumber).containsExactly("9-12-2024");
+    }
+
+    @Test
+    void shouldSortByTotalAmountDescending_withinFilter() {
+        // when
+        Page<Invoice> page = invoiceRepository.findFilteredInvoices(
+                null, 2024, null, PageRequest.of(0, 10, InvoiceSortOrder.of("totalAmount", "desc")));
+
+        // then
+        assertThat(page.getContent()).extracting(Invoice::getInvoiceNumber)
+                .containsExactly("100-12-2024", "9-12-2024");
+    }
+
+    private Client persistClient(String name) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setActive(true);
+        return entityManager.persist(client);
+    }
+
+    private Seller persistSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return entityManager.persist(seller);
+    }
+
+    private void persistInvoice(Client client, Seller seller, int year, int month, int sequence,
+                                String display, int total) {
+        Invoice invoice = new Invoice();
+        invoice.setClient(client);
+        invoice.setSeller(seller);
+        invoice.setIssueDate(LocalDate.of(year, month, 15));
+        invoice.setTotalAmount(BigDecimal.valueOf(total));
+        invoice.setInvoiceNumberComponents(sequence, year, month, display, null);
+        entityManager.persist(invoice);
+    }
+}
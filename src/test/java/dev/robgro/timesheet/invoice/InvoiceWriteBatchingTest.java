@@ -0,0 +1,303 @@
+package dev.robgro.timesheet.invoice;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientDto;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.client.ClientService;
+import dev.robgro.timesheet.etag.ResourceChangeTracker;
+import dev.robgro.timesheet.exception.EntityNotFoundException;
+import dev.robgro.timesheet.revenue.RevenueRollupRepository;
+import dev.robgro.timesheet.revenue.RevenueRollupService;
+import dev.robgro.timesheet.seller.Seller;
+import dev.robgro.timesheet.seller.SellerRepository;
+import dev.robgro.timesheet.sync.ChangeTombstone;
+import dev.robgro.timesheet.search.SearchIndexService;
+import dev.robgro.timesheet.sync.ChangeTombstoneRepository;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import dev.robgro.timesheet.timesheet.TimesheetDtoMapper;
+import dev.robgro.timesheet.timesheet.TimesheetRepository;
+import dev.robgro.timesheet.timesheet.TimesheetServiceImpl;
+import dev.robgro.timesheet.tracking.EmailTrackingRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Statement counts of invoice create/update/delete: constant in the number of items
+ * (one timesheet load, JDBC-batched item writes, one UPDATE per timesheet attach/detach,
+ * bulk DELETEs by invoice id).
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties, which enables
+ * hibernate.jdbc.batch_size) with Flyway disabled and Hibernate DDL auto-create. No Docker required.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InvoiceWriteBatchingTest {
+
+    private static final int ITEMS = 30;
+    private static final LocalDate ISSUE_DATE = LocalDate.of(2025, 3, 31);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private TimesheetRepository timesheetRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private EmailTrackingRepository emailTrackingRepository;
+
+    @Autowired
+    private ChangeTombstoneRepository changeTombstoneRepository;
+
+    private InvoiceNumberGenerator invoiceNumberGenerator;
+    private InvoiceCreationServiceImpl creationService;
+    private InvoiceServiceImpl invoiceService;
+    private Statistics statistics;
+    private Client client;
+    private Seller seller;
+
+    @BeforeEach
+    void setUp() {
+        client = persistClient();
+        seller = persistSeller();
+
+        ClientService clientService = mock(ClientService.class);
+        when(clientService.getClientById(client.getId())).thenReturn(new ClientDto(client.getId(), client.getClientName(),
+                client.getHourlyRate(), "1", "High Street", "London", "EC1A 1BB", "client@test.com", true));
+
+        RevenueRollupService revenueRollupService = new RevenueRollupService(revenueRollupRepository);
+        TimesheetServiceImpl timesheetService = new TimesheetServiceImpl(
+                timesheetRepository, clientRepository, new TimesheetDtoMapper(), revenueRollupService);
+        InvoiceDtoMapper invoiceDtoMapper = new InvoiceDtoMapper(new InvoiceItemDtoMapper());
+        invoiceNumberGenerator = mock(InvoiceNumberGenerator.class);
+        creationService = new InvoiceCreationServiceImpl(clientService, timesheetService, invoiceRepository,
+                timesheetRepository, invoiceDtoMapper, clientRepository, sellerRepository, invoiceNumberGenerator,
+                revenueRollupService, mock(ResourceChangeTracker.class));
+        invoiceService = new InvoiceServiceImpl(invoiceRepository, timesheetRepository, invoiceDtoMapper,
+                clientRepository, null, timesheetService, null, creationService, null, revenueRollupService,
+                emailTrackingRepository, mock(InvoiceNumberPreviewService.class), mock(ResourceChangeTracker.class),
+                changeTombstoneRepository, mock(SearchIndexService.class));
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldCreateInvoice_withConstantStatementCount() {
+        // given
+        List<Long> timesheetIds = persistTimesheets(ITEMS);
+        statistics.clear();
+
+        stubNextNumber(1);
+
+        // when
+        InvoiceDto created = creationService.createInvoice(client.getId(), seller.getId(), ISSUE_DATE, timesheetIds);
+        long statements = statistics.getPrepareStatementCount();
+
+        // then - timesheets, invoice INSERT, item batch, attach UPDATE, rollup (2) + id block / seller
+        assertThat(created.itemsList()).hasSize(ITEMS).allMatch(item -> item.id() != null);
+        assertThat(statements).isLessThanOrEqualTo(8);
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(ITEMS + 2);
+
+        entityManager.clear();
+        assertThat(timesheetRepository.findAllById(timesheetIds))
+                .allMatch(timesheet -> timesheet.isInvoiced() && "001-03-2025".equals(timesheet.getInvoiceNumber()));
+    }
+
+    @Test
+    void shouldUpdateItemsInPlace_withConstantStatementCount() {
+        // given - drop the first 10 lines, edit the other 20, add 10 new lines with new timesheets
+        List<Long> timesheetIds = persistTimesheets(ITEMS);
+        InvoiceDto invoice = createInvoice(timesheetIds);
+        List<Long> newTimesheetIds = persistTimesheets(10);
+        entityManager.clear();
+
+        List<InvoiceItemUpdateRequest> items = new ArrayList<>();
+        for (int i = 10; i < ITEMS; i++) {
+            // items were created in timesheet order
+            InvoiceItemDto item = invoice.itemsList().get(i);
+            items.add(new InvoiceItemUpdateRequest(item.id(), timesheetIds.get(i), item.serviceDate(), "Edited",
+                    item.duration(), BigDecimal.valueOf(60), 30.0));
+        }
+        newTimesheetIds.forEach(id -> items.add(new InvoiceItemUpdateRequest(null, id, ISSUE_DATE, "Added",
+                2.0, BigDecimal.valueOf(60), 30.0)));
+        statistics.clear();
+
+        // when
+        InvoiceDto updated = invoiceService.updateInvoice(invoice.id(),
+                new InvoiceUpdateRequest(client.getId(), ISSUE_DATE, invoice.invoiceNumber(), items));
+        long statements = statistics.getPrepareStatementCount();
+
+        // then - kept items keep their ids; one statement per kind of write
+        assertThat(updated.itemsList()).hasSize(ITEMS).allMatch(item -> item.id() != null);
+        assertThat(updated.totalAmount()).isEqualByComparingTo(BigDecimal.valueOf(60L * ITEMS));
+        assertThat(updated.itemsList().subList(0, 20)).extracting(InvoiceItemDto::id)
+                .containsExactlyElementsOf(invoice.itemsList().subList(10, ITEMS).stream().map(InvoiceItemDto::id).toList());
+        // invoice + items, client, 3 item batches, invoice UPDATE, detach, attach, rollup (2) + id block
+        assertThat(statements).isLessThanOrEqualTo(13);
+
+        entityManager.clear();
+        assertThat(timesheetRepository.findAllById(timesheetIds.subList(0, 10)))
+                .allMatch(timesheet -> !timesheet.isInvoiced() && timesheet.getInvoice() == null);
+        assertThat(timesheetRepository.findAllById(Stream.concat(timesheetIds.stream().skip(10), newTimesheetIds.stream()).toList()))
+                .hasSize(ITEMS)
+                .allMatch(timesheet -> timesheet.isInvoiced() && timesheet.getInvoice().getId().equals(invoice.id()));
+        assertThat(invoiceRepository.findById(invoice.id()).orElseThrow().getItemsList()).hasSize(ITEMS);
+    }
+
+    @Test
+    void shouldRejectUnknownTimesheet_onUpdate() {
+        // given
+        InvoiceDto invoice = createInvoice(persistTimesheets(2));
+        List<InvoiceItemUpdateRequest> items = List.of(
+                new InvoiceItemUpdateRequest(null, Long.MAX_VALUE, ISSUE_DATE, "Unknown", 1.0, BigDecimal.TEN, 10.0));
+
+        // when / then
+        assertThatThrownBy(() -> invoiceService.updateInvoice(invoice.id(),
+                new InvoiceUpdateRequest(client.getId(), ISSUE_DATE, invoice.invoiceNumber(), items)))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Timesheet not found: " + Long.MAX_VALUE);
+    }
+
+    @Test
+    void shouldDeleteInvoices_withBulkStatements() {
+        // given - two invoices of the same revenue bucket
+        List<Long> firstTimesheets = persistTimesheets(ITEMS);
+        List<Long> secondTimesheets = persistTimesheets(ITEMS);
+        InvoiceDto first = createInvoice(firstTimesheets, 1);
+        InvoiceDto second = createInvoice(secondTimesheets, 2);
+        statistics.clear();
+
+        // when
+        int deleted = invoiceService.deleteInvoices(List.of(first.id(), second.id()), false);
+        long statements = statistics.getPrepareStatementCount();
+
+        // then - targets, tombstones, detach, items, tracking, invoices, rollup (2)
+        assertThat(deleted).isEqualTo(2);
+        assertThat(statements).isEqualTo(8);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        entityManager.clear();
+        assertThat(invoiceRepository.findAllById(List.of(first.id(), second.id()))).isEmpty();
+        assertThat(timesheetRepository.findAllById(Stream.concat(firstTimesheets.stream(), secondTimesheets.stream()).toList()))
+                .hasSize(2 * ITEMS)
+                .allMatch(timesheet -> !timesheet.isInvoiced() && timesheet.getInvoice() == null
+                        && timesheet.getInvoiceNumber() == null);
+        assertThat(revenueRollupRepository.findAll()).isEmpty();
+        assertThat(changeTombstoneRepository.findAll())
+                .extracting(ChangeTombstone::getResource, ChangeTombstone::getRecordId)
+                .containsExactlyInAnyOrder(tuple("invoices", first.id()), tuple("invoices", second.id()));
+    }
+
+    @Test
+    void shouldDeleteTimesheets_withInvoice() {
+        // given
+        List<Long> timesheetIds = persistTimesheets(5);
+        InvoiceDto invoice = createInvoice(timesheetIds);
+
+        // when
+        invoiceService.deleteInvoice(invoice.id(), true, false);
+
+        // then
+        entityManager.clear();
+        assertThat(timesheetRepository.findAllById(timesheetIds)).isEmpty();
+        assertThat(invoiceRepository.findById(invoice.id())).isEmpty();
+        assertThat(changeTombstoneRepository.findAll()).filteredOn(tombstone -> tombstone.getResource().equals("timesheets"))
+                .extracting(ChangeTombstone::getRecordId)
+                .containsExactlyInAnyOrderElementsOf(timesheetIds);
+    }
+
+    @Test
+    void shouldDeleteNothing_whenAnyInvoiceMissing() {
+        // given
+        InvoiceDto invoice = createInvoice(persistTimesheets(2));
+
+        // when / then
+        assertThatThrownBy(() -> invoiceService.deleteInvoices(List.of(invoice.id(), Long.MAX_VALUE), false))
+                .isInstanceOf(EntityNotFoundException.class);
+        entityManager.clear();
+        assertThat(invoiceRepository.findById(invoice.id())).isPresent();
+    }
+
+    private InvoiceDto createInvoice(List<Long> timesheetIds) {
+        return createInvoice(timesheetIds, 1);
+    }
+
+    private InvoiceDto createInvoice(List<Long> timesheetIds, int sequence) {
+        stubNextNumber(sequence);
+        InvoiceDto invoice = creationService.createInvoice(client.getId(), seller.getId(), ISSUE_DATE, timesheetIds);
+        entityManager.flush();
+        entityManager.clear();
+        return invoice;
+    }
+
+    private void stubNextNumber(int sequence) {
+        when(invoiceNumberGenerator.generateInvoiceNumber(seller.getId(), ISSUE_DATE, null))
+                .thenReturn(new GeneratedInvoiceNumber(sequence, 2025, 3, String.format("%03d-03-2025", sequence), null));
+    }
+
+    private List<Long> persistTimesheets(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Timesheet timesheet = new Timesheet();
+            timesheet.setClient(client);
+            timesheet.setServiceDate(ISSUE_DATE.minusDays(i));
+            timesheet.setDuration(2.0);
+            timesheet.setHourlyRate(25.0);
+            ids.add(entityManager.persist(timesheet).getId());
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private Client persistClient() {
+        Client client = new Client();
+        client.setClientName("Client");
+        client.setHourlyRate(25.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail("client@test.com");
+        client.setActive(true);
+        return entityManager.persist(client);
+    }
+
+    private Seller persistSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return entityManager.persist(seller);
+    }
+}
@@ -158,4 +158,20 @@ class PeriodKeyFactoryTest {
             .as("Must match V27 backfill SQL format for NEVER")
             .isEqualTo("NEVER");
     }
+
+    // ----- Parse (inverse of build) -----
+
+    @Test
+    void shouldParsePeriodKeyBackIntoComponents() {
+        assertThat(factory.parse(ResetPeriod.MONTHLY, "2026-02")).isEqualTo(new PeriodComponents(2026, 2));
+        assertThat(factory.parse(ResetPeriod.YEARLY, "2026")).isEqualTo(new PeriodComponents(2026, 0));
+        assertThat(factory.parse(ResetPeriod.NEVER, "NEVER")).isEqualTo(new PeriodComponents(0, 0));
+    }
+
+    @Test
+    void shouldRoundTripBuildAndParse_forMonthly() {
+        String periodKey = factory.build(ResetPeriod.MONTHLY, 2025, 12);
+
+        assertThat(factory.parse(ResetPeriod.MONTHLY, periodKey)).isEqualTo(new PeriodComponents(2025, 12));
+    }
 }
@@ -0,0 +1,66 @@
+package dev.robgro.timesheet.invoice;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Micro-benchmark: former regex + String.format + replace chain vs compiled template program.
+ *
+ * <p>Workload mirrors monthly generation: the default scheme template rendered for
+ * consecutive sequence numbers of one period.
+ *
+ * <p><b>Status: DISABLED - timing-sensitive, prints results only</b>
+ * Not a pass/fail test; equivalence is asserted in TemplateParserTest.
+ *
+ * <p><b>To run:</b> Remove @Disabled and run
+ * {@code mvn test -Dtest=TemplateParserBenchmarkTest}
+ */
+@Disabled("Benchmark - enable manually")
+class TemplateParserBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final int NUMBERS = 200_000;
+    private static final String TEMPLATE = "{SEQ:3}-{MM}-{YYYY}";
+
+    @Test
+    void compareRenderThroughput() {
+        TemplateParser parser = new TemplateParser();
+        TemplateContext[] contexts = new TemplateContext[NUMBERS];
+        for (int i = 0; i < NUMBERS; i++) {
+            contexts[i] = TemplateContext.builder().sequenceNumber(i + 1).year(2026).month(2).build();
+        }
+
+        report("legacy (regex + format + replace)", contexts,
+                context -> TemplateParserTest.legacyApply(TEMPLATE, context).length());
+        report("compiled program (char[])", contexts,
+                context -> parser.apply(TEMPLATE, context).length());
+    }
+
+    private static void report(String name, TemplateContext[] contexts, ToIntFunction<TemplateContext> render) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += run(contexts, render);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            sink += run(contexts, render);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%-36s %8.1f ns/number (best of %d, sink=%d)%n",
+                name, (double) best / contexts.length, MEASURED_ITERATIONS, sink);
+    }
+
+    private static long run(TemplateContext[] contexts, ToIntFunction<TemplateContext> render) {
+        long length = 0;
+        for (TemplateContext context : contexts) {
+            length += render.applyAsInt(context);
+        }
+        return length;
+    }
+}
@@ -1,9 +1,14 @@
 package dev.robgro.timesheet.invoice;
 
 import dev.robgro.timesheet.exception.ValidationException;
+import dev.robgro.timesheet.seller.Seller;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -186,4 +191,181 @@ class TemplateParserTest {
         assertThatThrownBy(() -> templateParser.apply("{SEQ:3}", null))
             .isInstanceOf(ValidationException.class);
     }
+
+    // ----- Compiled templates -----
+
+    static final List<String> TEMPLATES = List.of(
+        "{SEQ:3}-{MM}-{YYYY}",
+        "{SEQ:3}-{YYYY}",
+        "FV/{SEQ:3}/{YYYY}",
+        "INV-{SEQ:4}",
+        "{SEQ:1}/{M}/{YY}",
+        "{SEQ:10}",
+        "{DEPT}-{SEQ:3}-{MM}-{YYYY}",
+        "{SEQ:3}-{DEPT}-{YYYY}",
+        "{SEQ:3}-{DEPT}",
+        "{DEPT}{SEQ:3}",
+        "{DEPT}-{DEPT}-{SEQ:2}",
+        "{SEQ:2}-{DEPT}-{DEPT}-",
+        "{SEQ:2}--{DEPT}{DEPT}",
+        "{DEPT_NAME} {SEQ:3}/{MM}",
+        "-{DEPT_NAME}-{SEQ:3}-{DEPT}-",
+        "{SEQ:2}-{SEQ:5}",
+        "{SEQ:3}-{MM}-{YYYY}-{M}-{YY}",
+        "A{SEQ:4}{YYYY}{MM}Z"
+    );
+
+    @Test
+    void shouldMatchLegacyReplaceChain_forAllTemplatesAndContexts() {
+        // given
+        Department department = Department.create(new Seller(), "DUT", "Dutch Office");
+        int[] sequences = {0, 1, 9, 42, 999, 1000, 123456, Integer.MAX_VALUE};
+        int[] years = {2005, 2026, 10000};
+        int[] months = {1, 9, 10, 12};
+
+        // when / then
+        for (String template : TEMPLATES) {
+            for (int sequence : sequences) {
+                for (int year : years) {
+                    for (int month : months) {
+                        for (Department dept : new Department[]{null, department}) {
+                            TemplateContext context = TemplateContext.builder()
+                                .sequenceNumber(sequence)
+                                .year(year)
+                                .month(month)
+                                .department(dept)
+                                .build();
+                            assertThat(templateParser.apply(template, context))
+                                .as("%s seq=%d year=%d month=%d dept=%s", template, sequence, year, month, dept != null)
+                                .isEqualTo(legacyApply(template, context));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldRemoveDepartmentTokensWithAdjacentDash_whenNoDepartment() {
+        // given
+        TemplateContext context = TemplateContext.builder().sequenceNumber(7).year(2026).month(2).build();
+
+        // when / then
+        assertThat(templateParser.apply("{DEPT}-{SEQ:3}-{MM}-{YYYY}", context)).isEqualTo("007-02-2026");
+        assertThat(templateParser.apply("{SEQ:3}-{DEPT}-{YYYY}", context)).isEqualTo("007-2026");
+        assertThat(templateParser.apply("{DEPT}-{DEPT}-{SEQ:2}", context)).isEqualTo("07");
+    }
+
+    @Test
+    void shouldCompileTemplateOnce() {
+        // given
+        TemplateContext context = TemplateContext.builder().sequenceNumber(1).year(2026).month(2).build();
+
+        // when
+        templateParser.apply("{SEQ:3}-{MM}-{YYYY}", context);
+        templateParser.apply("{SEQ:3}-{MM}-{YYYY}", context);
+        templateParser.apply("INV-{SEQ:4}", context);
+
+        // then
+        assertThat(templateParser.cachedTemplates()).isEqualTo(2);
+        assertThat(templateParser.compile("INV-{SEQ:4}")).isSameAs(templateParser.compile("INV-{SEQ:4}"));
+    }
+
+    @Test
+    void shouldRejectApplyWithoutSeqToken() {
+        // given
+        TemplateContext context = TemplateContext.builder().sequenceNumber(1).year(2026).month(2).build();
+
+        // when / then
+        assertThatThrownBy(() -> templateParser.apply("{YYYY}-{MM}", context))
+            .isInstanceOf(ValidationException.class)
+            .hasMessageContaining("must contain {SEQ:N}");
+    }
+
+    @Test
+    void shouldRejectUnknownTokens() {
+        // when / then
+        assertThatThrownBy(() -> templateParser.validateTemplate("{SEQ:3}-{DD}"))
+            .isInstanceOf(ValidationException.class)
+            .hasMessageContaining("invalid tokens");
+        assertThatThrownBy(() -> templateParser.validateTemplate("{SEQ:3}-{YYYY"))
+            .isInstanceOf(ValidationException.class)
+            .hasMessageContaining("invalid tokens");
+    }
+
+    @Test
+    void shouldValidateSameTemplatesAsLegacyParser() {
+        // given
+        List<String> candidates = List.of(
+            "{SEQ:3}", "{SEQ:3}-{DEPT_NAME}", "{SEQ:03}", "{SEQ:11}", "{SEQ:}", "{SEQ:3}}",
+            "{{SEQ:3}", "{SEQ:3}{SEQ:0}", "{seq:3}", "SEQ:3", "{SEQ:3}-{MMM}", "{SEQ:3}-{M}{M}"
+        );
+
+        // when / then
+        for (String template : TEMPLATES) {
+            assertThat(validationError(template)).as(template).isNull();
+        }
+        for (String template : candidates) {
+            assertThat(validationError(template)).as(template).isEqualTo(legacyValidationError(template));
+        }
+    }
+
+    private String validationError(String template) {
+        try {
+            templateParser.validateTemplate(template);
+            return null;
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+    }
+
+    // ----- Former regex/replace implementation (reference) -----
+
+    private static final Pattern SEQ_PATTERN = Pattern.compile("\\{SEQ:(\\d+)}");
+
+    /**
+     * Former TemplateParser.apply (reference implementation)
+     */
+    static String legacyApply(String template, TemplateContext context) {
+        Matcher matcher = SEQ_PATTERN.matcher(template);
+        matcher.find();
+        int padding = Integer.parseInt(matcher.group(1));
+        String result = matcher.replaceAll(String.format("%0" + padding + "d", context.getSequenceNumber()));
+
+        result = result.replace("{YYYY}", String.valueOf(context.getYear()));
+        result = result.replace("{YY}", String.valueOf(context.getYear() % 100));
+        result = result.replace("{MM}", String.format("%02d", context.getMonth()));
+        result = result.replace("{M}", String.valueOf(context.getMonth()));
+
+        if (context.getDepartment() != null) {
+            result = result.replace("{DEPT}", context.getDepartment().getCode());
+            result = result.replace("{DEPT_NAME}", context.getDepartment().getName());
+        } else {
+            result = result.replace("-{DEPT}", "");
+            result = result.replace("{DEPT}-", "");
+            result = result.replace("{DEPT}", "");
+            result = result.replace("{DEPT_NAME}", "");
+        }
+        return result;
+    }
+
+    /**
+     * Former TemplateParser.validateTemplate (reference implementation), returns error message or null
+     */
+    private static String legacyValidationError(String template) {
+        Matcher matcher = SEQ_PATTERN.matcher(template);
+        if (!matcher.find()) {
+            return "Template must contain {SEQ:N} token (e.g., {SEQ:3})";
+        }
+        int padding = Integer.parseInt(matcher.group(1));
+        if (padding < 1 || padding > 10) {
+            return "Sequence padding must be between 1 and 10";
+        }
+        String testTemplate = matcher.replaceAll("SEQ")
+            .replaceAll("\\{(YYYY|YY|MM|M|DEPT|DEPT_NAME)}", "");
+        if (testTemplate.contains("{") || testTemplate.contains("}")) {
+            return "Template contains invalid tokens. Valid: {SEQ:N}, {YYYY}, {YY}, {MM}, {M}, {DEPT}, {DEPT_NAME}";
+        }
+        return null;
+    }
 }
@@ -0,0 +1,138 @@
+package dev.robgro.timesheet.retention;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionPurgeServiceTest {
+
+    @Mock
+    private RetentionPurgeTransactionalWorker worker;
+
+    private RetentionProperties properties;
+
+    private RetentionPurgeService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetentionProperties();
+        properties.setChunkSize(2);
+        properties.setPauseBetweenChunksMs(0);
+        service = new RetentionPurgeService(worker, properties);
+    }
+
+    @Test
+    void shouldDeleteInKeysetOrderedChunks_untilChunkIsNotFull() {
+        // given - 2 full chunks, then a partial one
+        when(worker.purgeTrackingChunk(any(LocalDateTime.class), eq(0L), eq(2)))
+            .thenReturn(new RetentionChunk(2, 11L, true));
+        when(worker.purgeTrackingChunk(any(LocalDateTime.class), eq(11L), eq(2)))
+            .thenReturn(new RetentionChunk(2, 15L, true));
+        when(worker.purgeTrackingChunk(any(LocalDateTime.class), eq(15L), eq(2)))
+            .thenReturn(new RetentionChunk(1, 20L, false));
+
+        // when
+        RetentionPurgeReport report = service.purgeEmailTracking();
+
+        // then
+        assertThat(report.target()).isEqualTo("email_tracking");
+        assertThat(report.rowsDeleted()).isEqualTo(5);
+        assertThat(report.chunks()).isEqualTo(3);
+        assertThat(report.completed()).isTrue();
+        verify(worker, times(3)).purgeTrackingChunk(any(LocalDateTime.class), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldReportZeroRows_whenNothingToDelete() {
+        // given
+        when(worker.purgePasswordResetTokenChunk(any(LocalDateTime.class), eq(0L), eq(2)))
+            .thenReturn(RetentionChunk.EMPTY);
+
+        // when
+        RetentionPurgeReport report = service.purgePasswordResetTokens();
+
+        // then
+        assertThat(report.target()).isEqualTo("password_reset_tokens");
+        assertThat(report.rowsDeleted()).isZero();
+        assertThat(report.chunks()).isZero();
+        assertThat(report.completed()).isTrue();
+    }
+
+    @Test
+    void shouldUseConfiguredRetentionPeriods_forCutoff() {
+        // given
+        properties.setTrackingRetentionMonths(12);
+        properties.setPasswordResetTokenRetentionDays(7);
+        properties.setTombstoneRetentionDays(90);
+        when(worker.purgeTrackingChunk(any(LocalDateTime.class), anyLong(), anyInt())).thenReturn(RetentionChunk.EMPTY);
+        when(worker.purgePasswordResetTokenChunk(any(LocalDateTime.class), anyLong(), anyInt())).thenReturn(RetentionChunk.EMPTY);
+        when(worker.purgeChangeTombstoneChunk(any(LocalDateTime.class), anyLong(), anyInt())).thenReturn(RetentionChunk.EMPTY);
+
+        // when
+        RetentionPurgeReport tracking = service.purgeEmailTracking();
+        RetentionPurgeReport tokens = service.purgePasswordResetTokens();
+        RetentionPurgeReport tombstones = service.purgeChangeTombstones();
+
+        // then
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(tracking.cutoff()).isBetween(now.minusMonths(12).minusSeconds(5), now.minusMonths(12));
+        assertThat(tokens.cutoff()).isBetween(now.minusDays(7).minusSeconds(5), now.minusDays(7));
+        assertThat(tombstones.cutoff()).isBetween(now.minusDays(90).minusSeconds(5), now.minusDays(90));
+    }
+
+    @Test
+    void shouldKeepRowsDeletedSoFar_andContinueWithNextTarget_whenChunkFails() {
+        // given - first chunk succeeds, second fails
+        when(worker.purgeTrackingChunk(any(LocalDateTime.class), eq(0L), eq(2)))
+            .thenReturn(new RetentionChunk(2, 7L, true));
+        when(worker.purgeTrackingChunk(any(LocalDateTime.class), eq(7L), eq(2)))
+            .thenThrow(new RuntimeException("Lock wait timeout"));
+        when(worker.purgePasswordResetTokenChunk(any(LocalDateTime.class), eq(0L), eq(2)))
+            .thenReturn(new RetentionChunk(1, 3L, false));
+        when(worker.purgeChangeTombstoneChunk(any(LocalDateTime.class), eq(0L), eq(2)))
+            .thenReturn(RetentionChunk.EMPTY);
+
+        // when
+        List<RetentionPurgeReport> reports = service.purgeAll();
+
+        // then
+        assertThat(reports).hasSize(3);
+        assertThat(reports.get(0).rowsDeleted()).isEqualTo(2);
+        assertThat(reports.get(0).completed()).isFalse();
+        assertThat(reports.get(1).rowsDeleted()).isEqualTo(1);
+        assertThat(reports.get(1).completed()).isTrue();
+    }
+
+    @Test
+    void shouldExposeLastReportPerTarget() {
+        // given
+        when(worker.purgeTrackingChunk(any(LocalDateTime.class), anyLong(), anyInt()))
+            .thenReturn(new RetentionChunk(1, 1L, false));
+        when(worker.purgePasswordResetTokenChunk(any(LocalDateTime.class), anyLong(), anyInt()))
+            .thenReturn(RetentionChunk.EMPTY);
+        when(worker.purgeChangeTombstoneChunk(any(LocalDateTime.class), anyLong(), anyInt()))
+            .thenReturn(RetentionChunk.EMPTY);
+
+        // when
+        assertThat(service.getLastReports()).isEmpty();
+        service.purgeAll();
+
+        // then
+        assertThat(service.getLastReports())
+            .extracting(RetentionPurgeReport::target)
+            .containsExactly("change_tombstones", "email_tracking", "password_reset_tokens");
+    }
+}
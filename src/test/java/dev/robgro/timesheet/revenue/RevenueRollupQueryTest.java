@@ -0,0 +1,190 @@
+package dev.robgro.timesheet.revenue;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.exception.ValidationException;
+import dev.robgro.timesheet.invoice.Invoice;
+import dev.robgro.timesheet.invoice.InvoiceItem;
+import dev.robgro.timesheet.seller.Seller;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Set-based maintenance of revenue_rollup: bucket refresh, full rebuild and reads.
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create. The table comes from {@link RevenueRollup},
+ * which mirrors V36. No Docker required.
+ */
+@DataJpaTest
+class RevenueRollupQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    private RevenueRollupService service;
+    private Client client;
+    private Seller seller;
+
+    @BeforeEach
+    void setUp() {
+        service = new RevenueRollupService(revenueRollupRepository);
+        client = persistClient();
+        seller = persistSeller();
+    }
+
+    @Test
+    void shouldRollUpCountTotalHoursAndPaidAmount_perMonth() {
+        // given - two March invoices (one item paid), one April invoice
+        persistInvoice(LocalDate.of(2025, 3, 5), 1, LocalDate.of(2025, 3, 20), null);
+        persistInvoice(LocalDate.of(2025, 3, 25), 2, null, null);
+        persistInvoice(LocalDate.of(2025, 4, 2), 3, null, null);
+
+        // when
+        int buckets = service.rebuild();
+        List<RevenueRollupDto> rows = service.getMonthlyRevenue(client.getId(), 2025, 2025);
+
+        // then - 2 items of 2h / 50.00 per invoice
+        assertThat(buckets).isEqualTo(2);
+        assertThat(rows).extracting(RevenueRollupDto::month).containsExactly(3, 4);
+        RevenueRollupDto march = rows.get(0);
+        assertThat(march.invoiceCount()).isEqualTo(2);
+        assertThat(march.totalAmount()).isEqualByComparingTo("200.00");
+        assertThat(march.billedHours()).isEqualByComparingTo("8.00");
+        assertThat(march.paidAmount()).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    void shouldRecomputeOnlyTouchedBucket_onRefresh() {
+        // given
+        Invoice invoice = persistInvoice(LocalDate.of(2025, 3, 5), 1, null, null);
+        persistInvoice(LocalDate.of(2025, 4, 5), 2, null, null);
+        service.rebuild();
+
+        // when - invoice moves to May; pending entity change is flushed by the refresh
+        RevenueBucket previous = RevenueBucket.of(invoice);
+        invoice.setIssueDate(LocalDate.of(2025, 5, 5));
+        service.refresh(previous, RevenueBucket.of(invoice));
+        entityManager.clear();
+
+        // then - March emptied (row removed), May created, April untouched
+        assertThat(service.getMonthlyRevenue(null, 2025, 2025))
+                .extracting(RevenueRollupDto::month).containsExactly(4, 5);
+    }
+
+    @Test
+    void shouldSkipNullAndDuplicateBuckets() {
+        // given
+        Invoice invoice = persistInvoice(LocalDate.of(2025, 6, 1), 1, null, null);
+
+        // when
+        service.refresh(RevenueBucket.of(invoice), null, RevenueBucket.of(invoice));
+        entityManager.clear();
+
+        // then
+        assertThat(revenueRollupRepository.findAll()).singleElement()
+                .satisfies(row -> assertThat(row.getInvoiceCount()).isEqualTo(1));
+    }
+
+    @Test
+    void shouldReflectPaymentDate_afterRefresh() {
+        // given
+        Timesheet[] timesheets = new Timesheet[2];
+        Invoice invoice = persistInvoice(LocalDate.of(2025, 7, 1), 1, null, timesheets);
+        service.rebuild();
+
+        // when
+        timesheets[0].setPaymentDate(LocalDate.of(2025, 7, 15));
+        timesheets[1].setPaymentDate(LocalDate.of(2025, 7, 16));
+        service.refresh(RevenueBucket.of(invoice));
+        entityManager.clear();
+
+        // then
+        assertThat(service.getMonthlyRevenue(client.getId(), 2025, 2025)).singleElement()
+                .satisfies(row -> assertThat(row.paidAmount()).isEqualByComparingTo("100.00"));
+    }
+
+    @Test
+    void shouldRejectInvertedYearRange() {
+        assertThatThrownBy(() -> service.getMonthlyRevenue(null, 2026, 2025))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private Client persistClient() {
+        Client client = new Client();
+        client.setClientName("Client");
+        client.setHourlyRate(25.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail("client@test.com");
+        client.setActive(true);
+        return entityManager.persist(client);
+    }
+
+    private Seller persistSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return entityManager.persist(seller);
+    }
+
+    /**
+     * Invoice with 2 items (2h, 50.00), each backed by a timesheet. The first timesheet gets
+     * {@code firstPaymentDate}; created timesheets are returned in {@code timesheetsOut} if given.
+     */
+    private Invoice persistInvoice(LocalDate issueDate, int sequence, LocalDate firstPaymentDate,
+                                   Timesheet[] timesheetsOut) {
+        Invoice invoice = new Invoice();
+        invoice.setClient(client);
+        invoice.setSeller(seller);
+        invoice.setIssueDate(issueDate);
+        invoice.setTotalAmount(BigDecimal.valueOf(100));
+        String display = String.format("%03d-%02d-%d", sequence, issueDate.getMonthValue(), issueDate.getYear());
+        invoice.setInvoiceNumberComponents(sequence, issueDate.getYear(), issueDate.getMonthValue(), display, null);
+        entityManager.persist(invoice);
+
+        for (int i = 0; i < 2; i++) {
+            Timesheet timesheet = new Timesheet();
+            timesheet.setClient(client);
+            timesheet.setServiceDate(issueDate);
+            timesheet.setDuration(2.0);
+            timesheet.setHourlyRate(25.0);
+            timesheet.setInvoiced(true);
+            timesheet.setInvoice(invoice);
+            timesheet.setPaymentDate(i == 0 ? firstPaymentDate : null);
+            entityManager.persist(timesheet);
+            if (timesheetsOut != null) {
+                timesheetsOut[i] = timesheet;
+            }
+
+            InvoiceItem item = new InvoiceItem();
+            item.setInvoice(invoice);
+            item.setServiceDate(issueDate);
+            item.setDuration(2.0);
+            item.setHourlyRate(25.0);
+            item.setAmount(BigDecimal.valueOf(50));
+            item.setTimesheetId(timesheet.getId());
+            invoice.getItemsList().add(item);
+        }
+        entityManager.flush();
+        return invoice;
+    }
+}
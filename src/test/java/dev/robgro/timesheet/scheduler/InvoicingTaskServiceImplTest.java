@@ -6,6 +6,7 @@ import dev.robgro.timesheet.config.InvoicingSchedulerProperties;
 import dev.robgro.timesheet.invoice.BillingService;
 import dev.robgro.timesheet.invoice.InvoiceDto;
 import dev.robgro.timesheet.invoice.InvoiceService;
+import dev.robgro.timesheet.invoice.MonthlyBillingResult;
 import dev.robgro.timesheet.invoice.PrintMode;
 import dev.robgro.timesheet.timesheet.TimesheetDto;
 import dev.robgro.timesheet.timesheet.TimesheetService;
@@ -144,7 +145,7 @@ class InvoicingTaskServiceImplTest {
         void serviceShouldCalculatePreviousMonthCorrectly() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(Collections.emptyList());
+                    .thenReturn(MonthlyBillingResult.empty());
             when(clientService.getAllClients()).thenReturn(Collections.emptyList());
 
             // when
@@ -172,7 +173,7 @@ class InvoicingTaskServiceImplTest {
         void shouldSuccessfullyGenerateAndProcessInvoices() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(List.of(testInvoice));
+                    .thenReturn(new MonthlyBillingResult(List.of(testInvoice), List.of()));
             when(clientService.getAllClients()).thenReturn(Collections.emptyList());
             doNothing().when(invoiceService).savePdfAndSendInvoice(anyLong(), any());
 
@@ -193,7 +194,7 @@ class InvoicingTaskServiceImplTest {
         void shouldHandleInvoiceProcessingFailure() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(List.of(testInvoice));
+                    .thenReturn(new MonthlyBillingResult(List.of(testInvoice), List.of()));
             when(clientService.getAllClients()).thenReturn(Collections.emptyList());
 
             doThrow(new RuntimeException("PDF generation failed"))
@@ -214,12 +215,37 @@ class InvoicingTaskServiceImplTest {
             );
         }
 
+        @Test
+        @DisplayName("Should report clients whose invoice could not be created")
+        void shouldReportClientsWhoseInvoiceCreationFailed() {
+            // given
+            MonthlyBillingResult.ClientFailure failure = new MonthlyBillingResult.ClientFailure(
+                    2L, "Failed Client", new IllegalStateException("Counter lock timeout"));
+            when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
+                    .thenReturn(new MonthlyBillingResult(List.of(testInvoice), List.of(failure)));
+            when(clientService.getAllClients()).thenReturn(Collections.emptyList());
+
+            // when
+            InvoicingSummary summary = invoicingTaskService.executeMonthlyInvoicing();
+
+            // then
+            assertThat(summary.totalInvoices()).isEqualTo(2);
+            assertThat(summary.successfulInvoices()).isEqualTo(1);
+            assertThat(summary.failedInvoices()).isEqualTo(1);
+
+            verify(notificationService).sendErrorNotification(
+                    contains("Failed Client"),
+                    contains("Counter lock timeout"),
+                    eq(failure.exception())
+            );
+        }
+
         @Test
         @DisplayName("Should handle no invoices to generate")
         void shouldHandleNoInvoicesToGenerate() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(Collections.emptyList());
+                    .thenReturn(MonthlyBillingResult.empty());
             when(clientService.getAllClients()).thenReturn(Collections.emptyList());
 
             // when
@@ -247,7 +273,7 @@ class InvoicingTaskServiceImplTest {
             );
 
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(Collections.emptyList());
+                    .thenReturn(MonthlyBillingResult.empty());
             when(clientService.getAllClients())
                     .thenReturn(List.of(activeClient, clientWithoutTimesheets));
 
@@ -285,7 +311,7 @@ class InvoicingTaskServiceImplTest {
             );
 
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(Collections.emptyList());
+                    .thenReturn(MonthlyBillingResult.empty());
             when(clientService.getAllClients())
                     .thenReturn(List.of(inactiveClient));
 
@@ -309,7 +335,7 @@ class InvoicingTaskServiceImplTest {
         void shouldSendSummaryEmailWhenEnabled() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(List.of(testInvoice));
+                    .thenReturn(new MonthlyBillingResult(List.of(testInvoice), List.of()));
             when(clientService.getAllClients()).thenReturn(Collections.emptyList());
             when(properties.isSendSummaryEmail()).thenReturn(true);
 
@@ -325,7 +351,7 @@ class InvoicingTaskServiceImplTest {
         void shouldNotSendSummaryEmailWhenDisabled() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(List.of(testInvoice));
+                    .thenReturn(new MonthlyBillingResult(List.of(testInvoice), List.of()));
             when(clientService.getAllClients()).thenReturn(Collections.emptyList());
             when(properties.isSendSummaryEmail()).thenReturn(false);
 
@@ -341,7 +367,7 @@ class InvoicingTaskServiceImplTest {
         void shouldSendEmptyClientWarningWhenEnabledAndClientsFound() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(Collections.emptyList());
+                    .thenReturn(MonthlyBillingResult.empty());
             when(clientService.getAllClients()).thenReturn(List.of(activeClient));
             when(timesheetService.getMonthlyTimesheets(anyLong(), anyInt(), anyInt()))
                     .thenReturn(Collections.emptyList());
@@ -364,7 +390,7 @@ class InvoicingTaskServiceImplTest {
         void shouldBuildCorrectSummaryWithExecutionDetails() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(List.of(testInvoice));
+                    .thenReturn(new MonthlyBillingResult(List.of(testInvoice), List.of()));
             when(clientService.getAllClients()).thenReturn(Collections.emptyList());
 
             // when
@@ -382,7 +408,7 @@ class InvoicingTaskServiceImplTest {
         void summaryShouldContainCorrectPreviousMonthCalculation() {
             // given
             when(billingService.generateMonthlyInvoices(anyInt(), anyInt()))
-                    .thenReturn(Collections.emptyList());
+                    .thenReturn(MonthlyBillingResult.empty());
             when(clientService.getAllClients()).thenReturn(Collections.emptyList());
 
             // when
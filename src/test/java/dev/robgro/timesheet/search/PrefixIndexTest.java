@@ -0,0 +1,75 @@
+package dev.robgro.timesheet.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    private PrefixIndex<Doc> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex<>(Doc::id, Doc::version, doc -> List.of(doc.name().split(" ")));
+        index.replaceAll(List.of(new Doc(1, "Acme Ltd"), new Doc(2, "Beta Acme"), new Doc(3, "Gamma")));
+    }
+
+    @Test
+    void shouldMatchPrefixOfAnyKey_caseInsensitive_eachDocumentOnce() {
+        // when
+        List<Doc> acme = index.search("  ACM ", 10, doc -> true);
+        List<Doc> none = index.search("cme", 10, doc -> true);
+
+        // then
+        assertThat(acme).extracting(Doc::id).containsExactly(1L, 2L);
+        assertThat(none).isEmpty();
+        assertThat(index.search("", 10, doc -> true)).isEmpty();
+    }
+
+    @Test
+    void shouldStopAtLimit_countingOnlyDocumentsPassingFilter() {
+        // given
+        index.apply(List.of(new Doc(4, "Acorn"), new Doc(5, "Ace")), List.of());
+
+        // when
+        List<Doc> top2 = index.search("ac", 2, doc -> doc.id() != 5);
+
+        // then - keys in order: ace(5, filtered), acme(1), acme(2), acorn(4)
+        assertThat(top2).extracting(Doc::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldReplaceKeysOfUpdatedDocument_andDropRemovedOnes() {
+        // when
+        index.apply(List.of(new Doc(1, "Zeta Ltd")), List.of(3L, 99L));
+
+        // then
+        assertThat(index.search("acme", 10, doc -> true)).extracting(Doc::id).containsExactly(2L);
+        assertThat(index.search("z", 10, doc -> true)).extracting(Doc::name).containsExactly("Zeta Ltd");
+        assertThat(index.search("gamma", 10, doc -> true)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldIgnoreUpsert_olderThanIndexedDocument() {
+        // given - version 2 applied before the version 1 it replaced
+        index.apply(List.of(new Doc(1, "Zeta Ltd", 2)), List.of());
+
+        // when
+        index.apply(List.of(new Doc(1, "Acme Ltd", 1)), List.of());
+
+        // then
+        assertThat(index.get(1)).isEqualTo(new Doc(1, "Zeta Ltd", 2));
+        assertThat(index.search("acme", 10, doc -> true)).extracting(Doc::id).containsExactly(2L);
+    }
+
+    private record Doc(long id, String name, long version) {
+
+        Doc(long id, String name) {
+            this(id, name, 0);
+        }
+    }
+}
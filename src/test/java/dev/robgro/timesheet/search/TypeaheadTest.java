@@ -0,0 +1,217 @@
+package dev.robgro.timesheet.search;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.invoice.GeneratedInvoiceNumber;
+import dev.robgro.timesheet.invoice.InvoiceCreationService;
+import dev.robgro.timesheet.invoice.InvoiceDto;
+import dev.robgro.timesheet.invoice.InvoiceNumberGenerator;
+import dev.robgro.timesheet.invoice.InvoiceService;
+import dev.robgro.timesheet.seller.Seller;
+import dev.robgro.timesheet.seller.SellerRepository;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import dev.robgro.timesheet.timesheet.TimesheetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Typeahead kept current by committed client writes (new, renamed, deactivated, rolled back)
+ * and by invoices created and bulk deleted.
+ *
+ * <p>Invoice numbers are stubbed: numbering needs a scheme per seller and has its own tests.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class TypeaheadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TimesheetRepository timesheetRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private InvoiceCreationService invoiceCreationService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @MockBean
+    private InvoiceNumberGenerator invoiceNumberGenerator;
+
+    private Seller seller;
+    private final List<Long> invoiceIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        searchIndexService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceService.deleteInvoices(invoiceIds, true);
+        timesheetRepository.deleteAll();
+        clientRepository.deleteAll();
+        if (seller != null) {
+            sellerRepository.delete(seller);
+        }
+    }
+
+    @Test
+    void shouldSuggestClient_byNameWordAndEmail() throws Exception {
+        // given
+        Client client = clientRepository.save(newClient("Zephyr Consulting", "office@zephyr.test"));
+
+        // when / then
+        mockMvc.perform(get("/api/v1/search/typeahead").param("q", "consul"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clients[0].id").value(client.getId()))
+                .andExpect(jsonPath("$.clients[0].clientName").value("Zephyr Consulting"));
+        mockMvc.perform(get("/api/v1/search/typeahead").param("q", "OFFICE@"))
+                .andExpect(jsonPath("$.clients[0].email").value("office@zephyr.test"));
+    }
+
+    @Test
+    void shouldFollowRename_andHideDeactivatedClient() throws Exception {
+        // given
+        Client client = clientRepository.save(newClient("Zephyr", "zephyr@test.com"));
+
+        // when - renamed
+        client.setClientName("Yonder");
+        client = clientRepository.save(client);
+
+        // then
+        mockMvc.perform(get("/api/v1/search/typeahead").param("q", "yon"))
+                .andExpect(jsonPath("$.clients[0].clientName").value("Yonder"));
+        mockMvc.perform(get("/api/v1/search/typeahead").param("q", "zephyr "))
+                .andExpect(jsonPath("$.clients[0].email").value("zephyr@test.com"));
+
+        // when - deactivated
+        client.setActive(false);
+        clientRepository.save(client);
+
+        // then
+        mockMvc.perform(get("/api/v1/search/typeahead").param("q", "yon"))
+                .andExpect(jsonPath("$.clients", empty()));
+    }
+
+    @Test
+    void shouldNotIndexRolledBackWrite() throws Exception {
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            clientRepository.save(newClient("Zephyr", "zephyr@test.com"));
+            status.setRollbackOnly();
+        });
+
+        // then
+        mockMvc.perform(get("/api/v1/search/typeahead").param("q", "zeph"))
+                .andExpect(jsonPath("$.clients", empty()));
+    }
+
+    @Test
+    void shouldSuggestCreatedInvoice_byNumberAndEachNumberPart() throws Exception {
+        // given
+        InvoiceDto invoice = createInvoice("917-11-2031");
+
+        // when / then
+        for (String query : List.of("917-11-2031", "917-11", "917", "11", "2031")) {
+            mockMvc.perform(get("/api/v1/search/typeahead").param("q", query))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.invoices[0].id").value(invoice.id()))
+                    .andExpect(jsonPath("$.invoices[0].invoiceNumber").value("917-11-2031"))
+                    .andExpect(jsonPath("$.invoices[0].clientName").value("Zephyr"));
+        }
+    }
+
+    @Test
+    void shouldDropBulkDeletedInvoice() throws Exception {
+        // given
+        createInvoice("917-11-2031");
+
+        // when
+        invoiceService.deleteInvoices(invoiceIds, true);
+        invoiceIds.clear();
+
+        // then
+        mockMvc.perform(get("/api/v1/search/typeahead").param("q", "917"))
+                .andExpect(jsonPath("$.invoices", empty()));
+    }
+
+    private InvoiceDto createInvoice(String number) {
+        Client client = clientRepository.save(newClient("Zephyr", "zephyr@test.com"));
+        seller = sellerRepository.save(newSeller());
+        when(invoiceNumberGenerator.generateInvoiceNumber(anyLong(), any(), any()))
+                .thenReturn(new GeneratedInvoiceNumber(917, 2031, 11, number, null));
+        Timesheet timesheet = timesheetRepository.save(newTimesheet(client));
+        InvoiceDto invoice = invoiceCreationService.createInvoice(
+                client.getId(), seller.getId(), LocalDate.of(2031, 11, 30), List.of(timesheet.getId()));
+        invoiceIds.add(invoice.id());
+        return invoice;
+    }
+
+    private Timesheet newTimesheet(Client client) {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setClient(client);
+        timesheet.setServiceDate(LocalDate.of(2031, 11, 10));
+        timesheet.setDuration(2.0);
+        timesheet.setHourlyRate(50.0);
+        return timesheet;
+    }
+
+    private Seller newSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return seller;
+    }
+
+    private Client newClient(String name, String email) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(email);
+        client.setActive(true);
+        return client;
+    }
+}
@@ -1,12 +1,13 @@
 package dev.robgro.timesheet.service;
 
-import dev.robgro.timesheet.client.ClientService;
 import dev.robgro.timesheet.exception.BusinessRuleViolationException;
-import dev.robgro.timesheet.client.ClientDto;
 import dev.robgro.timesheet.invoice.BillingServiceImpl;
+import dev.robgro.timesheet.invoice.CounterLockRetryPolicy;
+import dev.robgro.timesheet.invoice.InvoiceCounterProperties;
 import dev.robgro.timesheet.invoice.InvoiceCreationService;
 import dev.robgro.timesheet.invoice.InvoiceDto;
 import dev.robgro.timesheet.invoice.InvoiceService;
+import dev.robgro.timesheet.invoice.MonthlyBillingResult;
 import dev.robgro.timesheet.seller.Seller;
 import dev.robgro.timesheet.seller.SellerRepository;
 import dev.robgro.timesheet.timesheet.TimesheetDto;
@@ -14,25 +15,28 @@ import dev.robgro.timesheet.timesheet.TimesheetService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class BillingServiceImplTest {
 
-    @Mock
-    private ClientService clientService;
-
     @Mock
     private InvoiceService invoiceService;
 
@@ -45,7 +49,9 @@ class BillingServiceImplTest {
     @Mock
     private SellerRepository sellerRepository;
 
-    @InjectMocks
+    @Spy
+    private CounterLockRetryPolicy counterLockRetryPolicy = new CounterLockRetryPolicy(new InvoiceCounterProperties());
+
     private BillingServiceImpl billingService;
 
     private Seller testSeller;
@@ -59,6 +65,10 @@ class BillingServiceImplTest {
 
         // Mock seller repository to return test seller (lenient for tests that don't need it)
         lenient().when(sellerRepository.findByActiveTrue()).thenReturn(List.of(testSeller));
+
+        // Per-client tasks run inline, so stubbing order is deterministic
+        billingService = new BillingServiceImpl(invoiceService, invoiceCreationService, timesheetService,
+                sellerRepository, counterLockRetryPolicy, Runnable::run);
     }
 
     // ----- Monthly Invoice Generation -----
@@ -70,110 +80,116 @@ class BillingServiceImplTest {
         int month = 1;
         LocalDate lastDayOfMonth = YearMonth.of(year, month).atEndOfMonth();
 
-        ClientDto client = new ClientDto(1L, "Client 1", 50.0, "11", "Street", "City", "12345", "email@test.com", true);
         TimesheetDto timesheet = new TimesheetDto(1L, "Client 1", LocalDate.of(2024, 1, 15), 2.0, false, 1L, 50.0, null, null, BigDecimal.valueOf(100.0));
         InvoiceDto invoice = new InvoiceDto(1L, 1L, "Client 1", 1L, "Test Seller", "INV-001", lastDayOfMonth, null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
 
-        when(clientService.getAllClients()).thenReturn(List.of(client));
-        when(timesheetService.getMonthlyTimesheets(client.id(), year, month)).thenReturn(List.of(timesheet));
-        when(invoiceCreationService.createInvoice(client.id(), testSeller.getId(), lastDayOfMonth, List.of(timesheet.id()))).thenReturn(invoice);
+        when(timesheetService.getUninvoicedTimesheetsByClient(year, month)).thenReturn(Map.of(1L, List.of(timesheet)));
+        when(invoiceCreationService.createBillingRunInvoice(1L, testSeller, lastDayOfMonth, List.of(timesheet))).thenReturn(invoice);
 
         // when
-        List<InvoiceDto> result = billingService.generateMonthlyInvoices(year, month);
+        MonthlyBillingResult result = billingService.generateMonthlyInvoices(year, month);
 
         // then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).id()).isEqualTo(invoice.id());
-        verify(clientService).getAllClients();
-        verify(timesheetService).getMonthlyTimesheets(client.id(), year, month);
-        verify(invoiceCreationService).createInvoice(client.id(), testSeller.getId(), lastDayOfMonth, List.of(timesheet.id()));
+        assertThat(result.invoices()).containsExactly(invoice);
+        verify(timesheetService).getUninvoicedTimesheetsByClient(year, month);
+        verify(timesheetService, never()).getMonthlyTimesheets(any(), anyInt(), anyInt());
     }
 
     @Test
-    void shouldFilterInvoicedTimesheetsWhenGeneratingInvoice() {
-        // given
+    void shouldResolveSellerOnce_andReturnInvoicesInClientOrder() {
+        // given - timesheets grouped in client name order (Alpha, Gamma)
         int year = 2024;
         int month = 1;
         LocalDate lastDayOfMonth = YearMonth.of(year, month).atEndOfMonth();
 
-        ClientDto client = new ClientDto(1L, "Client 1", 50.0, "1", "Street", "City", "12345", "email@test.com", true);
-        TimesheetDto invoicedTimesheet = new TimesheetDto(1L, "Client 1", LocalDate.of(2024, 1, 15), 2.0, true, 1L, 50.0, null, null, BigDecimal.valueOf(100.0));
-        TimesheetDto uninvoicedTimesheet = new TimesheetDto(2L, "Client 1", LocalDate.of(2024, 1, 16), 3.0, false, 1L, 50.0, null, null, BigDecimal.valueOf(150.0));
-        InvoiceDto invoice = new InvoiceDto(1L, 1L, "Client 1", 1L, "Test Seller", "INV-001", lastDayOfMonth, null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
+        TimesheetDto alphaTimesheet = new TimesheetDto(10L, "Alpha", LocalDate.of(2024, 1, 15), 2.0, false, 7L, 50.0, null, null, BigDecimal.valueOf(100.0));
+        TimesheetDto gammaTimesheet = new TimesheetDto(30L, "Gamma", LocalDate.of(2024, 1, 16), 1.0, false, 5L, 50.0, null, null, BigDecimal.valueOf(50.0));
+        InvoiceDto alphaInvoice = new InvoiceDto(1L, 7L, "Alpha", 1L, "Test Seller", "041-01-2024", lastDayOfMonth, null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
+        InvoiceDto gammaInvoice = new InvoiceDto(2L, 5L, "Gamma", 1L, "Test Seller", "042-01-2024", lastDayOfMonth, null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
 
-        when(clientService.getAllClients()).thenReturn(List.of(client));
-        when(timesheetService.getMonthlyTimesheets(client.id(), year, month)).thenReturn(List.of(invoicedTimesheet, uninvoicedTimesheet));
-        when(invoiceCreationService.createInvoice(client.id(), testSeller.getId(), lastDayOfMonth, List.of(uninvoicedTimesheet.id()))).thenReturn(invoice);
+        Map<Long, List<TimesheetDto>> byClient = new LinkedHashMap<>();
+        byClient.put(7L, List.of(alphaTimesheet));
+        byClient.put(5L, List.of(gammaTimesheet));
+        when(timesheetService.getUninvoicedTimesheetsByClient(year, month)).thenReturn(byClient);
+        when(invoiceCreationService.createBillingRunInvoice(7L, testSeller, lastDayOfMonth, List.of(alphaTimesheet))).thenReturn(alphaInvoice);
+        when(invoiceCreationService.createBillingRunInvoice(5L, testSeller, lastDayOfMonth, List.of(gammaTimesheet))).thenReturn(gammaInvoice);
 
         // when
-        List<InvoiceDto> result = billingService.generateMonthlyInvoices(year, month);
+        MonthlyBillingResult result = billingService.generateMonthlyInvoices(year, month);
 
-        // then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).id()).isEqualTo(invoice.id());
-        verify(invoiceCreationService).createInvoice(client.id(), testSeller.getId(), lastDayOfMonth, List.of(uninvoicedTimesheet.id()));
+        // then - one seller lookup for the whole run
+        assertThat(result.invoices()).extracting(InvoiceDto::clientName).containsExactly("Alpha", "Gamma");
+        verify(sellerRepository, times(1)).findByIsSystemDefaultTrue();
+        verify(sellerRepository, times(1)).findByActiveTrue();
     }
 
     @Test
-    void shouldNotGenerateInvoiceWhenAllTimesheetsAreInvoiced() {
-        // given
+    void shouldKeepOtherInvoices_whenOneClientFails() {
+        // given - the first client's transaction fails, the second still commits
         int year = 2024;
         int month = 1;
         LocalDate lastDayOfMonth = YearMonth.of(year, month).atEndOfMonth();
 
-        ClientDto client = new ClientDto(1L, "Client 1", 50.0, "1", "Street", "City", "12345", "email@test.com", true);
-        TimesheetDto invoicedTimesheet1 = new TimesheetDto(1L, "Client 1", LocalDate.of(2024, 1, 15), 2.0, true, 1L, 50.0, null, null, BigDecimal.valueOf(100.0));
-        TimesheetDto invoicedTimesheet2 = new TimesheetDto(2L, "Client 1", LocalDate.of(2024, 1, 16), 3.0, true, 1L, 50.0, null, null, BigDecimal.valueOf(150.0));
+        TimesheetDto badTimesheet = new TimesheetDto(10L, "Alpha", LocalDate.of(2024, 1, 15), 2.0, false, 7L, 50.0, null, null, BigDecimal.valueOf(100.0));
+        TimesheetDto goodTimesheet = new TimesheetDto(30L, "Gamma", LocalDate.of(2024, 1, 16), 1.0, false, 5L, 50.0, null, null, BigDecimal.valueOf(50.0));
+        InvoiceDto goodInvoice = new InvoiceDto(2L, 5L, "Gamma", 1L, "Test Seller", "041-01-2024", lastDayOfMonth, null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
 
-        when(clientService.getAllClients()).thenReturn(List.of(client));
-        when(timesheetService.getMonthlyTimesheets(client.id(), year, month)).thenReturn(List.of(invoicedTimesheet1, invoicedTimesheet2));
+        Map<Long, List<TimesheetDto>> byClient = new LinkedHashMap<>();
+        byClient.put(7L, List.of(badTimesheet));
+        byClient.put(5L, List.of(goodTimesheet));
+        when(timesheetService.getUninvoicedTimesheetsByClient(year, month)).thenReturn(byClient);
+        when(invoiceCreationService.createBillingRunInvoice(7L, testSeller, lastDayOfMonth, List.of(badTimesheet)))
+                .thenThrow(new BusinessRuleViolationException("Timesheets of client 7 were invoiced by another process during the billing run"));
+        when(invoiceCreationService.createBillingRunInvoice(5L, testSeller, lastDayOfMonth, List.of(goodTimesheet))).thenReturn(goodInvoice);
 
         // when
-        List<InvoiceDto> result = billingService.generateMonthlyInvoices(year, month);
-
-        // then
-        assertThat(result).isEmpty();
-        verify(timesheetService).getMonthlyTimesheets(client.id(), year, month);
-        verifyNoInteractions(invoiceCreationService);
+        MonthlyBillingResult result = billingService.generateMonthlyInvoices(year, month);
+
+        // then - the failed client is reported, not dropped
+        assertThat(result.invoices()).containsExactly(goodInvoice);
+        assertThat(result.failures()).singleElement().satisfies(failure -> {
+            assertThat(failure.clientId()).isEqualTo(7L);
+            assertThat(failure.clientName()).isEqualTo("Alpha");
+            assertThat(failure.exception()).isInstanceOf(BusinessRuleViolationException.class);
+        });
     }
 
     @Test
-    void shouldReturnEmptyListWhenNoClients() {
+    void shouldRetryBillingRunInvoice_whenCounterUpsertDeadlocks() {
         // given
         int year = 2024;
         int month = 1;
+        LocalDate lastDayOfMonth = YearMonth.of(year, month).atEndOfMonth();
 
-        when(clientService.getAllClients()).thenReturn(List.of());
+        TimesheetDto timesheet = new TimesheetDto(1L, "Client 1", LocalDate.of(2024, 1, 15), 2.0, false, 1L, 50.0, null, null, BigDecimal.valueOf(100.0));
+        InvoiceDto invoice = new InvoiceDto(1L, 1L, "Client 1", 1L, "Test Seller", "INV-001", lastDayOfMonth, null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
+
+        when(timesheetService.getUninvoicedTimesheetsByClient(year, month)).thenReturn(Map.of(1L, List.of(timesheet)));
+        when(invoiceCreationService.createBillingRunInvoice(1L, testSeller, lastDayOfMonth, List.of(timesheet)))
+                .thenThrow(new CannotAcquireLockException("deadlock",
+                        new SQLException("Deadlock found when trying to get lock", "40001", 1213)))
+                .thenReturn(invoice);
 
         // when
-        List<InvoiceDto> result = billingService.generateMonthlyInvoices(year, month);
+        MonthlyBillingResult result = billingService.generateMonthlyInvoices(year, month);
 
-        // then
-        assertThat(result).isEmpty();
-        verify(clientService).getAllClients();
-        verifyNoInteractions(timesheetService, invoiceCreationService);
+        // then - the client's transaction re-run once
+        assertThat(result.invoices()).containsExactly(invoice);
+        assertThat(counterLockRetryPolicy.retryCount()).isEqualTo(1);
     }
 
     @Test
-    void shouldNotGenerateInvoiceForClientWithoutUnbilledTimesheets() {
+    void shouldReturnEmptyListWhenNothingToInvoice() {
         // given
-        int year = 2024;
-        int month = 1;
-        LocalDate lastDayOfMonth = YearMonth.of(year, month).atEndOfMonth();
-
-        ClientDto client = new ClientDto(1L, "Client 1", 50.0, "1", "Street", "City", "12345", "email@test.com", true);
-
-        when(clientService.getAllClients()).thenReturn(List.of(client));
-        when(timesheetService.getMonthlyTimesheets(client.id(), year, month)).thenReturn(List.of());
+        when(timesheetService.getUninvoicedTimesheetsByClient(2024, 1)).thenReturn(Map.of());
 
         // when
-        List<InvoiceDto> result = billingService.generateMonthlyInvoices(year, month);
+        MonthlyBillingResult result = billingService.generateMonthlyInvoices(2024, 1);
 
         // then
-        assertThat(result).isEmpty();
-        verify(clientService).getAllClients();
-        verify(timesheetService).getMonthlyTimesheets(client.id(), year, month);
-        verifyNoInteractions(invoiceCreationService);
+        assertThat(result.invoices()).isEmpty();
+        assertThat(result.failures()).isEmpty();
+        verifyNoInteractions(invoiceCreationService, sellerRepository);
     }
 
     // ----- Creating Single Monthly Invoice -----
@@ -258,6 +274,28 @@ class BillingServiceImplTest {
         verify(invoiceCreationService).createInvoice(clientId, testSeller.getId(), issueDate, timesheetIds);
     }
 
+    @Test
+    void shouldRetryCreateInvoice_whenCounterUpsertDeadlocks() {
+        // given - first transaction is chosen as deadlock victim
+        Long clientId = 1L;
+        LocalDate issueDate = LocalDate.now();
+        List<Long> timesheetIds = List.of(1L);
+        InvoiceDto invoice = new InvoiceDto(1L, clientId, "Client 1", 1L, "Test Seller", "INV-001", issueDate, null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
+
+        when(invoiceCreationService.createInvoice(clientId, testSeller.getId(), issueDate, timesheetIds))
+                .thenThrow(new CannotAcquireLockException("deadlock",
+                        new SQLException("Deadlock found when trying to get lock", "40001", 1213)))
+                .thenReturn(invoice);
+
+        // when
+        InvoiceDto result = billingService.createInvoice(clientId, issueDate, timesheetIds);
+
+        // then - whole invoice transaction re-run once
+        assertThat(result).isEqualTo(invoice);
+        verify(invoiceCreationService, times(2)).createInvoice(clientId, testSeller.getId(), issueDate, timesheetIds);
+        assertThat(counterLockRetryPolicy.retryCount()).isEqualTo(1);
+    }
+
     // ----- Retrieving Invoices -----
 
     @Test
@@ -300,19 +338,15 @@ class BillingServiceImplTest {
     // ----- Exception Handling -----
 
     @Test
-    void shouldHandleExceptionFromClientService() {
+    void shouldHandleExceptionFromTimesheetService() {
         // given
-        int year = 2024;
-        int month = 1;
-
-        when(clientService.getAllClients()).thenThrow(new RuntimeException("Database error"));
+        when(timesheetService.getUninvoicedTimesheetsByClient(2024, 1)).thenThrow(new RuntimeException("Database error"));
 
         // when/then
-        assertThatThrownBy(() -> billingService.generateMonthlyInvoices(year, month))
+        assertThatThrownBy(() -> billingService.generateMonthlyInvoices(2024, 1))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Database error");
 
-        verify(clientService).getAllClients();
-        verifyNoInteractions(timesheetService, invoiceCreationService);
+        verifyNoInteractions(invoiceCreationService);
     }
 }
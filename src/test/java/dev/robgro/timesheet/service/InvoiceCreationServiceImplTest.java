@@ -1,14 +1,15 @@
 package dev.robgro.timesheet.service;
 
 import dev.robgro.timesheet.client.ClientService;
+import dev.robgro.timesheet.etag.ResourceChangeTracker;
 import dev.robgro.timesheet.exception.BusinessRuleViolationException;
 import dev.robgro.timesheet.exception.EntityNotFoundException;
 import dev.robgro.timesheet.exception.ValidationException;
 import dev.robgro.timesheet.client.ClientDto;
 import dev.robgro.timesheet.invoice.*;
+import dev.robgro.timesheet.revenue.RevenueRollupService;
 import dev.robgro.timesheet.timesheet.TimesheetDto;
 import dev.robgro.timesheet.client.Client;
-import dev.robgro.timesheet.timesheet.Timesheet;
 import dev.robgro.timesheet.client.ClientRepository;
 import dev.robgro.timesheet.timesheet.TimesheetRepository;
 import dev.robgro.timesheet.timesheet.TimesheetService;
@@ -59,6 +60,12 @@ class  InvoiceCreationServiceImplTest {
     @Mock
     private dev.robgro.timesheet.seller.SellerRepository sellerRepository;
 
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private ResourceChangeTracker resourceChangeTracker;
+
     @InjectMocks
     private InvoiceCreationServiceImpl invoiceCreationService;
 
@@ -85,12 +92,6 @@ class  InvoiceCreationServiceImplTest {
             1, 2023, 1, "001-01-2023", 10L
         );
 
-        Timesheet timesheet1 = new Timesheet();
-        timesheet1.setId(1L);
-
-        Timesheet timesheet2 = new Timesheet();
-        timesheet2.setId(2L);
-
         Invoice savedInvoice = new Invoice();
         savedInvoice.setId(1L);
         savedInvoice.setClient(client);
@@ -120,9 +121,7 @@ class  InvoiceCreationServiceImplTest {
         when(clientRepository.getReferenceById(clientId)).thenReturn(client);
         when(invoiceNumberGenerator.generateInvoiceNumber(1L, issueDate, null)).thenReturn(generatedNumber);
         when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
-        when(timesheetRepository.findById(1L)).thenReturn(Optional.of(timesheet1));
-        when(timesheetRepository.findById(2L)).thenReturn(Optional.of(timesheet2));
-        when(invoiceRepository.findById(savedInvoice.getId())).thenReturn(Optional.of(savedInvoice));
+        when(timesheetRepository.attachToInvoice(eq(List.of(1L, 2L)), eq(savedInvoice), eq("001-01-2023"), any(LocalDateTime.class))).thenReturn(2);
         when(invoiceDtoMapper.apply(savedInvoice)).thenReturn(expectedDto);
 
         // Mock seller
@@ -140,11 +139,70 @@ class  InvoiceCreationServiceImplTest {
         assertThat(result.invoiceNumber()).isEqualTo(generatedNumber.getDisplayNumber());
 
         verify(invoiceRepository).save(any(Invoice.class));
-        verify(timesheetRepository).saveAll(anyList());
-        verify(invoiceRepository).findById(savedInvoice.getId());
+        verify(timesheetRepository).attachToInvoice(eq(List.of(1L, 2L)), eq(savedInvoice), eq("001-01-2023"), any(LocalDateTime.class));
+        verify(timesheetRepository, never()).findById(anyLong());
+        verify(invoiceRepository, never()).findById(anyLong());
         verify(invoiceDtoMapper).apply(savedInvoice);
     }
 
+    // ----- Billing Run Invoices -----
+
+    @Test
+    void shouldCreateBillingRunInvoice_withoutReloadingTimesheetsOrSeller() {
+        // given
+        Long clientId = 1L;
+        LocalDate issueDate = LocalDate.of(2024, 1, 31);
+        dev.robgro.timesheet.seller.Seller seller = new dev.robgro.timesheet.seller.Seller();
+        seller.setId(1L);
+        List<TimesheetDto> timesheets = List.of(
+                new TimesheetDto(1L, "Test Client", LocalDate.of(2024, 1, 10), 2.0, false, clientId, 50.0, null, null, BigDecimal.valueOf(100.0)),
+                new TimesheetDto(2L, "Test Client", LocalDate.of(2024, 1, 11), 3.0, false, clientId, 50.0, null, null, BigDecimal.valueOf(150.0))
+        );
+        GeneratedInvoiceNumber number = new GeneratedInvoiceNumber(5, 2024, 1, "005-01-2024", 10L);
+        Invoice savedInvoice = new Invoice();
+        savedInvoice.setId(9L);
+        savedInvoice.setInvoiceNumber("005-01-2024");
+        InvoiceDto expectedDto = new InvoiceDto(9L, clientId, "Test Client", 1L, "Test Seller", "005-01-2024", issueDate, BigDecimal.valueOf(250.0), null, List.of(), null, null, null, 0, null, "NOT_SENT");
+
+        when(invoiceNumberGenerator.generateInvoiceNumber(1L, issueDate, null)).thenReturn(number);
+        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        when(timesheetRepository.claimForInvoice(eq(List.of(1L, 2L)), eq(savedInvoice), eq("005-01-2024"), any(LocalDateTime.class))).thenReturn(2);
+        when(invoiceDtoMapper.apply(savedInvoice)).thenReturn(expectedDto);
+
+        // when
+        InvoiceDto result = invoiceCreationService.createBillingRunInvoice(clientId, seller, issueDate, timesheets);
+
+        // then
+        assertThat(result).isEqualTo(expectedDto);
+        verifyNoInteractions(timesheetService, clientService, sellerRepository);
+        verify(timesheetRepository, never()).attachToInvoice(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldFailBillingRunInvoice_whenTimesheetWasInvoicedMeanwhile() {
+        // given - one of the two timesheets was taken by another invoice after the run read it
+        LocalDate issueDate = LocalDate.of(2024, 1, 31);
+        dev.robgro.timesheet.seller.Seller seller = new dev.robgro.timesheet.seller.Seller();
+        seller.setId(1L);
+        List<TimesheetDto> timesheets = List.of(
+                new TimesheetDto(1L, "Test Client", LocalDate.of(2024, 1, 10), 2.0, false, 1L, 50.0, null, null, BigDecimal.valueOf(100.0)),
+                new TimesheetDto(2L, "Test Client", LocalDate.of(2024, 1, 11), 3.0, false, 1L, 50.0, null, null, BigDecimal.valueOf(150.0))
+        );
+        Invoice savedInvoice = new Invoice();
+        savedInvoice.setInvoiceNumber("005-01-2024");
+
+        when(invoiceNumberGenerator.generateInvoiceNumber(1L, issueDate, null))
+                .thenReturn(new GeneratedInvoiceNumber(5, 2024, 1, "005-01-2024", 10L));
+        when(invoiceRepository.save(any(Invoice.class))).thenReturn(savedInvoice);
+        when(timesheetRepository.claimForInvoice(eq(List.of(1L, 2L)), eq(savedInvoice), eq("005-01-2024"), any(LocalDateTime.class))).thenReturn(1);
+
+        // when/then - the exception rolls back this client's transaction
+        assertThatThrownBy(() -> invoiceCreationService.createBillingRunInvoice(1L, seller, issueDate, timesheets))
+                .isInstanceOf(BusinessRuleViolationException.class)
+                .hasMessageContaining("invoiced by another process");
+        verifyNoInteractions(revenueRollupService, invoiceDtoMapper);
+    }
+
     // ----- Invoice Creation from TimeSheet IDs -----
 
     @Test
@@ -170,8 +228,7 @@ class  InvoiceCreationServiceImplTest {
         seller.setName("Test Seller");
 
         when(clientService.getClientById(clientId)).thenReturn(clientDto);
-        when(timesheetService.getTimesheetById(1L)).thenReturn(timesheet1);
-        when(timesheetService.getTimesheetById(2L)).thenReturn(timesheet2);
+        when(timesheetService.getTimesheetsByIds(List.of(1L, 2L))).thenReturn(List.of(timesheet1, timesheet2));
         when(sellerRepository.findById(1L)).thenReturn(java.util.Optional.of(seller));
 
         // Mock the internal method call to createInvoiceFromTimesheets
@@ -186,7 +243,7 @@ class  InvoiceCreationServiceImplTest {
         assertThat(result.id()).isEqualTo(1L);
 
         verify(clientService).getClientById(clientId);
-        verify(timesheetService, times(2)).getTimesheetById(anyLong());
+        verify(timesheetService).getTimesheetsByIds(List.of(1L, 2L));
         verify(serviceSpy).createInvoiceFromTimesheets(eq(clientDto), any(dev.robgro.timesheet.seller.Seller.class), anyList(), eq(issueDate));
     }
 
@@ -203,7 +260,7 @@ class  InvoiceCreationServiceImplTest {
                 .hasMessageContaining("No timesheets selected for invoice");
 
         verify(clientService, never()).getClientById(anyLong());
-        verify(timesheetService, never()).getTimesheetById(anyLong());
+        verify(timesheetService, never()).getTimesheetsByIds(anyList());
     }
 
     @Test
@@ -223,8 +280,7 @@ class  InvoiceCreationServiceImplTest {
         seller.setName("Test Seller");
 
         when(clientService.getClientById(clientId)).thenReturn(clientDto);
-        when(timesheetService.getTimesheetById(1L)).thenReturn(timesheet1);
-        when(timesheetService.getTimesheetById(2L)).thenReturn(timesheet2);
+        when(timesheetService.getTimesheetsByIds(List.of(1L, 2L))).thenReturn(List.of(timesheet1, timesheet2));
         when(sellerRepository.findById(1L)).thenReturn(java.util.Optional.of(seller));
 
         // when/then
@@ -233,7 +289,7 @@ class  InvoiceCreationServiceImplTest {
                 .hasMessageContaining("All selected timesheets are already invoiced");
 
         verify(clientService).getClientById(clientId);
-        verify(timesheetService, times(2)).getTimesheetById(anyLong());
+        verify(timesheetService).getTimesheetsByIds(List.of(1L, 2L));
     }
 
     // ----- Invoice Item Creation -----
@@ -328,8 +384,7 @@ class  InvoiceCreationServiceImplTest {
         seller.setName("Test Seller");
 
         when(clientService.getClientById(clientId)).thenReturn(clientDto);
-        when(timesheetService.getTimesheetById(1L)).thenReturn(timesheet1);
-        when(timesheetService.getTimesheetById(2L)).thenReturn(timesheet2);
+        when(timesheetService.getTimesheetsByIds(List.of(1L, 2L))).thenReturn(List.of(timesheet1, timesheet2));
         when(sellerRepository.findById(1L)).thenReturn(java.util.Optional.of(seller));
         when(invoiceNumberGenerator.peekNextInvoiceNumber(1L, issueDate, null)).thenReturn(generatedNumber);
 
@@ -350,7 +405,7 @@ class  InvoiceCreationServiceImplTest {
         assertThat(result.emailSentAt()).isNull();
 
         verify(clientService).getClientById(clientId);
-        verify(timesheetService, times(2)).getTimesheetById(anyLong());
+        verify(timesheetService).getTimesheetsByIds(List.of(1L, 2L));
         verify(invoiceNumberGenerator).peekNextInvoiceNumber(1L, issueDate, null);
         verifyNoInteractions(invoiceRepository); // Preview should not save to DB
         verifyNoInteractions(timesheetRepository); // Preview should not modify timesheets
@@ -369,7 +424,7 @@ class  InvoiceCreationServiceImplTest {
                 .hasMessageContaining("No timesheets selected for invoice");
 
         verify(clientService, never()).getClientById(anyLong());
-        verify(timesheetService, never()).getTimesheetById(anyLong());
+        verify(timesheetService, never()).getTimesheetsByIds(anyList());
     }
 
     @Test
@@ -389,8 +444,7 @@ class  InvoiceCreationServiceImplTest {
         seller.setName("Test Seller");
 
         when(clientService.getClientById(clientId)).thenReturn(clientDto);
-        when(timesheetService.getTimesheetById(1L)).thenReturn(timesheet1);
-        when(timesheetService.getTimesheetById(2L)).thenReturn(timesheet2);
+        when(timesheetService.getTimesheetsByIds(List.of(1L, 2L))).thenReturn(List.of(timesheet1, timesheet2));
         when(sellerRepository.findById(1L)).thenReturn(java.util.Optional.of(seller));
 
         // when/then
@@ -399,7 +453,7 @@ class  InvoiceCreationServiceImplTest {
                 .hasMessageContaining("All selected timesheets are already invoiced");
 
         verify(clientService).getClientById(clientId);
-        verify(timesheetService, times(2)).getTimesheetById(anyLong());
+        verify(timesheetService).getTimesheetsByIds(List.of(1L, 2L));
     }
 
     @Test
@@ -419,8 +473,7 @@ class  InvoiceCreationServiceImplTest {
         seller.setName("Test Seller");
 
         when(clientService.getClientById(clientId)).thenReturn(clientDto);
-        when(timesheetService.getTimesheetById(1L)).thenReturn(timesheet1);
-        when(timesheetService.getTimesheetById(2L)).thenReturn(timesheet2);
+        when(timesheetService.getTimesheetsByIds(List.of(1L, 2L))).thenReturn(List.of(timesheet1, timesheet2));
         when(sellerRepository.findById(1L)).thenReturn(java.util.Optional.of(seller));
 
         // when/then
@@ -429,6 +482,6 @@ class  InvoiceCreationServiceImplTest {
                 .hasMessageContaining("Cannot create invoice: selected timesheets belong to different clients");
 
         verify(clientService).getClientById(clientId);
-        verify(timesheetService, times(2)).getTimesheetById(anyLong());
+        verify(timesheetService).getTimesheetsByIds(List.of(1L, 2L));
     }
 }
@@ -1,5 +1,6 @@
 package dev.robgro.timesheet.service;
 
+import dev.robgro.timesheet.etag.ResourceChangeTracker;
 import dev.robgro.timesheet.exception.EntityNotFoundException;
 import dev.robgro.timesheet.exception.IntegrationException;
 import dev.robgro.timesheet.exception.ResourceAlreadyExistsException;
@@ -8,21 +9,28 @@ import dev.robgro.timesheet.invoice.*;
 import dev.robgro.timesheet.client.Client;
 import dev.robgro.timesheet.invoice.Invoice;
 import dev.robgro.timesheet.invoice.InvoiceItem;
+import dev.robgro.timesheet.revenue.RevenueRollupService;
+import dev.robgro.timesheet.search.SearchIndexService;
+import dev.robgro.timesheet.sync.ChangeTombstoneRepository;
 import dev.robgro.timesheet.timesheet.Timesheet;
 import dev.robgro.timesheet.client.ClientRepository;
 import dev.robgro.timesheet.invoice.InvoiceRepository;
 import dev.robgro.timesheet.timesheet.TimesheetDto;
 import dev.robgro.timesheet.timesheet.TimesheetRepository;
 import dev.robgro.timesheet.timesheet.TimesheetService;
+import dev.robgro.timesheet.tracking.EmailTrackingRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.platform.commons.util.ReflectionUtils;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -30,10 +38,12 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -72,6 +82,27 @@ class InvoiceServiceImplTest {
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Spy
+    private CounterLockRetryPolicy counterLockRetryPolicy = new CounterLockRetryPolicy(new InvoiceCounterProperties());
+
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private EmailTrackingRepository emailTrackingRepository;
+
+    @Mock
+    private InvoiceNumberPreviewService invoiceNumberPreviewService;
+
+    @Mock
+    private ResourceChangeTracker resourceChangeTracker;
+
+    @Mock
+    private ChangeTombstoneRepository changeTombstoneRepository;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
     @InjectMocks
     private InvoiceServiceImpl invoiceService;
 
@@ -88,7 +119,7 @@ class InvoiceServiceImplTest {
         InvoiceDto dto1 = new InvoiceDto(1L, 1L, "Client 1", 1L, "Test Seller", "001-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
         InvoiceDto dto2 = new InvoiceDto(2L, 2L, "Client 2", 1L, "Test Seller", "002-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
 
-        when(invoiceRepository.findAllByOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc()).thenReturn(List.of(invoice1, invoice2));
+        when(invoiceRepository.findAllByOrderByNumberSortKeyDescIdDesc()).thenReturn(List.of(invoice1, invoice2));
         when(invoiceDtoMapper.apply(invoice1)).thenReturn(dto1);
         when(invoiceDtoMapper.apply(invoice2)).thenReturn(dto2);
 
@@ -98,7 +129,7 @@ class InvoiceServiceImplTest {
         // then
         assertThat(result).hasSize(2);
         assertThat(result).contains(dto1, dto2);
-        verify(invoiceRepository).findAllByOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc();
+        verify(invoiceRepository).findAllByOrderByNumberSortKeyDescIdDesc();
     }
 
     @Test
@@ -112,7 +143,7 @@ class InvoiceServiceImplTest {
         InvoiceDto dto1 = new InvoiceDto(1L, 1L, "Client 1", 1L, "Test Seller", "001-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
         InvoiceDto dto2 = new InvoiceDto(2L, 2L, "Client 2", 1L, "Test Seller", "002-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
 
-        when(invoiceRepository.findAllByOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc()).thenReturn(List.of(invoice1, invoice2));
+        when(invoiceRepository.findAllByOrderByNumberSortKeyDescIdDesc()).thenReturn(List.of(invoice1, invoice2));
         when(invoiceDtoMapper.apply(invoice1)).thenReturn(dto1);
         when(invoiceDtoMapper.apply(invoice2)).thenReturn(dto2);
 
@@ -122,7 +153,7 @@ class InvoiceServiceImplTest {
         // then
         assertThat(result).hasSize(2);
         assertThat(result).contains(dto1, dto2);
-        verify(invoiceRepository).findAllByOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc();
+        verify(invoiceRepository).findAllByOrderByNumberSortKeyDescIdDesc();
     }
 
     @Test
@@ -139,7 +170,7 @@ class InvoiceServiceImplTest {
         InvoiceDto dto1 = new InvoiceDto(1L, 1L, "Client 1", 1L, "Test Seller", "001-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
         InvoiceDto dto2 = new InvoiceDto(2L, 2L, "Client 2", 1L, "Test Seller", "002-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
 
-        when(invoiceRepository.findByIssueDateBetweenOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc(startDate, endDate))
+        when(invoiceRepository.findByIssueDateBetweenOrderByNumberSortKeyDescIdDesc(startDate, endDate))
                 .thenReturn(List.of(invoice1, invoice2));
         when(invoiceDtoMapper.apply(invoice1)).thenReturn(dto1);
         when(invoiceDtoMapper.apply(invoice2)).thenReturn(dto2);
@@ -150,7 +181,7 @@ class InvoiceServiceImplTest {
         // then
         assertThat(result).hasSize(2);
         assertThat(result).contains(dto1, dto2);
-        verify(invoiceRepository).findByIssueDateBetweenOrderByPeriodYearDescPeriodMonthDescSequenceNumberDesc(startDate, endDate);
+        verify(invoiceRepository).findByIssueDateBetweenOrderByNumberSortKeyDescIdDesc(startDate, endDate);
     }
 
     @Test
@@ -215,31 +246,27 @@ class InvoiceServiceImplTest {
         Long clientId = 1L;
         Integer year = 2023;
         Integer month = 1;
-        String sortBy = "invoiceNumber";
-        String sortDir = "asc";
 
         Invoice invoice1 = new Invoice();
         invoice1.setId(1L);
-        invoice1.setInvoiceNumber("001-01-2023");
-
         Invoice invoice2 = new Invoice();
         invoice2.setId(2L);
-        invoice2.setInvoiceNumber("002-02-2023");
 
         InvoiceDto dto1 = new InvoiceDto(1L, 1L, "Client 1", 1L, "Test Seller", "001-01-2023", LocalDate.of(2023, 1, 15), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
-        InvoiceDto dto2 = new InvoiceDto(2L, 1L, "Client 1", 1L, "Test Seller", "002-02-2023", LocalDate.of(2023, 2, 15), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
+        InvoiceDto dto2 = new InvoiceDto(2L, 1L, "Client 1", 1L, "Test Seller", "002-01-2023", LocalDate.of(2023, 1, 20), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
 
-        when(invoiceRepository.findFilteredInvoices(clientId, year, month)).thenReturn(List.of(invoice1, invoice2));
+        Pageable byNumber = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "numberSortKey", "id"));
+        when(invoiceRepository.findFilteredInvoices(clientId, year, month, byNumber))
+                .thenReturn(new PageImpl<>(List.of(invoice1, invoice2), byNumber, 2));
         when(invoiceDtoMapper.apply(invoice1)).thenReturn(dto1);
         when(invoiceDtoMapper.apply(invoice2)).thenReturn(dto2);
 
         // when
-        List<InvoiceDto> result = invoiceService.searchAndSortInvoices(clientId, year, month, sortBy, sortDir);
+        Page<InvoiceDto> result = invoiceService.searchAndSortInvoices(clientId, year, month, "invoiceNumber", "asc", 0, 10);
 
-        // then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).invoiceNumber()).isEqualTo("001-01-2023");
-        assertThat(result.get(1).invoiceNumber()).isEqualTo("002-02-2023");
+        // then - database order is kept, invoice number sorts by the persisted sort key
+        assertThat(result.getContent()).extracting(InvoiceDto::invoiceNumber).containsExactly("001-01-2023", "002-01-2023");
+        assertThat(result.getTotalElements()).isEqualTo(2);
     }
 
     @Test
@@ -302,83 +329,53 @@ class InvoiceServiceImplTest {
     @Test
     void shouldSortInvoicesByIssueDate() {
         // given
-        Long clientId = 1L;
-        LocalDate date1 = LocalDate.of(2023, 1, 1);
-        LocalDate date2 = LocalDate.of(2023, 2, 1);
-
-        Invoice invoice1 = new Invoice();
-        invoice1.setId(1L);
-        invoice1.setIssueDate(date1);
-
-        Invoice invoice2 = new Invoice();
-        invoice2.setId(2L);
-        invoice2.setIssueDate(date2);
-
-        InvoiceDto dto1 = new InvoiceDto(1L, clientId, "Client 1", 1L, "Test Seller", "001-01-2023", date1, BigDecimal.valueOf(100), null, List.of(), null, null, null, 0, null, "NOT_SENT");
-        InvoiceDto dto2 = new InvoiceDto(2L, clientId, "Client 1", 1L, "Test Seller", "002-02-2023", date2, BigDecimal.valueOf(200), null, List.of(), null, null, null, 0, null, "NOT_SENT");
-
-        when(invoiceRepository.findFilteredInvoices(eq(clientId), isNull(), isNull())).thenReturn(List.of(invoice2, invoice1));
-        when(invoiceDtoMapper.apply(invoice1)).thenReturn(dto1);
-        when(invoiceDtoMapper.apply(invoice2)).thenReturn(dto2);
+        when(invoiceRepository.findFilteredInvoices(eq(1L), isNull(), isNull(), any(Pageable.class))).thenReturn(Page.empty());
 
         // when
-        List<InvoiceDto> result = invoiceService.searchAndSortInvoices(clientId, null, null, "issueDate", "asc");
+        invoiceService.searchAndSortInvoices(1L, null, null, "issueDate", "asc", 0, 20);
 
         // then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(2);
-
-        assertThat(result.get(0).issueDate()).isEqualTo(date1);
-        assertThat(result.get(1).issueDate()).isEqualTo(date2);
+        verify(invoiceRepository).findFilteredInvoices(1L, null, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "issueDate", "id")));
     }
 
     @Test
     void shouldSortInvoicesByClientName() {
         // given
-        Invoice inv1 = new Invoice();
-        inv1.setId(1L);
+        when(invoiceRepository.findFilteredInvoices(isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(Page.empty());
 
-        Invoice inv2 = new Invoice();
-        inv2.setId(2L);
+        // when
+        invoiceService.searchAndSortInvoices(null, null, null, "clientName", "asc", 1, 20);
 
-        InvoiceDto invoice1 = new InvoiceDto(1L, 1L, "B Client", 1L, "Test Seller", "001-01-2023", LocalDate.now(), BigDecimal.valueOf(100), null, List.of(), null, null, null, 0, null, "NOT_SENT");
-        InvoiceDto invoice2 = new InvoiceDto(2L, 2L, "A Client", 1L, "Test Seller", "002-01-2023", LocalDate.now(), BigDecimal.valueOf(200), null, List.of(), null, null, null, 0, null, "NOT_SENT");
+        // then - sorts on the joined client, no re-sort of the page in memory
+        verify(invoiceRepository).findFilteredInvoices(null, null, null,
+                PageRequest.of(1, 20, Sort.by(Sort.Direction.ASC, "client.clientName", "id")));
+    }
 
-        when(invoiceRepository.findFilteredInvoices(isNull(), isNull(), isNull())).thenReturn(List.of(inv1, inv2));
-        when(invoiceDtoMapper.apply(inv1)).thenReturn(invoice1);
-        when(invoiceDtoMapper.apply(inv2)).thenReturn(invoice2);
+    @Test
+    void shouldSortInvoicesByTotalAmount() {
+        // given
+        when(invoiceRepository.findFilteredInvoices(isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(Page.empty());
 
         // when
-        List<InvoiceDto> result = invoiceService.searchAndSortInvoices(null, null, null, "clientName", "asc");
+        invoiceService.searchAndSortInvoices(null, null, null, "totalAmount", "desc", 0, 20);
 
         // then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(2);
-
-        assertThat(result.get(0).clientName()).isEqualTo("A Client");
-        assertThat(result.get(1).clientName()).isEqualTo("B Client");
+        verify(invoiceRepository).findFilteredInvoices(null, null, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "totalAmount", "id")));
     }
 
     @Test
-    void shouldSortInvoicesByTotalAmount() {
+    void shouldSortInvoicesByNumberSortKey_whenSortByUnknown() {
         // given
-        InvoiceDto invoice1 = new InvoiceDto(1L, 1L, "Client", 1L, "Test Seller", "001-01-2023", LocalDate.now(), BigDecimal.valueOf(100), null, List.of(), null, null, null, 0, null, "NOT_SENT");
-        InvoiceDto invoice2 = new InvoiceDto(2L, 1L, "Client", 1L, "Test Seller", "002-01-2023", LocalDate.now(), BigDecimal.valueOf(200), null, List.of(), null, null, null, 0, null, "NOT_SENT");
-
-        List<Invoice> invoices = new ArrayList<>();
-        Invoice inv1 = new Invoice(); inv1.setId(1L);
-        Invoice inv2 = new Invoice(); inv2.setId(2L);
-        invoices.add(inv2); invoices.add(inv1); // Reversed order
+        when(invoiceRepository.findFilteredInvoices(isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(Page.empty());
 
-        when(invoiceRepository.findFilteredInvoices(isNull(), isNull(), isNull())).thenReturn(invoices);
-        when(invoiceDtoMapper.apply(inv1)).thenReturn(invoice1);
-        when(invoiceDtoMapper.apply(inv2)).thenReturn(invoice2);
-
-        // when
-        List<InvoiceDto> result = invoiceService.searchAndSortInvoices(null, null, null, "totalAmount", "desc");
+        // when - unknown keys never reach ORDER BY
+        invoiceService.searchAndSortInvoices(null, null, null, "invoice_number; --", null, 0, 20);
 
         // then
-        assertThat(result).isNotNull();
+        verify(invoiceRepository).findFilteredInvoices(null, null, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "numberSortKey", "id")));
     }
 
     // ----- Invoice Creation and Update -----
@@ -431,9 +428,6 @@ class InvoiceServiceImplTest {
         Client client = new Client();
         client.setId(clientId);
 
-        Timesheet timesheet = new Timesheet();
-        timesheet.setId(1L);
-
         InvoiceItemUpdateRequest itemRequest = new InvoiceItemUpdateRequest(
                 1L,
                 1L,
@@ -458,7 +452,7 @@ class InvoiceServiceImplTest {
 
         when(invoiceRepository.findById(invoiceId)).thenReturn(Optional.of(invoice));
         when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
-        when(timesheetRepository.findById(1L)).thenReturn(Optional.of(timesheet));
+        when(timesheetRepository.attachToInvoice(eq(List.of(1L)), eq(invoice), eq(invoiceNumber), any(LocalDateTime.class))).thenReturn(1);
         when(invoiceRepository.save(any(Invoice.class))).thenReturn(invoice);
         when(invoiceDtoMapper.apply(invoice)).thenReturn(updatedDto);
 
@@ -473,6 +467,8 @@ class InvoiceServiceImplTest {
         verify(invoiceRepository, atLeastOnce()).findById(invoiceId);
         verify(clientRepository, atLeastOnce()).findById(clientId);
         verify(invoiceRepository, atLeastOnce()).save(any(Invoice.class));
+        verify(timesheetRepository).attachToInvoice(eq(List.of(1L)), eq(invoice), eq(invoiceNumber), any(LocalDateTime.class));
+        verify(timesheetRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -586,53 +582,56 @@ class InvoiceServiceImplTest {
     // ----- Invoice Deletion -----
 
     @Test
-    void shouldDeleteInvoice() {
+    void shouldDeleteInvoice_withBulkStatements() {
         // given
         Long invoiceId = 1L;
-        Invoice invoice = new Invoice();
-        invoice.setId(invoiceId);
-        invoice.setInvoiceNumber("001-01-2023");
-        invoice.setTimesheets(new ArrayList<>());
-
-        Timesheet timesheet = new Timesheet();
-        timesheet.setId(1L);
-        timesheet.setInvoice(invoice);
-        invoice.getTimesheets().add(timesheet);
-
-        when(invoiceRepository.findById(invoiceId)).thenReturn(Optional.of(invoice));
+        Set<Long> ids = Set.of(invoiceId);
+        when(invoiceRepository.findDeletionTargets(ids))
+                .thenReturn(List.of(new InvoiceDeletionTarget(invoiceId, 7L, 2L, LocalDate.of(2025, 3, 31))));
+        when(invoiceRepository.bulkDeleteByIds(ids)).thenReturn(1);
 
         // when
         invoiceService.deleteInvoice(invoiceId, false, false);
 
-        // then
-        verify(timesheetRepository).flush();
-        verify(invoiceRepository).deleteInvoiceItemsByInvoiceId(invoiceId);
-        verify(invoiceRepository).delete(invoice);
+        // then - timesheets detached, nothing loaded as entities
+        verify(timesheetRepository).detachFromInvoices(eq(ids), any(LocalDateTime.class));
+        verify(timesheetRepository, never()).deleteByInvoiceIds(any());
+        verify(invoiceRepository).deleteItemsByInvoiceIds(ids);
+        verify(emailTrackingRepository).bulkDeleteByInvoiceIds(ids);
+        verify(invoiceRepository).bulkDeleteByIds(ids);
+        verify(invoiceRepository, never()).findById(anyLong());
+        verify(invoiceNumberPreviewService).invalidateAfterCommit(7L);
     }
 
     @Test
     void shouldDeleteInvoiceAndTimesheets() {
         // given
         Long invoiceId = 1L;
-        Invoice invoice = new Invoice();
-        invoice.setId(invoiceId);
-        invoice.setInvoiceNumber("001-01-2023");
-        invoice.setTimesheets(new ArrayList<>());
-
-        Timesheet timesheet = new Timesheet();
-        timesheet.setId(1L);
-        timesheet.setInvoice(invoice);
-        invoice.getTimesheets().add(timesheet);
-
-        when(invoiceRepository.findById(invoiceId)).thenReturn(Optional.of(invoice));
+        Set<Long> ids = Set.of(invoiceId);
+        when(invoiceRepository.findDeletionTargets(ids))
+                .thenReturn(List.of(new InvoiceDeletionTarget(invoiceId, 7L, 2L, LocalDate.of(2025, 3, 31))));
 
         // when
         invoiceService.deleteInvoice(invoiceId, true, false);
 
         // then
-        verify(timesheetRepository, never()).flush();
-        verify(invoiceRepository).deleteInvoiceItemsByInvoiceId(invoiceId);
-        verify(invoiceRepository).delete(invoice);
+        verify(timesheetRepository).deleteByInvoiceIds(ids);
+        verify(timesheetRepository, never()).detachFromInvoices(any(), any());
+        verify(invoiceRepository).deleteItemsByInvoiceIds(ids);
+        verify(invoiceRepository).bulkDeleteByIds(ids);
+    }
+
+    @Test
+    void shouldDeleteNothing_whenAnyInvoiceMissing() {
+        // given
+        when(invoiceRepository.findDeletionTargets(Set.of(1L, 2L)))
+                .thenReturn(List.of(new InvoiceDeletionTarget(1L, 7L, 2L, LocalDate.of(2025, 3, 31))));
+
+        // when / then
+        assertThatThrownBy(() -> invoiceService.deleteInvoices(List.of(1L, 2L), false))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(invoiceRepository, never()).bulkDeleteByIds(any());
+        verify(timesheetRepository, never()).detachFromInvoices(any(), any());
     }
 
     // ----- Report Generation -----
@@ -643,39 +642,49 @@ class InvoiceServiceImplTest {
         DateRangeRequest dateRange = new DateRangeRequest(2023, 1, 2023, 12);
         Long clientId = 1L;
 
-        LocalDate fromDate = LocalDate.of(2023, 1, 1);
-        LocalDate toDate = LocalDate.of(2023, 12, 31);
-
-        Invoice invoice1 = new Invoice();
-        invoice1.setId(1L);
-        invoice1.setTotalAmount(BigDecimal.valueOf(100));
-
-        Invoice invoice2 = new Invoice();
-        invoice2.setId(2L);
-        invoice2.setTotalAmount(BigDecimal.valueOf(200));
-
         Client client = new Client();
         client.setId(clientId);
         client.setClientName("Test Client");
 
-        InvoiceDto dto1 = new InvoiceDto(1L, clientId, "Test Client", 1L, "Test Seller", "001-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
-        InvoiceDto dto2 = new InvoiceDto(2L, clientId, "Test Client", 1L, "Test Seller", "002-02-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
+        InvoiceSummary summary1 = summary(1L, "001-01-2023", BigDecimal.valueOf(100));
+        InvoiceSummary summary2 = summary(2L, "002-02-2023", BigDecimal.valueOf(200));
 
-        when(invoiceRepository.findForReporting(eq(clientId), any(), any(), any()))
-                .thenReturn(List.of(invoice1, invoice2));
+        when(invoiceRepository.aggregateForReporting(clientId, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)))
+                .thenReturn(List.of(
+                        new InvoiceReportGroup(clientId, "Test Client", 2023, 1, 1, BigDecimal.valueOf(100)),
+                        new InvoiceReportGroup(clientId, "Test Client", 2023, 2, 1, BigDecimal.valueOf(200))));
+        when(invoiceRepository.findSummariesForReporting(eq(clientId), any(), any(), any()))
+                .thenReturn(List.of(summary1, summary2));
         when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
-        when(invoiceDtoMapper.apply(invoice1)).thenReturn(dto1);
-        when(invoiceDtoMapper.apply(invoice2)).thenReturn(dto2);
 
         // when
-        InvoiceReportData result = invoiceService.generateReport(dateRange, clientId);
+        InvoiceReportData result = invoiceService.generateReport(dateRange, clientId, true);
 
-        // then
+        // then - totals from the grouped query, summaries only, no entity mapping
         assertThat(result).isNotNull();
-        assertThat(result.invoices()).hasSize(2);
-        assertThat(result.totalAmount()).isEqualTo(BigDecimal.valueOf(300));
+        assertThat(result.invoices()).containsExactly(summary1, summary2);
+        assertThat(result.totals().totalAmount()).isEqualTo(BigDecimal.valueOf(300));
+        assertThat(result.totals().invoiceCount()).isEqualTo(2);
+        assertThat(result.totals().byMonth()).hasSize(2);
         assertThat(result.clientName()).isEqualTo("Test Client");
         assertThat(result.period()).contains("2023");
+        verifyNoInteractions(invoiceDtoMapper);
+    }
+
+    @Test
+    void shouldNotLoadInvoiceRows_whenDetailsNotRequested() {
+        // given
+        DateRangeRequest dateRange = new DateRangeRequest(null, null, null, null);
+        when(invoiceRepository.aggregateForReporting(null, null, null))
+                .thenReturn(List.of(new InvoiceReportGroup(1L, "A", 2023, 1, 40, BigDecimal.valueOf(4000))));
+
+        // when
+        InvoiceReportData result = invoiceService.generateReport(dateRange, null, false);
+
+        // then
+        assertThat(result.invoices()).isEmpty();
+        assertThat(result.totals().invoiceCount()).isEqualTo(40);
+        verify(invoiceRepository, never()).findSummariesForReporting(any(), any(), any(), any());
     }
 
     // ----- Pagination -----
@@ -688,22 +697,18 @@ class InvoiceServiceImplTest {
         Integer month = 1;
         Pageable pageable = mock(Pageable.class);
 
-        Invoice invoice = new Invoice();
-        invoice.setId(1L);
-
-        Page<Invoice> invoicePage = new PageImpl<>(List.of(invoice));
-        InvoiceDto invoiceDto = new InvoiceDto(1L, clientId, "Client 1", 1L, "Test Seller", "001-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
+        Page<InvoiceSummary> summaryPage = new PageImpl<>(List.of(summary(1L, "001-01-2023", BigDecimal.TEN)));
 
-        when(invoiceRepository.findFilteredInvoices(clientId, year, month, pageable)).thenReturn(invoicePage);
-        when(invoiceDtoMapper.apply(invoice)).thenReturn(invoiceDto);
+        when(invoiceRepository.findFilteredSummaries(clientId, year, month, pageable)).thenReturn(summaryPage);
 
         // when
-        Page<InvoiceDto> result = invoiceService.getAllInvoicesPageable(clientId, year, month, pageable);
+        Page<InvoiceSummary> result = invoiceService.getAllInvoicesPageable(clientId, year, month, pageable);
 
         // then
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(invoiceRepository).findFilteredInvoices(clientId, year, month, pageable);
+        verify(invoiceRepository).findFilteredSummaries(clientId, year, month, pageable);
+        verifyNoInteractions(invoiceDtoMapper);
     }
 
     @Test
@@ -713,22 +718,17 @@ class InvoiceServiceImplTest {
         Long clientId = 1L;
         Pageable pageable = mock(Pageable.class);
 
-        Invoice invoice = new Invoice();
-        invoice.setId(1L);
-
-        Page<Invoice> invoicePage = new PageImpl<>(List.of(invoice));
-        InvoiceDto invoiceDto = new InvoiceDto(1L, clientId, "Client 1", 1L, "Test Seller", "001-01-2023", LocalDate.now(), null, null, List.of(), null, null, null, 0, null, "NOT_SENT");
+        Page<InvoiceSummary> summaryPage = new PageImpl<>(List.of(summary(1L, "001-01-2023", BigDecimal.TEN)));
 
-        when(invoiceRepository.findByDateRangeAndClient(any(), any(), eq(clientId), eq(pageable))).thenReturn(invoicePage);
-        when(invoiceDtoMapper.apply(invoice)).thenReturn(invoiceDto);
+        when(invoiceRepository.findSummariesByDateRangeAndClient(any(), any(), eq(clientId), eq(pageable))).thenReturn(summaryPage);
 
         // when
-        Page<InvoiceDto> result = invoiceService.searchInvoices(dateRange, clientId, pageable);
+        Page<InvoiceSummary> result = invoiceService.searchInvoices(dateRange, clientId, pageable);
 
         // then
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(invoiceRepository).findByDateRangeAndClient(any(), any(), eq(clientId), eq(pageable));
+        verify(invoiceRepository).findSummariesByDateRangeAndClient(any(), any(), eq(clientId), eq(pageable));
     }
 
     @Test
@@ -797,4 +797,9 @@ class InvoiceServiceImplTest {
         // then
         assertThat(result).isEqualTo("all dates");
     }
+
+    private static InvoiceSummary summary(Long id, String invoiceNumber, BigDecimal totalAmount) {
+        return new InvoiceSummary(id, invoiceNumber, LocalDate.of(2023, 1, 15), 1L, "Test Client",
+                1L, "Test Seller", totalAmount, null, null, null);
+    }
 }
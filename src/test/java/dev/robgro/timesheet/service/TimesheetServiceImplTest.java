@@ -3,6 +3,7 @@ package dev.robgro.timesheet.service;
 import dev.robgro.timesheet.client.ClientService;
 import dev.robgro.timesheet.exception.BusinessRuleViolationException;
 import dev.robgro.timesheet.exception.EntityNotFoundException;
+import dev.robgro.timesheet.revenue.RevenueRollupService;
 import dev.robgro.timesheet.timesheet.TimesheetDto;
 import dev.robgro.timesheet.timesheet.TimesheetDtoMapper;
 import dev.robgro.timesheet.client.Client;
@@ -23,6 +24,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -44,6 +46,9 @@ class TimesheetServiceImplTest {
     @Mock
     private ClientService clientService;
 
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
     @InjectMocks
     private TimesheetServiceImpl timesheetService;
 
@@ -90,6 +95,41 @@ class TimesheetServiceImplTest {
         verify(timesheetRepository).findById(timesheetId);
     }
 
+    @Test
+    void shouldGetTimesheetsByIds_inRequestedOrder_withOneQuery() {
+        // given
+        Timesheet first = new Timesheet();
+        first.setId(1L);
+        Timesheet second = new Timesheet();
+        second.setId(2L);
+        TimesheetDto firstDto = new TimesheetDto(1L, "Client", LocalDate.now(), 2.0, false, 1L, 50.0, null, null, BigDecimal.valueOf(100.0));
+        TimesheetDto secondDto = new TimesheetDto(2L, "Client", LocalDate.now(), 3.0, false, 1L, 50.0, null, null, BigDecimal.valueOf(150.0));
+
+        when(timesheetRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(first, second));
+        when(timesheetDtoMapper.apply(first)).thenReturn(firstDto);
+        when(timesheetDtoMapper.apply(second)).thenReturn(secondDto);
+
+        // when
+        List<TimesheetDto> result = timesheetService.getTimesheetsByIds(List.of(2L, 1L));
+
+        // then
+        assertThat(result).containsExactly(secondDto, firstDto);
+        verify(timesheetRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenAnyTimesheetByIdsNotFound() {
+        // given
+        Timesheet first = new Timesheet();
+        first.setId(1L);
+        when(timesheetRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(first));
+
+        // when/then
+        assertThatThrownBy(() -> timesheetService.getTimesheetsByIds(List.of(1L, 3L)))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Timesheet with id 3 not found");
+    }
+
     @Test
     void shouldGetMonthlyTimesheets() {
         Long clientId = 1L;
@@ -112,6 +152,35 @@ class TimesheetServiceImplTest {
         verify(timesheetRepository).findByClient_IdAndServiceDateBetween(eq(clientId), any(LocalDate.class), any(LocalDate.class));
     }
 
+    @Test
+    void shouldGroupUninvoicedTimesheetsByClient_inQueryOrder() {
+        // given - rows arrive in billing order: Alpha (client 9) before Beta (client 2)
+        Timesheet alphaFirst = new Timesheet();
+        Timesheet beta = new Timesheet();
+        Timesheet alphaSecond = new Timesheet();
+        alphaFirst.setId(1L);
+        beta.setId(2L);
+        alphaSecond.setId(3L);
+        TimesheetDto alphaFirstDto = new TimesheetDto(1L, "Alpha", LocalDate.of(2024, 1, 3), 2.0, false, 9L, 50.0, null, null, BigDecimal.valueOf(100.0));
+        TimesheetDto alphaSecondDto = new TimesheetDto(3L, "Alpha", LocalDate.of(2024, 1, 20), 1.0, false, 9L, 50.0, null, null, BigDecimal.valueOf(50.0));
+        TimesheetDto betaDto = new TimesheetDto(2L, "Beta", LocalDate.of(2024, 1, 5), 1.0, false, 2L, 50.0, null, null, BigDecimal.valueOf(50.0));
+
+        when(timesheetRepository.findUninvoicedForBilling(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+                .thenReturn(List.of(alphaFirst, alphaSecond, beta));
+        when(timesheetDtoMapper.apply(alphaFirst)).thenReturn(alphaFirstDto);
+        when(timesheetDtoMapper.apply(alphaSecond)).thenReturn(alphaSecondDto);
+        when(timesheetDtoMapper.apply(beta)).thenReturn(betaDto);
+
+        // when
+        Map<Long, List<TimesheetDto>> result = timesheetService.getUninvoicedTimesheetsByClient(2024, 1);
+
+        // then - one query for all clients, client order kept
+        assertThat(result.keySet()).containsExactly(9L, 2L);
+        assertThat(result.get(9L)).containsExactly(alphaFirstDto, alphaSecondDto);
+        assertThat(result.get(2L)).containsExactly(betaDto);
+        verify(timesheetRepository, never()).findByClient_IdAndServiceDateBetween(any(), any(), any());
+    }
+
     @Test
     void shouldCreateTimesheet() {
         // given
@@ -442,174 +511,80 @@ class TimesheetServiceImplTest {
     // ----- Sorting and pagination operations -----
 
     @Test
-    void shouldSearchAndSortTimesheetsByInvoiceNumber() {
+    void shouldSearchAndSortTimesheetsByInvoiceNumber_inDatabase() {
         // given
         Long clientId = 1L;
-        String sortBy = "invoiceNumber";
-        String sortDir = "asc";
-
-        String invoice1 = "001-04-2023";
-        String invoice2 = "002-05-2023";
-
-        Timesheet timesheet1 = new Timesheet();
-        timesheet1.setId(1L);
-        timesheet1.setInvoiceNumber(invoice1);
-
-        Timesheet timesheet2 = new Timesheet();
-        timesheet2.setId(2L);
-        timesheet2.setInvoiceNumber(invoice2);
-
-        when(timesheetRepository.findAllByClientId(clientId))
-                .thenReturn(List.of(timesheet2, timesheet1));
-
-        when(timesheetDtoMapper.apply(timesheet1)).thenReturn(
-                new TimesheetDto(1L, "Client", LocalDate.now(), 2.0, true, clientId, 50.0, invoice1, null, BigDecimal.valueOf(100.0)));
-        when(timesheetDtoMapper.apply(timesheet2)).thenReturn(
-                new TimesheetDto(2L, "Client", LocalDate.now(), 3.0, true, clientId, 50.0, invoice2, null, BigDecimal.valueOf(150.0)));
+        Timesheet timesheet = new Timesheet();
+        when(timesheetRepository.findFilteredTimesheets(eq(clientId), isNull(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(timesheet)));
+        when(timesheetDtoMapper.apply(timesheet)).thenReturn(
+                new TimesheetDto(1L, "Client", LocalDate.now(), 2.0, true, clientId, 50.0, "001-04-2023", null, BigDecimal.valueOf(100.0)));
 
         // when
-        List<TimesheetDto> result = timesheetService.searchAndSortTimesheets(clientId, sortBy, sortDir);
+        Page<TimesheetDto> result = timesheetService.searchAndSortTimesheets(clientId, "invoiceNumber", "asc", 0, 20);
 
-        // then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).invoiceNumber()).isEqualTo(invoice1);
-        assertThat(result.get(1).invoiceNumber()).isEqualTo(invoice2);
-        verify(timesheetRepository).findAllByClientId(clientId);
+        // then - sort key and pagination go to the repository, no sorting in memory
+        assertThat(result.getContent()).extracting(TimesheetDto::invoiceNumber).containsExactly("001-04-2023");
+        verify(timesheetRepository).findFilteredTimesheets(clientId, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "invoiceNumber", "id")));
     }
 
     @Test
-    void shouldSortTimesheetsWhenInvoiceNumberIsNull() {
-        Long clientId = 1L;
-        String sortBy = "invoiceNumber";
-        String sortDir = "asc";
-
-        Timesheet timesheet1 = new Timesheet();
-        timesheet1.setId(1L);
-        timesheet1.setInvoiceNumber(null); // null faktura
-
-        Timesheet timesheet2 = new Timesheet();
-        timesheet2.setId(2L);
-        timesheet2.setInvoiceNumber("001-01-2023");
-
-        when(timesheetRepository.findAllByClientId(clientId))
-                .thenReturn(List.of(timesheet1, timesheet2));
-
-        when(timesheetDtoMapper.apply(timesheet1))
-                .thenReturn(new TimesheetDto(1L, "Client", LocalDate.now(), 2.0, false, clientId, 50.0, null, null, BigDecimal.valueOf(100.0)));
-        when(timesheetDtoMapper.apply(timesheet2))
-                .thenReturn(new TimesheetDto(2L, "Client", LocalDate.now(), 3.0, false, clientId, 50.0, "001-01-2023", null, BigDecimal.valueOf(150.0)));
-
-        List<TimesheetDto> result = timesheetService.searchAndSortTimesheets(clientId, sortBy, sortDir);
-
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).invoiceNumber()).isNull();
-        assertThat(result.get(1).invoiceNumber()).isEqualTo("001-01-2023");
-    }
-
-
-    @Test
-    void shouldSearchAndSortTimesheetsByServiceDate() {
+    void shouldSearchAndSortTimesheetsByValue_inDatabase() {
         // given
-        Long clientId = 1L;
-        String sortBy = "serviceDate";
-        String sortDir = "desc";
-
-        Timesheet timesheet1 = new Timesheet();
-        timesheet1.setServiceDate(LocalDate.of(2023, 1, 1));
-
-        Timesheet timesheet2 = new Timesheet();
-        timesheet2.setServiceDate(LocalDate.of(2023, 2, 1));
-
-        when(timesheetRepository.findAllByClientId(clientId)).thenReturn(List.of(timesheet1, timesheet2));
-        when(timesheetDtoMapper.apply(timesheet1)).thenReturn(
-                new TimesheetDto(1L, "Client", LocalDate.of(2023, 1, 1), 2.0, false, clientId, 50.0, null, null, BigDecimal.valueOf(100.0)));
-        when(timesheetDtoMapper.apply(timesheet2)).thenReturn(
-                new TimesheetDto(2L, "Client", LocalDate.of(2023, 2, 1), 3.0, false, clientId, 50.0, null, null, BigDecimal.valueOf(100.0)));
+        when(timesheetRepository.findFilteredTimesheets(isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(Page.empty());
 
         // when
-        List<TimesheetDto> result = timesheetService.searchAndSortTimesheets(clientId, sortBy, sortDir);
+        timesheetService.searchAndSortTimesheets(null, "value", "desc", 2, 10);
 
         // then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).serviceDate()).isEqualTo(LocalDate.of(2023, 2, 1));
-        assertThat(result.get(1).serviceDate()).isEqualTo(LocalDate.of(2023, 1, 1));
-        verify(timesheetRepository).findAllByClientId(clientId);
-    }
-
-    @Test
-    void shouldSortTimesheetsByDefaultWhenSortByUnknown() {
-        Long clientId = 1L;
-
-        Timesheet timesheet1 = new Timesheet();
-        timesheet1.setServiceDate(LocalDate.of(2023, 5, 15));
-        Timesheet timesheet2 = new Timesheet();
-        timesheet2.setServiceDate(LocalDate.of(2023, 4, 15));
-
-        when(timesheetRepository.findAllByClientId(clientId)).thenReturn(List.of(timesheet1, timesheet2));
-        when(timesheetDtoMapper.apply(any())).thenAnswer(invocation -> {
-            Timesheet ts = invocation.getArgument(0);
-            return new TimesheetDto(1L, "Client", ts.getServiceDate(), 2.0, false, clientId, 50.0, null, null, BigDecimal.valueOf(100.0));
-        });
-
-        List<TimesheetDto> result = timesheetService.searchAndSortTimesheets(clientId, "unknownField", "asc");
-
-        assertThat(result.get(0).serviceDate()).isEqualTo(LocalDate.of(2023, 4, 15));
+        verify(timesheetRepository).findFilteredTimesheets(null, null,
+                PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "value", "id")));
     }
 
     @Test
-    void shouldReturnEmptyListWhenNoTimesheetsForSorting() {
-        Long clientId = 1L;
-        String sortBy = "invoiceNumber";
-        String sortDir = "asc";
-
-        when(timesheetRepository.findAllByClientId(clientId)).thenReturn(List.of());
+    void shouldSortTimesheetsByServiceDate_whenSortByUnknown() {
+        // given
+        when(timesheetRepository.findFilteredTimesheets(any(), any(), any(Pageable.class)))
+                .thenReturn(Page.empty());
 
-        List<TimesheetDto> result = timesheetService.searchAndSortTimesheets(clientId, sortBy, sortDir);
+        // when - unknown key and direction never reach ORDER BY
+        timesheetService.searchAndSortTimesheets(1L, "client_id; DROP TABLE timesheets", "sideways", 0, 10);
 
-        assertThat(result).isEmpty();
-        verify(timesheetRepository).findAllByClientId(clientId);
+        // then
+        verify(timesheetRepository).findFilteredTimesheets(1L, null,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "serviceDate", "id")));
     }
 
     @Test
     void shouldGetFilteredAndPaginatedTimesheets() {
         // given
         Long clientId = 1L;
-        String paymentStatus = "false";
-        String sortBy = "serviceDate";
-        String sortDir = "desc";
-        int page = 0;
-        int size = 10;
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, sortBy));
-
-        Page<Timesheet> timesheetPage = new PageImpl<>(
-                List.of(new Timesheet()),
-                pageable,
-                1
-        );
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "serviceDate", "id"));
+        Page<Timesheet> timesheetPage = new PageImpl<>(List.of(new Timesheet()), pageable, 1);
 
-        when(timesheetRepository.findByClientIdAndPaymentStatus(eq(clientId), eq(paymentStatus), any(Pageable.class)))
-                .thenReturn(timesheetPage);
+        when(timesheetRepository.findFilteredTimesheets(clientId, false, pageable)).thenReturn(timesheetPage);
         when(timesheetDtoMapper.apply(any(Timesheet.class)))
                 .thenReturn(new TimesheetDto(1L, "Client", LocalDate.now(), 2.0, false, clientId, 50.0, null, null, BigDecimal.valueOf(100.0)));
 
         // when
         Page<TimesheetDto> result = timesheetService.getFilteredAndPaginatedTimesheets(
-                clientId, paymentStatus, sortBy, sortDir, page, size);
+                clientId, "false", "serviceDate", "desc", 0, 10);
 
         // then
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(timesheetRepository).findByClientIdAndPaymentStatus(eq(clientId), eq(paymentStatus), any(Pageable.class));
+        verify(timesheetRepository).findFilteredTimesheets(clientId, false, pageable);
     }
 
     @Test
     void shouldHandleEmptyPaymentStatus() {
         Long clientId = 1L;
-        Pageable pageable = PageRequest.of(0, 10, Sort.Direction.DESC, "serviceDate");
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "serviceDate", "id"));
         Page<Timesheet> timesheetPage = new PageImpl<>(List.of(new Timesheet()), pageable, 1);
 
-        when(timesheetRepository.findByClientIdAndPaymentStatus(eq(clientId), isNull(), eq(pageable)))
+        when(timesheetRepository.findFilteredTimesheets(eq(clientId), isNull(), eq(pageable)))
                 .thenReturn(timesheetPage);
 
         when(timesheetDtoMapper.apply(any())).thenReturn(
@@ -618,7 +593,7 @@ class TimesheetServiceImplTest {
         Page<TimesheetDto> result = timesheetService.getFilteredAndPaginatedTimesheets(clientId, "", "serviceDate", "desc", 0, 10);
 
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(timesheetRepository).findByClientIdAndPaymentStatus(eq(clientId), isNull(), eq(pageable));
+        verify(timesheetRepository).findFilteredTimesheets(eq(clientId), isNull(), eq(pageable));
     }
 
     @Test
@@ -660,18 +635,15 @@ class TimesheetServiceImplTest {
     void shouldGetAllTimesheetsSortedByInvoiceNumber() {
         // given
         Long clientId = 1L;
-        Pageable pageable = mock(Pageable.class);
-        Page<Timesheet> timesheetPage = mock(Page.class);
-
-        when(timesheetRepository.findAllSortedByInvoiceNumber(clientId, pageable)).thenReturn(timesheetPage);
-        when(timesheetPage.map(any())).thenReturn(Page.empty());
+        Pageable byInvoiceNumber = PageRequest.of(1, 5, Sort.by(Sort.Direction.ASC, "invoiceNumber", "id"));
+        when(timesheetRepository.findFilteredTimesheets(clientId, null, byInvoiceNumber)).thenReturn(Page.empty());
 
         // when
-        Page<TimesheetDto> result = timesheetService.getAllTimesheetsSortedByInvoiceNumber(clientId, pageable);
+        Page<TimesheetDto> result = timesheetService.getAllTimesheetsSortedByInvoiceNumber(clientId, PageRequest.of(1, 5));
 
         // then
         assertThat(result).isNotNull();
-        verify(timesheetRepository).findAllSortedByInvoiceNumber(clientId, pageable);
+        verify(timesheetRepository).findFilteredTimesheets(clientId, null, byInvoiceNumber);
     }
 
     @Test
@@ -0,0 +1,259 @@
+package dev.robgro.timesheet.sync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.invoice.GeneratedInvoiceNumber;
+import dev.robgro.timesheet.invoice.InvoiceCreationService;
+import dev.robgro.timesheet.invoice.InvoiceDto;
+import dev.robgro.timesheet.invoice.InvoiceNumberGenerator;
+import dev.robgro.timesheet.invoice.InvoiceService;
+import dev.robgro.timesheet.seller.Seller;
+import dev.robgro.timesheet.seller.SellerRepository;
+import dev.robgro.timesheet.sync.ChangeCursor.Position;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import dev.robgro.timesheet.timesheet.TimesheetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Change feed over committed writes: initial sync, only-changed rows after a cursor,
+ * keyset paging, tombstones of deleted rows and cursor validation.
+ *
+ * <p>Settle window off, so rows are visible to the feed as soon as they commit.
+ * Invoice numbers are stubbed: numbering needs a scheme per seller and has its own tests.
+ */
+@SpringBootTest(properties = "app.change-feed.settle-seconds=0")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ChangeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TimesheetRepository timesheetRepository;
+
+    @Autowired
+    private ChangeTombstoneRepository changeTombstoneRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private InvoiceCreationService invoiceCreationService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @MockBean
+    private InvoiceNumberGenerator invoiceNumberGenerator;
+
+    private Client client;
+    private Seller seller;
+    private List<Long> invoiceIds = List.of();
+
+    @BeforeEach
+    void setUp() {
+        client = clientRepository.save(newClient("Acme"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceService.deleteInvoices(invoiceIds, true);
+        timesheetRepository.deleteAll();
+        clientRepository.deleteAll();
+        if (seller != null) {
+            sellerRepository.delete(seller);
+        }
+        changeTombstoneRepository.deleteAll();
+    }
+
+    @Test
+    void shouldReturnFullState_onInitialSync_andNothing_whenUnchanged() throws Exception {
+        // given
+        Timesheet timesheet = timesheetRepository.save(newTimesheet());
+
+        // when
+        JsonNode initial = changes(get("/api/v1/changes"));
+
+        // then
+        assertThat(initial.get("clients")).hasSize(1);
+        assertThat(initial.get("timesheets")).hasSize(1);
+        assertThat(initial.at("/timesheets/0/id").asLong()).isEqualTo(timesheet.getId());
+        assertThat(initial.get("hasMore").asBoolean()).isFalse();
+
+        // when - nothing written since
+        JsonNode next = changes(get("/api/v1/changes").param("since", initial.get("nextCursor").asText()));
+
+        // then
+        assertThat(next.get("clients")).isEmpty();
+        assertThat(next.get("timesheets")).isEmpty();
+        assertThat(next.get("invoices")).isEmpty();
+        assertThat(next.get("deleted")).isEmpty();
+    }
+
+    @Test
+    void shouldReturnOnlyRowsChangedAfterCursor() throws Exception {
+        // given
+        Client other = clientRepository.save(newClient("Beta"));
+        String cursor = changes(get("/api/v1/changes")).get("nextCursor").asText();
+
+        // when - one client renamed
+        Client renamed = clientRepository.findById(other.getId()).orElseThrow();
+        renamed.setClientName("Beta Ltd");
+        clientRepository.save(renamed);
+        JsonNode page = changes(get("/api/v1/changes").param("since", cursor));
+
+        // then
+        assertThat(page.get("clients")).hasSize(1);
+        assertThat(page.at("/clients/0/clientName").asText()).isEqualTo("Beta Ltd");
+        assertThat(page.get("timesheets")).isEmpty();
+    }
+
+    @Test
+    void shouldPageThroughChanges_withKeysetCursor() throws Exception {
+        // given - three clients in total
+        clientRepository.save(newClient("Beta"));
+        clientRepository.save(newClient("Gamma"));
+
+        // when
+        JsonNode first = changes(get("/api/v1/changes").param("limit", "2"));
+        JsonNode second = changes(get("/api/v1/changes").param("limit", "2")
+                .param("since", first.get("nextCursor").asText()));
+
+        // then - each client once, in change order
+        assertThat(first.get("clients")).extracting(node -> node.get("clientName").asText())
+                .containsExactly("Acme", "Beta");
+        assertThat(first.get("hasMore").asBoolean()).isTrue();
+        assertThat(second.get("clients")).extracting(node -> node.get("clientName").asText())
+                .containsExactly("Gamma");
+        assertThat(second.get("hasMore").asBoolean()).isFalse();
+    }
+
+    @Test
+    void shouldReportDeletedTimesheet() throws Exception {
+        // given
+        Timesheet timesheet = timesheetRepository.save(newTimesheet());
+        String cursor = changes(get("/api/v1/changes")).get("nextCursor").asText();
+
+        // when
+        mockMvc.perform(delete("/api/v1/timesheets/{id}", timesheet.getId()).with(csrf()))
+                .andExpect(status().isNoContent());
+        JsonNode page = changes(get("/api/v1/changes").param("since", cursor));
+
+        // then
+        assertThat(page.get("timesheets")).isEmpty();
+        assertThat(page.get("deleted")).hasSize(1);
+        assertThat(page.at("/deleted/0/resource").asText()).isEqualTo("timesheets");
+        assertThat(page.at("/deleted/0/id").asLong()).isEqualTo(timesheet.getId());
+    }
+
+    @Test
+    void shouldReportTimesheetsAttachedToNewInvoice() throws Exception {
+        // given
+        seller = sellerRepository.save(newSeller());
+        when(invoiceNumberGenerator.generateInvoiceNumber(anyLong(), any(), any()))
+                .thenReturn(new GeneratedInvoiceNumber(1, 2025, 3, "001-03-2025", null));
+        Timesheet timesheet = timesheetRepository.save(newTimesheet());
+        String cursor = changes(get("/api/v1/changes")).get("nextCursor").asText();
+
+        // when - timesheets are attached with a bulk UPDATE, not through the entity
+        InvoiceDto invoice = invoiceCreationService.createInvoice(
+                client.getId(), seller.getId(), LocalDate.of(2025, 3, 31), List.of(timesheet.getId()));
+        invoiceIds = List.of(invoice.id());
+        JsonNode page = changes(get("/api/v1/changes").param("since", cursor));
+
+        // then
+        assertThat(page.get("invoices")).hasSize(1);
+        assertThat(page.get("timesheets")).hasSize(1);
+        assertThat(page.at("/timesheets/0/id").asLong()).isEqualTo(timesheet.getId());
+        assertThat(page.at("/timesheets/0/invoiceNumber").asText()).isEqualTo("001-03-2025");
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/changes").param("since", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectCursorOlderThanTombstoneRetention() throws Exception {
+        // given - last synced a year ago
+        Position stale = new Position(LocalDateTime.now().minusYears(1), 0L);
+        String cursor = new ChangeCursor(stale, stale, stale, stale).encode();
+
+        // when / then
+        mockMvc.perform(get("/api/v1/changes").param("since", cursor))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.code").value("CHANGE_CURSOR_EXPIRED"));
+    }
+
+    private JsonNode changes(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Timesheet newTimesheet() {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setClient(client);
+        timesheet.setServiceDate(LocalDate.of(2025, 3, 10));
+        timesheet.setDuration(2.0);
+        timesheet.setHourlyRate(50.0);
+        return timesheet;
+    }
+
+    private Client newClient(String name) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setActive(true);
+        return client;
+    }
+
+    private Seller newSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return seller;
+    }
+}
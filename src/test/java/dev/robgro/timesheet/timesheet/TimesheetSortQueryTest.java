@@ -0,0 +1,157 @@
+package dev.robgro.timesheet.timesheet;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.invoice.Invoice;
+import dev.robgro.timesheet.seller.Seller;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Database-side filtering, sorting and paging of the timesheet list.
+ *
+ * <p>Uses H2 in-memory database (test/resources/application.properties) with
+ * Flyway disabled and Hibernate DDL auto-create. No Docker required.
+ */
+@DataJpaTest
+class TimesheetSortQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TimesheetRepository timesheetRepository;
+
+    private Client client;
+    private Long noInvoice;
+    private Long december;
+    private Long january;
+    private Long clientRate;
+
+    @BeforeEach
+    void setUp() {
+        client = persistClient("Client", 50.0);
+        Seller seller = persistSeller();
+        // "010-12-2024" > "001-01-2025" as strings - the sort key must still put January 2025 last
+        Invoice dec = persistInvoice(client, seller, 2024, 12, 10);
+        Invoice jan = persistInvoice(client, seller, 2025, 1, 1);
+
+        noInvoice = persistTimesheet(LocalDate.of(2025, 1, 5), 1.0, 30.0, null, null).getId();      // value 30
+        december = persistTimesheet(LocalDate.of(2024, 12, 5), 2.0, 40.0, dec, LocalDate.of(2025, 1, 2)).getId(); // 80
+        january = persistTimesheet(LocalDate.of(2025, 1, 10), 3.0, 20.0, jan, null).getId();        // 60
+        clientRate = persistTimesheet(LocalDate.of(2024, 11, 5), 1.5, null, null, null).getId();    // 1.5 * 50 = 75
+
+        Client other = persistClient("Other", 10.0);
+        Timesheet foreign = new Timesheet();
+        foreign.setClient(other);
+        foreign.setServiceDate(LocalDate.of(2025, 1, 1));
+        foreign.setDuration(100.0);
+        entityManager.persist(foreign);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldSortByValue_usingClientRateWhenTimesheetHasNone() {
+        // when
+        Page<Timesheet> page = timesheetRepository.findFilteredTimesheets(
+                client.getId(), null, PageRequest.of(0, 10, TimesheetSortOrder.of("value", "desc")));
+
+        // then
+        assertThat(page.getContent()).extracting(Timesheet::getId)
+                .containsExactly(december, clientRate, january, noInvoice);
+    }
+
+    @Test
+    void shouldSortByInvoiceNumberSortKey_keepingUninvoicedTimesheets() {
+        // when
+        Page<Timesheet> page = timesheetRepository.findFilteredTimesheets(
+                client.getId(), null, PageRequest.of(0, 10, TimesheetSortOrder.of("invoiceNumber", "desc")));
+
+        // then - newest invoice period first, timesheets without an invoice are still listed
+        assertThat(page.getContent()).hasSize(4);
+        assertThat(page.getContent()).extracting(Timesheet::getId).startsWith(january, december);
+    }
+
+    @Test
+    void shouldFilterByPaymentAndPageInDatabase() {
+        // when
+        Page<Timesheet> unpaid = timesheetRepository.findFilteredTimesheets(
+                client.getId(), false, PageRequest.of(0, 2, TimesheetSortOrder.of("serviceDate", "asc")));
+        Page<Timesheet> paid = timesheetRepository.findFilteredTimesheets(
+                client.getId(), true, PageRequest.of(0, 2, TimesheetSortOrder.of("serviceDate", "asc")));
+
+        // then
+        assertThat(unpaid.getTotalElements()).isEqualTo(3);
+        assertThat(unpaid.getContent()).extracting(Timesheet::getId).containsExactly(clientRate, noInvoice);
+        assertThat(paid.getContent()).extracting(Timesheet::getId).containsExactly(december);
+    }
+
+    @Test
+    void shouldRejectSortPropertyOutsideWhitelist() {
+        // repository proxy translates it to InvalidDataAccessApiUsageException
+        assertThatThrownBy(() -> timesheetRepository.findFilteredTimesheets(
+                null, null, PageRequest.of(0, 10, Sort.by("client_id"))))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Timesheet persistTimesheet(LocalDate serviceDate, double duration, Double hourlyRate,
+                                       Invoice invoice, LocalDate paymentDate) {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setClient(client);
+        timesheet.setServiceDate(serviceDate);
+        timesheet.setDuration(duration);
+        timesheet.setHourlyRate(hourlyRate);
+        timesheet.setInvoice(invoice);
+        timesheet.setInvoiced(invoice != null);
+        timesheet.setInvoiceNumber(invoice != null ? invoice.getInvoiceNumber() : null);
+        timesheet.setPaymentDate(paymentDate);
+        return entityManager.persist(timesheet);
+    }
+
+    private Client persistClient(String name, double hourlyRate) {
+        Client client = new Client();
+        client.setClientName(name);
+        client.setHourlyRate(hourlyRate);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setActive(true);
+        return entityManager.persist(client);
+    }
+
+    private Seller persistSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return entityManager.persist(seller);
+    }
+
+    private Invoice persistInvoice(Client client, Seller seller, int year, int month, int sequence) {
+        Invoice invoice = new Invoice();
+        invoice.setClient(client);
+        invoice.setSeller(seller);
+        invoice.setIssueDate(LocalDate.of(year, month, 28));
+        invoice.setTotalAmount(BigDecimal.valueOf(100));
+        String display = String.format("%03d-%02d-%d", sequence, month, year);
+        invoice.setInvoiceNumberComponents(sequence, year, month, display, null);
+        return entityManager.persist(invoice);
+    }
+}
@@ -0,0 +1,167 @@
+package dev.robgro.timesheet.tracking;
+
+import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.client.ClientRepository;
+import dev.robgro.timesheet.invoice.GeneratedInvoiceNumber;
+import dev.robgro.timesheet.invoice.Invoice;
+import dev.robgro.timesheet.invoice.InvoiceCreationService;
+import dev.robgro.timesheet.invoice.InvoiceNumberGenerator;
+import dev.robgro.timesheet.invoice.InvoiceRepository;
+import dev.robgro.timesheet.invoice.InvoiceService;
+import dev.robgro.timesheet.seller.Seller;
+import dev.robgro.timesheet.seller.SellerRepository;
+import dev.robgro.timesheet.timesheet.Timesheet;
+import dev.robgro.timesheet.timesheet.TimesheetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pixel hits racing each other on one invoice, as mail proxies fetch the pixel several times at once.
+ *
+ * <p>No test transaction - each open commits in its own, as on the tracking executor.
+ * Invoice numbers are stubbed: numbering needs a scheme per seller and has its own tests.
+ */
+@SpringBootTest
+class EmailOpenConcurrencyTest {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/96.0";
+
+    @Autowired
+    private EmailTrackingService emailTrackingService;
+
+    @Autowired
+    private EmailTrackingRepository trackingRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceCreationService invoiceCreationService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private TimesheetRepository timesheetRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private InvoiceNumberGenerator invoiceNumberGenerator;
+
+    private Seller seller;
+    private Long invoiceId;
+
+    @BeforeEach
+    void setUp() {
+        Client client = clientRepository.save(newClient());
+        seller = sellerRepository.save(newSeller());
+        when(invoiceNumberGenerator.generateInvoiceNumber(anyLong(), any(), any()))
+                .thenReturn(new GeneratedInvoiceNumber(1, 2025, 3, "001-03-2025", null));
+        Timesheet timesheet = timesheetRepository.save(newTimesheet(client));
+        invoiceId = invoiceCreationService.createInvoice(
+                client.getId(), seller.getId(), LocalDate.of(2025, 3, 31), List.of(timesheet.getId())).id();
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceService.deleteInvoices(List.of(invoiceId), true);
+        clientRepository.deleteAll();
+        sellerRepository.delete(seller);
+    }
+
+    @Test
+    void shouldCountBothOpens_whenTwoArriveAtOnce() throws Exception {
+        // given
+        UUID token = UUID.fromString(new TransactionTemplate(transactionManager).execute(status ->
+                emailTrackingService.createTrackingToken(invoiceRepository.findById(invoiceId).orElseThrow())));
+        long versionBefore = invoiceRepository.findById(invoiceId).orElseThrow().getVersion();
+        CyclicBarrier start = new CyclicBarrier(2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        // when
+        try {
+            CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> open(token, start), pool);
+            CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> open(token, start), pool);
+            CompletableFuture.allOf(first, second).join();
+
+            // then - neither failed, exactly one was the first open
+            assertThat(List.of(first.join(), second.join())).containsExactlyInAnyOrder(true, false);
+        } finally {
+            pool.shutdown();
+        }
+
+        Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        assertThat(invoice.getEmailOpenCount()).isEqualTo(2);
+        assertThat(invoice.getEmailOpenedAt()).isNotNull();
+        assertThat(invoice.getVersion()).isEqualTo(versionBefore);
+        assertThat(trackingRepository.findByInvoiceId(invoiceId).orElseThrow().getOpenCount()).isEqualTo(2);
+    }
+
+    private boolean open(UUID token, CyclicBarrier start) {
+        try {
+            start.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return emailTrackingService.recordEmailOpen(token, "192.168.1.1", USER_AGENT);
+    }
+
+    private Timesheet newTimesheet(Client client) {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setClient(client);
+        timesheet.setServiceDate(LocalDate.of(2025, 3, 10));
+        timesheet.setDuration(2.0);
+        timesheet.setHourlyRate(50.0);
+        return timesheet;
+    }
+
+    private Client newClient() {
+        Client client = new Client();
+        client.setClientName("Acme");
+        client.setHourlyRate(50.0);
+        client.setHouseNo("1");
+        client.setStreetName("High Street");
+        client.setCity("London");
+        client.setPostCode("EC1A 1BB");
+        client.setEmail("acme@test.com");
+        client.setActive(true);
+        return client;
+    }
+
+    private Seller newSeller() {
+        Seller seller = new Seller();
+        seller.setName("Seller");
+        seller.setStreet("123 Main St");
+        seller.setPostcode("SW1A 1AA");
+        seller.setCity("London");
+        seller.setServiceDescription("IT Services");
+        return seller;
+    }
+}
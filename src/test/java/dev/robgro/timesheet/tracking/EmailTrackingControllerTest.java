@@ -11,6 +11,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -28,48 +30,64 @@ class EmailTrackingControllerTest {
     @InjectMocks
     private EmailTrackingController controller;
 
+    private static final String TOKEN = "3f2504e0-4f89-11d3-9a0c-0305e82c3301";
+    private static final UUID TOKEN_UUID = UUID.fromString(TOKEN);
+
     @Test
     void shouldReturnTransparentPngForValidToken() {
         // given
-        String token = "valid-token-123";
-        when(trackingService.recordEmailOpen(eq(token), any(HttpServletRequest.class))).thenReturn(true);
+        when(trackingService.recordEmailOpen(eq(TOKEN_UUID), any(HttpServletRequest.class))).thenReturn(true);
 
         // when
-        ResponseEntity<byte[]> response = controller.trackEmail(token, request);
+        ResponseEntity<byte[]> response = controller.trackEmail(TOKEN, request);
 
         // then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(EmailTrackingController.TRANSPARENT_PNG);
 
-        verify(trackingService).recordEmailOpen(token, request);
+        verify(trackingService).recordEmailOpen(TOKEN_UUID, request);
     }
 
     @Test
     void shouldReturnTransparentPngForInvalidToken() {
+        // given
+        when(trackingService.recordEmailOpen(eq(TOKEN_UUID), any(HttpServletRequest.class))).thenReturn(false);
+
+        // when
+        ResponseEntity<byte[]> response = controller.trackEmail(TOKEN, request);
+
+        // then
+        // IMPORTANT: Always return 200 OK even for invalid tokens (security)
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(EmailTrackingController.TRANSPARENT_PNG);
+
+        verify(trackingService).recordEmailOpen(TOKEN_UUID, request);
+    }
+
+    @Test
+    void shouldReturnTransparentPngWithoutLookup_forMalformedToken() {
         // given
         String token = "invalid-token";
-        when(trackingService.recordEmailOpen(eq(token), any(HttpServletRequest.class))).thenReturn(false);
 
         // when
         ResponseEntity<byte[]> response = controller.trackEmail(token, request);
 
         // then
-        // IMPORTANT: Always return 200 OK even for invalid tokens (security)
+        // IMPORTANT: Always return 200 OK even for malformed tokens (security)
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(EmailTrackingController.TRANSPARENT_PNG);
 
-        verify(trackingService).recordEmailOpen(token, request);
+        verifyNoInteractions(trackingService);
     }
 
     @Test
     void shouldReturnPngEvenWhenServiceThrowsException() {
         // given
-        String token = "error-token";
-        when(trackingService.recordEmailOpen(eq(token), any(HttpServletRequest.class)))
+        when(trackingService.recordEmailOpen(eq(TOKEN_UUID), any(HttpServletRequest.class)))
                 .thenThrow(new RuntimeException("Database error"));
 
         // when
-        ResponseEntity<byte[]> response = controller.trackEmail(token, request);
+        ResponseEntity<byte[]> response = controller.trackEmail(TOKEN, request);
 
         // then
         // IMPORTANT: Never fail - always return pixel
@@ -80,10 +98,8 @@ class EmailTrackingControllerTest {
     @Test
     void shouldSetCorrectContentType() {
         // given
-        String token = "test-token";
-
         // when
-        ResponseEntity<byte[]> response = controller.trackEmail(token, request);
+        ResponseEntity<byte[]> response = controller.trackEmail(TOKEN, request);
 
         // then
         assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.IMAGE_PNG);
@@ -92,10 +108,8 @@ class EmailTrackingControllerTest {
     @Test
     void shouldSetNoCacheHeaders() {
         // given
-        String token = "test-token";
-
         // when
-        ResponseEntity<byte[]> response = controller.trackEmail(token, request);
+        ResponseEntity<byte[]> response = controller.trackEmail(TOKEN, request);
 
         // then
         HttpHeaders headers = response.getHeaders();
@@ -112,10 +126,8 @@ class EmailTrackingControllerTest {
     @Test
     void shouldSetAntiCacheHeaders() {
         // given
-        String token = "test-token";
-
         // when
-        ResponseEntity<byte[]> response = controller.trackEmail(token, request);
+        ResponseEntity<byte[]> response = controller.trackEmail(TOKEN, request);
 
         // then
         HttpHeaders headers = response.getHeaders();
@@ -127,10 +139,8 @@ class EmailTrackingControllerTest {
     @Test
     void shouldReturnValidPngBytes() {
         // given
-        String token = "test-token";
-
         // when
-        ResponseEntity<byte[]> response = controller.trackEmail(token, request);
+        ResponseEntity<byte[]> response = controller.trackEmail(TOKEN, request);
 
         // then
         byte[] pngData = response.getBody();
@@ -161,13 +171,11 @@ class EmailTrackingControllerTest {
     @Test
     void shouldInvokeServiceExactlyOnce() {
         // given
-        String token = "test-token";
-
         // when
-        controller.trackEmail(token, request);
+        controller.trackEmail(TOKEN, request);
 
         // then
-        verify(trackingService, times(1)).recordEmailOpen(token, request);
+        verify(trackingService, times(1)).recordEmailOpen(TOKEN_UUID, request);
     }
 
 }
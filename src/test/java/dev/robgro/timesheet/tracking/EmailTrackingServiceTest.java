@@ -1,6 +1,8 @@
 package dev.robgro.timesheet.tracking;
 
 import dev.robgro.timesheet.client.Client;
+import dev.robgro.timesheet.etag.ResourceChangeTracker;
+import dev.robgro.timesheet.etag.TrackedResource;
 import dev.robgro.timesheet.invoice.Invoice;
 import dev.robgro.timesheet.invoice.InvoiceRepository;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,10 +11,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +40,12 @@ class EmailTrackingServiceTest {
     @Mock
     private EmailTrackingStatsService statsService;
 
+    @Mock
+    private ResourceChangeTracker resourceChangeTracker;
+
+    @Spy
+    private UserAgentClassifier userAgentClassifier = new UserAgentClassifier(new EmailTrackingProperties());
+
     @InjectMocks
     private EmailTrackingServiceImpl emailTrackingService;
 
@@ -68,12 +78,12 @@ class EmailTrackingServiceTest {
 
         EmailTracking savedTracking = trackingCaptor.getValue();
         assertThat(savedTracking.getInvoice()).isEqualTo(invoice);
-        assertThat(savedTracking.getTrackingToken()).isEqualTo(token);
+        assertThat(savedTracking.getTrackingToken()).isEqualTo(UUID.fromString(token));
         assertThat(savedTracking.getExpiresAt()).isAfter(LocalDateTime.now());
         assertThat(savedTracking.getOpenCount()).isEqualTo(0);
 
         verify(invoiceRepository).save(invoice);
-        assertThat(invoice.getEmailTrackingToken()).isEqualTo(token);
+        assertThat(invoice.getEmailTrackingToken()).isEqualTo(UUID.fromString(token));
     }
 
     @Test
@@ -124,7 +134,7 @@ class EmailTrackingServiceTest {
     @Test
     void shouldRecordFirstEmailOpenSuccessfully() {
         // given
-        String token = "test-token-123";
+        UUID token = UUID.randomUUID();
 
         Client client = new Client();
         client.setClientName("Test Client");
@@ -143,13 +153,12 @@ class EmailTrackingServiceTest {
 
         when(trackingProperties.isEnabled()).thenReturn(true);
         when(trackingProperties.isSendInstantReport()).thenReturn(false); // Disable notification
-        when(trackingRepository.findByTrackingToken(token)).thenReturn(Optional.of(tracking));
+        when(trackingRepository.findByTrackingTokenForUpdate(token)).thenReturn(Optional.of(tracking));
         when(request.getHeader("X-Forwarded-For")).thenReturn(null);
         when(request.getHeader("X-Real-IP")).thenReturn(null);
         when(request.getHeader("User-Agent")).thenReturn("Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/96.0");
         when(request.getRemoteAddr()).thenReturn("192.168.1.1");
         when(trackingRepository.save(any(EmailTracking.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(invoice);
 
         // when
         boolean isFirstOpen = emailTrackingService.recordEmailOpen(token, request);
@@ -158,7 +167,10 @@ class EmailTrackingServiceTest {
         assertThat(isFirstOpen).isTrue();
 
         verify(trackingRepository).save(tracking);
-        verify(invoiceRepository).save(invoice);
+        verify(invoiceRepository).updateEmailOpenStatus(eq(1L), eq(tracking.getOpenedAt()), eq(tracking.getOpenCount()),
+                eq(tracking.getLastOpenedAt()), any(LocalDateTime.class));
+        verify(invoiceRepository, never()).save(any());
+        verify(resourceChangeTracker).markChanged(TrackedResource.INVOICES);
 
         assertThat(tracking.getOpenedAt()).isNotNull();
         assertThat(tracking.getLastOpenedAt()).isNotNull();
@@ -171,7 +183,7 @@ class EmailTrackingServiceTest {
     @Test
     void shouldRecordReOpenSuccessfully() {
         // given
-        String token = "test-token-123";
+        UUID token = UUID.randomUUID();
 
         Client client = new Client();
         client.setClientName("Test Client");
@@ -191,13 +203,12 @@ class EmailTrackingServiceTest {
 
         when(trackingProperties.isEnabled()).thenReturn(true);
         when(trackingProperties.isSendInstantReport()).thenReturn(false); // Disable notification
-        when(trackingRepository.findByTrackingToken(token)).thenReturn(Optional.of(tracking));
+        when(trackingRepository.findByTrackingTokenForUpdate(token)).thenReturn(Optional.of(tracking));
         when(request.getHeader("X-Forwarded-For")).thenReturn(null);
         when(request.getHeader("X-Real-IP")).thenReturn(null);
         when(request.getHeader("User-Agent")).thenReturn("Mozilla/5.0 (iPhone; CPU iPhone OS 14_0 like Mac OS X)");
         when(request.getRemoteAddr()).thenReturn("192.168.1.2");
         when(trackingRepository.save(any(EmailTracking.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(invoice);
 
         // when
         boolean isFirstOpen = emailTrackingService.recordEmailOpen(token, request);
@@ -206,7 +217,10 @@ class EmailTrackingServiceTest {
         assertThat(isFirstOpen).isFalse();
 
         verify(trackingRepository).save(tracking);
-        verify(invoiceRepository).save(invoice);
+        verify(invoiceRepository).updateEmailOpenStatus(eq(1L), eq(tracking.getOpenedAt()), eq(tracking.getOpenCount()),
+                eq(tracking.getLastOpenedAt()), any(LocalDateTime.class));
+        verify(invoiceRepository, never()).save(any());
+        verify(resourceChangeTracker).markChanged(TrackedResource.INVOICES);
 
         assertThat(tracking.getOpenCount()).isEqualTo(2);
         assertThat(tracking.getIpAddress()).isEqualTo("192.168.1.2");
@@ -216,7 +230,7 @@ class EmailTrackingServiceTest {
     @Test
     void shouldNotRecordOpenWhenTokenExpired() {
         // given
-        String token = "expired-token";
+        UUID token = UUID.randomUUID();
         Invoice invoice = new Invoice();
         invoice.setId(1L);
 
@@ -229,7 +243,7 @@ class EmailTrackingServiceTest {
                 .build();
 
         when(trackingProperties.isEnabled()).thenReturn(true);
-        when(trackingRepository.findByTrackingToken(token)).thenReturn(Optional.of(tracking));
+        when(trackingRepository.findByTrackingTokenForUpdate(token)).thenReturn(Optional.of(tracking));
 
         // when
         boolean isFirstOpen = emailTrackingService.recordEmailOpen(token, request);
@@ -244,10 +258,10 @@ class EmailTrackingServiceTest {
     @Test
     void shouldNotRecordOpenWhenTokenNotFound() {
         // given
-        String token = "invalid-token";
+        UUID token = UUID.randomUUID();
 
         when(trackingProperties.isEnabled()).thenReturn(true);
-        when(trackingRepository.findByTrackingToken(token)).thenReturn(Optional.empty());
+        when(trackingRepository.findByTrackingTokenForUpdate(token)).thenReturn(Optional.empty());
 
         // when
         boolean isFirstOpen = emailTrackingService.recordEmailOpen(token, request);
@@ -262,7 +276,7 @@ class EmailTrackingServiceTest {
     @Test
     void shouldNotRecordOpenWhenTrackingDisabled() {
         // given
-        String token = "test-token";
+        UUID token = UUID.randomUUID();
 
         when(trackingProperties.isEnabled()).thenReturn(false);
 
@@ -272,7 +286,7 @@ class EmailTrackingServiceTest {
         // then
         assertThat(isFirstOpen).isFalse();
 
-        verify(trackingRepository, never()).findByTrackingToken(any());
+        verify(trackingRepository, never()).findByTrackingTokenForUpdate(any());
         verify(trackingRepository, never()).save(any());
     }
 
@@ -281,7 +295,7 @@ class EmailTrackingServiceTest {
     @Test
     void shouldExtractIpFromXForwardedForHeader() {
         // given
-        String token = "test-token";
+        UUID token = UUID.randomUUID();
 
         Client client = new Client();
         client.setClientName("Test Client");
@@ -300,11 +314,10 @@ class EmailTrackingServiceTest {
 
         when(trackingProperties.isEnabled()).thenReturn(true);
         when(trackingProperties.isSendInstantReport()).thenReturn(false);
-        when(trackingRepository.findByTrackingToken(token)).thenReturn(Optional.of(tracking));
+        when(trackingRepository.findByTrackingTokenForUpdate(token)).thenReturn(Optional.of(tracking));
         when(request.getHeader("X-Forwarded-For")).thenReturn("203.0.113.195, 70.41.3.18, 150.172.238.178");
         when(request.getHeader("User-Agent")).thenReturn("Test");
         when(trackingRepository.save(any(EmailTracking.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(invoice);
 
         // when
         emailTrackingService.recordEmailOpen(token, request);
@@ -316,7 +329,7 @@ class EmailTrackingServiceTest {
     @Test
     void shouldExtractIpFromXRealIpHeader() {
         // given
-        String token = "test-token";
+        UUID token = UUID.randomUUID();
 
         Client client = new Client();
         client.setClientName("Test Client");
@@ -335,12 +348,11 @@ class EmailTrackingServiceTest {
 
         when(trackingProperties.isEnabled()).thenReturn(true);
         when(trackingProperties.isSendInstantReport()).thenReturn(false);
-        when(trackingRepository.findByTrackingToken(token)).thenReturn(Optional.of(tracking));
+        when(trackingRepository.findByTrackingTokenForUpdate(token)).thenReturn(Optional.of(tracking));
         when(request.getHeader("X-Forwarded-For")).thenReturn(null);
         when(request.getHeader("X-Real-IP")).thenReturn("203.0.113.100");
         when(request.getHeader("User-Agent")).thenReturn("Test");
         when(trackingRepository.save(any(EmailTracking.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(invoice);
 
         // when
         emailTrackingService.recordEmailOpen(token, request);
@@ -352,7 +364,7 @@ class EmailTrackingServiceTest {
     @Test
     void shouldFallbackToRemoteAddrWhenNoProxyHeaders() {
         // given
-        String token = "test-token";
+        UUID token = UUID.randomUUID();
 
         Client client = new Client();
         client.setClientName("Test Client");
@@ -371,13 +383,12 @@ class EmailTrackingServiceTest {
 
         when(trackingProperties.isEnabled()).thenReturn(true);
         when(trackingProperties.isSendInstantReport()).thenReturn(false);
-        when(trackingRepository.findByTrackingToken(token)).thenReturn(Optional.of(tracking));
+        when(trackingRepository.findByTrackingTokenForUpdate(token)).thenReturn(Optional.of(tracking));
         when(request.getHeader("X-Forwarded-For")).thenReturn(null);
         when(request.getHeader("X-Real-IP")).thenReturn(null);
         when(request.getHeader("User-Agent")).thenReturn("Test");
         when(request.getRemoteAddr()).thenReturn("192.168.1.50");
         when(trackingRepository.save(any(EmailTracking.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(invoice);
 
         // when
         emailTrackingService.recordEmailOpen(token, request);
@@ -6,6 +6,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -15,7 +16,7 @@ class EmailTrackingTest {
     void shouldRecordFirstOpenCorrectly() {
         // given
         EmailTracking tracking = EmailTracking.builder()
-                .trackingToken("test-token")
+                .trackingToken(UUID.randomUUID())
                 .openCount(0)
                 .build();
 
@@ -41,7 +42,7 @@ class EmailTrackingTest {
         LocalDateTime firstOpen = LocalDateTime.now().minusHours(2);
 
         EmailTracking tracking = EmailTracking.builder()
-                .trackingToken("test-token")
+                .trackingToken(UUID.randomUUID())
                 .openedAt(firstOpen)
                 .lastOpenedAt(firstOpen)
                 .openCount(1)
@@ -212,7 +213,7 @@ class EmailTrackingTest {
     void shouldDetectDeviceTypeFromUserAgent(String userAgent, String expectedDevice) {
         // given
         EmailTracking tracking = EmailTracking.builder()
-                .trackingToken("test")
+                .trackingToken(UUID.randomUUID())
                 .build();
 
         // when
@@ -237,7 +238,7 @@ class EmailTrackingTest {
     void shouldDetectEmailClientFromUserAgent(String userAgent, String expectedClient) {
         // given
         EmailTracking tracking = EmailTracking.builder()
-                .trackingToken("test")
+                .trackingToken(UUID.randomUUID())
                 .build();
 
         // when
@@ -251,7 +252,7 @@ class EmailTrackingTest {
     void shouldDetectThunderbirdCorrectly() {
         // given
         String userAgent = "Mozilla/5.0 (X11; Linux x86_64; rv:91.0) Gecko/20100101 Thunderbird/91.3.0";
-        EmailTracking tracking = EmailTracking.builder().trackingToken("test").build();
+        EmailTracking tracking = EmailTracking.builder().trackingToken(UUID.randomUUID()).build();
 
         // when
         tracking.recordOpen("127.0.0.1", userAgent);
@@ -266,7 +267,7 @@ class EmailTrackingTest {
         // given
         // Note: This user agent doesn't contain identifiable Apple Mail markers
         String userAgent = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko)";
-        EmailTracking tracking = EmailTracking.builder().trackingToken("test").build();
+        EmailTracking tracking = EmailTracking.builder().trackingToken(UUID.randomUUID()).build();
 
         // when
         tracking.recordOpen("127.0.0.1", userAgent);
@@ -280,7 +281,7 @@ class EmailTrackingTest {
     void shouldDetectGmailWebClient() {
         // given
         String userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/96.0.4664.110 Safari/537.36";
-        EmailTracking tracking = EmailTracking.builder().trackingToken("test").build();
+        EmailTracking tracking = EmailTracking.builder().trackingToken(UUID.randomUUID()).build();
 
         // when
         tracking.recordOpen("127.0.0.1", userAgent);
@@ -293,7 +294,7 @@ class EmailTrackingTest {
     void shouldDetectMobileDeviceFromIPhone() {
         // given
         String userAgent = "Mozilla/5.0 (iPhone; CPU iPhone OS 15_0 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/15.0 Mobile/15E148 Safari/604.1";
-        EmailTracking tracking = EmailTracking.builder().trackingToken("test").build();
+        EmailTracking tracking = EmailTracking.builder().trackingToken(UUID.randomUUID()).build();
 
         // when
         tracking.recordOpen("127.0.0.1", userAgent);
@@ -308,7 +309,7 @@ class EmailTrackingTest {
         // Note: This iPad user agent contains "Mobile" keyword, so it's detected as Mobile (not Tablet)
         // due to the order of checks in detectDeviceType()
         String userAgent = "Mozilla/5.0 (iPad; CPU OS 14_0 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/14.0 Mobile/15E148 Safari/604.1";
-        EmailTracking tracking = EmailTracking.builder().trackingToken("test").build();
+        EmailTracking tracking = EmailTracking.builder().trackingToken(UUID.randomUUID()).build();
 
         // when
         tracking.recordOpen("127.0.0.1", userAgent);
@@ -320,7 +321,7 @@ class EmailTrackingTest {
     @Test
     void shouldHandleNullUserAgentGracefully() {
         // given
-        EmailTracking tracking = EmailTracking.builder().trackingToken("test").build();
+        EmailTracking tracking = EmailTracking.builder().trackingToken(UUID.randomUUID()).build();
 
         // when
         tracking.recordOpen("127.0.0.1", null);
@@ -0,0 +1,185 @@
+package dev.robgro.timesheet.tracking;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrackingPixelFilterTest {
+
+    private static final String TOKEN = "3f2504e0-4f89-11d3-9a0c-0305e82c3301";
+
+    @Mock
+    private EmailTrackingService trackingService;
+
+    @Mock
+    private EmailTrackingProperties trackingProperties;
+
+    @Mock
+    private FilterChain chain;
+
+    private TrackingPixelFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // Direct executor - recording runs inline so it can be verified
+        filter = new TrackingPixelFilter(trackingService, trackingProperties, Runnable::run);
+    }
+
+    @Test
+    void shouldServePixelAndRecordOpen_withoutContinuingChain() throws Exception {
+        // given
+        when(trackingProperties.isEnabled()).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/track/" + TOKEN + ".png");
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/96.0");
+        request.addHeader("X-Forwarded-For", "203.0.113.1, 10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getContentAsByteArray()).isEqualTo(EmailTrackingController.TRANSPARENT_PNG);
+        assertThat(response.getContentLength()).isEqualTo(EmailTrackingController.TRANSPARENT_PNG.length);
+
+        verify(trackingService).recordEmailOpen(UUID.fromString(TOKEN), "203.0.113.1",
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/96.0");
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void shouldSetNoCacheHeaders() throws Exception {
+        // given
+        when(trackingProperties.isEnabled()).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/track/" + TOKEN + ".png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        assertThat(response.getHeader("Cache-Control"))
+                .contains("no-cache", "no-store", "must-revalidate", "max-age=0");
+        assertThat(response.getHeader("Pragma")).isEqualTo("no-cache");
+        assertThat(response.getDateHeader("Expires")).isEqualTo(0L);
+        assertThat(response.getHeader("X-Accel-Expires")).isEqualTo("0");
+        assertThat(response.getHeader("Surrogate-Control")).isEqualTo("no-store");
+    }
+
+    @Test
+    void shouldServePixelWithoutRecording_forMalformedToken() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/track/invalid-token.png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then - IMPORTANT: always 200 OK with pixel (prevents token enumeration)
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(EmailTrackingController.TRANSPARENT_PNG);
+        verifyNoInteractions(trackingService, chain);
+    }
+
+    @Test
+    void shouldServePixel_whenRecordingFails() throws Exception {
+        // given
+        when(trackingProperties.isEnabled()).thenReturn(true);
+        when(trackingService.recordEmailOpen(any(UUID.class), any(), any()))
+                .thenThrow(new RuntimeException("Database error"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/track/" + TOKEN + ".png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(EmailTrackingController.TRANSPARENT_PNG);
+    }
+
+    @Test
+    void shouldNotRecord_whenTrackingDisabled() throws Exception {
+        // given
+        when(trackingProperties.isEnabled()).thenReturn(false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/track/" + TOKEN + ".png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        assertThat(response.getContentAsByteArray()).isEqualTo(EmailTrackingController.TRANSPARENT_PNG);
+        verifyNoInteractions(trackingService);
+    }
+
+    @Test
+    void shouldHonourContextPath() throws Exception {
+        // given
+        when(trackingProperties.isEnabled()).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/api/track/" + TOKEN + ".png");
+        request.setContextPath("/app");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        verify(trackingService).recordEmailOpen(eq(UUID.fromString(TOKEN)), any(), any());
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void shouldContinueChain_forHealthCheck() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/track/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(trackingService);
+    }
+
+    @Test
+    void shouldContinueChain_forNonGetMethods() throws Exception {
+        // given - POST must still reach SecurityConfig (denyAll)
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/track/" + TOKEN + ".png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(trackingService);
+    }
+
+    @Test
+    void shouldContinueChain_forNestedPaths() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/track/a/" + TOKEN + ".png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        verify(chain).doFilter(request, response);
+    }
+}
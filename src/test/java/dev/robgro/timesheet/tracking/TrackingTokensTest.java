@@ -0,0 +1,63 @@
+package dev.robgro.timesheet.tracking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackingTokensTest {
+
+    @Test
+    void shouldParseCanonicalToken_sameAsUuidFromString() {
+        // given - format used in all emails sent so far
+        UUID expected = UUID.randomUUID();
+
+        // when
+        UUID parsed = TrackingTokens.parse(expected.toString());
+
+        // then
+        assertThat(parsed).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldParseUppercaseAndCompactTokens() {
+        // given
+        UUID expected = UUID.fromString("3f2504e0-4f89-11d3-9a0c-0305e82c3301");
+
+        // when / then
+        assertThat(TrackingTokens.parse("3F2504E0-4F89-11D3-9A0C-0305E82C3301")).isEqualTo(expected);
+        assertThat(TrackingTokens.parse("3f2504e04f8911d39a0c0305e82c3301")).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldParseTokenFromPathSegmentRange() {
+        // given
+        String path = "/api/track/3f2504e0-4f89-11d3-9a0c-0305e82c3301.png";
+        int start = "/api/track/".length();
+        int end = path.length() - ".png".length();
+
+        // when
+        UUID parsed = TrackingTokens.parse(path, start, end);
+
+        // then
+        assertThat(parsed).isEqualTo(UUID.fromString("3f2504e0-4f89-11d3-9a0c-0305e82c3301"));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "invalid-token",
+            "3f2504e0-4f89-11d3-9a0c-0305e82c330",      // 35 chars
+            "3f2504e0-4f89-11d3-9a0c-0305e82c33011",    // 37 chars
+            "3f2504e04f89-11d3-9a0c-0305e82c3301-",     // dashes in wrong places
+            "3f2504e0-4f89-11d3-9a0c-0305e82c330g",     // non-hex
+            "3f2504e0-4f89-11d3-9a0c-0305e82c330-"      // dash instead of digit
+    })
+    void shouldReturnNull_forMalformedTokens(String token) {
+        assertThat(TrackingTokens.parse(token)).isNull();
+    }
+}
@@ -0,0 +1,89 @@
+package dev.robgro.timesheet.tracking;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Micro-benchmark: legacy lowercase + contains() chains vs compiled matcher vs cached classifier.
+ *
+ * <p>Workload mirrors production pixel traffic: 90% of requests come from the
+ * three proxy User-Agents (Google, Outlook, Apple Mail), the rest from the full corpus
+ * (src/test/resources/tracking/user-agents.txt).
+ *
+ * <p><b>Status: DISABLED - timing-sensitive, prints results only</b>
+ * Not a pass/fail test; equivalence is asserted in UserAgentClassifierTest.
+ *
+ * <p><b>To run:</b> Remove @Disabled and run
+ * {@code mvn test -Dtest=UserAgentClassifierBenchmarkTest}
+ */
+@Disabled("Benchmark - enable manually")
+class UserAgentClassifierBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final int REQUESTS = 200_000;
+
+    private static final List<String> HOT_PROXIES = List.of(
+            "Mozilla/5.0 (Windows NT 5.1; rv:11.0) Gecko Firefox/11.0 (via ggpht.com GoogleImageProxy)",
+            "Microsoft Office/16.0 (Windows NT 10.0; Microsoft Outlook 16.0.17328; Pro)",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko)"
+    );
+
+    @Test
+    void compareClassificationThroughput() throws Exception {
+        List<String> corpus = UserAgentClassifierTest.loadCorpus();
+        List<String> workload = buildWorkload(corpus);
+
+        UserAgentMatcher matcher = UserAgentMatcher.defaults();
+        UserAgentClassifier classifier = new UserAgentClassifier(new EmailTrackingProperties());
+
+        report("legacy (toLowerCase + contains)", workload, ua -> new UserAgentClassification(
+                UserAgentClassifierTest.legacyDeviceType(ua), UserAgentClassifierTest.legacyEmailClient(ua)));
+        report("compiled matcher (single pass)", workload, matcher::classify);
+        report("cached classifier (LRU + matcher)", workload, classifier::classify);
+    }
+
+    private static List<String> buildWorkload(List<String> corpus) {
+        Random random = new Random(42);
+        List<String> workload = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            String userAgent = random.nextInt(10) < 9
+                    ? HOT_PROXIES.get(random.nextInt(HOT_PROXIES.size()))
+                    : corpus.get(random.nextInt(corpus.size()));
+            // Fresh String per request, as Tomcat hands out per-request header values
+            workload.add(new String(userAgent));
+        }
+        return workload;
+    }
+
+    private static void report(String name, List<String> workload,
+                               Function<String, UserAgentClassification> classify) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += run(workload, classify);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            sink += run(workload, classify);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%-36s %8.1f ns/classification (best of %d, sink=%d)%n",
+                name, (double) best / workload.size(), MEASURED_ITERATIONS, sink);
+    }
+
+    private static long run(List<String> workload, Function<String, UserAgentClassification> classify) {
+        long hash = 0;
+        for (String userAgent : workload) {
+            hash += classify.apply(userAgent).emailClient().length();
+        }
+        return hash;
+    }
+}
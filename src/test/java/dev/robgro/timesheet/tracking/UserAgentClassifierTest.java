@@ -0,0 +1,223 @@
+package dev.robgro.timesheet.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserAgentClassifierTest {
+
+    // ----- Equivalence with former EmailTracking detection -----
+
+    @Test
+    void shouldMatchLegacyDetection_forEveryUserAgentInCorpus() throws IOException {
+        // given
+        UserAgentClassifier classifier = new UserAgentClassifier(new EmailTrackingProperties());
+
+        // when / then
+        for (String userAgent : loadCorpus()) {
+            UserAgentClassification classification = classifier.classify(userAgent);
+            assertThat(classification.deviceType())
+                    .as("device for %s", userAgent)
+                    .isEqualTo(legacyDeviceType(userAgent));
+            assertThat(classification.emailClient())
+                    .as("client for %s", userAgent)
+                    .isEqualTo(legacyEmailClient(userAgent));
+        }
+    }
+
+    @Test
+    void shouldClassifyCommonProxies() {
+        // given
+        UserAgentMatcher matcher = UserAgentMatcher.defaults();
+
+        // when / then
+        assertThat(matcher.classify("Mozilla/5.0 (Windows NT 5.1; rv:11.0) Gecko Firefox/11.0 (via ggpht.com GoogleImageProxy)"))
+                .isEqualTo(new UserAgentClassification("Desktop", "Gmail"));
+        assertThat(matcher.classify("Microsoft Office/16.0 (Windows NT 10.0; Microsoft Outlook 16.0.17328; Pro)"))
+                .isEqualTo(new UserAgentClassification("Desktop", "Outlook"));
+        assertThat(matcher.classify("Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X) AppleWebKit/605.1.15"))
+                .isEqualTo(new UserAgentClassification("Mobile", "Unknown"));
+    }
+
+    @Test
+    void shouldReturnUnknown_forNullUserAgent_andDefaults_forEmptyUserAgent() {
+        // given
+        UserAgentClassifier classifier = new UserAgentClassifier(new EmailTrackingProperties());
+
+        // when / then
+        assertThat(classifier.classify(null)).isEqualTo(new UserAgentClassification("Unknown", "Unknown"));
+        assertThat(classifier.classify("")).isEqualTo(new UserAgentClassification("Desktop", "Unknown"));
+    }
+
+    @Test
+    void shouldMatchCaseInsensitively_andIgnoreNonAsciiCharacters() {
+        // given
+        UserAgentMatcher matcher = UserAgentMatcher.defaults();
+
+        // when / then
+        assertThat(matcher.classify("THUNDERBIRD/115").emailClient()).isEqualTo("Thunderbird");
+        assertThat(matcher.classify("Thunderébird").emailClient()).isEqualTo("Unknown");
+        assertThat(matcher.classify("éiPadé").deviceType()).isEqualTo("Tablet");
+    }
+
+    // ----- Configurable rules -----
+
+    @Test
+    void shouldApplyConfiguredRulesBeforeBuiltInRules() {
+        // given - Superhuman proxies through Chrome UA; Kindle should count as Tablet not Mobile
+        EmailTrackingProperties properties = new EmailTrackingProperties();
+        properties.getUserAgent().getClientRules().add(rule("Superhuman", "superhuman"));
+        properties.getUserAgent().getDeviceRules().add(rule("Tablet", "kindle", "silk"));
+        UserAgentClassifier classifier = new UserAgentClassifier(properties);
+
+        // when
+        UserAgentClassification superhuman = classifier.classify(
+                "Mozilla/5.0 (Macintosh) AppleWebKit/537.36 Chrome/120.0 Safari/537.36 Superhuman/1.0");
+        UserAgentClassification kindle = classifier.classify(
+                "Mozilla/5.0 (Linux; Android 9; KFTRWI) AppleWebKit/537.36 Silk/120.3.1 Mobile Safari/537.36");
+
+        // then
+        assertThat(superhuman.emailClient()).isEqualTo("Superhuman");
+        assertThat(kindle.deviceType()).isEqualTo("Tablet");
+    }
+
+    @Test
+    void shouldRejectNonAsciiPatterns() {
+        // given
+        EmailTrackingProperties properties = new EmailTrackingProperties();
+        properties.getUserAgent().getClientRules().add(rule("Broken", "pocztä"));
+
+        // when / then
+        assertThatThrownBy(() -> new UserAgentClassifier(properties))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ASCII");
+    }
+
+    // ----- LRU cache -----
+
+    @Test
+    void shouldBoundCacheSize() {
+        // given
+        EmailTrackingProperties properties = new EmailTrackingProperties();
+        properties.getUserAgent().setCacheSize(3);
+        UserAgentClassifier classifier = new UserAgentClassifier(properties);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            classifier.classify("Agent/" + i);
+        }
+
+        // then
+        assertThat(classifier.cachedEntries()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReturnCachedInstance_forRepeatedUserAgent() {
+        // given
+        UserAgentClassifier classifier = new UserAgentClassifier(new EmailTrackingProperties());
+        String userAgent = "Microsoft Office/16.0 (Windows NT 10.0; Microsoft Outlook 16.0.17328; Pro)";
+
+        // when
+        UserAgentClassification first = classifier.classify(userAgent);
+        UserAgentClassification second = classifier.classify(new String(userAgent));
+
+        // then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void shouldNotCacheOversizedUserAgents() {
+        // given
+        UserAgentClassifier classifier = new UserAgentClassifier(new EmailTrackingProperties());
+        String oversized = "x".repeat(UserAgentClassifier.MAX_CACHED_LENGTH + 1) + " Chrome";
+
+        // when
+        UserAgentClassification classification = classifier.classify(oversized);
+
+        // then
+        assertThat(classification.emailClient()).isEqualTo("Browser (Chrome)");
+        assertThat(classifier.cachedEntries()).isZero();
+    }
+
+    // ----- Helpers -----
+
+    static List<String> loadCorpus() throws IOException {
+        try (InputStream in = UserAgentClassifierTest.class.getResourceAsStream("/tracking/user-agents.txt")) {
+            assertThat(in).as("user-agents.txt corpus").isNotNull();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                    .toList();
+        }
+    }
+
+    private static EmailTrackingProperties.Rule rule(String label, String... patterns) {
+        EmailTrackingProperties.Rule rule = new EmailTrackingProperties.Rule();
+        rule.setLabel(label);
+        rule.setPatterns(List.of(patterns));
+        return rule;
+    }
+
+    /**
+     * Former EmailTracking.detectDeviceType (reference implementation)
+     */
+    static String legacyDeviceType(String userAgent) {
+        if (userAgent == null) {
+            return "Unknown";
+        }
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("mobile") || ua.contains("android") || ua.contains("iphone") || ua.contains("ipod")) {
+            return "Mobile";
+        } else if (ua.contains("tablet") || ua.contains("ipad")) {
+            return "Tablet";
+        } else {
+            return "Desktop";
+        }
+    }
+
+    /**
+     * Former EmailTracking.detectEmailClient (reference implementation)
+     */
+    static String legacyEmailClient(String userAgent) {
+        if (userAgent == null) {
+            return "Unknown";
+        }
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("gmail") || ua.contains("google")) {
+            return "Gmail";
+        }
+        if (ua.contains("outlook") || ua.contains("microsoft outlook")) {
+            return "Outlook";
+        }
+        if (ua.contains("applemail") || ua.contains("apple mail")) {
+            return "Apple Mail";
+        }
+        if (ua.contains("thunderbird")) {
+            return "Thunderbird";
+        }
+        if (ua.contains("yahoo")) {
+            return "Yahoo Mail";
+        }
+        if (ua.contains("proton")) {
+            return "ProtonMail";
+        }
+        if (ua.contains("mail")) {
+            return "Mail App";
+        }
+        if (ua.contains("chrome")) {
+            return "Browser (Chrome)";
+        } else if (ua.contains("firefox")) {
+            return "Browser (Firefox)";
+        } else if (ua.contains("safari")) {
+            return "Browser (Safari)";
+        } else if (ua.contains("edge")) {
+            return "Browser (Edge)";
+        }
+        return "Unknown";
+    }
+}
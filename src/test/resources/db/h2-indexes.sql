@@ -0,0 +1,40 @@
+-- Secondary indexes for the H2 test schema
+-- Flyway owns the DDL and is off in tests; Hibernate creates the tables (create-drop) and this
+-- script adds the indexes the Flyway migrations add, so H2 plans queries with the same indexes.
+-- Keep each statement identical to its migration.
+
+-- V34: invoice list filters
+CREATE INDEX IF NOT EXISTS idx_invoices_client_issue_date
+  ON invoices (client_id, issue_date);
+
+CREATE INDEX IF NOT EXISTS idx_invoices_issue_date
+  ON invoices (issue_date);
+
+-- V35: invoice list order and keyset pages
+CREATE INDEX IF NOT EXISTS idx_invoices_number_sort
+  ON invoices (number_sort_key, id);
+
+-- V36: per-client revenue charts
+CREATE INDEX IF NOT EXISTS idx_revenue_rollup_client_period
+  ON revenue_rollup (client_id, period_year, period_month);
+
+-- V38: unbilled timesheets of the monthly billing run
+CREATE INDEX IF NOT EXISTS idx_timesheets_invoiced_service_date
+  ON timesheets (is_invoice, service_date);
+
+-- V39: unopened-invoice count in invoice list ETags
+CREATE INDEX IF NOT EXISTS idx_invoices_email_unopened
+  ON invoices (email_opened_at, email_sent_at);
+
+-- V40: change feed
+CREATE INDEX IF NOT EXISTS idx_clients_updated_at
+  ON clients (updated_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_timesheets_updated_at
+  ON timesheets (updated_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_invoices_updated_at
+  ON invoices (updated_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_change_tombstones_deleted_at
+  ON change_tombstones (deleted_at, id);